@@ -144,7 +144,7 @@ public class DefaultAccountDao extends EntityDaoBase<AccountModelDao, Account, A
                                                                                            rehydratedContext.getTenantRecordId(),
                                                                                            rehydratedContext.getUserToken());
         try {
-            eventBus.postFromTransaction(creationEvent, entitySqlDaoWrapperFactory.getHandle().getConnection());
+            eventBus.postFromTransaction(creationEvent, entitySqlDaoWrapperFactory);
         } catch (final EventBusException e) {
             log.warn("Failed to post account creation event for accountId='{}'", savedAccount.getId(), e);
         }
@@ -283,7 +283,7 @@ public class DefaultAccountDao extends EntityDaoBase<AccountModelDao, Account, A
                                                                                          context.getUserToken(),
                                                                                          context.getCreatedDate());
             try {
-                eventBus.postFromTransaction(changeEvent, entitySqlDaoWrapperFactory.getHandle().getConnection());
+                eventBus.postFromTransaction(changeEvent, entitySqlDaoWrapperFactory);
             } catch (final EventBusException e) {
                 log.warn("Failed to post account change event for accountId='{}'", accountId, e);
             }
@@ -318,7 +318,7 @@ public class DefaultAccountDao extends EntityDaoBase<AccountModelDao, Account, A
                                                                                          context.getCreatedDate());
 
             try {
-                eventBus.postFromTransaction(changeEvent, entitySqlDaoWrapperFactory.getHandle().getConnection());
+                eventBus.postFromTransaction(changeEvent, entitySqlDaoWrapperFactory);
             } catch (final EventBusException e) {
                 log.warn("Failed to post account change event for accountId='{}'", accountId, e);
             }
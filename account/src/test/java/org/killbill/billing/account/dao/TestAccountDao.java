@@ -109,7 +109,7 @@ public class TestAccountDao extends AccountTestSuiteWithEmbeddedDB {
 
     @Test(groups = "slow", description = "Test Account: verify audits")
     public void testAudits() throws AccountApiException {
-        // Special test to verify audits - they are handled a bit differently due to the account record id (see EntitySqlDaoWrapperInvocationHandler#insertAudits)
+        // Special test to verify audits - they are handled a bit differently due to the account record id (see EntityHistoryAndAuditBuffer#addAudits)
         final AccountModelDao account1 = createTestAccount();
         accountDao.create(account1, internalCallContext);
         refreshCallContext(account1.getId());
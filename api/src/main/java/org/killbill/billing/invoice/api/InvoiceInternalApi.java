@@ -39,6 +39,16 @@ public interface InvoiceInternalApi {
 
     Collection<Invoice> getUnpaidInvoicesByAccountId(UUID accountId, LocalDate upToDate, InternalTenantContext context);
 
+    /**
+     * Compute the number, total balance and earliest of the unpaid invoices of an account, without loading them.
+     *
+     * @param accountId the account id
+     * @param upToDate  only consider the invoices with a target date prior or equal to that date
+     * @param context   the tenant context
+     * @return the unpaid invoices summary, consistent with {@link #getUnpaidInvoicesByAccountId(UUID, LocalDate, InternalTenantContext)}
+     */
+    UnpaidInvoicesSummary getUnpaidInvoicesSummaryByAccountId(UUID accountId, LocalDate upToDate, InternalTenantContext context);
+
     void recordPaymentAttemptInit(UUID invoiceId, BigDecimal amountOutstanding, Currency currency, Currency processedCurrency, UUID paymentId, UUID paymentAttemptId, String transactionExternalKey, DateTime paymentDate, InternalCallContext context) throws InvoiceApiException;
 
     void recordPaymentAttemptCompletion(UUID invoiceId, BigDecimal amountOutstanding, Currency currency, Currency processedCurrency, UUID paymentId, UUID paymentAttemptId, String transactionExternalKey, DateTime paymentDate, InvoicePaymentStatus status, InternalCallContext context) throws InvoiceApiException;
@@ -0,0 +1,69 @@
+/*
+ * Copyright 2020-2026 Equinix, Inc
+ * Copyright 2014-2026 The Billing Project, LLC
+ *
+ * The Billing Project licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.killbill.billing.invoice.api;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+import javax.annotation.Nullable;
+
+import org.joda.time.LocalDate;
+
+public class UnpaidInvoicesSummary {
+
+    private final int nbUnpaidInvoices;
+    private final BigDecimal unpaidInvoicesBalance;
+    private final LocalDate dateOfEarliestUnpaidInvoice;
+    private final UUID idOfEarliestUnpaidInvoice;
+
+    public UnpaidInvoicesSummary(final int nbUnpaidInvoices,
+                                 final BigDecimal unpaidInvoicesBalance,
+                                 @Nullable final LocalDate dateOfEarliestUnpaidInvoice,
+                                 @Nullable final UUID idOfEarliestUnpaidInvoice) {
+        this.nbUnpaidInvoices = nbUnpaidInvoices;
+        this.unpaidInvoicesBalance = unpaidInvoicesBalance;
+        this.dateOfEarliestUnpaidInvoice = dateOfEarliestUnpaidInvoice;
+        this.idOfEarliestUnpaidInvoice = idOfEarliestUnpaidInvoice;
+    }
+
+    public int getNbUnpaidInvoices() {
+        return nbUnpaidInvoices;
+    }
+
+    public BigDecimal getUnpaidInvoicesBalance() {
+        return unpaidInvoicesBalance;
+    }
+
+    public LocalDate getDateOfEarliestUnpaidInvoice() {
+        return dateOfEarliestUnpaidInvoice;
+    }
+
+    public UUID getIdOfEarliestUnpaidInvoice() {
+        return idOfEarliestUnpaidInvoice;
+    }
+
+    @Override
+    public String toString() {
+        return "UnpaidInvoicesSummary{" +
+               "nbUnpaidInvoices=" + nbUnpaidInvoices +
+               ", unpaidInvoicesBalance=" + unpaidInvoicesBalance +
+               ", dateOfEarliestUnpaidInvoice=" + dateOfEarliestUnpaidInvoice +
+               ", idOfEarliestUnpaidInvoice=" + idOfEarliestUnpaidInvoice +
+               '}';
+    }
+}
@@ -20,6 +20,7 @@ package org.killbill.billing.junction;
 
 import java.util.List;
 import java.util.Map;
+import java.util.NavigableSet;
 import java.util.SortedSet;
 import java.util.UUID;
 
@@ -36,4 +37,10 @@ public interface BillingEventSet extends SortedSet<BillingEvent> {
     public List<UUID> getSubscriptionIdsWithAutoInvoiceOff();
 
     public Map<String, Usage> getUsages();
+
+    /**
+     * @param subscriptionId the subscription id
+     * @return the (read-only) billing events for that subscription, in order, or an empty set if there is none
+     */
+    public NavigableSet<BillingEvent> getBillingEventsForSubscription(UUID subscriptionId);
 }
@@ -32,10 +32,14 @@ public class DefaultBeatrixService implements BeatrixService {
 
     private final BeatrixListener beatrixListener;
     private final PersistentBus eventBus;
+    private final BusOptimizer busOptimizer;
+
+    private boolean isOutboxRegistered;
 
     @Inject
-    public DefaultBeatrixService(final PersistentBus eventBus, final BeatrixListener beatrixListener) {
+    public DefaultBeatrixService(final PersistentBus eventBus, final BusOptimizer busOptimizer, final BeatrixListener beatrixListener) {
         this.eventBus = eventBus;
+        this.busOptimizer = busOptimizer;
         this.beatrixListener = beatrixListener;
     }
 
@@ -51,6 +55,12 @@ public class DefaultBeatrixService implements BeatrixService {
 
     @LifecycleHandlerType(LifecycleLevel.INIT_SERVICE)
     public void registerForNotifications() {
+        // External events are either posted along with the internal ones, or once the internal ones are dispatched
+        isOutboxRegistered = busOptimizer.registerExternalBusEventOutbox(beatrixListener);
+        if (isOutboxRegistered) {
+            return;
+        }
+
         try {
             eventBus.register(beatrixListener);
         } catch (final PersistentBus.EventBusException e) {
@@ -60,6 +70,12 @@ public class DefaultBeatrixService implements BeatrixService {
 
     @LifecycleHandlerType(LifecycleLevel.STOP_SERVICE)
     public void unregisterForNotifications() {
+        if (isOutboxRegistered) {
+            busOptimizer.unregisterExternalBusEventOutbox();
+            isOutboxRegistered = false;
+            return;
+        }
+
         try {
             eventBus.unregister(beatrixListener);
         } catch (final PersistentBus.EventBusException e) {
@@ -18,6 +18,7 @@
 
 package org.killbill.billing.beatrix.extbus;
 
+import java.sql.Connection;
 import java.util.UUID;
 
 import javax.annotation.Nullable;
@@ -26,6 +27,7 @@ import jakarta.inject.Named;
 
 import org.killbill.billing.ObjectType;
 import org.killbill.billing.callcontext.InternalCallContext;
+import org.killbill.billing.callcontext.InternalTenantContext;
 import org.killbill.billing.entitlement.api.BlockingStateType;
 import org.killbill.billing.entitlement.api.DefaultEntitlementApi;
 import org.killbill.billing.events.AccountChangeInternalEvent;
@@ -70,6 +72,7 @@ import org.killbill.billing.util.callcontext.CallOrigin;
 import org.killbill.billing.util.callcontext.InternalCallContextFactory;
 import org.killbill.billing.util.callcontext.TenantContext;
 import org.killbill.billing.util.callcontext.UserType;
+import org.killbill.billing.util.optimizer.ExternalBusEventOutbox;
 import org.killbill.bus.api.BusEvent;
 import org.killbill.bus.api.PersistentBus;
 import org.killbill.bus.api.PersistentBus.EventBusException;
@@ -83,7 +86,7 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
 import com.fasterxml.jackson.datatype.joda.JodaModule;
 
-public class BeatrixListener {
+public class BeatrixListener implements ExternalBusEventOutbox {
 
     private static final Logger log = LoggerFactory.getLogger(BeatrixListener.class);
 
@@ -109,7 +112,7 @@ public class BeatrixListener {
         // No BusDispatcherOptimizer logic on purpose
         final InternalCallContext internalContext = internalCallContextFactory.createInternalCallContext(event.getSearchKey2(), event.getSearchKey1(), "BeatrixListener", CallOrigin.INTERNAL, UserType.SYSTEM, event.getUserToken());
         try {
-            final BusEvent externalEvent = computeExtBusEventEntryFromBusInternalEvent(event, internalContext);
+            final BusEvent externalEvent = computeExtBusEventEntryFromBusInternalEvent(event, internalContext, false);
             if (externalEvent != null) {
                 log.info("Sending extBusEvent='{}' from busEvent='{}'", externalEvent, event);
                 externalBus.post(externalEvent);
@@ -127,7 +130,39 @@ public class BeatrixListener {
         }
     }
 
-    private BusEvent computeExtBusEventEntryFromBusInternalEvent(final BusInternalEvent event, final InternalCallContext context) throws JsonProcessingException {
+    @Override
+    public void post(final BusInternalEvent event) throws EventBusException {
+        final BusEvent externalEvent = computeExtBusEventEntryFromBusInternalEvent(event);
+        if (externalEvent != null) {
+            log.info("Sending extBusEvent='{}' from busEvent='{}'", externalEvent, event);
+            externalBus.post(externalEvent);
+        }
+    }
+
+    @Override
+    public void postFromTransaction(final BusInternalEvent event, final Connection connection) throws EventBusException {
+        final BusEvent externalEvent = computeExtBusEventEntryFromBusInternalEvent(event);
+        if (externalEvent != null) {
+            log.info("Sending extBusEvent='{}' from busEvent='{}'", externalEvent, event);
+            externalBus.postFromTransaction(externalEvent, connection);
+        }
+    }
+
+    // The objects may not be committed yet: the account is the one of the event, and no InternalCallContext
+    // is built (this would require to look-up the account, which doesn't exist yet for ACCOUNT_CREATE)
+    private BusEvent computeExtBusEventEntryFromBusInternalEvent(final BusInternalEvent event) {
+        final boolean isAccountCreation = event.getBusEventType() == BusInternalEventType.ACCOUNT_CREATE;
+        final Long tenantRecordId = event.getSearchKey2() != null ? event.getSearchKey2() : InternalCallContextFactory.INTERNAL_TENANT_RECORD_ID;
+        final InternalTenantContext context = new InternalTenantContext(tenantRecordId, isAccountCreation ? null : event.getSearchKey1(), null, null, null);
+        try {
+            return computeExtBusEventEntryFromBusInternalEvent(event, context, true);
+        } catch (final JsonProcessingException e) {
+            log.warn("Failed to post event {}", event, e);
+            return null;
+        }
+    }
+
+    private BusEvent computeExtBusEventEntryFromBusInternalEvent(final BusInternalEvent event, final InternalTenantContext context, final boolean fromTransaction) throws JsonProcessingException {
         ObjectType objectType = null;
         UUID objectId = null;
         ExtBusEventType eventBusType = null;
@@ -363,6 +398,10 @@ public class BeatrixListener {
 
             case BROADCAST_SERVICE:
                 final BroadcastInternalEvent realBroadcastEvent = (BroadcastInternalEvent) event;
+                // Realm cache invalidations (usernames, role names) are internal to Kill Bill
+                if (KILLBILL_SERVICES.SECURITY_SERVICE.getServiceName().equals(realBroadcastEvent.getServiceName())) {
+                    return null;
+                }
                 objectType = ObjectType.SERVICE_BROADCAST;
                 objectId = null;
                 eventBusType = ExtBusEventType.BROADCAST_SERVICE;
@@ -373,18 +412,22 @@ public class BeatrixListener {
             default:
         }
 
+        if (eventBusType == null) {
+            return null;
+        }
+
         final TenantContext tenantContext = internalCallContextFactory.createTenantContext(context);
         // See #275
         accountId = (accountId == null) ?
-                    getAccountId(event.getBusEventType(), objectId, objectType, tenantContext) :
+                    getAccountId(event.getBusEventType(), objectId, objectType, tenantContext, fromTransaction) :
                     accountId;
 
-        return eventBusType != null ?
-               new DefaultBusExternalEvent(objectId, objectType, eventBusType, accountId, tenantContext.getTenantId(), metaData, context.getAccountRecordId(), context.getTenantRecordId(), context.getUserToken()) :
-               null;
+        // From the transaction, the context doesn't carry the account record id for ACCOUNT_CREATE (see above)
+        final Long accountRecordId = fromTransaction ? event.getSearchKey1() : context.getAccountRecordId();
+        return new DefaultBusExternalEvent(objectId, objectType, eventBusType, accountId, tenantContext.getTenantId(), metaData, accountRecordId, context.getTenantRecordId(), event.getUserToken());
     }
 
-    private UUID getAccountId(final BusInternalEventType eventType, @Nullable final UUID objectId, final ObjectType objectType, final TenantContext context) {
+    private UUID getAccountId(final BusInternalEventType eventType, @Nullable final UUID objectId, final ObjectType objectType, final TenantContext context, final boolean fromTransaction) {
         // accountRecord_id is not set for ACCOUNT_CREATE event as we are in the transaction and value is known yet
         if (eventType == BusInternalEventType.ACCOUNT_CREATE) {
             return objectId;
@@ -392,6 +435,9 @@ public class BeatrixListener {
             return null;
         } else if (objectId == null) {
             return null;
+        } else if (fromTransaction) {
+            // The object may not be committed yet
+            return context.getAccountId();
         } else {
             return internalCallContextFactory.getAccountId(objectId, objectType, context);
         }
@@ -18,11 +18,13 @@
 package org.killbill.billing.beatrix.extbus;
 
 import java.math.BigDecimal;
+import java.sql.Connection;
 import java.util.UUID;
 
 import org.joda.time.DateTime;
 import org.killbill.billing.ObjectType;
 import org.killbill.billing.callcontext.InternalCallContext;
+import org.killbill.billing.callcontext.InternalTenantContext;
 import org.killbill.billing.catalog.api.Currency;
 import org.killbill.billing.events.AccountChangeInternalEvent;
 import org.killbill.billing.events.AccountCreationInternalEvent;
@@ -56,6 +58,7 @@ import org.killbill.billing.notification.plugin.api.PaymentMetadata;
 import org.killbill.billing.notification.plugin.api.TagMetadata;
 import org.killbill.billing.notification.plugin.api.TenantConfigMetadata;
 import org.killbill.billing.payment.api.TransactionStatus;
+import org.killbill.billing.platform.api.KillbillService.KILLBILL_SERVICES;
 import org.killbill.billing.payment.api.TransactionType;
 import org.killbill.billing.util.callcontext.CallOrigin;
 import org.killbill.billing.util.callcontext.InternalCallContextFactory;
@@ -73,6 +76,7 @@ import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.ArgumentMatchers.isA;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
@@ -728,6 +732,20 @@ public class TestBeatrixListener {
         assertEquals(broadcastMetadata.getEventJson(), BROADCAST_EVENT_JSON);
     }
 
+    @Test(groups = "fast")
+    public void testSecurityBroadcastServiceIsNotForwarded() throws Exception {
+        BroadcastInternalEvent event = mock(BroadcastInternalEvent.class);
+        provideCommonBusEventInfo(event);
+        when(event.getBusEventType()).thenReturn(BusInternalEventType.BROADCAST_SERVICE);
+        when(event.getServiceName()).thenReturn(KILLBILL_SERVICES.SECURITY_SERVICE.getServiceName());
+        when(event.getType()).thenReturn(BROADCAST_EVENT_TYPE);
+        when(event.getJsonEvent()).thenReturn(BROADCAST_EVENT_JSON);
+
+        beatrixListener.handleAllInternalKillbillEvents(event);
+
+        verify(externalBus, never()).post(isA(BusEvent.class));
+    }
+
     @Test(groups = "fast")
     public void testInvalidInternalEvent() throws Exception {
         BusInternalEvent event = mock(BusInternalEvent.class);
@@ -760,6 +778,68 @@ public class TestBeatrixListener {
         beatrixListener.handleAllInternalKillbillEvents(event);
     }
 
+    @Test(groups = "fast")
+    public void testPostFromTransaction() throws Exception {
+        InvoiceCreationInternalEvent event = mock(InvoiceCreationInternalEvent.class);
+        provideCommonBusEventInfo(event);
+        when(event.getBusEventType()).thenReturn(BusInternalEventType.INVOICE_CREATION);
+        when(event.getInvoiceId()).thenReturn(OBJECT_ID);
+
+        // The invoice isn't committed yet: the account is resolved from the event record id
+        TenantContext tenantContextFromEvent = mock(TenantContext.class);
+        when(tenantContextFromEvent.getTenantId()).thenReturn(TENANT_ID);
+        when(tenantContextFromEvent.getAccountId()).thenReturn(ACCOUNT_ID);
+        ArgumentCaptor<InternalTenantContext> contextCaptor = ArgumentCaptor.forClass(InternalTenantContext.class);
+        when(internalCallContextFactory.createTenantContext(contextCaptor.capture())).thenReturn(tenantContextFromEvent);
+
+        Connection connection = mock(Connection.class);
+        ArgumentCaptor<BusEvent> eventCaptor = ArgumentCaptor.forClass(BusEvent.class);
+
+        beatrixListener.postFromTransaction(event, connection);
+
+        verify(externalBus).postFromTransaction(eventCaptor.capture(), eq(connection));
+        verify(externalBus, never()).post(isA(BusEvent.class));
+        verify(internalCallContextFactory, never()).getAccountId(any(UUID.class), any(ObjectType.class), any(TenantContext.class));
+        assertEquals(contextCaptor.getValue().getAccountRecordId(), SEARCH_KEY_1);
+        assertEquals(contextCaptor.getValue().getTenantRecordId(), SEARCH_KEY_2);
+
+        DefaultBusExternalEvent postedEvent = (DefaultBusExternalEvent) eventCaptor.getValue();
+        assertEquals(postedEvent.getObjectId(), OBJECT_ID);
+        assertEquals(postedEvent.getObjectType(), ObjectType.INVOICE);
+        assertEquals(postedEvent.getEventType(), ExtBusEventType.INVOICE_CREATION);
+        assertEquals(postedEvent.getAccountId(), ACCOUNT_ID);
+        assertEquals(postedEvent.getTenantId(), TENANT_ID);
+        assertEquals(postedEvent.getSearchKey1(), SEARCH_KEY_1);
+        assertEquals(postedEvent.getSearchKey2(), SEARCH_KEY_2);
+        assertEquals(postedEvent.getUserToken(), USER_TOKEN);
+    }
+
+    @Test(groups = "fast")
+    public void testAccountCreateFromTransaction() throws Exception {
+        AccountCreationInternalEvent event = mock(AccountCreationInternalEvent.class);
+        provideCommonBusEventInfo(event);
+        when(event.getBusEventType()).thenReturn(BusInternalEventType.ACCOUNT_CREATE);
+        when(event.getId()).thenReturn(ACCOUNT_ID);
+
+        // The account doesn't exist yet outside of the transaction: it must not be looked-up
+        ArgumentCaptor<InternalTenantContext> contextCaptor = ArgumentCaptor.forClass(InternalTenantContext.class);
+        when(internalCallContextFactory.createTenantContext(contextCaptor.capture())).thenReturn(tenantContext);
+
+        Connection connection = mock(Connection.class);
+        ArgumentCaptor<BusEvent> eventCaptor = ArgumentCaptor.forClass(BusEvent.class);
+
+        beatrixListener.postFromTransaction(event, connection);
+
+        verify(externalBus).postFromTransaction(eventCaptor.capture(), eq(connection));
+        assertNull(contextCaptor.getValue().getAccountRecordId());
+
+        DefaultBusExternalEvent postedEvent = (DefaultBusExternalEvent) eventCaptor.getValue();
+        assertEquals(postedEvent.getObjectId(), ACCOUNT_ID);
+        assertEquals(postedEvent.getEventType(), ExtBusEventType.ACCOUNT_CREATION);
+        assertEquals(postedEvent.getAccountId(), ACCOUNT_ID);
+        assertEquals(postedEvent.getSearchKey1(), SEARCH_KEY_1);
+    }
+
 
 
     private void provideCommonBusEventInfo(BusInternalEvent event) {
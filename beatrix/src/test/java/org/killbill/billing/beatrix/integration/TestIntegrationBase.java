@@ -1105,6 +1105,10 @@ public class TestIntegrationBase extends BeatrixTestSuiteWithEmbeddedDB implemen
         dbi.withHandle(new HandleCallback<Void>() {
             @Override
             public Void withHandle(final Handle handle) throws Exception {
+                // Keep the daily aggregate in sync (the raw record date is the start of the day)
+                handle.execute("update rolled_up_usage_daily set amount = amount - (select coalesce(sum(amount), 0) from rolled_up_usage where subscription_id = ? and unit_type = ? and record_date = ?) " +
+                               "where subscription_id = ? and unit_type = ? and record_date = ?",
+                               subscriptionId, unitType, recordedDate, subscriptionId, unitType, recordedDate);
                 handle.execute("delete from rolled_up_usage where subscription_id = ? and unit_type = ? and record_date = ?",
                                subscriptionId, unitType, recordedDate);
                 return null;
@@ -1385,6 +1389,21 @@ public class TestIntegrationBase extends BeatrixTestSuiteWithEmbeddedDB implemen
             return defaultInvoiceConfig.isEmailNotificationsEnabled();
         }
 
+        @Override
+        public boolean isAccountCBALedgerEnabled() {
+            return defaultInvoiceConfig.isAccountCBALedgerEnabled();
+        }
+
+        @Override
+        public TimeSpan getAccountCBALedgerReconciliationInterval() {
+            return defaultInvoiceConfig.getAccountCBALedgerReconciliationInterval();
+        }
+
+        @Override
+        public BillingEventSerializationMode getBillingEventSerializationMode() {
+            return defaultInvoiceConfig.getBillingEventSerializationMode();
+        }
+
         @Override
         public boolean isInvoicingSystemEnabled() {
             return isInvoicingSystemEnabled;
@@ -0,0 +1,100 @@
+/*
+ * Copyright 2020-2026 Equinix, Inc
+ * Copyright 2014-2026 The Billing Project, LLC
+ *
+ * The Billing Project licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.killbill.billing.benchmarks.catalog;
+
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.killbill.billing.catalog.api.CatalogApiException;
+import org.killbill.billing.catalog.api.StaticCatalog;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Catalog lookups performed for each billing event (billing events computation, PlanAligner, invoice generation).
+ * <p>
+ * Build with {@code mvn -pl benchmarks -am package -DskipTests}, then run:
+ * <pre>
+ * java -jar benchmarks/target/benchmarks.jar CatalogLookupBenchmark -p nbVersions=500
+ * </pre>
+ * {@code linearVersionLookup} is the version lookup as implemented prior to the bisection, for comparison with {@code versionLookup}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CatalogLookupBenchmark {
+
+    @Benchmark
+    @OperationsPerInvocation(CatalogLookupState.NB_LOOKUPS)
+    public void versionLookup(final CatalogLookupState state, final Blackhole blackhole) {
+        for (final Date date : state.dates) {
+            blackhole.consume(state.catalog.getVersion(date));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(CatalogLookupState.NB_LOOKUPS)
+    public void linearVersionLookup(final CatalogLookupState state, final Blackhole blackhole) {
+        final List<StaticCatalog> versions = state.catalog.getVersions();
+        for (final Date date : state.dates) {
+            StaticCatalog result = versions.get(0);
+            for (int i = versions.size() - 1; i >= 0; i--) {
+                if (versions.get(i).getEffectiveDate().getTime() <= date.getTime()) {
+                    result = versions.get(i);
+                    break;
+                }
+            }
+            blackhole.consume(result);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(CatalogLookupState.NB_LOOKUPS)
+    public void planLookup(final CatalogLookupState state, final Blackhole blackhole) throws CatalogApiException {
+        for (final String planName : state.planNames) {
+            blackhole.consume(state.lastVersion.findPlan(planName));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(CatalogLookupState.NB_LOOKUPS)
+    public void phaseLookup(final CatalogLookupState state, final Blackhole blackhole) throws CatalogApiException {
+        for (final String phaseName : state.phaseNames) {
+            blackhole.consume(state.lastVersion.findPhase(phaseName));
+        }
+    }
+
+    // Version for the date, then plan by name in that version (e.g. SubscriptionCatalog#findPlan)
+    @Benchmark
+    @OperationsPerInvocation(CatalogLookupState.NB_LOOKUPS)
+    public void versionAndPlanLookup(final CatalogLookupState state, final Blackhole blackhole) throws CatalogApiException {
+        for (int i = 0; i < CatalogLookupState.NB_LOOKUPS; i++) {
+            blackhole.consume(state.catalog.getVersion(state.dates[i]).findPlan(state.planNames[i]));
+        }
+    }
+}
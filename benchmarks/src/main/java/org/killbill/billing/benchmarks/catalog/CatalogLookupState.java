@@ -0,0 +1,90 @@
+/*
+ * Copyright 2020-2026 Equinix, Inc
+ * Copyright 2014-2026 The Billing Project, LLC
+ *
+ * The Billing Project licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.killbill.billing.benchmarks.catalog;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+import org.killbill.billing.catalog.DefaultVersionedCatalog;
+import org.killbill.billing.catalog.StandaloneCatalog;
+import org.killbill.billing.catalog.api.Plan;
+import org.killbill.billing.catalog.api.PlanPhase;
+import org.killbill.commons.utils.io.Resources;
+import org.killbill.xmlloader.XMLLoader;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+@State(Scope.Benchmark)
+public class CatalogLookupState {
+
+    public static final String CATALOG = "org/killbill/billing/catalog/UsageExperimental.xml";
+
+    // Number of lookups per benchmark invocation
+    public static final int NB_LOOKUPS = 1024;
+
+    // Fixed, so that results are comparable across runs
+    private static final DateTime FIRST_VERSION_DATE = new DateTime(2000, 1, 1, 0, 0, DateTimeZone.UTC);
+
+    @Param({"1", "100", "500"})
+    public int nbVersions;
+
+    public DefaultVersionedCatalog catalog;
+    public StandaloneCatalog lastVersion;
+    // Random lookup dates (spanning all versions) and names
+    public Date[] dates;
+    public String[] planNames;
+    public String[] phaseNames;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        // One version per month, all with the same content
+        catalog = new DefaultVersionedCatalog();
+        for (int i = 0; i < nbVersions; i++) {
+            final StandaloneCatalog version = XMLLoader.getObjectFromString(Resources.getResource(CATALOG).toExternalForm(), StandaloneCatalog.class);
+            version.setEffectiveDate(FIRST_VERSION_DATE.plusMonths(i).toDate());
+            catalog.add(version);
+        }
+        lastVersion = (StandaloneCatalog) catalog.getCurrentVersion();
+
+        final List<String> allPlanNames = new ArrayList<>();
+        final List<String> allPhaseNames = new ArrayList<>();
+        for (final Plan plan : lastVersion.getPlans()) {
+            allPlanNames.add(plan.getName());
+            for (final PlanPhase phase : plan.getAllPhases()) {
+                allPhaseNames.add(phase.getName());
+            }
+        }
+
+        final Random random = new Random(42);
+        dates = new Date[NB_LOOKUPS];
+        planNames = new String[NB_LOOKUPS];
+        phaseNames = new String[NB_LOOKUPS];
+        for (int i = 0; i < NB_LOOKUPS; i++) {
+            dates[i] = FIRST_VERSION_DATE.plusDays(random.nextInt(nbVersions * 31)).toDate();
+            planNames[i] = allPlanNames.get(random.nextInt(allPlanNames.size()));
+            phaseNames[i] = allPhaseNames.get(random.nextInt(allPhaseNames.size()));
+        }
+    }
+}
@@ -0,0 +1,133 @@
+/*
+ * Copyright 2020-2026 Equinix, Inc
+ * Copyright 2014-2026 The Billing Project, LLC
+ *
+ * The Billing Project licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.killbill.billing.benchmarks.invoice;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.killbill.billing.invoice.api.InvoiceApiException;
+import org.killbill.billing.invoice.api.InvoiceItem;
+import org.killbill.billing.invoice.generator.InvoiceItemGenerator.InvoiceGeneratorResult;
+import org.killbill.billing.invoice.generator.InvoiceWithMetadata;
+import org.killbill.billing.invoice.tree.AccountItemTree;
+import org.killbill.billing.invoice.tree.SubscriptionItemTree;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Pure CPU part of an invoice run, phase by phase (see InvoiceDispatcher#printInvoiceTiming for the production timings).
+ * <p>
+ * Build with {@code mvn -pl benchmarks -am package -DskipTests}, then run with allocation profiling:
+ * <pre>
+ * java -jar benchmarks/target/benchmarks.jar InvoiceGenerationBenchmark -prof gc -p nbSubscriptions=100 -p nbYears=10
+ * </pre>
+ * Look at {@code gc.alloc.rate.norm} (bytes allocated per invocation) in addition to the average time.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class InvoiceGenerationBenchmark {
+
+    // DefaultInvoiceGenerator#generateInvoice: both item generators, end-to-end
+    @Benchmark
+    public InvoiceWithMetadata generateInvoice(final InvoiceGenerationState state) throws InvoiceApiException {
+        final SyntheticAccount account = state.account;
+        return state.invoiceGenerator.generateInvoice(account.getAccount(),
+                                                      account.getBillingEvents(),
+                                                      account.getAccountInvoices(),
+                                                      null,
+                                                      account.getTargetDate(),
+                                                      account.getCurrency(),
+                                                      null,
+                                                      Collections.emptyList(),
+                                                      account.getContext());
+    }
+
+    @Benchmark
+    public InvoiceGeneratorResult fixedAndRecurringItems(final InvoiceGenerationState state) throws InvoiceApiException {
+        final SyntheticAccount account = state.account;
+        return state.fixedAndRecurringInvoiceItemGenerator.generateItems(account.getAccount(),
+                                                                         UUID.randomUUID(),
+                                                                         account.getBillingEvents(),
+                                                                         account.getAccountInvoices(),
+                                                                         account.getTargetDate(),
+                                                                         account.getCurrency(),
+                                                                         new HashMap<>(),
+                                                                         null,
+                                                                         Collections.emptyList(),
+                                                                         account.getContext());
+    }
+
+    @Benchmark
+    public InvoiceGeneratorResult usageItems(final InvoiceGenerationState state) throws InvoiceApiException {
+        final SyntheticAccount account = state.account;
+        return state.usageInvoiceItemGenerator.generateItems(account.getAccount(),
+                                                             UUID.randomUUID(),
+                                                             account.getBillingEvents(),
+                                                             account.getAccountInvoices(),
+                                                             account.getTargetDate(),
+                                                             account.getCurrency(),
+                                                             new HashMap<>(),
+                                                             null,
+                                                             Collections.emptyList(),
+                                                             account.getContext());
+    }
+
+    // AccountItemTree build from the existing items and merge with the proposed ones (the core of FixedAndRecurringInvoiceItemGenerator)
+    @Benchmark
+    public List<InvoiceItem> accountItemTree(final InvoiceGenerationState state) {
+        final AccountItemTree accountItemTree = new AccountItemTree(state.account.getAccount().getId(), UUID.randomUUID(), 0);
+        for (final InvoiceItem item : state.existingItems) {
+            accountItemTree.addExistingItem(item);
+        }
+        accountItemTree.mergeWithProposedItems(new ArrayList<>(state.proposedItems));
+        return accountItemTree.getResultingItemList();
+    }
+
+    // Same as above, for the first subscription only: cost of one SubscriptionItemTree given the account age
+    @Benchmark
+    public List<InvoiceItem> subscriptionItemTree(final InvoiceGenerationState state) {
+        final UUID subscriptionId = state.proposedItems.get(0).getSubscriptionId();
+        final SubscriptionItemTree tree = new SubscriptionItemTree(subscriptionId, UUID.randomUUID(), 0);
+        for (final InvoiceItem item : state.existingItems) {
+            if (subscriptionId.equals(item.getSubscriptionId())) {
+                tree.addItem(item);
+            }
+        }
+        tree.build();
+        tree.flatten(true);
+        for (final InvoiceItem item : state.proposedItems) {
+            if (subscriptionId.equals(item.getSubscriptionId())) {
+                tree.mergeProposedItem(item);
+            }
+        }
+        tree.buildForMerge();
+        return tree.getView();
+    }
+}
@@ -0,0 +1,131 @@
+/*
+ * Copyright 2020-2026 Equinix, Inc
+ * Copyright 2014-2026 The Billing Project, LLC
+ *
+ * The Billing Project licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.killbill.billing.benchmarks.invoice;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+import javax.annotation.Nullable;
+
+import org.joda.time.DateTime;
+import org.joda.time.LocalDate;
+import org.killbill.billing.callcontext.InternalCallContext;
+import org.killbill.billing.invoice.api.DryRunInfo;
+import org.killbill.billing.invoice.api.Invoice;
+import org.killbill.billing.invoice.api.InvoiceItem;
+import org.killbill.billing.invoice.api.InvoiceItemType;
+import org.killbill.billing.invoice.generator.DefaultInvoiceGenerator;
+import org.killbill.billing.invoice.generator.FixedAndRecurringInvoiceItemGenerator;
+import org.killbill.billing.invoice.generator.UsageInvoiceItemGenerator;
+import org.killbill.billing.invoice.model.RecurringInvoiceItem;
+import org.killbill.billing.invoice.usage.RawUsageOptimizer;
+import org.killbill.billing.payment.api.PluginProperty;
+import org.killbill.billing.usage.api.RawUsageRecord;
+import org.killbill.billing.util.config.definition.InvoiceConfig;
+import org.killbill.clock.Clock;
+import org.killbill.clock.DefaultClock;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.skife.config.AugmentedConfigurationObjectFactory;
+import org.skife.config.SimplePropertyConfigSource;
+
+@State(Scope.Benchmark)
+public class InvoiceGenerationState {
+
+    @Param({"1", "100", "10000"})
+    public int nbSubscriptions;
+
+    @Param({"1", "10"})
+    public int nbYears;
+
+    @Param({"30"})
+    public int nbUsagePointsPerSubscription;
+
+    public SyntheticAccount account;
+    public InvoiceConfig invoiceConfig;
+    public DefaultInvoiceGenerator invoiceGenerator;
+    public FixedAndRecurringInvoiceItemGenerator fixedAndRecurringInvoiceItemGenerator;
+    public UsageInvoiceItemGenerator usageInvoiceItemGenerator;
+
+    // Inputs for the item tree benchmarks, as computed by FixedAndRecurringInvoiceItemGenerator
+    public List<InvoiceItem> existingItems;
+    public List<InvoiceItem> proposedItems;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        // Defaults, unless overridden through -Dorg.killbill.invoice.xxx=yyy (e.g. -jvmArgsAppend)
+        invoiceConfig = new AugmentedConfigurationObjectFactory(new SimplePropertyConfigSource(System.getProperties())).build(InvoiceConfig.class);
+        final Clock clock = new DefaultClock();
+
+        account = new SyntheticAccount(nbSubscriptions, nbYears, nbUsagePointsPerSubscription);
+
+        fixedAndRecurringInvoiceItemGenerator = new FixedAndRecurringInvoiceItemGenerator(invoiceConfig, clock);
+        usageInvoiceItemGenerator = new UsageInvoiceItemGenerator(new InMemoryRawUsageOptimizer(invoiceConfig, clock, account.getRawUsage()), invoiceConfig);
+        invoiceGenerator = new DefaultInvoiceGenerator(clock, invoiceConfig, fixedAndRecurringInvoiceItemGenerator, usageInvoiceItemGenerator);
+
+        existingItems = new ArrayList<>();
+        for (final Invoice invoice : account.getExistingInvoices()) {
+            existingItems.addAll(invoice.getInvoiceItems());
+        }
+        proposedItems = buildProposedItems(existingItems, account.getTargetDate());
+    }
+
+    // All RECURRING periods since the beginning of time, plus the new one starting on the target date
+    private static List<InvoiceItem> buildProposedItems(final List<InvoiceItem> existingItems, final LocalDate targetDate) {
+        final UUID invoiceId = UUID.randomUUID();
+        final List<InvoiceItem> result = new ArrayList<>();
+        for (final InvoiceItem item : existingItems) {
+            if (item.getInvoiceItemType() != InvoiceItemType.RECURRING) {
+                continue;
+            }
+            result.add(toProposedItem(invoiceId, item, item.getStartDate()));
+            if (item.getEndDate().compareTo(targetDate) == 0) {
+                result.add(toProposedItem(invoiceId, item, targetDate));
+            }
+        }
+        return Collections.unmodifiableList(result);
+    }
+
+    private static InvoiceItem toProposedItem(final UUID invoiceId, final InvoiceItem item, final LocalDate startDate) {
+        final BigDecimal amount = item.getAmount();
+        return new RecurringInvoiceItem(invoiceId, item.getAccountId(), item.getBundleId(), item.getSubscriptionId(), item.getProductName(), item.getPlanName(), item.getPhaseName(),
+                                        item.getCatalogEffectiveDate(), startDate, startDate.plusMonths(1), amount, item.getRate(), item.getCurrency());
+    }
+
+    // Bypass the usage and invoice DAOs: the raw usage is already in memory
+    private static final class InMemoryRawUsageOptimizer extends RawUsageOptimizer {
+
+        private final List<RawUsageRecord> rawUsage;
+
+        public InMemoryRawUsageOptimizer(final InvoiceConfig config, final Clock clock, final List<RawUsageRecord> rawUsage) {
+            super(config, null, null, clock);
+            this.rawUsage = rawUsage;
+        }
+
+        @Override
+        public RawUsageResult getInArrearUsage(final DateTime optimizedStartDate, final LocalDate targetDate, @Nullable final DryRunInfo dryRunInfo, final Iterable<PluginProperty> inputProperties, final InternalCallContext internalCallContext) {
+            return new RawUsageResult(rawUsage, Collections.emptySet());
+        }
+    }
+}
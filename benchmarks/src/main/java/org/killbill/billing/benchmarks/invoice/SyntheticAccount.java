@@ -0,0 +1,181 @@
+/*
+ * Copyright 2020-2026 Equinix, Inc
+ * Copyright 2014-2026 The Billing Project, LLC
+ *
+ * The Billing Project licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.killbill.billing.benchmarks.invoice;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+import org.joda.time.LocalDate;
+import org.killbill.billing.account.api.DefaultImmutableAccountData;
+import org.killbill.billing.account.api.ImmutableAccountData;
+import org.killbill.billing.callcontext.InternalCallContext;
+import org.killbill.billing.catalog.StandaloneCatalog;
+import org.killbill.billing.catalog.api.BillingPeriod;
+import org.killbill.billing.catalog.api.Currency;
+import org.killbill.billing.catalog.api.Plan;
+import org.killbill.billing.catalog.api.PlanPhase;
+import org.killbill.billing.catalog.api.Usage;
+import org.killbill.billing.invoice.api.Invoice;
+import org.killbill.billing.invoice.api.InvoiceItem;
+import org.killbill.billing.invoice.api.InvoiceItemType;
+import org.killbill.billing.invoice.api.InvoiceStatus;
+import org.killbill.billing.invoice.model.DefaultInvoice;
+import org.killbill.billing.invoice.model.InvoiceItemCatalogBase;
+import org.killbill.billing.invoice.model.RecurringInvoiceItem;
+import org.killbill.billing.invoice.model.UsageInvoiceItem;
+import org.killbill.billing.invoice.optimizer.InvoiceOptimizerBase.AccountInvoices;
+import org.killbill.billing.junction.BillingEventSet;
+import org.killbill.billing.junction.plumbing.billing.DefaultBillingEvent;
+import org.killbill.billing.junction.plumbing.billing.DefaultBillingEventSet;
+import org.killbill.billing.subscription.api.SubscriptionBaseTransitionType;
+import org.killbill.billing.usage.api.RawUsageRecord;
+import org.killbill.billing.usage.api.svcs.DefaultRawUsage;
+import org.killbill.billing.util.callcontext.CallOrigin;
+import org.killbill.billing.util.callcontext.UserType;
+import org.killbill.commons.utils.io.Resources;
+import org.killbill.xmlloader.XMLLoader;
+
+/**
+ * In-memory account with {@code nbSubscriptions} subscriptions to the same plan, all created {@code nbYears} ago,
+ * and with one invoice per month already generated up to (but excluding) the target date.
+ * <p>
+ * Everything is built once, so that benchmarks only measure the pure CPU part of the invoice generation
+ * (no database, no plugin, no bus).
+ */
+public class SyntheticAccount {
+
+    public static final String CATALOG = "org/killbill/billing/catalog/UsageExperimental.xml";
+    // Recurring IN_ADVANCE MONTHLY price of $30 and one IN_ARREAR consumable usage section
+    public static final String PLAN_NAME = "chocolate-monthly";
+    public static final String UNIT_TYPE = "chocolate-videos";
+
+    // Fixed, so that results are comparable across runs
+    public static final LocalDate TARGET_DATE = new LocalDate(2026, 1, 1);
+
+    private static final Currency CURRENCY = Currency.USD;
+    private static final int BCD = 1;
+
+    private final ImmutableAccountData account;
+    private final InternalCallContext context;
+    private final LocalDate startDate;
+    private final Plan plan;
+    private final PlanPhase phase;
+    private final BillingEventSet billingEvents;
+    private final List<Invoice> existingInvoices;
+    private final List<RawUsageRecord> rawUsage;
+
+    public SyntheticAccount(final int nbSubscriptions, final int nbYears, final int nbUsagePointsPerSubscription) throws Exception {
+        final StandaloneCatalog catalog = XMLLoader.getObjectFromString(Resources.getResource(CATALOG).toExternalForm(), StandaloneCatalog.class);
+        this.plan = catalog.findPlan(PLAN_NAME);
+        this.phase = plan.getFinalPhase();
+
+        this.startDate = TARGET_DATE.minusYears(nbYears);
+        final DateTime startDateTime = startDate.toDateTimeAtStartOfDay(DateTimeZone.UTC);
+        this.account = new DefaultImmutableAccountData(UUID.randomUUID(), "benchmark", CURRENCY, DateTimeZone.UTC, DateTimeZone.UTC, startDateTime);
+        this.context = new InternalCallContext(1L, 1L, DateTimeZone.UTC, DateTimeZone.UTC, startDateTime, UUID.randomUUID(), "benchmark",
+                                               CallOrigin.INTERNAL, UserType.SYSTEM, null, null,
+                                               TARGET_DATE.toDateTimeAtStartOfDay(DateTimeZone.UTC), TARGET_DATE.toDateTimeAtStartOfDay(DateTimeZone.UTC));
+
+        final List<UUID> subscriptionIds = new ArrayList<>(nbSubscriptions);
+        final DefaultBillingEventSet events = new DefaultBillingEventSet(false, false, false);
+        final BigDecimal recurringPrice = phase.getRecurring().getRecurringPrice().getPrice(CURRENCY);
+        final List<Usage> usages = List.of(phase.getUsages());
+        for (int i = 0; i < nbSubscriptions; i++) {
+            final UUID subscriptionId = UUID.randomUUID();
+            subscriptionIds.add(subscriptionId);
+            events.add(new DefaultBillingEvent(subscriptionId, UUID.randomUUID(), startDateTime, plan, phase,
+                                               null, recurringPrice, usages, CURRENCY, BillingPeriod.MONTHLY, BCD, 1,
+                                               SubscriptionBaseTransitionType.CREATE.toString(), i, SubscriptionBaseTransitionType.CREATE));
+        }
+        this.billingEvents = events;
+
+        final List<Invoice> invoices = new ArrayList<>();
+        for (LocalDate periodStart = startDate; periodStart.isBefore(TARGET_DATE); periodStart = periodStart.plusMonths(1)) {
+            final DefaultInvoice invoice = new DefaultInvoice(account.getId(), periodStart, periodStart, CURRENCY, InvoiceStatus.COMMITTED);
+            // As persisted by the DAO: the daily safety bound (maxDailyNumberOfItemsSafetyBound) relies on it
+            final DateTime createdDate = periodStart.toDateTimeAtStartOfDay(DateTimeZone.UTC);
+            final List<InvoiceItem> items = new ArrayList<>(2 * nbSubscriptions);
+            for (final UUID subscriptionId : subscriptionIds) {
+                items.add(new RecurringInvoiceItem(UUID.randomUUID(), createdDate, invoice.getId(), account.getId(), null, subscriptionId, plan.getProduct().getName(), plan.getName(), phase.getName(), startDateTime,
+                                                   periodStart, periodStart.plusMonths(1), recurringPrice, recurringPrice, CURRENCY));
+                if (periodStart.isAfter(startDate)) {
+                    // In arrear usage for the previous period, nothing was consumed
+                    items.add(new UsageInvoiceItem(new InvoiceItemCatalogBase(UUID.randomUUID(), createdDate, invoice.getId(), account.getId(), null, subscriptionId, null,
+                                                                              plan.getProduct().getName(), plan.getName(), phase.getName(), usages.get(0).getName(), startDateTime,
+                                                                              periodStart.minusMonths(1), periodStart, BigDecimal.ZERO, null, CURRENCY, null, InvoiceItemType.USAGE)));
+                }
+            }
+            invoice.addInvoiceItems(items);
+            invoices.add(invoice);
+        }
+        this.existingInvoices = Collections.unmodifiableList(invoices);
+
+        // Usage for the period being invoiced (i.e. the last month)
+        final List<RawUsageRecord> records = new ArrayList<>(nbSubscriptions * nbUsagePointsPerSubscription);
+        final DateTime usageStart = TARGET_DATE.minusMonths(1).toDateTimeAtStartOfDay(DateTimeZone.UTC);
+        final long spacingMillis = (TARGET_DATE.toDateTimeAtStartOfDay(DateTimeZone.UTC).getMillis() - usageStart.getMillis()) / Math.max(1, nbUsagePointsPerSubscription);
+        for (final UUID subscriptionId : subscriptionIds) {
+            for (int i = 0; i < nbUsagePointsPerSubscription; i++) {
+                records.add(new DefaultRawUsage(subscriptionId, usageStart.plus(i * spacingMillis), UNIT_TYPE, BigDecimal.ONE, subscriptionId + "-" + i));
+            }
+        }
+        this.rawUsage = Collections.unmodifiableList(records);
+    }
+
+    public ImmutableAccountData getAccount() {
+        return account;
+    }
+
+    public InternalCallContext getContext() {
+        return context;
+    }
+
+    public LocalDate getStartDate() {
+        return startDate;
+    }
+
+    public LocalDate getTargetDate() {
+        return TARGET_DATE;
+    }
+
+    public Currency getCurrency() {
+        return CURRENCY;
+    }
+
+    public BillingEventSet getBillingEvents() {
+        return billingEvents;
+    }
+
+    public List<Invoice> getExistingInvoices() {
+        return existingInvoices;
+    }
+
+    // No cutoff date: all invoices since the beginning of time are considered (InvoiceOptimizerNoop behavior)
+    public AccountInvoices getAccountInvoices() {
+        return new AccountInvoices(null, null, existingInvoices);
+    }
+
+    public List<RawUsageRecord> getRawUsage() {
+        return rawUsage;
+    }
+}
@@ -23,6 +23,7 @@ import java.io.ObjectInput;
 import java.io.ObjectOutput;
 import java.util.Collection;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.Map;
 import java.util.TreeMap;
@@ -31,31 +32,35 @@ import org.killbill.billing.catalog.api.CatalogEntity;
 
 public class CatalogEntityCollection<T extends CatalogEntity> implements Collection<T>, Externalizable {
 
+    // Sorted view, used for iteration (natural ordering with regard to CatalogEntity#name)
     private final Map<String, T> data;
+    // Hash-based index, used for lookups by name
+    private final Map<String, T> index;
 
     public CatalogEntityCollection() {
         this.data = new TreeMap<String, T>(Comparator.naturalOrder());
+        this.index = new HashMap<String, T>();
     }
 
     public CatalogEntityCollection(final T[] entities) {
-        this.data = new TreeMap<String, T>(Comparator.naturalOrder());
+        this();
         for (final T cur : entities) {
             addEntry(cur);
         }
     }
 
     public CatalogEntityCollection(final Iterable<T> entities) {
-        this.data = new TreeMap<String, T>(Comparator.naturalOrder());
+        this();
         for (final T cur : entities) {
             addEntry(cur);
         }
     }
 
     //
-    // Returning such entries will be log(N)
+    // Returning such entries will be O(1)
     //
     public T findByName(final String entryName) {
-        return data.get(entryName);
+        return index.get(entryName);
     }
 
     public Collection<T> getEntries() {
@@ -74,7 +79,7 @@ public class CatalogEntityCollection<T extends CatalogEntity> implements Collect
 
     @Override
     public boolean contains(final Object o) {
-        return data.containsKey(((CatalogEntity) o).getName());
+        return index.containsKey(((CatalogEntity) o).getName());
     }
 
     @Override
@@ -93,7 +98,7 @@ public class CatalogEntityCollection<T extends CatalogEntity> implements Collect
             @Override
             public Object next() {
                 prevKey = keyIterator.next();
-                return data.get(prevKey);
+                return index.get(prevKey);
             }
 
             @Override
@@ -101,6 +106,7 @@ public class CatalogEntityCollection<T extends CatalogEntity> implements Collect
                 if (prevKey != null) {
                     keyIterator.remove();
                     data.remove(prevKey);
+                    index.remove(prevKey);
                 }
             }
         };
@@ -131,6 +137,7 @@ public class CatalogEntityCollection<T extends CatalogEntity> implements Collect
     @Override
     public void clear() {
         data.clear();
+        index.clear();
     }
 
     @Override
@@ -144,6 +151,7 @@ public class CatalogEntityCollection<T extends CatalogEntity> implements Collect
         while (iterator.hasNext()) {
             final CatalogEntity cur = (CatalogEntity) iterator.next();
             data.remove(cur.getName());
+            index.remove(cur.getName());
         }
         return true;
     }
@@ -153,7 +161,7 @@ public class CatalogEntityCollection<T extends CatalogEntity> implements Collect
         final Iterator iterator = c.iterator();
         while (iterator.hasNext()) {
             final CatalogEntity cur = (CatalogEntity) iterator.next();
-            if (!data.containsKey(cur.getName())) {
+            if (!index.containsKey(cur.getName())) {
                 return false;
             }
         }
@@ -190,15 +198,18 @@ public class CatalogEntityCollection<T extends CatalogEntity> implements Collect
 
     private void addEntry(final T entry) {
         data.put(entry.getName(), entry);
+        index.put(entry.getName(), entry);
     }
 
     private boolean removeEntry(final T entry) {
+        index.remove(entry.getName());
         return data.remove(entry.getName()) != null;
     }
 
     @Override
     public void readExternal(final ObjectInput in) throws IOException, ClassNotFoundException {
         data.putAll((Map<? extends String, ? extends T>) in.readObject());
+        index.putAll(data);
     }
 
     @Override
@@ -212,11 +212,14 @@ public class DefaultPlan extends ValidatingConfig<StandaloneCatalog> implements
 
     @Override
     public PlanPhase findPhase(final String name) throws CatalogApiException {
-        for (final PlanPhase pp : getAllPhases()) {
+        // Avoid the getAllPhases copy, this is called for each billing event
+        for (final PlanPhase pp : initialPhases) {
             if (pp.getName().equals(name)) {
                 return pp;
             }
-
+        }
+        if (finalPhase != null && finalPhase.getName().equals(name)) {
+            return finalPhase;
         }
         throw new CatalogApiException(ErrorCode.CAT_NO_SUCH_PHASE, name);
     }
@@ -52,6 +52,11 @@ import org.killbill.xmlloader.ValidationErrors;
 @XmlAccessorType(XmlAccessType.NONE)
 public class DefaultPlanPhase extends ValidatingConfig<StandaloneCatalog> implements PlanPhase, Externalizable {
 
+    // Lower case PhaseType names, in PhaseType order (see planName)
+    private static final String[] PHASE_TYPE_SUFFIXES = Arrays.stream(PhaseType.values())
+                                                              .map(type -> type.toString().toLowerCase())
+                                                              .toArray(String[]::new);
+
     @XmlAttribute(required = false)
     private String prettyName;
 
@@ -106,9 +111,9 @@ public class DefaultPlanPhase extends ValidatingConfig<StandaloneCatalog> implem
     }
 
     public static String planName(final String phaseName) throws CatalogApiException {
-        for (final PhaseType type : PhaseType.values()) {
-            if (phaseName.endsWith(type.toString().toLowerCase())) {
-                return phaseName.substring(0, phaseName.length() - type.toString().length() - 1);
+        for (final String phaseTypeSuffix : PHASE_TYPE_SUFFIXES) {
+            if (phaseName.endsWith(phaseTypeSuffix)) {
+                return phaseName.substring(0, phaseName.length() - phaseTypeSuffix.length() - 1);
             }
         }
         throw new CatalogApiException(ErrorCode.CAT_BAD_PHASE_NAME, phaseName);
@@ -27,6 +27,7 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.Date;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Set;
 import java.util.TreeSet;
@@ -58,6 +59,13 @@ public class DefaultVersionedCatalog extends ValidatingConfig<DefaultVersionedCa
     @XmlElement(required = true)
     private String catalogName;
 
+    // Effective dates (in millis) of the versions, used to bisect getVersion lookups (lazily rebuilt when versions are added)
+    private transient volatile long[] versionEffectiveDates;
+
+    // Versions which were already validated as part of a previous load of the same catalog (see VersionedCatalogLoader):
+    // their content, and their shape compared to each other, don't need to be validated again
+    private final transient Set<StaticCatalog> validatedVersions = Collections.newSetFromMap(new IdentityHashMap<StaticCatalog, Boolean>());
+
     // Required for JAXB deserialization
     public DefaultVersionedCatalog() {
         this.versions = new ArrayList<StaticCatalog>();
@@ -89,13 +97,22 @@ public class DefaultVersionedCatalog extends ValidatingConfig<DefaultVersionedCa
     }
 
     private int indexOfVersionForDate(final Date date) {
+        final long[] effectiveDates = getVersionEffectiveDates();
 
-        for (int i = versions.size() - 1; i >= 0; i--) {
-            final StaticCatalog c = versions.get(i);
-            if (c.getEffectiveDate().getTime() <= date.getTime()) {
-                return i;
+        // Index of the last version effective on or before the input date
+        int low = 0;
+        int high = effectiveDates.length - 1;
+        while (low <= high) {
+            final int mid = (low + high) >>> 1;
+            if (effectiveDates[mid] <= date.getTime()) {
+                low = mid + 1;
+            } else {
+                high = mid - 1;
             }
         }
+        if (high >= 0) {
+            return high;
+        }
         // If the only version we have are after the input date, we return the first version
         // This is not strictly correct from an api point of view, but there is no real good use case
         // where the system would ask for the catalog for a date prior any catalog was uploaded and
@@ -106,6 +123,19 @@ public class DefaultVersionedCatalog extends ValidatingConfig<DefaultVersionedCa
         throw new IllegalStateException(String.format("No existing versions in the VersionedCatalog catalog for input date %s", date));
     }
 
+    private long[] getVersionEffectiveDates() {
+        long[] effectiveDates = versionEffectiveDates;
+        // Versions can be added after the fact (JAXB, deserialization, add)
+        if (effectiveDates == null || effectiveDates.length != versions.size()) {
+            effectiveDates = new long[versions.size()];
+            for (int i = 0; i < effectiveDates.length; i++) {
+                effectiveDates[i] = versions.get(i).getEffectiveDate().getTime();
+            }
+            versionEffectiveDates = effectiveDates;
+        }
+        return effectiveDates;
+    }
+
     public void add(final StandaloneCatalog e) {
         if (catalogName == null && e.getCatalogName() != null) {
             catalogName = e.getCatalogName();
@@ -119,6 +149,11 @@ public class DefaultVersionedCatalog extends ValidatingConfig<DefaultVersionedCa
         });
     }
 
+    public void addValidated(final StandaloneCatalog e) {
+        add(e);
+        validatedVersions.add(e);
+    }
+
     @Override
     public void initialize(final DefaultVersionedCatalog catalog) {
         //
@@ -145,7 +180,9 @@ public class DefaultVersionedCatalog extends ValidatingConfig<DefaultVersionedCa
                 errors.add(new ValidationError(String.format("Catalog name '%s' is not consistent across versions ", c.getCatalogName()),
                                                DefaultVersionedCatalog.class, ""));
             }
-            ((StandaloneCatalog) c).validate((StandaloneCatalog) c, errors);
+            if (!validatedVersions.contains(c)) {
+                ((StandaloneCatalog) c).validate((StandaloneCatalog) c, errors);
+            }
         }
 
         validateUniformPlanShapeAcrossVersions(errors);
@@ -160,6 +197,9 @@ public class DefaultVersionedCatalog extends ValidatingConfig<DefaultVersionedCa
 
                 for (int j = i + 1; j < versions.size(); j++) {
                     final StaticCatalog next = versions.get(j);
+                    if (validatedVersions.contains(c) && validatedVersions.contains(next)) {
+                        continue;
+                    }
                     final Plan targetPlan = ((StandaloneCatalog) next).getPlansMap().findByName(plan.getName());
                     if (targetPlan != null) {
                         validatePlanShape(plan, targetPlan, errors);
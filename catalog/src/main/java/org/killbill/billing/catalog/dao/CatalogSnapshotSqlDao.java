@@ -0,0 +1,45 @@
+/*
+ * Copyright 2020-2026 Equinix, Inc
+ * Copyright 2014-2026 The Billing Project, LLC
+ *
+ * The Billing Project licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.killbill.billing.catalog.dao;
+
+import org.joda.time.DateTime;
+import org.killbill.commons.jdbi.template.KillBillSqlDaoStringTemplate;
+import org.skife.jdbi.v2.sqlobject.Bind;
+import org.skife.jdbi.v2.sqlobject.SqlQuery;
+import org.skife.jdbi.v2.sqlobject.SqlUpdate;
+import org.skife.jdbi.v2.sqlobject.mixins.CloseMe;
+import org.skife.jdbi.v2.sqlobject.mixins.Transactional;
+
+// Parsed catalog versions per tenant, see VersionedCatalogLoader
+@KillBillSqlDaoStringTemplate
+public interface CatalogSnapshotSqlDao extends Transactional<CatalogSnapshotSqlDao>, CloseMe {
+
+    @SqlQuery
+    public byte[] getSnapshot(@Bind("filterTemplateCatalog") final boolean filterTemplateCatalog,
+                              @Bind("tenantRecordId") final Long tenantRecordId);
+
+    @SqlUpdate
+    public void deleteSnapshot(@Bind("filterTemplateCatalog") final boolean filterTemplateCatalog,
+                               @Bind("tenantRecordId") final Long tenantRecordId);
+
+    @SqlUpdate
+    public void create(@Bind("snapshot") final byte[] snapshot,
+                       @Bind("filterTemplateCatalog") final boolean filterTemplateCatalog,
+                       @Bind("createdDate") final DateTime createdDate,
+                       @Bind("tenantRecordId") final Long tenantRecordId);
+}
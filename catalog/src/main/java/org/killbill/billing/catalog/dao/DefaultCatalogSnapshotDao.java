@@ -0,0 +1,63 @@
+/*
+ * Copyright 2020-2026 Equinix, Inc
+ * Copyright 2014-2026 The Billing Project, LLC
+ *
+ * The Billing Project licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.killbill.billing.catalog.dao;
+
+import jakarta.inject.Inject;
+
+import org.killbill.clock.Clock;
+import org.skife.jdbi.v2.Handle;
+import org.skife.jdbi.v2.IDBI;
+import org.skife.jdbi.v2.TransactionCallback;
+import org.skife.jdbi.v2.TransactionStatus;
+
+public class DefaultCatalogSnapshotDao implements CatalogSnapshotDao {
+
+    private final IDBI dbi;
+    private final Clock clock;
+
+    @Inject
+    public DefaultCatalogSnapshotDao(final IDBI dbi, final Clock clock) {
+        this.dbi = dbi;
+        this.clock = clock;
+    }
+
+    @Override
+    public byte[] getSnapshot(final boolean filterTemplateCatalog, final Long tenantRecordId) {
+        return dbi.inTransaction(new TransactionCallback<byte[]>() {
+            @Override
+            public byte[] inTransaction(final Handle handle, final TransactionStatus status) throws Exception {
+                final CatalogSnapshotSqlDao sqlDao = handle.attach(CatalogSnapshotSqlDao.class);
+                return sqlDao.getSnapshot(filterTemplateCatalog, tenantRecordId);
+            }
+        });
+    }
+
+    @Override
+    public void saveSnapshot(final byte[] snapshot, final boolean filterTemplateCatalog, final Long tenantRecordId) {
+        dbi.inTransaction(new TransactionCallback<Void>() {
+            @Override
+            public Void inTransaction(final Handle handle, final TransactionStatus status) throws Exception {
+                final CatalogSnapshotSqlDao sqlDao = handle.attach(CatalogSnapshotSqlDao.class);
+                // One snapshot per tenant (and flavor): it always reflects the latest successful load
+                sqlDao.deleteSnapshot(filterTemplateCatalog, tenantRecordId);
+                sqlDao.create(snapshot, filterTemplateCatalog, clock.getUTCNow(), tenantRecordId);
+                return null;
+            }
+        });
+    }
+}
@@ -33,7 +33,9 @@ import org.killbill.billing.catalog.caching.DefaultOverriddenPlanCache;
 import org.killbill.billing.catalog.caching.OverriddenPlanCache;
 import org.killbill.billing.catalog.caching.PriceOverridePattern;
 import org.killbill.billing.catalog.dao.CatalogOverrideDao;
+import org.killbill.billing.catalog.dao.CatalogSnapshotDao;
 import org.killbill.billing.catalog.dao.DefaultCatalogOverrideDao;
+import org.killbill.billing.catalog.dao.DefaultCatalogSnapshotDao;
 import org.killbill.billing.catalog.io.CatalogLoader;
 import org.killbill.billing.catalog.io.VersionedCatalogLoader;
 import org.killbill.billing.catalog.override.DefaultPriceOverrideSvc;
@@ -77,6 +79,7 @@ public class CatalogModule extends KillBillModule {
 
     protected void installCatalogDao() {
         bind(CatalogOverrideDao.class).to(DefaultCatalogOverrideDao.class).asEagerSingleton();
+        bind(CatalogSnapshotDao.class).to(DefaultCatalogSnapshotDao.class).asEagerSingleton();
     }
 
     protected void installCatalogUserApi() {
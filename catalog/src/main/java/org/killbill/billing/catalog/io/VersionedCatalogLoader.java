@@ -19,20 +19,34 @@
 package org.killbill.billing.catalog.io;
 
 import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.Closeable;
 import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
 import java.net.MalformedURLException;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.URL;
 import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
+import java.util.Base64;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
 import java.util.Objects;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
 
 import jakarta.inject.Inject;
 import jakarta.xml.bind.JAXBException;
@@ -43,6 +57,7 @@ import org.killbill.billing.catalog.StandaloneCatalog;
 import org.killbill.billing.catalog.StandaloneCatalogWithPriceOverride;
 import org.killbill.billing.catalog.api.CatalogApiException;
 import org.killbill.billing.catalog.api.VersionedCatalog;
+import org.killbill.billing.catalog.dao.CatalogSnapshotDao;
 import org.killbill.billing.catalog.override.PriceOverrideSvc;
 import org.killbill.billing.util.callcontext.InternalCallContextFactory;
 import org.killbill.billing.util.config.definition.CatalogConfig;
@@ -65,14 +80,33 @@ public class VersionedCatalogLoader implements CatalogLoader, Closeable {
     private final PriceOverrideSvc priceOverride;
     private final ExecutorService executorService;
     private final InternalCallContextFactory internalCallContextFactory;
+    private final CatalogSnapshotDao catalogSnapshotDao;
+    private final boolean snapshotEnabled;
+    // Parsed versions (by XML digest) of the last successful load, per tenant -- null when disabled
+    private final Map<ParsedVersionsKey, Map<String, StandaloneCatalog>> parsedVersionsPerTenant;
 
     @Inject
     public VersionedCatalogLoader(final CatalogConfig config,
                                   final PriceOverrideSvc priceOverride,
+                                  final CatalogSnapshotDao catalogSnapshotDao,
                                   final InternalCallContextFactory internalCallContextFactory) {
         this.executorService = Executors.newFixedThreadPool(Objects.requireNonNullElse(config.getCatalogThreadNb(), 1), VersionedCatalogLoader.class.getName());
         this.priceOverride = priceOverride;
         this.internalCallContextFactory = internalCallContextFactory;
+        this.catalogSnapshotDao = catalogSnapshotDao;
+        this.snapshotEnabled = config.isCatalogSnapshotEnabled();
+
+        final int maxTenants = config.getCatalogLoaderIncrementalMaxTenants();
+        if (maxTenants > 0) {
+            this.parsedVersionsPerTenant = new LinkedHashMap<ParsedVersionsKey, Map<String, StandaloneCatalog>>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(final Entry<ParsedVersionsKey, Map<String, StandaloneCatalog>> eldest) {
+                    return size() > maxTenants;
+                }
+            };
+        } else {
+            this.parsedVersionsPerTenant = null;
+        }
     }
 
     @Override
@@ -121,11 +155,27 @@ public class VersionedCatalogLoader implements CatalogLoader, Closeable {
         return Resources.getResource(urlString);
     }
 
+    //
+    // Versions are identified by the digest of their XML: the ones known from a previous load of the tenant catalog (kept in memory,
+    // or persisted as a snapshot) are neither parsed nor validated again, only the new ones are -- including against the known ones.
+    //
     public VersionedCatalog load(final Collection<String> catalogXMLs, final boolean filterTemplateCatalog, final Long tenantRecordId) throws CatalogApiException {
         try {
-            final Collection<Future<StandaloneCatalog>> catalogs = new ArrayList<>(catalogXMLs.size());
+            final List<String> digests = new ArrayList<String>(catalogXMLs.size());
+            for (final String cur : catalogXMLs) {
+                digests.add(digest(cur));
+            }
+
+            final Map<String, StandaloneCatalog> knownVersions = getKnownVersions(filterTemplateCatalog, tenantRecordId);
+
+            final Map<String, Future<StandaloneCatalog>> newVersions = new HashMap<String, Future<StandaloneCatalog>>();
+            final Iterator<String> digestsIterator = digests.iterator();
             for (final String cur : catalogXMLs) {
-                catalogs.add(executorService.submit(() -> {
+                final String digest = digestsIterator.next();
+                if (knownVersions.containsKey(digest) || newVersions.containsKey(digest)) {
+                    continue;
+                }
+                newVersions.put(digest, executorService.submit(() -> {
                     final InputStream curCatalogStream = new ByteArrayInputStream(cur.getBytes(StandardCharsets.UTF_8));
                     final StandaloneCatalog catalog = XMLLoader.getObjectFromStream(curCatalogStream, StandaloneCatalog.class);
                     if (!filterTemplateCatalog || !catalog.isTemplateCatalog()) {
@@ -136,14 +186,27 @@ public class VersionedCatalogLoader implements CatalogLoader, Closeable {
             }
 
             final DefaultVersionedCatalog result = new DefaultVersionedCatalog();
-            for (final Future<StandaloneCatalog> standaloneCatalogFuture : catalogs) {
-                final StandaloneCatalog catalog = standaloneCatalogFuture.get();
-                if (catalog != null) {
-                    result.add(catalog);
+            // Null values for the filtered template catalogs
+            final Map<String, StandaloneCatalog> parsedVersions = new LinkedHashMap<String, StandaloneCatalog>();
+            for (final String digest : digests) {
+                final StandaloneCatalog catalog;
+                if (knownVersions.containsKey(digest)) {
+                    catalog = knownVersions.get(digest);
+                    if (catalog != null) {
+                        result.addValidated(catalog);
+                    }
+                } else {
+                    catalog = newVersions.get(digest).get();
+                    if (catalog != null) {
+                        result.add(catalog);
+                    }
                 }
+                parsedVersions.put(digest, catalog);
             }
 
             XMLLoader.initializeAndValidate(result);
+
+            rememberParsedVersions(parsedVersions, !newVersions.isEmpty(), filterTemplateCatalog, tenantRecordId);
             return result;
         } catch (final ValidationException e) {
             logger.warn("Failed to load catalog for tenantRecordId='{}'", tenantRecordId, e);
@@ -160,6 +223,86 @@ public class VersionedCatalogLoader implements CatalogLoader, Closeable {
         }
     }
 
+    private Map<String, StandaloneCatalog> getKnownVersions(final boolean filterTemplateCatalog, final Long tenantRecordId) {
+        Map<String, StandaloneCatalog> knownVersions = null;
+        if (parsedVersionsPerTenant != null) {
+            synchronized (parsedVersionsPerTenant) {
+                knownVersions = parsedVersionsPerTenant.get(new ParsedVersionsKey(tenantRecordId, filterTemplateCatalog));
+            }
+        }
+        // The snapshot is only used when nothing is known locally (startup, eviction): both sources were validated as a whole,
+        // but they can't be mixed since their versions weren't necessarily validated against each other
+        if (knownVersions == null && snapshotEnabled) {
+            knownVersions = readSnapshot(filterTemplateCatalog, tenantRecordId);
+        }
+        return knownVersions != null ? knownVersions : Collections.<String, StandaloneCatalog>emptyMap();
+    }
+
+    private void rememberParsedVersions(final Map<String, StandaloneCatalog> parsedVersions, final boolean hasNewVersions, final boolean filterTemplateCatalog, final Long tenantRecordId) {
+        if (parsedVersionsPerTenant != null) {
+            synchronized (parsedVersionsPerTenant) {
+                parsedVersionsPerTenant.put(new ParsedVersionsKey(tenantRecordId, filterTemplateCatalog), parsedVersions);
+            }
+        }
+        if (snapshotEnabled && hasNewVersions) {
+            saveSnapshot(parsedVersions, filterTemplateCatalog, tenantRecordId);
+        }
+    }
+
+    private Map<String, StandaloneCatalog> readSnapshot(final boolean filterTemplateCatalog, final Long tenantRecordId) {
+        try {
+            final byte[] snapshot = catalogSnapshotDao.getSnapshot(filterTemplateCatalog, tenantRecordId);
+            if (snapshot == null) {
+                return null;
+            }
+
+            final Map<String, StandaloneCatalog> parsedVersions = new LinkedHashMap<String, StandaloneCatalog>();
+            try (final ObjectInputStream in = new ObjectInputStream(new GZIPInputStream(new ByteArrayInputStream(snapshot)))) {
+                final int nbVersions = in.readInt();
+                for (int i = 0; i < nbVersions; i++) {
+                    final String digest = in.readUTF();
+                    final StandaloneCatalog catalog = (StandaloneCatalog) in.readObject();
+                    if (catalog != null) {
+                        // Transient fields aren't serialized
+                        ((StandaloneCatalogWithPriceOverride) catalog).initialize(catalog, priceOverride, internalCallContextFactory);
+                    }
+                    parsedVersions.put(digest, catalog);
+                }
+            }
+            return parsedVersions;
+        } catch (final Exception e) {
+            // E.g. incompatible snapshot after an upgrade: the versions will be parsed and the snapshot replaced
+            logger.warn("Failed to read catalog snapshot for tenantRecordId='{}', ignoring it", tenantRecordId, e);
+            return null;
+        }
+    }
+
+    private void saveSnapshot(final Map<String, StandaloneCatalog> parsedVersions, final boolean filterTemplateCatalog, final Long tenantRecordId) {
+        try {
+            final ByteArrayOutputStream snapshot = new ByteArrayOutputStream();
+            try (final ObjectOutputStream out = new ObjectOutputStream(new GZIPOutputStream(snapshot))) {
+                out.writeInt(parsedVersions.size());
+                for (final Entry<String, StandaloneCatalog> entry : parsedVersions.entrySet()) {
+                    out.writeUTF(entry.getKey());
+                    out.writeObject(entry.getValue());
+                }
+            }
+            catalogSnapshotDao.saveSnapshot(snapshot.toByteArray(), filterTemplateCatalog, tenantRecordId);
+        } catch (final Exception e) {
+            // E.g. another node saved it concurrently
+            logger.warn("Failed to save catalog snapshot for tenantRecordId='{}'", tenantRecordId, e);
+        }
+    }
+
+    private static String digest(final String catalogXML) {
+        try {
+            final MessageDigest messageDigest = MessageDigest.getInstance("SHA-256");
+            return Base64.getEncoder().encodeToString(messageDigest.digest(catalogXML.getBytes(StandardCharsets.UTF_8)));
+        } catch (final NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
     protected List<URI> findXmlReferences(final String directoryContents, final URL url) throws URISyntaxException {
         if (url.getProtocol().equals(PROTOCOL_FOR_FILE)) {
             return findXmlFileReferences(directoryContents, url);
@@ -242,4 +385,33 @@ public class VersionedCatalogLoader implements CatalogLoader, Closeable {
     public void close() {
         executorService.shutdown();
     }
+
+    private static final class ParsedVersionsKey {
+
+        private final Long tenantRecordId;
+        private final boolean filterTemplateCatalog;
+
+        private ParsedVersionsKey(final Long tenantRecordId, final boolean filterTemplateCatalog) {
+            this.tenantRecordId = tenantRecordId;
+            this.filterTemplateCatalog = filterTemplateCatalog;
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            final ParsedVersionsKey that = (ParsedVersionsKey) o;
+            return filterTemplateCatalog == that.filterTemplateCatalog &&
+                   Objects.equals(tenantRecordId, that.tenantRecordId);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(tenantRecordId, filterTemplateCatalog);
+        }
+    }
 }
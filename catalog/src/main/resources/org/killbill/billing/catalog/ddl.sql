@@ -127,3 +127,14 @@ CREATE TABLE catalog_override_tier_block (
     PRIMARY KEY(record_id)
 ) /*! CHARACTER SET utf8 COLLATE utf8_bin */;
 CREATE INDEX catalog_override_tier_block_idx ON catalog_override_tier_block(tenant_record_id, block_number, block_def_record_id);
+
+DROP TABLE IF EXISTS catalog_snapshots;
+CREATE TABLE catalog_snapshots (
+    record_id serial unique,
+    filter_template_catalog boolean NOT NULL,
+    snapshot mediumblob NOT NULL,
+    created_date datetime NOT NULL,
+    tenant_record_id bigint /*! unsigned */ NOT NULL default 0,
+    PRIMARY KEY(record_id)
+) /*! CHARACTER SET utf8 COLLATE utf8_bin */;
+CREATE UNIQUE INDEX catalog_snapshots_tenant_record_id ON catalog_snapshots(tenant_record_id, filter_template_catalog);
@@ -43,6 +43,16 @@ public class TestCatalogService extends CatalogTestSuiteNoDB {
             public Integer getCatalogThreadNb() {
                 return null;
             }
+
+            @Override
+            public int getCatalogLoaderIncrementalMaxTenants() {
+                return 0;
+            }
+
+            @Override
+            public boolean isCatalogSnapshotEnabled() {
+                return false;
+            }
         }, tenantInternalApi, catalogCache, cacheInvalidationCallback, null);
         service.loadCatalog();
         Assert.assertNotNull(service.getFullCatalog(true, true, internalCallContext));
@@ -60,6 +70,16 @@ public class TestCatalogService extends CatalogTestSuiteNoDB {
             public Integer getCatalogThreadNb() {
                 return null;
             }
+
+            @Override
+            public int getCatalogLoaderIncrementalMaxTenants() {
+                return 0;
+            }
+
+            @Override
+            public boolean isCatalogSnapshotEnabled() {
+                return false;
+            }
         }, tenantInternalApi, catalogCache, cacheInvalidationCallback, null);
         service.loadCatalog();
         Assert.assertNotNull(service.getFullCatalog(true, true, internalCallContext));
@@ -0,0 +1,72 @@
+/*
+ * Copyright 2020-2026 Equinix, Inc
+ * Copyright 2014-2026 The Billing Project, LLC
+ *
+ * The Billing Project licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.killbill.billing.catalog;
+
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class TestDefaultVersionedCatalog extends CatalogTestSuiteNoDB {
+
+    private final DateTime firstVersionDate = new DateTime(2020, 1, 1, 0, 0, DateTimeZone.UTC);
+
+    @Test(groups = "fast")
+    public void testGetVersion() {
+        final DefaultVersionedCatalog versionedCatalog = new DefaultVersionedCatalog();
+        try {
+            versionedCatalog.getVersion(firstVersionDate.toDate());
+            Assert.fail("No version");
+        } catch (final IllegalStateException ignored) {
+        }
+
+        // Added out of order
+        final StandaloneCatalog v3 = addVersion(versionedCatalog, firstVersionDate.plusMonths(2));
+        final StandaloneCatalog v1 = addVersion(versionedCatalog, firstVersionDate);
+        Assert.assertSame(versionedCatalog.getVersion(firstVersionDate.plusMonths(1).toDate()), v1);
+        final StandaloneCatalog v2 = addVersion(versionedCatalog, firstVersionDate.plusMonths(1));
+
+        // Prior to the first version
+        Assert.assertSame(versionedCatalog.getVersion(firstVersionDate.minusDays(1).toDate()), v1);
+        // Effective dates are inclusive
+        Assert.assertSame(versionedCatalog.getVersion(firstVersionDate.toDate()), v1);
+        Assert.assertSame(versionedCatalog.getVersion(firstVersionDate.plusMonths(1).minusMillis(1).toDate()), v1);
+        Assert.assertSame(versionedCatalog.getVersion(firstVersionDate.plusMonths(1).toDate()), v2);
+        Assert.assertSame(versionedCatalog.getVersion(firstVersionDate.plusMonths(2).minusMillis(1).toDate()), v2);
+        Assert.assertSame(versionedCatalog.getVersion(firstVersionDate.plusMonths(2).toDate()), v3);
+        Assert.assertSame(versionedCatalog.getVersion(firstVersionDate.plusYears(10).toDate()), v3);
+    }
+
+    @Test(groups = "fast")
+    public void testGetVersionWithManyVersions() {
+        final DefaultVersionedCatalog versionedCatalog = new DefaultVersionedCatalog();
+        for (int i = 0; i < 100; i++) {
+            addVersion(versionedCatalog, firstVersionDate.plusDays(i));
+        }
+        for (int i = 0; i < 100; i++) {
+            final DateTime date = firstVersionDate.plusDays(i).plusHours(12);
+            Assert.assertSame(versionedCatalog.getVersion(date.toDate()), versionedCatalog.getVersions().get(i));
+        }
+    }
+
+    private StandaloneCatalog addVersion(final DefaultVersionedCatalog versionedCatalog, final DateTime effectiveDate) {
+        final StandaloneCatalog version = new StandaloneCatalog().setEffectiveDate(effectiveDate.toDate());
+        versionedCatalog.add(version);
+        return version;
+    }
+}
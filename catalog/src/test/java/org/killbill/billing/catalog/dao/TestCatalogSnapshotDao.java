@@ -0,0 +1,104 @@
+/*
+ * Copyright 2020-2026 Equinix, Inc
+ * Copyright 2014-2026 The Billing Project, LLC
+ *
+ * The Billing Project licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.killbill.billing.catalog.dao;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import jakarta.inject.Inject;
+
+import org.killbill.billing.catalog.CatalogTestSuiteWithEmbeddedDB;
+import org.killbill.billing.catalog.api.VersionedCatalog;
+import org.killbill.billing.catalog.io.VersionedCatalogLoader;
+import org.killbill.billing.platform.api.KillbillConfigSource;
+import org.killbill.billing.util.callcontext.InternalCallContextFactory;
+import org.killbill.billing.util.config.definition.CatalogConfig;
+import org.killbill.commons.utils.io.Resources;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class TestCatalogSnapshotDao extends CatalogTestSuiteWithEmbeddedDB {
+
+    @Inject
+    protected CatalogSnapshotDao catalogSnapshotDao;
+
+    @Inject
+    protected CatalogConfig catalogConfig;
+
+    @Inject
+    protected InternalCallContextFactory internalCallContextFactory;
+
+    @Override
+    protected KillbillConfigSource getConfigSource(final Map<String, String> extraProperties) {
+        final Map<String, String> allExtraProperties = new HashMap<String, String>(extraProperties);
+        allExtraProperties.put("org.killbill.catalog.snapshot.enabled", "true");
+        return super.getConfigSource(allExtraProperties);
+    }
+
+    @Test(groups = "slow")
+    public void testSaveAndGetSnapshot() {
+        final Long tenantRecordId = internalCallContext.getTenantRecordId();
+        Assert.assertNull(catalogSnapshotDao.getSnapshot(false, tenantRecordId));
+
+        catalogSnapshotDao.saveSnapshot(new byte[]{1, 2, 3}, false, tenantRecordId);
+        Assert.assertEquals(catalogSnapshotDao.getSnapshot(false, tenantRecordId), new byte[]{1, 2, 3});
+        Assert.assertNull(catalogSnapshotDao.getSnapshot(true, tenantRecordId));
+        Assert.assertNull(catalogSnapshotDao.getSnapshot(false, tenantRecordId + 1));
+
+        // The previous snapshot is replaced
+        catalogSnapshotDao.saveSnapshot(new byte[]{4, 5}, false, tenantRecordId);
+        Assert.assertEquals(catalogSnapshotDao.getSnapshot(false, tenantRecordId), new byte[]{4, 5});
+    }
+
+    @Test(groups = "slow")
+    public void testLoadFromSnapshot() throws Exception {
+        final String v1 = getVersionedCatalogXML("WeaponsHireSmall-1.xml");
+        final String v2 = getVersionedCatalogXML("WeaponsHireSmall-2.xml");
+        final String v3 = getVersionedCatalogXML("WeaponsHireSmall-3.xml");
+        final Long tenantRecordId = internalCallContext.getTenantRecordId();
+
+        final VersionedCatalog c1;
+        try (final VersionedCatalogLoader loader = new VersionedCatalogLoader(catalogConfig, priceOverride, catalogSnapshotDao, internalCallContextFactory)) {
+            c1 = loader.load(List.of(v1, v2), false, tenantRecordId);
+        }
+        Assert.assertNotNull(catalogSnapshotDao.getSnapshot(false, tenantRecordId));
+
+        // Another node: the existing versions come from the snapshot, only the new one is parsed
+        final VersionedCatalog c2;
+        try (final VersionedCatalogLoader loader = new VersionedCatalogLoader(catalogConfig, priceOverride, catalogSnapshotDao, internalCallContextFactory)) {
+            c2 = loader.load(List.of(v1, v2, v3), false, tenantRecordId);
+        }
+        Assert.assertEquals(c2.getVersions().size(), 3);
+        Assert.assertNotSame(c2.getVersions().get(0), c1.getVersions().get(0));
+        Assert.assertEquals(c2.getVersions().get(0), c1.getVersions().get(0));
+        Assert.assertEquals(c2.getVersions().get(1), c1.getVersions().get(1));
+        Assert.assertEquals(c2.getVersions().get(1).findPlan("pistol-monthly"), c1.getVersions().get(1).findPlan("pistol-monthly"));
+
+        // Corrupted snapshot: the versions are parsed again
+        catalogSnapshotDao.saveSnapshot(new byte[]{1, 2, 3}, false, tenantRecordId);
+        try (final VersionedCatalogLoader loader = new VersionedCatalogLoader(catalogConfig, priceOverride, catalogSnapshotDao, internalCallContextFactory)) {
+            Assert.assertEquals(loader.load(List.of(v1, v2, v3), false, tenantRecordId), c2);
+        }
+    }
+
+    private String getVersionedCatalogXML(final String name) throws Exception {
+        return new String(Resources.getResource("org/killbill/billing/catalog/versionedCatalog/" + name).openStream().readAllBytes(), StandardCharsets.UTF_8);
+    }
+}
@@ -20,6 +20,7 @@ package org.killbill.billing.catalog.glue;
 
 import org.killbill.billing.GuicyKillbillTestNoDBModule;
 import org.killbill.billing.catalog.dao.CatalogOverrideDao;
+import org.killbill.billing.catalog.dao.CatalogSnapshotDao;
 import org.killbill.billing.platform.api.KillbillConfigSource;
 import org.killbill.clock.ClockMock;
 import org.mockito.Mockito;
@@ -31,6 +32,8 @@ public class TestCatalogModuleNoDB extends TestCatalogModule {
     protected void installCatalogDao() {
         final CatalogOverrideDao mockCatalogOverrideDao = Mockito.mock(CatalogOverrideDao.class);
         bind(CatalogOverrideDao.class).toInstance(mockCatalogOverrideDao);
+        final CatalogSnapshotDao mockCatalogSnapshotDao = Mockito.mock(CatalogSnapshotDao.class);
+        bind(CatalogSnapshotDao.class).toInstance(mockCatalogSnapshotDao);
     }
 
     public TestCatalogModuleNoDB(final KillbillConfigSource configSource, final ClockMock clock) {
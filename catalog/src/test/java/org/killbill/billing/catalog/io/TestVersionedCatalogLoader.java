@@ -24,20 +24,31 @@ import java.net.MalformedURLException;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.URL;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.joda.time.DateTime;
 import org.killbill.billing.catalog.CatalogTestSuiteNoDB;
 import org.killbill.billing.catalog.api.CatalogApiException;
 import org.killbill.billing.catalog.api.VersionedCatalog;
+import org.killbill.billing.platform.api.KillbillConfigSource;
 import org.killbill.commons.utils.io.Resources;
 import org.testng.Assert;
 import org.testng.annotations.Test;
 
 public class TestVersionedCatalogLoader extends CatalogTestSuiteNoDB {
 
+    @Override
+    protected KillbillConfigSource getConfigSource(final Map<String, String> extraProperties) {
+        final Map<String, String> allExtraProperties = new HashMap<String, String>(extraProperties);
+        allExtraProperties.put("org.killbill.catalog.loader.incremental.maxTenants", "10");
+        return super.getConfigSource(allExtraProperties);
+    }
+
     @Test(groups = "fast")
     public void testAppendToURI() throws IOException, URISyntaxException {
         final URL u1 = new URL("http://www.ning.com/foo");
@@ -160,4 +171,43 @@ public class TestVersionedCatalogLoader extends CatalogTestSuiteNoDB {
         final VersionedCatalog c = loader.loadDefaultCatalog(destinationFile.toURI().toString());
         Assert.assertEquals(c.getCatalogName(), "SpyCarBasic");
     }
+
+    @Test(groups = "fast")
+    public void testIncrementalLoad() throws Exception {
+        final String v1 = getVersionedCatalogXML("WeaponsHireSmall-1.xml");
+        final String v2 = getVersionedCatalogXML("WeaponsHireSmall-2.xml");
+        final String v3 = getVersionedCatalogXML("WeaponsHireSmall-3.xml");
+        final Long tenantRecordId = 1L;
+
+        final VersionedCatalog c1 = loader.load(List.of(v1, v2), false, tenantRecordId);
+        Assert.assertEquals(c1.getVersions().size(), 2);
+
+        // Only the new version is parsed
+        final VersionedCatalog c2 = loader.load(List.of(v1, v2, v3), false, tenantRecordId);
+        Assert.assertEquals(c2.getVersions().size(), 3);
+        Assert.assertSame(c2.getVersions().get(0), c1.getVersions().get(0));
+        Assert.assertSame(c2.getVersions().get(1), c1.getVersions().get(1));
+        Assert.assertEquals(c2.getVersions().get(2).getEffectiveDate(), new DateTime("2011-03-03T00:00:00+00:00").toDate());
+        Assert.assertNotNull(c2.getVersions().get(2).findPlan("pistol-monthly"));
+
+        // The new version is still validated against the existing ones
+        try {
+            loader.load(List.of(v1, v2, v3, v3 + "<!-- Same effective date -->"), false, tenantRecordId);
+            Assert.fail("Duplicate effective date");
+        } catch (final CatalogApiException ignored) {
+        }
+
+        // The last successful load is kept
+        final VersionedCatalog c3 = loader.load(List.of(v1, v2, v3), false, tenantRecordId);
+        Assert.assertSame(c3.getVersions().get(2), c2.getVersions().get(2));
+
+        // Versions are not shared across tenants
+        final VersionedCatalog otherTenantCatalog = loader.load(List.of(v1), false, tenantRecordId + 1);
+        Assert.assertNotSame(otherTenantCatalog.getVersions().get(0), c1.getVersions().get(0));
+        Assert.assertEquals(otherTenantCatalog.getVersions().get(0), c1.getVersions().get(0));
+    }
+
+    private String getVersionedCatalogXML(final String name) throws IOException {
+        return new String(Resources.getResource("org/killbill/billing/catalog/versionedCatalog/" + name).openStream().readAllBytes(), StandardCharsets.UTF_8);
+    }
 }
@@ -387,7 +387,7 @@ public class DefaultBlockingStateDao extends EntityDaoBase<BlockingStateModelDao
 
     private void notifyBusFromTransaction(final EntitySqlDaoWrapperFactory entitySqlDaoWrapperFactory, final BusEvent event) {
         try {
-            eventBus.postFromTransaction(event, entitySqlDaoWrapperFactory.getHandle().getConnection());
+            eventBus.postFromTransaction(event, entitySqlDaoWrapperFactory);
         } catch (final EventBusException e) {
             log.warn("Failed to post event {}", event, e);
         }
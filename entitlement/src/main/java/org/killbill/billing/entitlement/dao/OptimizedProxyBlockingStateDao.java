@@ -110,4 +110,30 @@ public class OptimizedProxyBlockingStateDao extends ProxyBlockingStateDao {
                                           List.of(baseSubscription),
                                           eventsStreams);
     }
+
+    /**
+     * Retrieve blocking states for a given subscription, when the blocking states not on disk have already been computed
+     * from the EventsStream of the base subscription (see EventsStream#computeAddonsBlockingStatesForFutureSubscriptionBaseEvents)
+     * <p/>
+     * This is a special method for EventsStreamBuilder#buildForAccount, which computes them once per bundle instead of once per add-on.
+     *
+     * @param subscriptionBlockingStatesOnDisk blocking states on disk for that subscription
+     * @param subscription                     subscription for which to build blocking states
+     * @param blockingStatesNotOnDisk          blocking states not on disk computed for that subscription
+     * @return blocking states for that subscription
+     */
+    public Collection<BlockingState> getBlockingHistory(final Collection<BlockingState> subscriptionBlockingStatesOnDisk,
+                                                        final SubscriptionBase subscription,
+                                                        final Collection<BlockingState> blockingStatesNotOnDisk) {
+        // blockable id points to a subscription, but make sure it's an add-on
+        if (!ProductCategory.ADD_ON.equals(subscription.getCategory())) {
+            // blockable id points to a base or standalone subscription, there is nothing to do
+            return subscriptionBlockingStatesOnDisk;
+        }
+
+        return addBlockingStatesNotOnDisk(subscription.getId(),
+                                          BlockingStateType.SUBSCRIPTION,
+                                          new LinkedList<>(subscriptionBlockingStatesOnDisk),
+                                          List.of(blockingStatesNotOnDisk));
+    }
 }
@@ -311,13 +311,24 @@ public class ProxyBlockingStateDao implements BlockingStateDao {
         }
 
         // Compute the blocking states not on disk for all base subscriptions
-        final DateTime now = clock.getUTCNow();
+        final Collection<Collection<BlockingState>> blockingStatesNotOnDiskPerBaseSubscription = new LinkedList<>();
         for (final SubscriptionBase baseSubscription : baseSubscriptionsToConsider) {
             final EventsStream eventsStream = baseSubscriptionIdToEventsStream.get(baseSubscription.getId());
 
             // First, check to see if the base entitlement is cancelled
-            final Collection<BlockingState> blockingStatesNotOnDisk = eventsStream.computeAddonsBlockingStatesForFutureSubscriptionBaseEvents();
+            blockingStatesNotOnDiskPerBaseSubscription.add(eventsStream.computeAddonsBlockingStatesForFutureSubscriptionBaseEvents());
+        }
+
+        return addBlockingStatesNotOnDisk(blockableId, blockingStateType, blockingStatesOnDiskCopy, blockingStatesNotOnDiskPerBaseSubscription);
+    }
 
+    // Special signature for OptimizedProxyBlockingStateDao, when the blocking states not on disk have already been computed
+    protected List<BlockingState> addBlockingStatesNotOnDisk(@Nullable final UUID blockableId,
+                                                             @Nullable final BlockingStateType blockingStateType,
+                                                             final Collection<BlockingState> blockingStatesOnDiskCopy,
+                                                             final Iterable<Collection<BlockingState>> blockingStatesNotOnDiskPerBaseSubscription) {
+        final DateTime now = clock.getUTCNow();
+        for (final Collection<BlockingState> blockingStatesNotOnDisk : blockingStatesNotOnDiskPerBaseSubscription) {
             // Inject the extra blocking states into the stream if needed
             for (final BlockingState blockingState : blockingStatesNotOnDisk) {
                 // If this entitlement is actually already cancelled, add the cancellation event we computed
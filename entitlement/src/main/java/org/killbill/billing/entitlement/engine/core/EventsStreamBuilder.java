@@ -215,43 +215,56 @@ public class EventsStreamBuilder {
                 subscriptionsPerBundle.put(bundleId, allSubscriptionsForBundle);
             }
 
+            // Optimization: build the EventsStream for the base subscription once per bundle, and derive from it the blocking states
+            // not on disk for all add-ons, instead of building it again for each add-on (see OptimizedProxyBlockingStateDao#getBlockingHistory)
+            final EventsStream baseEventsStream;
+            final Map<UUID, List<BlockingState>> addOnsBlockingStatesNotOnDisk = new HashMap<>();
+            if (baseSubscription != null) {
+                final List<BlockingState> baseBlockingStatesOnDisk = Objects.requireNonNullElse(blockingStatesPerSubscription.get(baseSubscription.getId()), Collections.emptyList());
+                baseEventsStream = buildForEntitlement(account,
+                                                       bundle,
+                                                       baseSubscription,
+                                                       baseSubscription,
+                                                       allSubscriptionsForBundle,
+                                                       mergeBlockingStates(accountBlockingStates, bundleBlockingStates, baseBlockingStatesOnDisk),
+                                                       accountBCD,
+                                                       bcdCache,
+                                                       catalog,
+                                                       false, //includeDeletedEvents - set to false since it does not matter while building entitlements for account.
+                                                       internalTenantContext);
+                if (allSubscriptionsForBundle.size() > 1) {
+                    for (final BlockingState blockingState : baseEventsStream.computeAddonsBlockingStatesForFutureSubscriptionBaseEvents()) {
+                        addOnsBlockingStatesNotOnDisk.computeIfAbsent(blockingState.getBlockedId(), k -> new LinkedList<BlockingState>()).add(blockingState);
+                    }
+                }
+            } else {
+                baseEventsStream = null;
+            }
+
             for (final SubscriptionBase subscription : allSubscriptionsForBundle) {
+                if (baseEventsStream != null && subscription.getId().equals(baseSubscription.getId())) {
+                    eventsStreamPerBundle.get(bundleId).add(baseEventsStream);
+                    continue;
+                }
+
                 final List<BlockingState> subscriptionBlockingStatesOnDisk = Objects.requireNonNullElse(blockingStatesPerSubscription.get(subscription.getId()), Collections.emptyList());
 
-                // We cannot always use blockingStatesForAccount here: we need subscriptionBlockingStates to contain the events not on disk when building an EventsStream
-                // for an add-on - which means going through the magic of ProxyBlockingStateDao, which will recursively
-                // create EventsStream objects. To avoid an infinite recursion, bypass ProxyBlockingStateDao when it's not
-                // needed, i.e. if this EventStream is for a standalone or a base subscription
+                // For add-ons, subscriptionBlockingStates needs to contain the events not on disk when building an EventsStream
                 final Collection<BlockingState> subscriptionBlockingStates;
-                if (baseSubscription == null || subscription.getId().equals(baseSubscription.getId())) {
+                if (baseSubscription == null) {
                     subscriptionBlockingStates = subscriptionBlockingStatesOnDisk;
                 } else {
                     subscriptionBlockingStates = blockingStateDao.getBlockingHistory(subscriptionBlockingStatesOnDisk,
-                                                                                     blockingStatesForAccount,
-                                                                                     account,
-                                                                                     bundle,
-                                                                                     baseSubscription,
                                                                                      subscription,
-                                                                                     allSubscriptionsForBundle,
-                                                                                     accountBCD,
-                                                                                     catalog,
-                                                                                     false, //includeDeletedEvents set to false since deleted events are not needed while building entitlements for account.
-                                                                                     internalTenantContext);
-
+                                                                                     Objects.requireNonNullElse(addOnsBlockingStatesNotOnDisk.get(subscription.getId()), Collections.emptyList()));
                 }
 
-                // Merge the BlockingStates
-                final Collection<BlockingState> blockingStateSet = new LinkedHashSet<BlockingState>(accountBlockingStates);
-                blockingStateSet.addAll(bundleBlockingStates);
-                blockingStateSet.addAll(subscriptionBlockingStates);
-                final List<BlockingState> blockingStates = ProxyBlockingStateDao.sortedCopy(blockingStateSet);
-
                 final EventsStream eventStream = buildForEntitlement(account,
                                                                      bundle,
                                                                      baseSubscription,
                                                                      subscription,
                                                                      allSubscriptionsForBundle,
-                                                                     blockingStates,
+                                                                     mergeBlockingStates(accountBlockingStates, bundleBlockingStates, subscriptionBlockingStates),
                                                                      accountBCD,
                                                                      bcdCache,
                                                                      catalog,
@@ -408,10 +421,7 @@ public class EventsStreamBuilder {
         }
 
         // Merge the BlockingStates
-        final Collection<BlockingState> blockingStateSet = new LinkedHashSet<>(accountBlockingStates);
-        blockingStateSet.addAll(bundleBlockingStates);
-        blockingStateSet.addAll(subscriptionBlockingStates);
-        final List<BlockingState> blockingStates = ProxyBlockingStateDao.sortedCopy(blockingStateSet);
+        final List<BlockingState> blockingStates = mergeBlockingStates(accountBlockingStates, bundleBlockingStates, subscriptionBlockingStates);
 
         if(includeDeletedEvents) {
             return buildForEntitlement(account, bundle, baseSubscription, subscription, allSubscriptionsForBundle, blockingStates.stream().filter(state -> state.isActive()).collect(Collectors.toList()), blockingStates, accountBCD, bcdCache, catalog, internalTenantContext);
@@ -484,6 +494,15 @@ public class EventsStreamBuilder {
         return buildForEntitlement(bundle, subscription, subscriptionsForBundle, includeDeletedEvents, internalTenantContext);
     }
 
+    private static List<BlockingState> mergeBlockingStates(final Collection<BlockingState> accountBlockingStates,
+                                                           final Collection<BlockingState> bundleBlockingStates,
+                                                           final Collection<BlockingState> subscriptionBlockingStates) {
+        final Collection<BlockingState> blockingStateSet = new LinkedHashSet<BlockingState>(accountBlockingStates);
+        blockingStateSet.addAll(bundleBlockingStates);
+        blockingStateSet.addAll(subscriptionBlockingStates);
+        return ProxyBlockingStateDao.sortedCopy(blockingStateSet);
+    }
+
     private PlanPhaseSpecifier createPlanPhaseSpecifier(final SubscriptionBase subscription) {
         final String planName;
         final PhaseType phaseType;
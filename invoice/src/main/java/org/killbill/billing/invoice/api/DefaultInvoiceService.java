@@ -20,6 +20,7 @@ package org.killbill.billing.invoice.api;
 
 import jakarta.inject.Inject;
 
+import org.killbill.billing.invoice.dao.AccountCBALedgerReconciler;
 import org.killbill.billing.invoice.notification.ParentInvoiceCommitmentNotifier;
 import org.killbill.billing.util.optimizer.BusOptimizer;
 import org.killbill.bus.api.PersistentBus;
@@ -38,15 +39,18 @@ public class DefaultInvoiceService implements InvoiceService {
     private final InvoiceTagHandler tagHandler;
     private final BusOptimizer eventBus;
     private final ParentInvoiceCommitmentNotifier parentInvoiceNotifier;
+    private final AccountCBALedgerReconciler accountCBALedgerReconciler;
 
     @Inject
     public DefaultInvoiceService(final InvoiceListener invoiceListener, final InvoiceTagHandler tagHandler, final BusOptimizer eventBus,
-                                 final NextBillingDateNotifier dateNotifier, final ParentInvoiceCommitmentNotifier parentInvoiceNotifier) {
+                                 final NextBillingDateNotifier dateNotifier, final ParentInvoiceCommitmentNotifier parentInvoiceNotifier,
+                                 final AccountCBALedgerReconciler accountCBALedgerReconciler) {
         this.invoiceListener = invoiceListener;
         this.tagHandler = tagHandler;
         this.eventBus = eventBus;
         this.dateNotifier = dateNotifier;
         this.parentInvoiceNotifier = parentInvoiceNotifier;
+        this.accountCBALedgerReconciler = accountCBALedgerReconciler;
     }
 
     @Override
@@ -75,6 +79,7 @@ public class DefaultInvoiceService implements InvoiceService {
     public void start() {
         dateNotifier.start();
         parentInvoiceNotifier.start();
+        accountCBALedgerReconciler.start();
     }
 
     @LifecycleHandlerType(LifecycleLevel.STOP_SERVICE)
@@ -87,5 +92,6 @@ public class DefaultInvoiceService implements InvoiceService {
         }
         dateNotifier.stop();
         parentInvoiceNotifier.stop();
+        accountCBALedgerReconciler.stop();
     }
 }
@@ -175,6 +175,11 @@ public class MultiTenantInvoiceConfig extends MultiTenantLockAwareConfigBase imp
         return staticConfig.isEmailNotificationsEnabled();
     }
 
+    @Override
+    public BillingEventSerializationMode getBillingEventSerializationMode() {
+        return staticConfig.getBillingEventSerializationMode();
+    }
+
     @Override
     public int getMaxGlobalLockRetries() {
         return staticConfig.getMaxGlobalLockRetries();
@@ -199,6 +204,16 @@ public class MultiTenantInvoiceConfig extends MultiTenantLockAwareConfigBase imp
         return staticConfig.isInvoicingSystemEnabled();
     }
 
+    @Override
+    public boolean isAccountCBALedgerEnabled() {
+        return staticConfig.isAccountCBALedgerEnabled();
+    }
+
+    @Override
+    public TimeSpan getAccountCBALedgerReconciliationInterval() {
+        return staticConfig.getAccountCBALedgerReconciliationInterval();
+    }
+
     @Override
     public String getParentAutoCommitUtcTime() {
         return staticConfig.getParentAutoCommitUtcTime();
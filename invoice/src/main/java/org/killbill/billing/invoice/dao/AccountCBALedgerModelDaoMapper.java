@@ -0,0 +1,38 @@
+/*
+ * Copyright 2020-2026 Equinix, Inc
+ * Copyright 2014-2026 The Billing Project, LLC
+ *
+ * The Billing Project licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.killbill.billing.invoice.dao;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import org.killbill.billing.util.dao.MapperBase;
+import org.skife.jdbi.v2.StatementContext;
+import org.skife.jdbi.v2.tweak.ResultSetMapper;
+
+public class AccountCBALedgerModelDaoMapper extends MapperBase implements ResultSetMapper<AccountCBALedgerModelDao> {
+
+    @Override
+    public AccountCBALedgerModelDao map(final int index, final ResultSet r, final StatementContext ctx) throws SQLException {
+        final AccountCBALedgerModelDao ledger = new AccountCBALedgerModelDao();
+        ledger.setRecordId(r.getLong("record_id"));
+        ledger.setCba(r.getBigDecimal("cba"));
+        ledger.setUpdatedDate(getDateTime(r, "updated_date"));
+        ledger.setAccountRecordId(r.getLong("account_record_id"));
+        ledger.setTenantRecordId(r.getLong("tenant_record_id"));
+        return ledger;
+    }
+}
@@ -0,0 +1,165 @@
+/*
+ * Copyright 2020-2026 Equinix, Inc
+ * Copyright 2014-2026 The Billing Project, LLC
+ *
+ * The Billing Project licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.killbill.billing.invoice.dao;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import jakarta.inject.Inject;
+import jakarta.inject.Named;
+
+import org.joda.time.DateTime;
+import org.killbill.billing.callcontext.InternalCallContext;
+import org.killbill.billing.util.cache.CacheControllerDispatcher;
+import org.killbill.billing.util.callcontext.CallOrigin;
+import org.killbill.billing.util.callcontext.InternalCallContextFactory;
+import org.killbill.billing.util.callcontext.UserType;
+import org.killbill.billing.util.config.definition.InvoiceConfig;
+import org.killbill.billing.util.dao.NonEntityDao;
+import org.killbill.billing.util.entity.dao.EntitySqlDaoTransactionalJdbiWrapper;
+import org.killbill.clock.Clock;
+import org.killbill.commons.concurrent.Executors;
+import org.killbill.commons.utils.annotation.VisibleForTesting;
+import org.skife.jdbi.v2.IDBI;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import static org.killbill.billing.util.glue.IDBISetup.MAIN_RO_IDBI_NAMED;
+
+/**
+ * Periodically verifies the running CBA of the accounts updated since the previous run (see CBADao) against the
+ * full computation from the invoice items, and fixes it if needed. The first run, right after startup, verifies all
+ * accounts: until it completes, the running CBA isn't trusted by CBADao.
+ */
+public class AccountCBALedgerReconciler {
+
+    private static final int TERMINATION_TIMEOUT_SEC = 5;
+
+    private static final Logger logger = LoggerFactory.getLogger(AccountCBALedgerReconciler.class);
+
+    private final EntitySqlDaoTransactionalJdbiWrapper transactionalSqlDao;
+    private final CBADao cbaDao;
+    private final InvoiceConfig invoiceConfig;
+    private final InternalCallContextFactory internalCallContextFactory;
+    private final Clock clock;
+
+    private ScheduledExecutorService reconcilerExecutor;
+    private DateTime lastReconciliationDate;
+
+    @Inject
+    public AccountCBALedgerReconciler(final IDBI dbi,
+                                      @Named(MAIN_RO_IDBI_NAMED) final IDBI roDbi,
+                                      final Clock clock,
+                                      final CacheControllerDispatcher cacheControllerDispatcher,
+                                      final NonEntityDao nonEntityDao,
+                                      final InternalCallContextFactory internalCallContextFactory,
+                                      final CBADao cbaDao,
+                                      final InvoiceConfig invoiceConfig) {
+        this.transactionalSqlDao = new EntitySqlDaoTransactionalJdbiWrapper(dbi, roDbi, clock, cacheControllerDispatcher, nonEntityDao, internalCallContextFactory);
+        this.cbaDao = cbaDao;
+        this.invoiceConfig = invoiceConfig;
+        this.internalCallContextFactory = internalCallContextFactory;
+        this.clock = clock;
+    }
+
+    public void start() {
+        if (!invoiceConfig.isAccountCBALedgerEnabled()) {
+            return;
+        }
+
+        final TimeUnit rateUnit = invoiceConfig.getAccountCBALedgerReconciliationInterval().getUnit();
+        final long period = invoiceConfig.getAccountCBALedgerReconciliationInterval().getPeriod();
+        // The ledger may have been disabled while we were stopped
+        cbaDao.setAccountCBALedgerVerified(false);
+        reconcilerExecutor = Executors.newSingleThreadScheduledExecutor("AccountCBALedgerReconciler");
+        reconcilerExecutor.scheduleAtFixedRate(() -> {
+            try {
+                reconcile();
+            } catch (final RuntimeException e) {
+                logger.warn("Failed to reconcile the account CBA ledger", e);
+            }
+        }, 0, period, rateUnit);
+    }
+
+    public void stop() {
+        if (reconcilerExecutor == null) {
+            return;
+        }
+
+        try {
+            reconcilerExecutor.shutdown();
+            final boolean success = reconcilerExecutor.awaitTermination(TERMINATION_TIMEOUT_SEC, TimeUnit.SECONDS);
+            if (!success) {
+                logger.warn("AccountCBALedgerReconciler failed to complete termination within " + TERMINATION_TIMEOUT_SEC + "sec");
+            }
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            logger.warn("AccountCBALedgerReconciler stop sequence got interrupted");
+        } finally {
+            reconcilerExecutor = null;
+        }
+    }
+
+    public synchronized void reconcile() {
+        final DateTime reconciliationDate = clock.getUTCNow();
+        if (!cbaDao.isAccountCBALedgerVerified()) {
+            reconcileUpdatedSince(new DateTime(0L));
+            cbaDao.setAccountCBALedgerVerified(true);
+        } else {
+            reconcileUpdatedSince(lastReconciliationDate);
+        }
+        lastReconciliationDate = reconciliationDate;
+    }
+
+    // Return the number of accounts which running CBA had to be fixed
+    @VisibleForTesting
+    int reconcileUpdatedSince(final DateTime updatedDate) {
+        final List<AccountCBALedgerModelDao> ledgers = transactionalSqlDao.execute(true, entitySqlDaoWrapperFactory -> entitySqlDaoWrapperFactory.getHandle().attach(AccountCBALedgerSqlDao.class).getUpdatedSince(updatedDate.toDate()));
+
+        int nbFixed = 0;
+        for (final AccountCBALedgerModelDao ledger : ledgers) {
+            if (reconcile(ledger)) {
+                nbFixed++;
+            }
+        }
+        return nbFixed;
+    }
+
+    private boolean reconcile(final AccountCBALedgerModelDao ledger) {
+        final InternalCallContext context = internalCallContextFactory.createInternalCallContext(ledger.getTenantRecordId(), ledger.getAccountRecordId(), "AccountCBALedgerReconciler", CallOrigin.INTERNAL, UserType.SYSTEM, null);
+        return transactionalSqlDao.execute(false, entitySqlDaoWrapperFactory -> {
+            final AccountCBALedgerSqlDao accountCBALedgerSqlDao = entitySqlDaoWrapperFactory.getHandle().attach(AccountCBALedgerSqlDao.class);
+            // Lock the row first: concurrent changes are either visible below, or will be applied on top of the fixed value
+            final BigDecimal accountCBA = accountCBALedgerSqlDao.getAccountCBAForUpdate(context);
+            if (accountCBA == null) {
+                return false;
+            }
+
+            final BigDecimal computedAccountCBA = cbaDao.computeAccountCBAFromTransaction(entitySqlDaoWrapperFactory, context);
+            if (accountCBA.compareTo(computedAccountCBA) == 0) {
+                return false;
+            }
+
+            logger.warn("Fixing running CBA for accountRecordId='{}', tenantRecordId='{}': ledger='{}', computed='{}'",
+                        ledger.getAccountRecordId(), ledger.getTenantRecordId(), accountCBA, computedAccountCBA);
+            accountCBALedgerSqlDao.updateAccountCBA(computedAccountCBA, context);
+            return true;
+        });
+    }
+}
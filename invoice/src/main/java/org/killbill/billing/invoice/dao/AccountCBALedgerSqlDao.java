@@ -0,0 +1,59 @@
+/*
+ * Copyright 2020-2026 Equinix, Inc
+ * Copyright 2014-2026 The Billing Project, LLC
+ *
+ * The Billing Project licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.killbill.billing.invoice.dao;
+
+import java.math.BigDecimal;
+import java.util.Date;
+import java.util.List;
+
+import org.killbill.billing.callcontext.InternalCallContext;
+import org.killbill.billing.callcontext.InternalTenantContext;
+import org.killbill.commons.jdbi.binder.SmartBindBean;
+import org.killbill.commons.jdbi.template.KillBillSqlDaoStringTemplate;
+import org.skife.jdbi.v2.sqlobject.Bind;
+import org.skife.jdbi.v2.sqlobject.SqlQuery;
+import org.skife.jdbi.v2.sqlobject.SqlUpdate;
+import org.skife.jdbi.v2.sqlobject.customizers.Mapper;
+import org.skife.jdbi.v2.sqlobject.mixins.CloseMe;
+import org.skife.jdbi.v2.sqlobject.mixins.Transactional;
+
+// Running CBA per account, see CBADao
+@KillBillSqlDaoStringTemplate
+public interface AccountCBALedgerSqlDao extends Transactional<AccountCBALedgerSqlDao>, CloseMe {
+
+    @SqlQuery
+    BigDecimal getAccountCBA(@SmartBindBean final InternalTenantContext context);
+
+    @SqlQuery
+    BigDecimal getAccountCBAForUpdate(@SmartBindBean final InternalTenantContext context);
+
+    @SqlUpdate
+    void create(@Bind("cba") final BigDecimal cba,
+                @SmartBindBean final InternalCallContext context);
+
+    @SqlUpdate
+    int addToAccountCBA(@Bind("amount") final BigDecimal amount,
+                        @SmartBindBean final InternalCallContext context);
+
+    @SqlUpdate
+    void updateAccountCBA(@Bind("cba") final BigDecimal cba,
+                          @SmartBindBean final InternalCallContext context);
+
+    @SqlQuery
+    @Mapper(AccountCBALedgerModelDaoMapper.class)
+    List<AccountCBALedgerModelDao> getUpdatedSince(@Bind("updatedDate") final Date updatedDate);
+}
@@ -22,8 +22,10 @@ import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
 import java.util.stream.Collectors;
@@ -35,10 +37,12 @@ import org.killbill.billing.callcontext.InternalCallContext;
 import org.killbill.billing.callcontext.InternalTenantContext;
 import org.killbill.billing.entity.EntityPersistenceException;
 import org.killbill.billing.invoice.api.InvoiceApiException;
+import org.killbill.billing.invoice.api.InvoiceItemType;
 import org.killbill.billing.invoice.api.InvoicePaymentStatus;
 import org.killbill.billing.invoice.api.InvoicePaymentType;
 import org.killbill.billing.invoice.api.InvoiceStatus;
 import org.killbill.billing.invoice.model.CreditBalanceAdjInvoiceItem;
+import org.killbill.billing.util.config.definition.InvoiceConfig;
 import org.killbill.billing.util.customfield.CustomField;
 import org.killbill.commons.utils.annotation.VisibleForTesting;
 import org.killbill.billing.util.entity.dao.EntitySqlDaoWrapperFactory;
@@ -47,18 +51,118 @@ import org.killbill.billing.util.tag.Tag;
 public class CBADao {
 
     private final InvoiceDaoHelper invoiceDaoHelper;
+    private final InvoiceConfig invoiceConfig;
+    // The rows of the account CBA ledger may be stale (e.g. if it was disabled for some time): they are only trusted
+    // once all of them have been verified since startup (see AccountCBALedgerReconciler)
+    private volatile boolean accountCBALedgerVerified;
 
     @Inject
-    public CBADao(final InvoiceDaoHelper invoiceDaoHelper) {
+    public CBADao(final InvoiceDaoHelper invoiceDaoHelper, final InvoiceConfig invoiceConfig) {
         this.invoiceDaoHelper = invoiceDaoHelper;
+        this.invoiceConfig = invoiceConfig;
     }
 
     // PERF: Compute the CBA directly in the database (faster than re-constructing all invoices)
     public BigDecimal getAccountCBAFromTransaction(final EntitySqlDaoWrapperFactory entitySqlDaoWrapperFactory, final InternalTenantContext context) {
+        if (invoiceConfig.isAccountCBALedgerEnabled() && accountCBALedgerVerified) {
+            // PERF: single row lookup, the ledger is created lazily on the first CBA change (see recordCBAChangeFromTransaction)
+            final BigDecimal accountCBA = entitySqlDaoWrapperFactory.getHandle().attach(AccountCBALedgerSqlDao.class).getAccountCBA(context);
+            if (accountCBA != null) {
+                return accountCBA;
+            }
+        }
+        return computeAccountCBAFromTransaction(entitySqlDaoWrapperFactory, context);
+    }
+
+    boolean isAccountCBALedgerVerified() {
+        return accountCBALedgerVerified;
+    }
+
+    void setAccountCBALedgerVerified(final boolean accountCBALedgerVerified) {
+        this.accountCBALedgerVerified = accountCBALedgerVerified;
+    }
+
+    BigDecimal computeAccountCBAFromTransaction(final EntitySqlDaoWrapperFactory entitySqlDaoWrapperFactory, final InternalTenantContext context) {
         final InvoiceItemSqlDao invoiceItemSqlDao = entitySqlDaoWrapperFactory.become(InvoiceItemSqlDao.class);
         return invoiceItemSqlDao.getAccountCBA(context);
     }
 
+    //
+    // Account CBA ledger: the running CBA of the account is updated in the same transaction as the changes below, which need to have been
+    // written already. Only CBA_ADJ items on COMMITTED invoices count towards the account CBA (see InvoiceItemSqlDao#getAccountCBA).
+    //
+
+    // Newly created items
+    public void recordCBAItemsFromTransaction(final Iterable<InvoiceItemModelDao> createdItems,
+                                              final EntitySqlDaoWrapperFactory entitySqlDaoWrapperFactory,
+                                              final InternalCallContext context) {
+        if (!invoiceConfig.isAccountCBALedgerEnabled()) {
+            return;
+        }
+
+        BigDecimal amount = BigDecimal.ZERO;
+        final Map<UUID, Boolean> isCommittedByInvoiceId = new HashMap<>();
+        for (final InvoiceItemModelDao item : createdItems) {
+            if (item.getType() == InvoiceItemType.CBA_ADJ &&
+                isCommittedByInvoiceId.computeIfAbsent(item.getInvoiceId(), invoiceId -> isInvoiceCommittedFromTransaction(invoiceId, entitySqlDaoWrapperFactory, context))) {
+                amount = amount.add(item.getAmount());
+            }
+        }
+        recordCBAChangeFromTransaction(amount, entitySqlDaoWrapperFactory, context);
+    }
+
+    // Existing item which amount was updated (existingItem is the state prior the update)
+    public void recordCBAItemUpdateFromTransaction(final InvoiceItemModelDao existingItem,
+                                                   @Nullable final BigDecimal newAmount,
+                                                   final EntitySqlDaoWrapperFactory entitySqlDaoWrapperFactory,
+                                                   final InternalCallContext context) {
+        if (!invoiceConfig.isAccountCBALedgerEnabled() ||
+            newAmount == null ||
+            existingItem.getType() != InvoiceItemType.CBA_ADJ ||
+            !isInvoiceCommittedFromTransaction(existingItem.getInvoiceId(), entitySqlDaoWrapperFactory, context)) {
+            return;
+        }
+        recordCBAChangeFromTransaction(newAmount.subtract(existingItem.getAmount()), entitySqlDaoWrapperFactory, context);
+    }
+
+    // Existing invoice which status was updated
+    public void recordInvoiceStatusChangeFromTransaction(final UUID invoiceId,
+                                                         final InvoiceStatus previousStatus,
+                                                         final InvoiceStatus newStatus,
+                                                         final EntitySqlDaoWrapperFactory entitySqlDaoWrapperFactory,
+                                                         final InternalCallContext context) {
+        final boolean wasCommitted = previousStatus == InvoiceStatus.COMMITTED;
+        final boolean isCommitted = newStatus == InvoiceStatus.COMMITTED;
+        if (!invoiceConfig.isAccountCBALedgerEnabled() || wasCommitted == isCommitted) {
+            return;
+        }
+
+        final BigDecimal invoiceCBA = entitySqlDaoWrapperFactory.become(InvoiceItemSqlDao.class).getInvoiceCBA(invoiceId.toString(), context);
+        recordCBAChangeFromTransaction(isCommitted ? invoiceCBA : invoiceCBA.negate(), entitySqlDaoWrapperFactory, context);
+    }
+
+    private void recordCBAChangeFromTransaction(final BigDecimal amount,
+                                                final EntitySqlDaoWrapperFactory entitySqlDaoWrapperFactory,
+                                                final InternalCallContext context) {
+        if (amount.compareTo(BigDecimal.ZERO) == 0) {
+            return;
+        }
+
+        final AccountCBALedgerSqlDao accountCBALedgerSqlDao = entitySqlDaoWrapperFactory.getHandle().attach(AccountCBALedgerSqlDao.class);
+        if (accountCBALedgerSqlDao.addToAccountCBA(amount, context) == 0) {
+            // First change for that account: the full computation already includes the change
+            accountCBALedgerSqlDao.create(computeAccountCBAFromTransaction(entitySqlDaoWrapperFactory, context), context);
+        }
+    }
+
+    private boolean isInvoiceCommittedFromTransaction(final UUID invoiceId,
+                                                      final EntitySqlDaoWrapperFactory entitySqlDaoWrapperFactory,
+                                                      final InternalTenantContext context) {
+        // Look at the status on disk, as the in-memory invoices don't always reflect it (e.g. DRAFT input for an already COMMITTED invoice)
+        final InvoiceModelDao invoice = entitySqlDaoWrapperFactory.become(InvoiceSqlDao.class).getById(invoiceId.toString(), context);
+        return invoice != null && invoice.getStatus() == InvoiceStatus.COMMITTED;
+    }
+
     // We expect a clean up to date invoice, with all the items except the cba, that we will compute in that method
     public InvoiceItemModelDao computeCBAComplexity(final InvoiceModelDao invoice,
                                                     @Nullable final BigDecimal accountCBAOrNull,
@@ -235,6 +339,7 @@ public class CBADao {
                                final InternalCallContext context) throws EntityPersistenceException {
         final InvoiceItemSqlDao transInvoiceItemDao = entitySqlDaoWrapperFactory.become(InvoiceItemSqlDao.class);
         transInvoiceItemDao.create(cbaItem, context);
+        recordCBAItemsFromTransaction(List.of(cbaItem), entitySqlDaoWrapperFactory, context);
 
         // Refresh the in-memory item
         invoiceModelDao.addInvoiceItem(cbaItem);
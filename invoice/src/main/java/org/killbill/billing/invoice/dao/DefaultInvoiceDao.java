@@ -19,6 +19,7 @@
 
 package org.killbill.billing.invoice.dao;
 
+import java.io.IOException;
 import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.Collection;
@@ -64,6 +65,7 @@ import org.killbill.billing.invoice.api.InvoiceItemType;
 import org.killbill.billing.invoice.api.InvoicePaymentStatus;
 import org.killbill.billing.invoice.api.InvoicePaymentType;
 import org.killbill.billing.invoice.api.InvoiceStatus;
+import org.killbill.billing.invoice.api.UnpaidInvoicesSummary;
 import org.killbill.billing.invoice.api.user.DefaultInvoiceAdjustmentEvent;
 import org.killbill.billing.invoice.api.user.DefaultInvoiceCreationEvent;
 import org.killbill.billing.invoice.dao.serialization.BillingEventSerializer;
@@ -83,12 +85,15 @@ import org.killbill.billing.util.cache.CacheController;
 import org.killbill.billing.util.cache.CacheControllerDispatcher;
 import org.killbill.billing.util.callcontext.InternalCallContextFactory;
 import org.killbill.billing.util.config.definition.InvoiceConfig;
+import org.killbill.billing.util.config.definition.InvoiceConfig.BillingEventSerializationMode;
+import org.killbill.billing.util.currency.KillBillMoney;
 import org.killbill.billing.util.customfield.CustomField;
 import org.killbill.billing.util.customfield.IntegerCustomField;
 import org.killbill.billing.util.dao.NonEntityDao;
 import org.killbill.billing.util.dao.TableName;
 import org.killbill.billing.util.entity.Pagination;
 import org.killbill.billing.util.entity.dao.DefaultPaginationSqlDaoHelper;
+import org.killbill.billing.util.entity.dao.DefaultPaginationSqlDaoHelper.KeysetPaginationIteratorBuilder;
 import org.killbill.billing.util.entity.dao.DefaultPaginationSqlDaoHelper.Ordering;
 import org.killbill.billing.util.entity.dao.DefaultPaginationSqlDaoHelper.PaginationIteratorBuilder;
 import org.killbill.billing.util.entity.dao.EntityDaoBase;
@@ -266,7 +271,7 @@ public class DefaultInvoiceDao extends EntityDaoBase<InvoiceModelDao, Invoice, I
     @Override
     public Pagination<InvoiceModelDao> get(final Long offset, final Long limit, final InternalTenantContext context) {
         return paginationHelper.getPagination(InvoiceSqlDao.class,
-                                              new PaginationIteratorBuilder<InvoiceModelDao, Invoice, EntitySqlDao<InvoiceModelDao, Invoice>>() {
+                                              new KeysetPaginationIteratorBuilder<InvoiceModelDao, Invoice, EntitySqlDao<InvoiceModelDao, Invoice>>() {
                                                   @Override
                                                   public Long getCount(final EntitySqlDao<InvoiceModelDao, Invoice> sqlDao, final InternalTenantContext context) {
                                                       // Only need to compute it once, because no search filter has been applied (see DefaultPaginationSqlDaoHelper)
@@ -275,14 +280,12 @@ public class DefaultInvoiceDao extends EntityDaoBase<InvoiceModelDao, Invoice, I
 
                                                   @Override
                                                   public Iterator<InvoiceModelDao> build(final EntitySqlDao<InvoiceModelDao, Invoice> sqlDao, final Long offset, final Long limit, final Ordering ordering, final InternalTenantContext context) {
-                                                      final Iterator<InvoiceModelDao> invoiceModelDaoIterator = sqlDao.get(offset, limit, getNaturalOrderingColumns(), ordering.toString(), context);
-                                                      return Iterators.transform(invoiceModelDaoIterator,
-                                                                                 invoiceModelDao -> {
-                                                                                     final List<CustomField> invoiceCustomFields = getInvoiceCustomFields(invoiceModelDao.getId(), context);
-                                                                                     final List<Tag> invoiceTags = getInvoiceTags(invoiceModelDao.getId(), context);
-                                                                                     invoiceDaoHelper.populateInvoiceModelDao(invoiceModelDao, invoiceCustomFields, invoiceTags);
-                                                                                     return invoiceModelDao;
-                                                                                 });
+                                                      return populateInvoiceModelDaos(sqlDao.get(offset, limit, getNaturalOrderingColumns(), ordering.toString(), context), context);
+                                                  }
+
+                                                  @Override
+                                                  public Iterator<InvoiceModelDao> buildAfterRecordId(final EntitySqlDao<InvoiceModelDao, Invoice> sqlDao, final Long afterRecordId, final Long limit, final InternalTenantContext context) {
+                                                      return populateInvoiceModelDaos(sqlDao.getAfterRecordId(afterRecordId, limit, context), context);
                                                   }
                                               },
                                               offset,
@@ -290,6 +293,16 @@ public class DefaultInvoiceDao extends EntityDaoBase<InvoiceModelDao, Invoice, I
                                               context);
     }
 
+    private Iterator<InvoiceModelDao> populateInvoiceModelDaos(final Iterator<InvoiceModelDao> invoiceModelDaoIterator, final InternalTenantContext context) {
+        return Iterators.transform(invoiceModelDaoIterator,
+                                   invoiceModelDao -> {
+                                       final List<CustomField> invoiceCustomFields = getInvoiceCustomFields(invoiceModelDao.getId(), context);
+                                       final List<Tag> invoiceTags = getInvoiceTags(invoiceModelDao.getId(), context);
+                                       invoiceDaoHelper.populateInvoiceModelDao(invoiceModelDao, invoiceCustomFields, invoiceTags);
+                                       return invoiceModelDao;
+                                   });
+    }
+
     @Override
     public Pagination<InvoiceModelDao> getByAccountRecordId(final Long offset, final Long limit, final InternalTenantContext context) {
         final List<CustomField> invoiceCustomFields = getInvoiceCustomFields(context);
@@ -486,6 +499,8 @@ public class DefaultInvoiceDao extends EntityDaoBase<InvoiceModelDao, Invoice, I
 
                 final List<InvoiceItemModelDao> invoiceItemsToCreate = new LinkedList<InvoiceItemModelDao>();
                 UUID grpId = null;
+                // Same snapshot for all the invoices created as part of this call
+                byte[] serializedBillingEvents = null;
                 for (final InvoiceModelDao invoiceModelDao : inputInvoices) {
                     inputInvoicesById.put(invoiceModelDao.getId(), invoiceModelDao);
                     final boolean isNotShellInvoice = invoiceIdsReferencedFromItems.remove(invoiceModelDao.getId());
@@ -500,7 +515,10 @@ public class DefaultInvoiceDao extends EntityDaoBase<InvoiceModelDao, Invoice, I
                             invoiceModelDao.setGrpId(grpId);
                             createAndRefresh(invoiceSqlDao, invoiceModelDao, context);
                             if (billingEvents != null) {
-                                billingEventSqlDao.create(new InvoiceBillingEventModelDao(invoiceModelDao.getId(), BillingEventSerializer.serialize(billingEvents), context.getCreatedDate()), context);
+                                if (serializedBillingEvents == null) {
+                                    serializedBillingEvents = serializeBillingEvents(billingEvents, billingEventSqlDao, context);
+                                }
+                                billingEventSqlDao.create(new InvoiceBillingEventModelDao(invoiceModelDao.getId(), serializedBillingEvents, context.getCreatedDate()), context);
                             }
                             createdInvoiceIds.add(invoiceModelDao.getId());
 
@@ -531,6 +549,7 @@ public class DefaultInvoiceDao extends EntityDaoBase<InvoiceModelDao, Invoice, I
 
                             if (statusUpdated || targetDateUpdated) {
                                 invoiceSqlDao.updateStatusAndTargetDate(invoiceModelDao.getId().toString(), newStatus.toString(), newTargetDate, context);
+                                cbaDao.recordInvoiceStatusChangeFromTransaction(invoiceModelDao.getId(), invoiceOnDisk.getStatus(), newStatus, entitySqlDaoWrapperFactory, context);
                                 committedReusedInvoiceId.add(invoiceModelDao.getId());
                             }
                         }
@@ -583,6 +602,7 @@ public class DefaultInvoiceDao extends EntityDaoBase<InvoiceModelDao, Invoice, I
 
                 // Bulk insert the invoice items
                 createInvoiceItemsFromTransaction(transInvoiceItemSqlDao, invoiceItemsToCreate, context);
+                cbaDao.recordCBAItemsFromTransaction(invoiceItemsToCreate, entitySqlDaoWrapperFactory, context);
 
                 // CBA COMPLEXITY...
                 //
@@ -772,6 +792,47 @@ public class DefaultInvoiceDao extends EntityDaoBase<InvoiceModelDao, Invoice, I
         return transactionalSqlDao.execute(true, entityWrapperFactory -> invoiceDaoHelper.getUnpaidInvoicesByAccountFromTransaction(accountId, invoiceCustomFields, invoicesTags, entityWrapperFactory, startDate, upToDate, context));
     }
 
+    @Override
+    public UnpaidInvoicesSummary getUnpaidInvoicesSummaryByAccountId(final UUID accountId, final LocalDate upToDate, final InternalTenantContext context) {
+        final List<InvoiceModelDao> unpaidInvoicesWithBalance = transactionalSqlDao.execute(true, entitySqlDaoWrapperFactory -> {
+            final InvoiceSqlDao invoiceSqlDao = entitySqlDaoWrapperFactory.become(InvoiceSqlDao.class);
+            // The unpaid state of child invoices depends on the balance of their parent invoice (see InvoiceDaoHelper#getUnpaidInvoicesByAccountFromTransaction)
+            if (invoiceSqlDao.getNbChildInvoicesByAccountRecordId(context) > 0) {
+                return null;
+            }
+            return invoiceSqlDao.getUnpaidInvoicesWithBalance(upToDate, context);
+        });
+
+        final List<InvoiceModelDao> unpaidInvoices = new LinkedList<InvoiceModelDao>();
+        if (unpaidInvoicesWithBalance != null) {
+            for (final InvoiceModelDao invoice : unpaidInvoicesWithBalance) {
+                // Same rounding as InvoiceCalculatorUtils#computeRawInvoiceBalance
+                invoice.setBalance(KillBillMoney.of(invoice.getBalance(), invoice.getCurrency()));
+                if (invoice.getBalance().compareTo(BigDecimal.ZERO) > 0) {
+                    unpaidInvoices.add(invoice);
+                }
+            }
+        } else {
+            for (final InvoiceModelDao invoice : getUnpaidInvoicesByAccountId(accountId, null, upToDate, context)) {
+                invoice.setBalance(new DefaultInvoice(invoice).getBalance());
+                unpaidInvoices.add(invoice);
+            }
+        }
+
+        BigDecimal unpaidInvoicesBalance = BigDecimal.ZERO;
+        InvoiceModelDao earliestUnpaidInvoice = null;
+        for (final InvoiceModelDao invoice : unpaidInvoices) {
+            unpaidInvoicesBalance = unpaidInvoicesBalance.add(invoice.getBalance());
+            if (earliestUnpaidInvoice == null || invoice.getInvoiceDate().compareTo(earliestUnpaidInvoice.getInvoiceDate()) < 0) {
+                earliestUnpaidInvoice = invoice;
+            }
+        }
+        return new UnpaidInvoicesSummary(unpaidInvoices.size(),
+                                         unpaidInvoicesBalance,
+                                         earliestUnpaidInvoice != null ? earliestUnpaidInvoice.getInvoiceDate() : null,
+                                         earliestUnpaidInvoice != null ? earliestUnpaidInvoice.getId() : null);
+    }
+
     @Override
     public UUID getInvoiceIdByPaymentId(final UUID paymentId, final InternalTenantContext context) {
         return transactionalSqlDao.execute(true, entitySqlDaoWrapperFactory -> entitySqlDaoWrapperFactory.become(InvoiceSqlDao.class).getInvoiceIdByPaymentId(paymentId.toString(), context));
@@ -1159,6 +1220,7 @@ public class DefaultInvoiceDao extends EntityDaoBase<InvoiceModelDao, Invoice, I
             final BigDecimal adjustedAmount = leftToReclaim.compareTo(positiveCbaAmount) >= 0 ? positiveCbaAmount : leftToReclaim;
             final BigDecimal itemAmount = positiveCbaAmount.subtract(adjustedAmount);
             transactional.updateItemFields(cbaItem.getId().toString(), itemAmount.negate(), null,"Reclaim used credit", null, null, context);
+            cbaDao.recordCBAItemUpdateFromTransaction(cbaItem, itemAmount.negate(), entitySqlDaoWrapperFactory, context);
 
             invoiceIds.add(cbaItem.getInvoiceId());
             leftToReclaim = leftToReclaim.subtract(adjustedAmount);
@@ -1198,6 +1260,7 @@ public class DefaultInvoiceDao extends EntityDaoBase<InvoiceModelDao, Invoice, I
             if (cbaItem.getAmount().compareTo(BigDecimal.ZERO) < 0) { /* Credit consumption */
 
                 invoiceItemSqlDao.updateItemFields(cbaItem.getId().toString(), BigDecimal.ZERO, null,"Delete used credit", null, null, context);
+                cbaDao.recordCBAItemUpdateFromTransaction(cbaItem, BigDecimal.ZERO, entitySqlDaoWrapperFactory, context);
                 invoiceIds.add(invoice.getId());
             } else if (cbaItem.getAmount().compareTo(BigDecimal.ZERO) > 0) {  /* Credit generation */
                 final InvoiceItemModelDao creditItem = invoice.getInvoiceItems().stream()
@@ -1218,6 +1281,7 @@ public class DefaultInvoiceDao extends EntityDaoBase<InvoiceModelDao, Invoice, I
                     }
 
                     invoiceItemSqlDao.updateItemFields(cbaItem.getId().toString(), BigDecimal.ZERO, null, "Delete gen credit", null, null, context);
+                    cbaDao.recordCBAItemUpdateFromTransaction(cbaItem, BigDecimal.ZERO, entitySqlDaoWrapperFactory, context);
                     final BigDecimal adjustedCreditAmount = creditItem.getAmount().add(cbaItem.getAmount());
                     invoiceItemSqlDao.updateItemFields(creditItem.getId().toString(), adjustedCreditAmount, null,null,null, "Delete gen credit", context);
                     invoiceIds.add(invoice.getId());
@@ -1283,7 +1347,7 @@ public class DefaultInvoiceDao extends EntityDaoBase<InvoiceModelDao, Invoice, I
                                                                            context.getAccountRecordId(),
                                                                            context.getTenantRecordId(),
                                                                            userToken),
-                                         entitySqlDaoWrapperFactory.getHandle().getConnection());
+                                         entitySqlDaoWrapperFactory);
         } catch (final EventBusException e) {
             log.warn("Failed to post adjustment event for invoiceId='{}'", invoiceId, e);
         }
@@ -1326,7 +1390,7 @@ public class DefaultInvoiceDao extends EntityDaoBase<InvoiceModelDao, Invoice, I
                                                            userToken);
         }
         try {
-            eventBus.postFromTransaction(busEvent, entitySqlDaoWrapperFactory.getHandle().getConnection());
+            eventBus.postFromTransaction(busEvent, entitySqlDaoWrapperFactory);
         } catch (final EventBusException e) {
             log.warn("Failed to post invoice payment event for invoiceId='{}'", invoicePaymentModelDao.getInvoiceId(), e);
         }
@@ -1389,6 +1453,7 @@ public class DefaultInvoiceDao extends EntityDaoBase<InvoiceModelDao, Invoice, I
             }
 
             transactional.updateStatusAndTargetDate(invoiceId.toString(), newStatus.toString(), invoice.getTargetDate(), context);
+            cbaDao.recordInvoiceStatusChangeFromTransaction(invoiceId, invoice.getStatus(), newStatus, entitySqlDaoWrapperFactory, context);
 
             // Run through all invoices
             // Current invoice could be a credit item that needs to be rebalanced
@@ -1416,6 +1481,25 @@ public class DefaultInvoiceDao extends EntityDaoBase<InvoiceModelDao, Invoice, I
         });
     }
 
+    private byte[] serializeBillingEvents(final BillingEventSet billingEvents, final InvoiceBillingEventSqlDao billingEventSqlDao, final InternalCallContext context) throws IOException {
+        final BillingEventSerializationMode mode = invoiceConfig.getBillingEventSerializationMode();
+        if (mode != BillingEventSerializationMode.BINARY_DELTA) {
+            return BillingEventSerializer.serialize(billingEvents, mode, null, null);
+        }
+
+        // Deltas are always computed against a full snapshot, so that at most two rows are needed to rebuild any snapshot
+        InvoiceBillingEventModelDao base = billingEventSqlDao.getLastByAccountRecordId(context);
+        if (base != null) {
+            final UUID baseInvoiceId = BillingEventSerializer.getBaseInvoiceId(base.getBillingEvents());
+            if (baseInvoiceId != null) {
+                base = billingEventSqlDao.getByInvoiceId(baseInvoiceId.toString(), context);
+            }
+        }
+        return base == null ?
+               BillingEventSerializer.serialize(billingEvents, mode, null, null) :
+               BillingEventSerializer.serialize(billingEvents, mode, base.getInvoiceId(), base.getBillingEvents());
+    }
+
     private void notifyBusOfInvoiceCreation(final EntitySqlDaoWrapperFactory entitySqlDaoWrapperFactory, final InvoiceModelDao invoice, final InternalCallContext context) {
         try {
             // This is called for a new COMMITTED invoice (which cannot be writtenOff as it does not exist yet, so rawBalance == balance)
@@ -1427,7 +1511,7 @@ public class DefaultInvoiceDao extends EntityDaoBase<InvoiceModelDao, Invoice, I
                                                                                       context.getAccountRecordId(),
                                                                                       context.getTenantRecordId(),
                                                                                       context.getUserToken());
-            eventBus.postFromTransaction(event, entitySqlDaoWrapperFactory.getHandle().getConnection());
+            eventBus.postFromTransaction(event, entitySqlDaoWrapperFactory);
         } catch (final EventBusException e) {
             log.error("Failed to post invoice creation event for account '{}'", invoice.getAccountId(), e);
         }
@@ -1491,6 +1575,7 @@ public class DefaultInvoiceDao extends EntityDaoBase<InvoiceModelDao, Invoice, I
             }
 
             transactional.updateItemFields(invoiceItemId.toString(), amount, null,null, null,null, context);
+            cbaDao.recordCBAItemUpdateFromTransaction(invoiceItem, amount, entitySqlDaoWrapperFactory, context);
             return null;
         });
     }
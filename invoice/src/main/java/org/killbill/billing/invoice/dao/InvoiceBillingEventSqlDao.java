@@ -17,12 +17,22 @@
 
 package org.killbill.billing.invoice.dao;
 
+import org.killbill.billing.callcontext.InternalTenantContext;
 import org.killbill.billing.util.entity.Entity;
 import org.killbill.billing.util.entity.dao.EntitySqlDao;
+import org.killbill.commons.jdbi.binder.SmartBindBean;
 import org.killbill.commons.jdbi.template.KillBillSqlDaoStringTemplate;
+import org.skife.jdbi.v2.sqlobject.Bind;
+import org.skife.jdbi.v2.sqlobject.SqlQuery;
 
 @KillBillSqlDaoStringTemplate
 public interface InvoiceBillingEventSqlDao extends EntitySqlDao<InvoiceBillingEventModelDao, Entity> {
 
+    @SqlQuery
+    InvoiceBillingEventModelDao getByInvoiceId(@Bind("invoiceId") final String invoiceId,
+                                               @SmartBindBean final InternalTenantContext context);
+
+    @SqlQuery
+    InvoiceBillingEventModelDao getLastByAccountRecordId(@SmartBindBean final InternalTenantContext context);
 }
 
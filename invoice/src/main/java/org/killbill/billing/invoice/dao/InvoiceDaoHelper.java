@@ -560,9 +560,10 @@ public class InvoiceDaoHelper {
         }
 
         // DAO: populate the parent invoices in bulk
+        final Map<UUID, Long> parentAccountRecordIds = internalCallContextFactory.getRecordIdsFromObjects(parentInvoicesGroupedByParentAccountId.keySet(), ObjectType.ACCOUNT, internalCallContextFactory.createTenantContext(childContext));
         for (final Entry<UUID, List<InvoiceModelDao>> entry : parentInvoicesGroupedByParentAccountId.entrySet()) {
             final List<InvoiceModelDao> parentInvoicesForOneParentAccountId = entry.getValue();
-            final Long parentAccountRecordId = internalCallContextFactory.getRecordIdFromObject(entry.getKey(), ObjectType.ACCOUNT, internalCallContextFactory.createTenantContext(childContext));
+            final Long parentAccountRecordId = parentAccountRecordIds.get(entry.getKey());
             final InternalTenantContext parentContext = internalCallContextFactory.createInternalTenantContext(childContext.getTenantRecordId(), parentAccountRecordId);
             // Note the misnomer here, populateChildren simply populates the content of these invoices (unrelated to HA)
             populateChildren(parentInvoicesForOneParentAccountId, invoiceCustomFields, invoicesTags, false, entitySqlDaoWrapperFactory, parentContext);
@@ -68,6 +68,10 @@ public interface InvoiceItemSqlDao extends EntitySqlDao<InvoiceItemModelDao, Inv
     @SqlQuery
     BigDecimal getAccountCBA(@SmartBindBean final InternalTenantContext context);
 
+    @SqlQuery
+    BigDecimal getInvoiceCBA(@Bind("invoiceId") final String invoiceId,
+                             @SmartBindBean final InternalTenantContext context);
+
 
     @SqlQuery
     List<InvoiceItemModelDao> getConsumedCBAItems(@SmartBindBean final InternalTenantContext context);
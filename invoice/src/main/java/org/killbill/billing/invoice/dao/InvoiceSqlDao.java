@@ -51,6 +51,14 @@ public interface InvoiceSqlDao extends EntitySqlDao<InvoiceModelDao, Invoice> {
     List<InvoiceModelDao> getInvoiceByAccountRecordIdAfter(@Bind("targetDate") LocalDate targetDate,
                                                            @SmartBindBean final InternalTenantContext context);
 
+    // Unpaid invoices with their balance computed by the database, without their items and payments
+    @SqlQuery
+    List<InvoiceModelDao> getUnpaidInvoicesWithBalance(@Bind("upToDate") LocalDate upToDate,
+                                                       @SmartBindBean final InternalTenantContext context);
+
+    @SqlQuery
+    Long getNbChildInvoicesByAccountRecordId(@SmartBindBean final InternalTenantContext context);
+
     @SqlQuery
     UUID getInvoiceIdByPaymentId(@Bind("paymentId") final String paymentId,
                                  @SmartBindBean final InternalTenantContext context);
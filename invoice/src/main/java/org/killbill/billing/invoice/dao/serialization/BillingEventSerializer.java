@@ -18,8 +18,12 @@
 package org.killbill.billing.invoice.dao.serialization;
 
 import java.io.IOException;
+import java.util.UUID;
+
+import javax.annotation.Nullable;
 
 import org.killbill.billing.junction.BillingEventSet;
+import org.killbill.billing.util.config.definition.InvoiceConfig.BillingEventSerializationMode;
 import org.xerial.snappy.Snappy;
 
 import com.fasterxml.jackson.core.JsonFactory;
@@ -45,4 +49,55 @@ public class BillingEventSerializer {
         final byte[] data = mapper.writeValueAsBytes(json);
         return Snappy.compress(data);
     }
+
+    /**
+     * @param eventSet      the billing events to snapshot
+     * @param mode          serialization mode
+     * @param baseInvoiceId invoice id of the previous snapshot for the account (only used in BINARY_DELTA mode)
+     * @param baseData      previous (full) snapshot for the account (only used in BINARY_DELTA mode)
+     */
+    public static byte[] serialize(final BillingEventSet eventSet,
+                                   final BillingEventSerializationMode mode,
+                                   @Nullable final UUID baseInvoiceId,
+                                   @Nullable final byte[] baseData) throws IOException {
+        switch (mode) {
+            case BINARY:
+                return Snappy.compress(BillingEventSetBinaryCodec.encode(new BillingEventSetJson(eventSet), null, null));
+            case BINARY_DELTA:
+                final BillingEventSetJson base = baseInvoiceId != null && baseData != null && !isDelta(baseData) ? deserialize(baseData) : null;
+                return Snappy.compress(BillingEventSetBinaryCodec.encode(new BillingEventSetJson(eventSet), baseInvoiceId, base));
+            case JSON:
+            default:
+                return serialize(eventSet);
+        }
+    }
+
+    public static boolean isDelta(final byte[] data) throws IOException {
+        return BillingEventSetBinaryCodec.isDelta(Snappy.uncompress(data));
+    }
+
+    /**
+     * @return the invoice id of the base snapshot of a delta snapshot, null for a full snapshot
+     */
+    @Nullable
+    public static UUID getBaseInvoiceId(final byte[] data) throws IOException {
+        return BillingEventSetBinaryCodec.getBaseInvoiceId(Snappy.uncompress(data));
+    }
+
+    public static BillingEventSetJson deserialize(final byte[] data) throws IOException {
+        return deserialize(data, null);
+    }
+
+    /**
+     * @param data     snapshot, in any format
+     * @param baseData base snapshot, required for delta snapshots (see {@link #getBaseInvoiceId(byte[])})
+     */
+    public static BillingEventSetJson deserialize(final byte[] data, @Nullable final byte[] baseData) throws IOException {
+        final byte[] uncompressed = Snappy.uncompress(data);
+        if (!BillingEventSetBinaryCodec.isBinary(uncompressed)) {
+            return mapper.readValue(uncompressed, BillingEventSetJson.class);
+        }
+        final BillingEventSetJson base = BillingEventSetBinaryCodec.isDelta(uncompressed) && baseData != null ? deserialize(baseData) : null;
+        return BillingEventSetBinaryCodec.decode(uncompressed, base);
+    }
 }
@@ -0,0 +1,437 @@
+/*
+ * Copyright 2020-2026 Equinix, Inc
+ * Copyright 2014-2026 The Billing Project, LLC
+ *
+ * The Billing Project licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.killbill.billing.invoice.dao.serialization;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+
+import javax.annotation.Nullable;
+
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+import org.killbill.billing.catalog.api.BillingAlignment;
+import org.killbill.billing.catalog.api.BillingPeriod;
+import org.killbill.billing.invoice.dao.serialization.BillingEventSetJson.BillingEventJson;
+import org.killbill.billing.invoice.dao.serialization.BillingEventSetJson.SubscriptionBillingEventJson;
+import org.killbill.billing.subscription.api.SubscriptionBaseTransitionType;
+
+/**
+ * Compact binary encoding of a {@link BillingEventSetJson} (before Snappy compression):
+ * <pre>
+ * header       : 'K' 'B' 'E' version flags [baseInvoiceId]
+ * dictionary   : varint size, then each (interned) plan, phase and enum name
+ * subscriptions: varint size, then for each: id, flags and (unless unchanged from the base) its events
+ * event        : bcd, alignment, plan, phase, billing period and transition type as dictionary references,
+ *                effective and catalog dates as deltas against the previous event of the subscription, prices
+ * </pre>
+ * A delta snapshot only carries the events of the subscriptions which changed since its base (full) snapshot.
+ */
+final class BillingEventSetBinaryCodec {
+
+    static final byte VERSION = 1;
+
+    private static final byte[] MAGIC = {'K', 'B', 'E'};
+    private static final int HEADER_LENGTH = MAGIC.length + 2;
+
+    private static final int FLAG_AUTO_INVOICE_OFF = 0x01;
+    private static final int FLAG_AUTO_INVOICE_DRAFT = 0x02;
+    private static final int FLAG_AUTO_INVOICE_REUSE_DRAFT = 0x04;
+    private static final int FLAG_DELTA = 0x08;
+
+    private static final int SUBSCRIPTION_FLAG_AUTO_INVOICE_OFF = 0x01;
+    private static final int SUBSCRIPTION_FLAG_UNCHANGED = 0x02;
+
+    private static final int DATE_FLAG_EFFECTIVE_DATE = 0x01;
+    private static final int DATE_FLAG_CATALOG_EFFECTIVE_DATE = 0x02;
+    private static final int PRICE_FLAG_FIXED = 0x04;
+    private static final int PRICE_FLAG_RECURRING = 0x08;
+
+    private BillingEventSetBinaryCodec() {
+    }
+
+    static boolean isBinary(final byte[] data) {
+        if (data.length < HEADER_LENGTH) {
+            return false;
+        }
+        for (int i = 0; i < MAGIC.length; i++) {
+            if (data[i] != MAGIC[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    static boolean isDelta(final byte[] data) {
+        return isBinary(data) && (data[MAGIC.length + 1] & FLAG_DELTA) != 0;
+    }
+
+    @Nullable
+    static UUID getBaseInvoiceId(final byte[] data) throws IOException {
+        if (!isDelta(data)) {
+            return null;
+        }
+        final DataInputStream in = new DataInputStream(new ByteArrayInputStream(data, HEADER_LENGTH, data.length - HEADER_LENGTH));
+        return new UUID(in.readLong(), in.readLong());
+    }
+
+    /**
+     * @param json          the snapshot to encode
+     * @param baseInvoiceId invoice id of the base snapshot, if a delta should be attempted
+     * @param base          decoded base snapshot, if a delta should be attempted
+     * @return a delta snapshot if more than half of the subscriptions are unchanged since the base, a full snapshot otherwise
+     */
+    static byte[] encode(final BillingEventSetJson json, @Nullable final UUID baseInvoiceId, @Nullable final BillingEventSetJson base) throws IOException {
+        final Map<UUID, SubscriptionBillingEventJson> baseSubscriptions = new HashMap<>();
+        if (baseInvoiceId != null && base != null) {
+            for (final SubscriptionBillingEventJson subscription : base.getSubscriptionEvents()) {
+                baseSubscriptions.put(subscription.getSubscriptionId(), subscription);
+            }
+        }
+
+        final List<SubscriptionBillingEventJson> subscriptions = json.getSubscriptionEvents();
+        final boolean[] unchanged = new boolean[subscriptions.size()];
+        int nbUnchanged = 0;
+        for (int i = 0; i < subscriptions.size(); i++) {
+            final SubscriptionBillingEventJson subscription = subscriptions.get(i);
+            unchanged[i] = sameEvents(subscription, baseSubscriptions.get(subscription.getSubscriptionId()));
+            if (unchanged[i]) {
+                nbUnchanged++;
+            }
+        }
+        // Not worth it: start a new chain
+        final boolean delta = nbUnchanged > 0 && 2 * nbUnchanged >= subscriptions.size();
+
+        final Dictionary dictionary = new Dictionary();
+        final ByteArrayOutputStream body = new ByteArrayOutputStream();
+        final DataOutputStream bodyOut = new DataOutputStream(body);
+        writeVarInt(bodyOut, subscriptions.size());
+        for (int i = 0; i < subscriptions.size(); i++) {
+            final SubscriptionBillingEventJson subscription = subscriptions.get(i);
+            final boolean skipEvents = delta && unchanged[i];
+            writeUUID(bodyOut, subscription.getSubscriptionId());
+            bodyOut.writeByte((subscription.isAutoInvoiceOff() ? SUBSCRIPTION_FLAG_AUTO_INVOICE_OFF : 0) |
+                              (skipEvents ? SUBSCRIPTION_FLAG_UNCHANGED : 0));
+            if (!skipEvents) {
+                writeEvents(bodyOut, subscription.getEvents(), dictionary);
+            }
+        }
+        bodyOut.flush();
+
+        final ByteArrayOutputStream result = new ByteArrayOutputStream(HEADER_LENGTH + body.size() + 16 * dictionary.size());
+        final DataOutputStream out = new DataOutputStream(result);
+        out.write(MAGIC);
+        out.writeByte(VERSION);
+        out.writeByte((json.isAutoInvoiceOff() ? FLAG_AUTO_INVOICE_OFF : 0) |
+                      (json.isAutoInvoiceDraft() ? FLAG_AUTO_INVOICE_DRAFT : 0) |
+                      (json.isAutoInvoiceReuseDraft() ? FLAG_AUTO_INVOICE_REUSE_DRAFT : 0) |
+                      (delta ? FLAG_DELTA : 0));
+        if (delta) {
+            writeUUID(out, baseInvoiceId);
+        }
+        dictionary.write(out);
+        body.writeTo(out);
+        out.flush();
+        return result.toByteArray();
+    }
+
+    /**
+     * @param data uncompressed binary snapshot
+     * @param base decoded base snapshot, required for delta snapshots
+     */
+    static BillingEventSetJson decode(final byte[] data, @Nullable final BillingEventSetJson base) throws IOException {
+        if (!isBinary(data)) {
+            throw new IOException("Not a binary billing event snapshot");
+        }
+        final DataInputStream in = new DataInputStream(new ByteArrayInputStream(data));
+        in.skipBytes(MAGIC.length);
+        final byte version = in.readByte();
+        if (version != VERSION) {
+            throw new IOException(String.format("Unsupported billing event snapshot version %d", version));
+        }
+        final int flags = in.readUnsignedByte();
+
+        final Map<UUID, SubscriptionBillingEventJson> baseSubscriptions = new HashMap<>();
+        if ((flags & FLAG_DELTA) != 0) {
+            final UUID baseInvoiceId = new UUID(in.readLong(), in.readLong());
+            if (base == null) {
+                throw new IOException(String.format("Delta billing event snapshot requires the snapshot of invoice %s", baseInvoiceId));
+            }
+            for (final SubscriptionBillingEventJson subscription : base.getSubscriptionEvents()) {
+                baseSubscriptions.put(subscription.getSubscriptionId(), subscription);
+            }
+        }
+
+        final String[] dictionary = new String[readVarInt(in)];
+        for (int i = 0; i < dictionary.length; i++) {
+            dictionary[i] = in.readUTF();
+        }
+
+        final int nbSubscriptions = readVarInt(in);
+        final List<SubscriptionBillingEventJson> subscriptions = new ArrayList<>(nbSubscriptions);
+        for (int i = 0; i < nbSubscriptions; i++) {
+            final UUID subscriptionId = readUUID(in);
+            final int subscriptionFlags = in.readUnsignedByte();
+            final List<BillingEventJson> events;
+            if ((subscriptionFlags & SUBSCRIPTION_FLAG_UNCHANGED) != 0) {
+                final SubscriptionBillingEventJson baseSubscription = baseSubscriptions.get(subscriptionId);
+                if (baseSubscription == null) {
+                    throw new IOException(String.format("Subscription %s is missing from the base billing event snapshot", subscriptionId));
+                }
+                events = baseSubscription.getEvents();
+            } else {
+                events = readEvents(in, dictionary);
+            }
+            subscriptions.add(new SubscriptionBillingEventJson((subscriptionFlags & SUBSCRIPTION_FLAG_AUTO_INVOICE_OFF) != 0, subscriptionId, events));
+        }
+
+        return new BillingEventSetJson((flags & FLAG_AUTO_INVOICE_OFF) != 0,
+                                       (flags & FLAG_AUTO_INVOICE_DRAFT) != 0,
+                                       (flags & FLAG_AUTO_INVOICE_REUSE_DRAFT) != 0,
+                                       subscriptions);
+    }
+
+    private static void writeEvents(final DataOutputStream out, final List<BillingEventJson> events, final Dictionary dictionary) throws IOException {
+        writeVarInt(out, events.size());
+        long previousEffectiveDate = 0;
+        long previousCatalogEffectiveDate = 0;
+        for (final BillingEventJson event : events) {
+            writeVarInt(out, event.getBcdLocal());
+            dictionary.writeReference(out, event.getAlignment() == null ? null : event.getAlignment().name());
+            dictionary.writeReference(out, event.getPlanName());
+            dictionary.writeReference(out, event.getPhaseName());
+            dictionary.writeReference(out, event.getBillingPeriod() == null ? null : event.getBillingPeriod().name());
+            dictionary.writeReference(out, event.getTransitionType() == null ? null : event.getTransitionType().name());
+
+            out.writeByte((event.getEffDate() != null ? DATE_FLAG_EFFECTIVE_DATE : 0) |
+                          (event.getCatalogEffDt() != null ? DATE_FLAG_CATALOG_EFFECTIVE_DATE : 0) |
+                          (event.getFixedPrice() != null ? PRICE_FLAG_FIXED : 0) |
+                          (event.getRecurringPrice() != null ? PRICE_FLAG_RECURRING : 0));
+            if (event.getEffDate() != null) {
+                final long millis = event.getEffDate().getMillis();
+                writeVarLong(out, millis - previousEffectiveDate);
+                previousEffectiveDate = millis;
+            }
+            if (event.getCatalogEffDt() != null) {
+                final long millis = event.getCatalogEffDt().getMillis();
+                writeVarLong(out, millis - previousCatalogEffectiveDate);
+                previousCatalogEffectiveDate = millis;
+            }
+            if (event.getFixedPrice() != null) {
+                writeBigDecimal(out, event.getFixedPrice());
+            }
+            if (event.getRecurringPrice() != null) {
+                writeBigDecimal(out, event.getRecurringPrice());
+            }
+        }
+    }
+
+    private static List<BillingEventJson> readEvents(final DataInputStream in, final String[] dictionary) throws IOException {
+        final int nbEvents = readVarInt(in);
+        final List<BillingEventJson> events = new ArrayList<>(nbEvents);
+        long previousEffectiveDate = 0;
+        long previousCatalogEffectiveDate = 0;
+        for (int i = 0; i < nbEvents; i++) {
+            final int bcdLocal = readVarInt(in);
+            final String alignment = readReference(in, dictionary);
+            final String planName = readReference(in, dictionary);
+            final String phaseName = readReference(in, dictionary);
+            final String billingPeriod = readReference(in, dictionary);
+            final String transitionType = readReference(in, dictionary);
+
+            final int flags = in.readUnsignedByte();
+            DateTime effectiveDate = null;
+            if ((flags & DATE_FLAG_EFFECTIVE_DATE) != 0) {
+                previousEffectiveDate += readVarLong(in);
+                effectiveDate = new DateTime(previousEffectiveDate, DateTimeZone.UTC);
+            }
+            DateTime catalogEffectiveDate = null;
+            if ((flags & DATE_FLAG_CATALOG_EFFECTIVE_DATE) != 0) {
+                previousCatalogEffectiveDate += readVarLong(in);
+                catalogEffectiveDate = new DateTime(previousCatalogEffectiveDate, DateTimeZone.UTC);
+            }
+            final BigDecimal fixedPrice = (flags & PRICE_FLAG_FIXED) != 0 ? readBigDecimal(in) : null;
+            final BigDecimal recurringPrice = (flags & PRICE_FLAG_RECURRING) != 0 ? readBigDecimal(in) : null;
+
+            events.add(new BillingEventJson(bcdLocal,
+                                            alignment == null ? null : BillingAlignment.valueOf(alignment),
+                                            planName,
+                                            phaseName,
+                                            billingPeriod == null ? null : BillingPeriod.valueOf(billingPeriod),
+                                            effectiveDate,
+                                            fixedPrice,
+                                            recurringPrice,
+                                            transitionType == null ? null : SubscriptionBaseTransitionType.valueOf(transitionType),
+                                            catalogEffectiveDate));
+        }
+        return events;
+    }
+
+    private static boolean sameEvents(final SubscriptionBillingEventJson subscription, @Nullable final SubscriptionBillingEventJson baseSubscription) {
+        if (baseSubscription == null || baseSubscription.getEvents().size() != subscription.getEvents().size()) {
+            return false;
+        }
+        for (int i = 0; i < subscription.getEvents().size(); i++) {
+            final BillingEventJson event = subscription.getEvents().get(i);
+            final BillingEventJson baseEvent = baseSubscription.getEvents().get(i);
+            if (event.getBcdLocal() != baseEvent.getBcdLocal() ||
+                event.getAlignment() != baseEvent.getAlignment() ||
+                event.getBillingPeriod() != baseEvent.getBillingPeriod() ||
+                event.getTransitionType() != baseEvent.getTransitionType() ||
+                !Objects.equals(event.getPlanName(), baseEvent.getPlanName()) ||
+                !Objects.equals(event.getPhaseName(), baseEvent.getPhaseName()) ||
+                !sameInstant(event.getEffDate(), baseEvent.getEffDate()) ||
+                !sameInstant(event.getCatalogEffDt(), baseEvent.getCatalogEffDt()) ||
+                !sameAmount(event.getFixedPrice(), baseEvent.getFixedPrice()) ||
+                !sameAmount(event.getRecurringPrice(), baseEvent.getRecurringPrice())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean sameInstant(@Nullable final DateTime first, @Nullable final DateTime second) {
+        return first == null ? second == null : second != null && first.getMillis() == second.getMillis();
+    }
+
+    private static boolean sameAmount(@Nullable final BigDecimal first, @Nullable final BigDecimal second) {
+        // Scale matters, as the decoded value is returned as-is
+        return Objects.equals(first, second);
+    }
+
+    private static void writeUUID(final DataOutputStream out, final UUID uuid) throws IOException {
+        out.writeLong(uuid.getMostSignificantBits());
+        out.writeLong(uuid.getLeastSignificantBits());
+    }
+
+    private static UUID readUUID(final DataInputStream in) throws IOException {
+        return new UUID(in.readLong(), in.readLong());
+    }
+
+    private static void writeBigDecimal(final DataOutputStream out, final BigDecimal value) throws IOException {
+        final byte[] unscaledValue = value.unscaledValue().toByteArray();
+        writeVarLong(out, value.scale());
+        writeVarInt(out, unscaledValue.length);
+        out.write(unscaledValue);
+    }
+
+    private static BigDecimal readBigDecimal(final DataInputStream in) throws IOException {
+        final int scale = (int) readVarLong(in);
+        final byte[] unscaledValue = new byte[readVarInt(in)];
+        in.readFully(unscaledValue);
+        return new BigDecimal(new BigInteger(unscaledValue), scale);
+    }
+
+    @Nullable
+    private static String readReference(final DataInputStream in, final String[] dictionary) throws IOException {
+        final int reference = readVarInt(in);
+        if (reference == 0) {
+            return null;
+        }
+        if (reference > dictionary.length) {
+            throw new IOException(String.format("Invalid dictionary reference %d", reference));
+        }
+        return dictionary[reference - 1];
+    }
+
+    // Unsigned LEB128
+    private static void writeVarInt(final DataOutputStream out, final int value) throws IOException {
+        int remaining = value;
+        while ((remaining & ~0x7F) != 0) {
+            out.writeByte((remaining & 0x7F) | 0x80);
+            remaining >>>= 7;
+        }
+        out.writeByte(remaining);
+    }
+
+    private static int readVarInt(final DataInputStream in) throws IOException {
+        int result = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            final int b = in.readUnsignedByte();
+            result |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return result;
+            }
+        }
+        throw new IOException("Malformed varint");
+    }
+
+    // Signed (ZigZag) LEB128
+    private static void writeVarLong(final DataOutputStream out, final long value) throws IOException {
+        long remaining = (value << 1) ^ (value >> 63);
+        while ((remaining & ~0x7FL) != 0) {
+            out.writeByte((int) ((remaining & 0x7F) | 0x80));
+            remaining >>>= 7;
+        }
+        out.writeByte((int) remaining);
+    }
+
+    private static long readVarLong(final DataInputStream in) throws IOException {
+        long result = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            final int b = in.readUnsignedByte();
+            result |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return (result >>> 1) ^ -(result & 1);
+            }
+        }
+        throw new IOException("Malformed varlong");
+    }
+
+    private static final class Dictionary {
+
+        private final Map<String, Integer> references = new HashMap<>();
+        private final List<String> entries = new ArrayList<>();
+
+        // 0 is reserved for null
+        void writeReference(final DataOutputStream out, @Nullable final String value) throws IOException {
+            if (value == null) {
+                writeVarInt(out, 0);
+                return;
+            }
+            Integer reference = references.get(value);
+            if (reference == null) {
+                entries.add(value);
+                reference = entries.size();
+                references.put(value, reference);
+            }
+            writeVarInt(out, reference);
+        }
+
+        int size() {
+            return entries.size();
+        }
+
+        void write(final DataOutputStream out) throws IOException {
+            writeVarInt(out, entries.size());
+            for (final String entry : entries) {
+                out.writeUTF(entry);
+            }
+        }
+    }
+}
@@ -60,6 +60,7 @@ import org.killbill.billing.invoice.usage.SubscriptionUsageInArrear.Subscription
 import org.killbill.billing.junction.BillingEvent;
 import org.killbill.billing.junction.BillingEventSet;
 import org.killbill.billing.payment.api.PluginProperty;
+import org.killbill.billing.usage.api.RawUsageRecord;
 import org.killbill.billing.util.config.definition.InvoiceConfig;
 import org.killbill.billing.util.config.definition.InvoiceConfig.UsageDetailMode;
 import org.killbill.commons.utils.Preconditions;
@@ -201,11 +202,20 @@ public class UsageInvoiceItemGenerator extends InvoiceItemGenerator {
             }
 
 
+            // Bucket the raw usage and existing tracking ids by subscription in one pass, instead of having each subscription scan the full account lists
+            final Map<UUID, List<RawUsageRecord>> perSubscriptionRawUsage = rawUsgRes.getRawUsage()
+                                                                                     .stream()
+                                                                                     .collect(Collectors.groupingBy(RawUsageRecord::getSubscriptionId));
+            final Map<UUID, Set<TrackingRecordId>> perSubscriptionExistingTrackingIds = rawUsgRes.getExistingTrackingIds()
+                                                                                                 .stream()
+                                                                                                 .collect(Collectors.groupingBy(TrackingRecordId::getSubscriptionId, Collectors.toSet()));
+
             for (SubscriptionUsageInArrear sub : subsUsageInArrear) {
                 final List<InvoiceItem> usageInArrearItems = perSubscriptionInArrearUsageItems.get(sub.getSubscriptionId());
                 final SubscriptionUsageInArrearItemsAndNextNotificationDate subscriptionResult = sub.computeMissingUsageInvoiceItems(usageInArrearItems != null ? usageInArrearItems : Collections.emptyList(),
-                                                                                                                                                           rawUsgRes.getRawUsage(),
-                                                                                                                                                           rawUsgRes.getExistingTrackingIds(),                                                                                                                                      invoiceItemGeneratorLogger, isDryRun);
+                                                                                                                                     perSubscriptionRawUsage.getOrDefault(sub.getSubscriptionId(), Collections.emptyList()),
+                                                                                                                                     perSubscriptionExistingTrackingIds.getOrDefault(sub.getSubscriptionId(), Collections.emptySet()),
+                                                                                                                                     invoiceItemGeneratorLogger, isDryRun);
                 final List<InvoiceItem> newInArrearUsageItems = subscriptionResult.getInvoiceItems();
                 items.addAll(newInArrearUsageItems);
                 trackingIds.addAll(subscriptionResult.getTrackingIds());
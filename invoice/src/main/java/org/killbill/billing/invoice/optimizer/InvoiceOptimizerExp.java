@@ -18,11 +18,12 @@
 package org.killbill.billing.invoice.optimizer;
 
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
-import java.util.NavigableSet;
+import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
@@ -108,6 +109,8 @@ public class InvoiceOptimizerExp extends InvoiceOptimizerBase {
                 final Map<String, BillingMode> billingModes = new HashMap<>();
                 // Comes from the PlanPhase
                 final Map<String, BillingPeriod> billingPeriods = new HashMap<>();
+                // Start dates of the existing RECURRING items, per subscription
+                final Map<UUID, Set<LocalDate>> existingRecurringStartDates = getExistingRecurringStartDates();
                 final List<InvoiceItem> filtered = proposedItems.stream().filter(invoiceItem -> {
                     if (invoiceItem.getInvoiceItemType() == InvoiceItemType.FIXED) {
                         return invoiceItem.getStartDate().compareTo(cutoffDate) >= 0;
@@ -125,11 +128,10 @@ public class InvoiceOptimizerExp extends InvoiceOptimizerBase {
                         // we could end up with the wrong billing event (and therefore billing mode). Therefore, the complexity.
                         // (all this because catalog is not available in this layer)
                         //
-                        final Iterator<BillingEvent> it = ((NavigableSet<BillingEvent>) eventSet).descendingIterator();
+                        final Iterator<BillingEvent> it = eventSet.getBillingEventsForSubscription(invoiceItem.getSubscriptionId()).descendingIterator();
                         while (it.hasNext()) {
                             final BillingEvent be = it.next();
-                            if (!be.getSubscriptionId().equals(invoiceItem.getSubscriptionId()) /* wrong subscription ID */ ||
-                                    /* Not the correct plan */
+                            if (/* Not the correct plan */
                                 !(be.getPlan() != null && be.getPlan().getName().equals(invoiceItem.getPlanName())) ||
                                     /* Whether in-advance or in-arrear (what we are trying to find out), the 'be' we want is the one where ii.endDate >= be.effDt */
                                 invoiceItem.getEndDate().compareTo(internalCallContext.toLocalDate(be.getEffectiveDate())) < 0) {
@@ -148,19 +150,11 @@ public class InvoiceOptimizerExp extends InvoiceOptimizerBase {
                         (billingMode == BillingMode.IN_ARREAR && invoiceItem.getEndDate().compareTo(cutoffDate) >= 0)) {
                         return true;
                     } else {
-                        for (final Invoice inv : invoices) {
-                            final boolean existingItemExists = inv.getInvoiceItems().stream()
-                                    // If we find a similar item in the 'existing' list, i.e same subscription, same start date,
-                                    // we keep it so it cancels out in the tree later.
-                                    // We don't include the end date to catch trailing pro-ration (early cancellation)
-                                    .anyMatch(item -> (item.getInvoiceItemType() == InvoiceItemType.RECURRING &&
-                                                       item.getSubscriptionId().equals(invoiceItem.getSubscriptionId()) &&
-                                                       item.getStartDate().compareTo(invoiceItem.getStartDate()) == 0));
-                            if (existingItemExists) {
-                                return true;
-                            }
-                        }
-                        return false;
+                        // If we find a similar item in the 'existing' list, i.e same subscription, same start date,
+                        // we keep it so it cancels out in the tree later.
+                        // We don't include the end date to catch trailing pro-ration (early cancellation)
+                        final Set<LocalDate> startDates = existingRecurringStartDates.get(invoiceItem.getSubscriptionId());
+                        return startDates != null && startDates.contains(invoiceItem.getStartDate());
                     }
                 }).collect(Collectors.toUnmodifiableList());
 
@@ -168,5 +162,17 @@ public class InvoiceOptimizerExp extends InvoiceOptimizerBase {
                 proposedItems.addAll(filtered);
             }
         }
+
+        private Map<UUID, Set<LocalDate>> getExistingRecurringStartDates() {
+            final Map<UUID, Set<LocalDate>> result = new HashMap<>();
+            for (final Invoice invoice : invoices) {
+                for (final InvoiceItem item : invoice.getInvoiceItems()) {
+                    if (item.getInvoiceItemType() == InvoiceItemType.RECURRING) {
+                        result.computeIfAbsent(item.getSubscriptionId(), k -> new HashSet<>()).add(item.getStartDate());
+                    }
+                }
+            }
+            return result;
+        }
     }
 }
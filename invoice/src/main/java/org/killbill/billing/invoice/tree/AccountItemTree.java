@@ -30,7 +30,6 @@ import java.util.UUID;
 import org.killbill.billing.invoice.api.InvoiceItem;
 import org.killbill.billing.invoice.api.InvoiceItemType;
 import org.killbill.commons.utils.Preconditions;
-import org.killbill.commons.utils.collect.Iterables;
 
 /**
  * Tree of invoice items for a given account.
@@ -52,7 +51,8 @@ public class AccountItemTree {
     private final UUID accountId;
     private final UUID targetInvoiceId;
     private final Map<UUID, SubscriptionItemTree> subscriptionItemTree;
-    private final List<InvoiceItem> allExistingItems;
+    // Indexed by item id: linked items are looked up for each adjustment, repair and usage item
+    private final Map<UUID, InvoiceItem> allExistingItems;
     private final List<InvoiceItem> pendingItemAdj;
 
     private boolean isBuilt;
@@ -64,7 +64,7 @@ public class AccountItemTree {
         this.targetInvoiceId = targetInvoiceId;
         this.subscriptionItemTree = new HashMap<UUID, SubscriptionItemTree>();
         this.isBuilt = false;
-        this.allExistingItems = new LinkedList<InvoiceItem>();
+        this.allExistingItems = new HashMap<UUID, InvoiceItem>();
         this.pendingItemAdj = new LinkedList<InvoiceItem>();
         this.prorationFixedDays = prorationFixedDays;
     }
@@ -100,7 +100,7 @@ public class AccountItemTree {
         Preconditions.checkState(!isBuilt);
 
         // Only used to retrieve the original item for linked items
-        allExistingItems.add(existingItem);
+        allExistingItems.put(existingItem.getId(), existingItem);
 
         if (existingItem.getInvoiceItemType() == InvoiceItemType.ITEM_ADJ) {
             final InvoiceItem linkedInvoiceItem = getLinkedInvoiceItem(existingItem, allExistingItems);
@@ -173,7 +173,7 @@ public class AccountItemTree {
         return accountId;
     }
 
-    private UUID getSubscriptionId(final InvoiceItem item, final List<InvoiceItem> allItems) {
+    private UUID getSubscriptionId(final InvoiceItem item, final Map<UUID, InvoiceItem> allItems) {
         if (item.getInvoiceItemType() == InvoiceItemType.RECURRING ||
             item.getInvoiceItemType() == InvoiceItemType.FIXED) {
             return item.getSubscriptionId();
@@ -183,10 +183,8 @@ public class AccountItemTree {
         }
     }
 
-    private InvoiceItem getLinkedInvoiceItem(final InvoiceItem item, final Iterable<InvoiceItem> allItems) {
-        return Iterables.toStream(allItems)
-                .filter(input -> input.getId().equals(item.getLinkedItemId()))
-                .findFirst().orElse(null);
+    private InvoiceItem getLinkedInvoiceItem(final InvoiceItem item, final Map<UUID, InvoiceItem> allItems) {
+        return item.getLinkedItemId() != null ? allItems.get(item.getLinkedItemId()) : null;
     }
 
     @Override
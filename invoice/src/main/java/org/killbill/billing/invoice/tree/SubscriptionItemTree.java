@@ -21,9 +21,13 @@ package org.killbill.billing.invoice.tree;
 
 import java.math.BigDecimal;
 import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
@@ -40,6 +44,9 @@ public class SubscriptionItemTree {
 
     private final List<Item> items = new LinkedList<>();
     private final List<InvoiceItem> existingIgnoredItems = new LinkedList<>();
+    // Lookups for existingIgnoredItems (every adjustment and proposed item is checked against it)
+    private final Set<UUID> existingIgnoredItemIds = new HashSet<>();
+    private final Map<LocalDate, List<InvoiceItem>> existingIgnoredItemsByStartDate = new HashMap<>();
     private final List<InvoiceItem> remainingIgnoredItems = new LinkedList<>();
     private final List<InvoiceItem> pendingItemAdj = new LinkedList<>();
 
@@ -92,7 +99,7 @@ public class SubscriptionItemTree {
             case RECURRING:
                 if (invoiceItem.getAmount().compareTo(BigDecimal.ZERO) == 0) {
                     // Nothing to repair -- https://github.com/killbill/killbill/issues/783
-                    existingIgnoredItems.add(invoiceItem);
+                    addExistingIgnoredItem(invoiceItem);
                 } else {
                     root.addExistingItem(new ItemsNodeInterval(root, new Item(invoiceItem, targetInvoiceId, ItemAction.ADD, prorationFixedDays), prorationFixedDays));
                 }
@@ -103,7 +110,7 @@ public class SubscriptionItemTree {
                 break;
 
             case FIXED:
-                existingIgnoredItems.add(invoiceItem);
+                addExistingIgnoredItem(invoiceItem);
                 break;
 
             case ITEM_ADJ:
@@ -123,10 +130,7 @@ public class SubscriptionItemTree {
 
         for (final InvoiceItem item : pendingItemAdj) {
             // If the linked item was ignored, ignore this adjustment too
-            final boolean isLinkedItemExist = existingIgnoredItems
-                    .stream()
-                    .anyMatch(input -> input.getId().equals(item.getLinkedItemId()));
-            if (!isLinkedItemExist) {
+            if (!existingIgnoredItemIds.contains(item.getLinkedItemId())) {
                 root.addAdjustment(item);
             }
         }
@@ -167,8 +171,9 @@ public class SubscriptionItemTree {
         Preconditions.checkState(!isBuilt, "Tree already built, unable to add new invoiceItem=%s", invoiceItem);
 
         // Check if it was an existing item ignored for tree purposes (e.g. FIXED or $0 RECURRING, both of which aren't repaired)
-        final boolean isItemExist = existingIgnoredItems.stream().anyMatch(input -> input.matches(invoiceItem));
-        if (isItemExist) {
+        // Items can only match if they share the same start date
+        final List<InvoiceItem> candidates = existingIgnoredItemsByStartDate.get(invoiceItem.getStartDate());
+        if (candidates != null && candidates.stream().anyMatch(input -> input.matches(invoiceItem))) {
             return;
         }
 
@@ -216,6 +221,12 @@ public class SubscriptionItemTree {
         return result;
     }
 
+    private void addExistingIgnoredItem(final InvoiceItem invoiceItem) {
+        existingIgnoredItems.add(invoiceItem);
+        existingIgnoredItemIds.add(invoiceItem.getId());
+        existingIgnoredItemsByStartDate.computeIfAbsent(invoiceItem.getStartDate(), startDate -> new LinkedList<>()).add(invoiceItem);
+    }
+
     // Verify there is no double billing, and no double repair (credits)
     private void checkItemsListState(final List<InvoiceItem> orderedList) {
 
@@ -287,8 +287,12 @@ public abstract class ContiguousIntervalUsageInArrear {
 
         final Set<TrackingRecordId> existingTrackingIds = extractTrackingIds(allExistingTrackingIds);
 
+        // Hash lookup on the TrackingRecordId#isSimilarRecord fields, to avoid comparing each new record with all existing ones
+        final Set<TrackingRecordId> existingSimilarRecords = existingTrackingIds.stream()
+                .map(ContiguousIntervalUsageInArrear::toSimilarRecord)
+                .collect(Collectors.toUnmodifiableSet());
         final Set<TrackingRecordId> newTrackingIds = allTrackingIds.stream()
-                .filter(allRecord -> existingTrackingIds.stream().noneMatch(existingRecord -> existingRecord.isSimilarRecord(allRecord)))
+                .filter(allRecord -> !existingSimilarRecords.contains(toSimilarRecord(allRecord)))
                 .collect(Collectors.toUnmodifiableSet());
 
         // Each RolledUpUsage 'ru' is for a specific time period and across all units
@@ -397,6 +401,9 @@ public abstract class ContiguousIntervalUsageInArrear {
             return new RolledUpUnitsWithTracking(getEmptyRolledUpUsage(), Collections.emptySet());
         }
 
+        // Used to convert each record date
+        final DateTimeZone usageTimeZone = usageClockUtil.getEffectiveDateTimeZone(internalTenantContext);
+
         //
         // Skip all items before our first transition date
         //
@@ -446,7 +453,7 @@ public abstract class ContiguousIntervalUsageInArrear {
                         final BigDecimal currentAmount = perRangeUnitToAmount.get(prevRawUsage.getUnitType());
                         final BigDecimal updatedAmount = computeUpdatedAmount(currentAmount, prevRawUsage.getAmount());
                         perRangeUnitToAmount.put(prevRawUsage.getUnitType(), updatedAmount);
-                        trackingIds.add(new TrackingRecordId(prevRawUsage.getTrackingId(), invoiceId, prevRawUsage.getSubscriptionId(), prevRawUsage.getUnitType(), usageClockUtil.toLocalDate(prevRawUsage.getDate(), internalTenantContext)));
+                        trackingIds.add(new TrackingRecordId(prevRawUsage.getTrackingId(), invoiceId, prevRawUsage.getSubscriptionId(), prevRawUsage.getUnitType(), usageClockUtil.toLocalDate(prevRawUsage.getDate(), usageTimeZone)));
                         prevRawUsage = null;
                     }
                 }
@@ -473,7 +480,7 @@ public abstract class ContiguousIntervalUsageInArrear {
                         final BigDecimal currentAmount = perRangeUnitToAmount.get(curRawUsage.getUnitType());
                         final BigDecimal updatedAmount = computeUpdatedAmount(currentAmount, curRawUsage.getAmount());
                         perRangeUnitToAmount.put(curRawUsage.getUnitType(), updatedAmount);
-                        trackingIds.add(new TrackingRecordId(curRawUsage.getTrackingId(), invoiceId, curRawUsage.getSubscriptionId(), curRawUsage.getUnitType(), usageClockUtil.toLocalDate(curRawUsage.getDate(), internalTenantContext)));
+                        trackingIds.add(new TrackingRecordId(curRawUsage.getTrackingId(), invoiceId, curRawUsage.getSubscriptionId(), curRawUsage.getUnitType(), usageClockUtil.toLocalDate(curRawUsage.getDate(), usageTimeZone)));
                     }
                 }
 
@@ -547,6 +554,11 @@ public abstract class ContiguousIntervalUsageInArrear {
         }
     }
 
+    // Two similar records are equal once the invoiceId is ignored
+    private static TrackingRecordId toSimilarRecord(final TrackingRecordId input) {
+        return new TrackingRecordId(input.getTrackingId(), null, input.getSubscriptionId(), input.getUnitType(), input.getRecordDate());
+    }
+
     private Set<TrackingRecordId> extractTrackingIds(final Set<TrackingRecordId> input) {
         return input.stream()
                 .filter(trackingRecordId -> trackingRecordId.getSubscriptionId().equals(getSubscriptionId()))
@@ -133,6 +133,7 @@ public class SubscriptionUsageInArrear {
      * Based on billing events, (@code existingUsage} and targetDate, figure out what remains to be billed.
      *
      * @param existingUsage the existing on disk usage items.
+     * @param rawUsage      the raw usage records, ideally already restricted to that subscription (records for other subscriptions are ignored).
      * @throws CatalogApiException
      */
     public SubscriptionUsageInArrearItemsAndNextNotificationDate computeMissingUsageInvoiceItems(final List<InvoiceItem> existingUsage,
@@ -47,7 +47,8 @@ public class UsageClockUtil {
         this.config = config;
     }
 
-    private DateTimeZone getEffectiveDateTimeZone(final InternalTenantContext context) {
+    // Resolve it once when converting many dates for the same context (the mode is a per-tenant config lookup)
+    public DateTimeZone getEffectiveDateTimeZone(final InternalTenantContext context) {
         final AccountTzOffset mode = config.getAccountTzOffsetMode(context);
         if (mode == AccountTzOffset.VARIABLE) {
             return context.getAccountTimeZone();
@@ -85,7 +86,7 @@ public class UsageClockUtil {
         return toLocalDate(input, getEffectiveDateTimeZone(context));
     }
 
-    private LocalDate toLocalDate(final DateTime input, final DateTimeZone refTz) {
+    public LocalDate toLocalDate(final DateTime input, final DateTimeZone refTz) {
         return ClockUtil.toLocalDate(input, refTz);
     }
 }
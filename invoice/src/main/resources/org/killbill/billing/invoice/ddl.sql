@@ -256,4 +256,16 @@ CREATE TABLE invoice_billing_events (
     PRIMARY KEY(record_id)
 ) /*! CHARACTER SET utf8 COLLATE utf8_bin */;
 CREATE UNIQUE INDEX invoice_billing_events_invoice_id ON invoice_billing_events(invoice_id);
-CREATE INDEX invoice_billing_events_tenant_account_record_id ON invoice_billing_events(tenant_record_id, account_record_id);
\ No newline at end of file
+CREATE INDEX invoice_billing_events_tenant_account_record_id ON invoice_billing_events(tenant_record_id, account_record_id);
+
+DROP TABLE IF EXISTS invoice_account_cba;
+CREATE TABLE invoice_account_cba (
+    record_id serial unique,
+    cba numeric(15,9) NOT NULL,
+    updated_date datetime NOT NULL,
+    account_record_id bigint /*! unsigned */ not null,
+    tenant_record_id bigint /*! unsigned */ not null default 0,
+    PRIMARY KEY(record_id)
+) /*! CHARACTER SET utf8 COLLATE utf8_bin */;
+CREATE UNIQUE INDEX invoice_account_cba_tenant_account_record_id ON invoice_account_cba(tenant_record_id, account_record_id);
+CREATE INDEX invoice_account_cba_updated_date ON invoice_account_cba(updated_date);
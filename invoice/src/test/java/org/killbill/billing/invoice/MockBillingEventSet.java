@@ -22,6 +22,7 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.NavigableSet;
 import java.util.TreeSet;
 import java.util.UUID;
 
@@ -77,6 +78,17 @@ public class MockBillingEventSet extends TreeSet<BillingEvent> implements Billin
         return Collections.emptyMap();
     }
 
+    @Override
+    public NavigableSet<BillingEvent> getBillingEventsForSubscription(final UUID subscriptionId) {
+        final NavigableSet<BillingEvent> result = new TreeSet<>();
+        for (final BillingEvent event : this) {
+            if (event.getSubscriptionId().equals(subscriptionId)) {
+                result.add(event);
+            }
+        }
+        return result;
+    }
+
     public void setAccountInvoiceOff(final boolean isAccountInvoiceOff) {
         this.isAccountInvoiceOff = isAccountInvoiceOff;
     }
@@ -20,7 +20,9 @@ package org.killbill.billing.invoice.api.user;
 
 import java.math.BigDecimal;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.UUID;
 
 import javax.annotation.Nullable;
@@ -45,6 +47,7 @@ import org.killbill.billing.invoice.model.DefaultInvoicePayment;
 import org.killbill.billing.invoice.model.ExternalChargeInvoiceItem;
 import org.killbill.billing.invoice.model.TaxInvoiceItem;
 import org.killbill.billing.util.currency.KillBillMoney;
+import org.killbill.billing.util.entity.DefaultPagination;
 import org.killbill.billing.util.entity.Pagination;
 import org.killbill.billing.util.tag.ControlTagType;
 import org.killbill.billing.util.tag.Tag;
@@ -824,6 +827,22 @@ public class TestDefaultInvoiceUserApi extends InvoiceTestSuiteWithEmbeddedDB {
         Assert.assertEquals(invoices.getMaxNbRecords(), count);
         Assert.assertEquals(invoices.getCurrentOffset(), (Long) 0L);
         Assert.assertEquals(invoices.getNextOffset(), limit);
+
+        //retrieve all invoices with keyset pagination
+        final Set<UUID> invoiceIds = new HashSet<UUID>();
+        Long offset = DefaultPagination.toKeysetOffset(0);
+        int nbPages = 0;
+        while (offset != null) {
+            invoices = invoiceUserApi.getInvoices(offset, limit, callContext);
+            Assert.assertNull(invoices.getTotalNbRecords());
+            for (final Invoice invoice : invoices) {
+                Assert.assertTrue(invoiceIds.add(invoice.getId()));
+            }
+            offset = invoices.getNextOffset();
+            nbPages++;
+        }
+        Assert.assertEquals(invoiceIds.size(), count.intValue());
+        Assert.assertEquals(nbPages, 11);
     }
 
 }
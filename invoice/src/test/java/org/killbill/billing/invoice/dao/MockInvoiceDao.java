@@ -44,6 +44,7 @@ import org.killbill.billing.invoice.api.Invoice;
 import org.killbill.billing.invoice.api.InvoiceApiException;
 import org.killbill.billing.invoice.api.InvoicePaymentStatus;
 import org.killbill.billing.invoice.api.InvoiceStatus;
+import org.killbill.billing.invoice.api.UnpaidInvoicesSummary;
 import org.killbill.billing.junction.BillingEventSet;
 import org.killbill.billing.util.api.AuditLevel;
 import org.killbill.billing.util.audit.AuditLogWithHistory;
@@ -343,6 +344,23 @@ public class MockInvoiceDao extends MockEntityDaoBase<InvoiceModelDao, Invoice,
         return unpaidInvoices;
     }
 
+    @Override
+    public UnpaidInvoicesSummary getUnpaidInvoicesSummaryByAccountId(final UUID accountId, final LocalDate upToDate, final InternalTenantContext context) {
+        final List<InvoiceModelDao> unpaidInvoices = getUnpaidInvoicesByAccountId(accountId, null, upToDate, context);
+        BigDecimal unpaidInvoicesBalance = BigDecimal.ZERO;
+        InvoiceModelDao earliestUnpaidInvoice = null;
+        for (final InvoiceModelDao invoice : unpaidInvoices) {
+            unpaidInvoicesBalance = unpaidInvoicesBalance.add(InvoiceModelDaoHelper.getRawBalanceForRegularInvoice(invoice));
+            if (earliestUnpaidInvoice == null || invoice.getInvoiceDate().compareTo(earliestUnpaidInvoice.getInvoiceDate()) < 0) {
+                earliestUnpaidInvoice = invoice;
+            }
+        }
+        return new UnpaidInvoicesSummary(unpaidInvoices.size(),
+                                         unpaidInvoicesBalance,
+                                         earliestUnpaidInvoice != null ? earliestUnpaidInvoice.getInvoiceDate() : null,
+                                         earliestUnpaidInvoice != null ? earliestUnpaidInvoice.getId() : null);
+    }
+
     @Override
     public List<InvoiceModelDao> getAllInvoicesByAccount(final Boolean includeVoidedInvoices, final Boolean includeInvoiceComponents, final InternalTenantContext context) {
         final List<InvoiceModelDao> result = new ArrayList<>();
@@ -61,7 +61,7 @@ public class TestCBADaoUnit extends InvoiceTestSuiteNoDB {
     }
 
     private CBADao getCBADao(final BigDecimal childInvoiceAmountCharged) {
-        final CBADao dao = new CBADao(super.invoiceDaoHelper);
+        final CBADao dao = new CBADao(super.invoiceDaoHelper, super.invoiceConfig);
         final CBADao spied = Mockito.spy(dao);
 
         Mockito.doReturn(true).when(spied).isParentExistAndRawBalanceIsZero(Mockito.any());
@@ -68,4 +68,30 @@ public class TestInvoiceBillingEventSqlDao extends InvoiceTestSuiteWithEmbeddedD
 
     }
 
+    @Test(groups = "slow")
+    public void testGetByInvoiceIdAndLastByAccountRecordId() {
+        final UUID firstInvoiceId = UUID.randomUUID();
+        final UUID secondInvoiceId = UUID.randomUUID();
+        transactionalSqlDao.execute(false,
+                                    new EntitySqlDaoTransactionWrapper<Void>() {
+                                        @Override
+                                        public Void inTransaction(final EntitySqlDaoWrapperFactory entitySqlDaoWrapperFactory) throws Exception {
+                                            final InvoiceBillingEventSqlDao dao = entitySqlDaoWrapperFactory.become(InvoiceBillingEventSqlDao.class);
+
+                                            Assert.assertNull(dao.getLastByAccountRecordId(internalCallContext));
+
+                                            dao.create(new InvoiceBillingEventModelDao(firstInvoiceId, new byte[]{1}, new DateTime()), internalCallContext);
+                                            dao.create(new InvoiceBillingEventModelDao(secondInvoiceId, new byte[]{2}, new DateTime()), internalCallContext);
+
+                                            Assert.assertEquals(dao.getByInvoiceId(firstInvoiceId.toString(), internalCallContext).getBillingEvents(), new byte[]{1});
+                                            Assert.assertNull(dao.getByInvoiceId(UUID.randomUUID().toString(), internalCallContext));
+
+                                            final InvoiceBillingEventModelDao last = dao.getLastByAccountRecordId(internalCallContext);
+                                            Assert.assertEquals(last.getInvoiceId(), secondInvoiceId);
+                                            Assert.assertEquals(last.getBillingEvents(), new byte[]{2});
+                                            return null;
+                                        }
+                                    });
+    }
+
 }
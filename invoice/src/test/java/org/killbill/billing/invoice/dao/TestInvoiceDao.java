@@ -60,6 +60,7 @@ import org.killbill.billing.invoice.api.InvoicePayment;
 import org.killbill.billing.invoice.api.InvoicePaymentStatus;
 import org.killbill.billing.invoice.api.InvoicePaymentType;
 import org.killbill.billing.invoice.api.InvoiceStatus;
+import org.killbill.billing.invoice.api.UnpaidInvoicesSummary;
 import org.killbill.billing.invoice.generator.InvoiceWithMetadata;
 import org.killbill.billing.invoice.model.CreditAdjInvoiceItem;
 import org.killbill.billing.invoice.model.CreditBalanceAdjInvoiceItem;
@@ -1420,6 +1421,58 @@ public class TestInvoiceDao extends InvoiceTestSuiteWithEmbeddedDB {
         assertEquals(invoices.size(), 1);
     }
 
+    @Test(groups = "slow")
+    public void testGetUnpaidInvoicesSummaryByAccountId() throws EntityPersistenceException {
+        final UUID accountId = account.getId();
+        final UUID bundleId = UUID.randomUUID();
+        final LocalDate startDate = new LocalDate(2011, 3, 1);
+        final LocalDate endDate = startDate.plusMonths(1);
+
+        // Partially paid invoice (a failed attempt should be ignored)
+        final Invoice invoice1 = new DefaultInvoice(accountId, clock.getUTCToday(), new LocalDate(2011, 10, 6), Currency.USD);
+        invoiceUtil.createInvoice(invoice1, context);
+        invoiceUtil.createInvoiceItem(new RecurringInvoiceItem(invoice1.getId(), accountId, bundleId, UUID.randomUUID(), "test product", "test plan", "test phase A", null, startDate, endDate,
+                                                               new BigDecimal("17.0"), new BigDecimal("17.0"), Currency.USD), context);
+        invoiceUtil.createInvoiceItem(new RecurringInvoiceItem(invoice1.getId(), accountId, bundleId, UUID.randomUUID(), "test product", "test plan", "test phase B", null, startDate, endDate,
+                                                               new BigDecimal("42.0"), new BigDecimal("42.0"), Currency.USD), context);
+        invoiceUtil.createPayment(new DefaultInvoicePayment(InvoicePaymentType.ATTEMPT, UUID.randomUUID(), invoice1.getId(), new DateTime(), new BigDecimal("48.0"), Currency.USD, Currency.USD, null, InvoicePaymentStatus.SUCCESS), context);
+        invoiceUtil.createPayment(new DefaultInvoicePayment(InvoicePaymentType.ATTEMPT, UUID.randomUUID(), invoice1.getId(), new DateTime(), new BigDecimal("11.0"), Currency.USD, Currency.USD, null, InvoicePaymentStatus.INIT), context);
+
+        // Fully paid invoice
+        final Invoice invoice2 = new DefaultInvoice(accountId, clock.getUTCToday(), new LocalDate(2011, 7, 1), Currency.USD);
+        invoiceUtil.createInvoice(invoice2, context);
+        invoiceUtil.createInvoiceItem(new RecurringInvoiceItem(invoice2.getId(), accountId, bundleId, UUID.randomUUID(), "test product", "test plan", "test phase C", null, startDate, endDate,
+                                                               new BigDecimal("21.0"), new BigDecimal("21.0"), Currency.USD), context);
+        invoiceUtil.createPayment(new DefaultInvoicePayment(InvoicePaymentType.ATTEMPT, UUID.randomUUID(), invoice2.getId(), new DateTime(), new BigDecimal("21.0"), Currency.USD, Currency.USD, null, InvoicePaymentStatus.SUCCESS), context);
+
+        // Unpaid invoice
+        final Invoice invoice3 = new DefaultInvoice(accountId, clock.getUTCToday(), new LocalDate(2011, 8, 1), Currency.USD);
+        invoiceUtil.createInvoice(invoice3, context);
+        invoiceUtil.createInvoiceItem(new RecurringInvoiceItem(invoice3.getId(), accountId, bundleId, UUID.randomUUID(), "test product", "test plan", "test phase D", null, startDate, endDate,
+                                                               new BigDecimal("5.0"), new BigDecimal("5.0"), Currency.USD), context);
+
+        UnpaidInvoicesSummary summary = invoiceDao.getUnpaidInvoicesSummaryByAccountId(accountId, new LocalDate(2011, 1, 1), context);
+        assertEquals(summary.getNbUnpaidInvoices(), 0);
+        assertEquals(summary.getUnpaidInvoicesBalance().compareTo(BigDecimal.ZERO), 0);
+        assertNull(summary.getDateOfEarliestUnpaidInvoice());
+        assertNull(summary.getIdOfEarliestUnpaidInvoice());
+
+        final LocalDate upToDate = new LocalDate(2012, 1, 1);
+        final List<InvoiceModelDao> unpaidInvoices = invoiceDao.getUnpaidInvoicesByAccountId(accountId, null, upToDate, context);
+        assertEquals(unpaidInvoices.size(), 2);
+        BigDecimal unpaidBalance = BigDecimal.ZERO;
+        for (final InvoiceModelDao unpaidInvoice : unpaidInvoices) {
+            unpaidBalance = unpaidBalance.add(InvoiceModelDaoHelper.getRawBalanceForRegularInvoice(unpaidInvoice));
+        }
+
+        summary = invoiceDao.getUnpaidInvoicesSummaryByAccountId(accountId, upToDate, context);
+        assertEquals(summary.getNbUnpaidInvoices(), unpaidInvoices.size());
+        assertEquals(summary.getUnpaidInvoicesBalance().compareTo(unpaidBalance), 0);
+        assertEquals(summary.getUnpaidInvoicesBalance().compareTo(new BigDecimal("16.0")), 0);
+        assertEquals(summary.getDateOfEarliestUnpaidInvoice(), clock.getUTCToday());
+        assertEquals(summary.getIdOfEarliestUnpaidInvoice(), invoice1.getId());
+    }
+
     /*
      *
      * this test verifies that immediate changes give the correct results
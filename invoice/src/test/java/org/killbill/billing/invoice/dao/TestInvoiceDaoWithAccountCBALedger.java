@@ -0,0 +1,114 @@
+/*
+ * Copyright 2020-2026 Equinix, Inc
+ * Copyright 2014-2026 The Billing Project, LLC
+ *
+ * The Billing Project licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.killbill.billing.invoice.dao;
+
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import jakarta.inject.Inject;
+
+import org.joda.time.DateTime;
+import org.joda.time.LocalDate;
+import org.killbill.billing.account.api.Account;
+import org.killbill.billing.callcontext.InternalCallContext;
+import org.killbill.billing.catalog.api.Currency;
+import org.killbill.billing.invoice.api.InvoiceStatus;
+import org.killbill.billing.invoice.model.CreditAdjInvoiceItem;
+import org.killbill.billing.platform.api.KillbillConfigSource;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.Test;
+
+// Re-run all the DAO scenarios with the running account CBA, and verify it against the full computation after each of them
+public class TestInvoiceDaoWithAccountCBALedger extends TestInvoiceDao {
+
+    @Inject
+    protected AccountCBALedgerReconciler accountCBALedgerReconciler;
+    @Inject
+    protected CBADao cbaDao;
+
+    @Override
+    protected KillbillConfigSource getConfigSource(final Map<String, String> extraProperties) {
+        final Map<String, String> allExtraProperties = new HashMap<String, String>(extraProperties);
+        allExtraProperties.put("org.killbill.invoice.cba.ledger.enabled", "true");
+        return getConfigSource(null, allExtraProperties);
+    }
+
+    @AfterMethod(groups = "slow")
+    public void verifyAccountCBALedger() {
+        if (hasFailed()) {
+            return;
+        }
+
+        Assert.assertEquals(accountCBALedgerReconciler.reconcileUpdatedSince(new DateTime(0L)), 0);
+    }
+
+    @Test(groups = "slow")
+    public void testAccountCBALedgerReconciliation() throws Exception {
+        // Reconcile manually from now on
+        accountCBALedgerReconciler.stop();
+        // As after a restart (the ledger may have been disabled in the meantime)
+        cbaDao.setAccountCBALedgerVerified(false);
+
+        final Account account = invoiceUtil.createAccount(callContext);
+        final InternalCallContext context = internalCallContextFactory.createInternalCallContext(account.getId(), callContext);
+
+        // No ledger until the first CBA change
+        Assert.assertNull(getAccountCBAFromLedger(context));
+
+        final LocalDate effectiveDate = new LocalDate(2011, 3, 1);
+        final InvoiceModelDao invoiceModelDao = new InvoiceModelDao(account.getId(), effectiveDate, effectiveDate, Currency.USD, false, InvoiceStatus.COMMITTED);
+        invoiceModelDao.addInvoiceItem(new InvoiceItemModelDao(new CreditAdjInvoiceItem(UUID.randomUUID(), context.getCreatedDate(), invoiceModelDao.getId(), account.getId(), effectiveDate,
+                                                                                        null, new BigDecimal("-5.0"), Currency.USD, null)));
+        invoiceDao.createInvoices(List.of(invoiceModelDao), null, Collections.emptySet(), null, null, true, context);
+        Assert.assertEquals(getAccountCBAFromLedger(context).compareTo(new BigDecimal("5.0")), 0);
+        Assert.assertEquals(invoiceDao.getAccountCBA(account.getId(), context).compareTo(new BigDecimal("5.0")), 0);
+
+        // VOID the credit invoice
+        invoiceDao.changeInvoiceStatus(invoiceModelDao.getId(), InvoiceStatus.VOID, context);
+        Assert.assertEquals(getAccountCBAFromLedger(context).compareTo(BigDecimal.ZERO), 0);
+
+        // Simulate a stale row, which isn't served until all accounts have been verified
+        setAccountCBAInLedger(BigDecimal.TEN, context);
+        Assert.assertEquals(invoiceDao.getAccountCBA(account.getId(), context).compareTo(BigDecimal.ZERO), 0);
+        accountCBALedgerReconciler.reconcile();
+        Assert.assertTrue(cbaDao.isAccountCBALedgerVerified());
+        Assert.assertEquals(getAccountCBAFromLedger(context).compareTo(BigDecimal.ZERO), 0);
+
+        // Simulate a drift, which is served until the reconciler runs
+        setAccountCBAInLedger(BigDecimal.TEN, context);
+        Assert.assertEquals(invoiceDao.getAccountCBA(account.getId(), context).compareTo(BigDecimal.TEN), 0);
+
+        Assert.assertEquals(accountCBALedgerReconciler.reconcileUpdatedSince(new DateTime(0L)), 1);
+        Assert.assertEquals(invoiceDao.getAccountCBA(account.getId(), context).compareTo(BigDecimal.ZERO), 0);
+    }
+
+    private void setAccountCBAInLedger(final BigDecimal accountCBA, final InternalCallContext context) {
+        dbi.withHandle(handle -> {
+            handle.attach(AccountCBALedgerSqlDao.class).updateAccountCBA(accountCBA, context);
+            return null;
+        });
+    }
+
+    private BigDecimal getAccountCBAFromLedger(final InternalCallContext context) {
+        return dbi.withHandle(handle -> handle.attach(AccountCBALedgerSqlDao.class).getAccountCBA(context));
+    }
+}
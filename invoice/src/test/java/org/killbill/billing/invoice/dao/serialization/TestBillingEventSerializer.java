@@ -0,0 +1,170 @@
+/*
+ * Copyright 2020-2026 Equinix, Inc
+ * Copyright 2014-2026 The Billing Project, LLC
+ *
+ * The Billing Project licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.killbill.billing.invoice.dao.serialization;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+import org.killbill.billing.catalog.DefaultPrice;
+import org.killbill.billing.catalog.MockInternationalPrice;
+import org.killbill.billing.catalog.MockPlan;
+import org.killbill.billing.catalog.MockPlanPhase;
+import org.killbill.billing.catalog.api.BillingMode;
+import org.killbill.billing.catalog.api.BillingPeriod;
+import org.killbill.billing.catalog.api.Currency;
+import org.killbill.billing.catalog.api.PhaseType;
+import org.killbill.billing.catalog.api.Plan;
+import org.killbill.billing.catalog.api.PlanPhase;
+import org.killbill.billing.invoice.InvoiceTestSuiteNoDB;
+import org.killbill.billing.invoice.MockBillingEventSet;
+import org.killbill.billing.invoice.dao.serialization.BillingEventSetJson.BillingEventJson;
+import org.killbill.billing.invoice.dao.serialization.BillingEventSetJson.SubscriptionBillingEventJson;
+import org.killbill.billing.subscription.api.SubscriptionBase;
+import org.killbill.billing.subscription.api.SubscriptionBaseTransitionType;
+import org.killbill.billing.util.config.definition.InvoiceConfig.BillingEventSerializationMode;
+import org.mockito.Mockito;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+public class TestBillingEventSerializer extends InvoiceTestSuiteNoDB {
+
+    private static final int NB_SUBSCRIPTIONS = 10;
+
+    private final DateTime startDate = new DateTime(2019, 9, 26, 10, 0, 0, DateTimeZone.UTC);
+    private final Plan plan = new MockPlan("Test");
+    private final PlanPhase planPhase = new MockPlanPhase(new MockInternationalPrice(new DefaultPrice(new BigDecimal("13.00"), Currency.USD)), null, BillingPeriod.MONTHLY, PhaseType.EVERGREEN);
+
+    @Test(groups = "fast")
+    public void testBinaryRoundTrip() throws Exception {
+        final List<SubscriptionBase> subscriptions = createSubscriptions();
+        final MockBillingEventSet billingEventSet = createBillingEventSet(subscriptions, 0);
+
+        final byte[] json = BillingEventSerializer.serialize(billingEventSet);
+        final byte[] binary = BillingEventSerializer.serialize(billingEventSet, BillingEventSerializationMode.BINARY, null, null);
+        assertTrue(binary.length < json.length);
+        assertFalse(BillingEventSerializer.isDelta(binary));
+        assertNull(BillingEventSerializer.getBaseInvoiceId(binary));
+
+        // Both formats are understood by the deserializer
+        final BillingEventSetJson fromJson = BillingEventSerializer.deserialize(json);
+        final BillingEventSetJson fromBinary = BillingEventSerializer.deserialize(binary);
+        assertEquals(fromBinary.getSubscriptionEvents().size(), NB_SUBSCRIPTIONS);
+        assertEquals(fromBinary.getSubscriptionEvents().get(0).getEvents().size(), 2);
+        assertSameSnapshot(fromBinary, fromJson);
+        assertSameSnapshot(fromBinary, new BillingEventSetJson(billingEventSet));
+    }
+
+    @Test(groups = "fast")
+    public void testBinaryDelta() throws Exception {
+        final List<SubscriptionBase> subscriptions = createSubscriptions();
+        final UUID baseInvoiceId = UUID.randomUUID();
+        final byte[] base = BillingEventSerializer.serialize(createBillingEventSet(subscriptions, 0), BillingEventSerializationMode.BINARY_DELTA, null, null);
+        assertFalse(BillingEventSerializer.isDelta(base));
+
+        // Only one subscription changed: delta
+        final MockBillingEventSet oneChange = createBillingEventSet(subscriptions, 1);
+        final byte[] delta = BillingEventSerializer.serialize(oneChange, BillingEventSerializationMode.BINARY_DELTA, baseInvoiceId, base);
+        assertTrue(BillingEventSerializer.isDelta(delta));
+        assertEquals(BillingEventSerializer.getBaseInvoiceId(delta), baseInvoiceId);
+        assertTrue(delta.length < base.length);
+        assertSameSnapshot(BillingEventSerializer.deserialize(delta, base), new BillingEventSetJson(oneChange));
+        try {
+            BillingEventSerializer.deserialize(delta);
+            fail("Delta snapshot cannot be read without its base");
+        } catch (final IOException ignored) {
+        }
+
+        // Also works against a JSON base
+        final byte[] jsonBase = BillingEventSerializer.serialize(createBillingEventSet(subscriptions, 0));
+        final byte[] deltaFromJson = BillingEventSerializer.serialize(oneChange, BillingEventSerializationMode.BINARY_DELTA, baseInvoiceId, jsonBase);
+        assertTrue(BillingEventSerializer.isDelta(deltaFromJson));
+        assertSameSnapshot(BillingEventSerializer.deserialize(deltaFromJson, jsonBase), new BillingEventSetJson(oneChange));
+
+        // Most subscriptions changed: full snapshot
+        final MockBillingEventSet manyChanges = createBillingEventSet(subscriptions, NB_SUBSCRIPTIONS - 1);
+        final byte[] full = BillingEventSerializer.serialize(manyChanges, BillingEventSerializationMode.BINARY_DELTA, baseInvoiceId, base);
+        assertFalse(BillingEventSerializer.isDelta(full));
+        assertSameSnapshot(BillingEventSerializer.deserialize(full), new BillingEventSetJson(manyChanges));
+    }
+
+    private List<SubscriptionBase> createSubscriptions() {
+        final List<SubscriptionBase> subscriptions = new ArrayList<>();
+        for (int i = 0; i < NB_SUBSCRIPTIONS; i++) {
+            final SubscriptionBase subscription = Mockito.mock(SubscriptionBase.class);
+            Mockito.when(subscription.getId()).thenReturn(UUID.randomUUID());
+            Mockito.when(subscription.getBundleId()).thenReturn(UUID.randomUUID());
+            subscriptions.add(subscription);
+        }
+        return subscriptions;
+    }
+
+    // The first nbCancelled subscriptions get an additional CANCEL event
+    private MockBillingEventSet createBillingEventSet(final List<SubscriptionBase> subscriptions, final int nbCancelled) {
+        final MockBillingEventSet billingEventSet = new MockBillingEventSet();
+        for (int i = 0; i < subscriptions.size(); i++) {
+            final SubscriptionBase subscription = subscriptions.get(i);
+            billingEventSet.add(invoiceUtil.createMockBillingEvent(null, subscription, startDate, plan, planPhase, null, new BigDecimal("13.00"), Currency.USD, BillingPeriod.MONTHLY,
+                                                                   26, BillingMode.IN_ADVANCE, "Test", 1, SubscriptionBaseTransitionType.CREATE));
+            billingEventSet.add(invoiceUtil.createMockBillingEvent(null, subscription, startDate.plusMonths(2).plusDays(i), plan, planPhase, BigDecimal.TEN, new BigDecimal("15.00"), Currency.USD, BillingPeriod.MONTHLY,
+                                                                   26, BillingMode.IN_ADVANCE, "Test", 2, SubscriptionBaseTransitionType.CHANGE));
+            if (i < nbCancelled) {
+                billingEventSet.add(invoiceUtil.createMockBillingEvent(null, subscription, startDate.plusYears(1), plan, planPhase, null, null, Currency.USD, BillingPeriod.MONTHLY,
+                                                                       26, BillingMode.IN_ADVANCE, "Test", 3, SubscriptionBaseTransitionType.CANCEL));
+            }
+        }
+        return billingEventSet;
+    }
+
+    private static void assertSameSnapshot(final BillingEventSetJson actual, final BillingEventSetJson expected) {
+        assertEquals(actual.isAutoInvoiceOff(), expected.isAutoInvoiceOff());
+        assertEquals(actual.isAutoInvoiceDraft(), expected.isAutoInvoiceDraft());
+        assertEquals(actual.isAutoInvoiceReuseDraft(), expected.isAutoInvoiceReuseDraft());
+        assertEquals(actual.getSubscriptionEvents().size(), expected.getSubscriptionEvents().size());
+        for (int i = 0; i < expected.getSubscriptionEvents().size(); i++) {
+            final SubscriptionBillingEventJson actualSubscription = actual.getSubscriptionEvents().get(i);
+            final SubscriptionBillingEventJson expectedSubscription = expected.getSubscriptionEvents().get(i);
+            assertEquals(actualSubscription.getSubscriptionId(), expectedSubscription.getSubscriptionId());
+            assertEquals(actualSubscription.isAutoInvoiceOff(), expectedSubscription.isAutoInvoiceOff());
+            assertEquals(actualSubscription.getEvents().size(), expectedSubscription.getEvents().size());
+            for (int j = 0; j < expectedSubscription.getEvents().size(); j++) {
+                final BillingEventJson actualEvent = actualSubscription.getEvents().get(j);
+                final BillingEventJson expectedEvent = expectedSubscription.getEvents().get(j);
+                assertEquals(actualEvent.getBcdLocal(), expectedEvent.getBcdLocal());
+                assertEquals(actualEvent.getAlignment(), expectedEvent.getAlignment());
+                assertEquals(actualEvent.getPlanName(), expectedEvent.getPlanName());
+                assertEquals(actualEvent.getPhaseName(), expectedEvent.getPhaseName());
+                assertEquals(actualEvent.getBillingPeriod(), expectedEvent.getBillingPeriod());
+                assertEquals(actualEvent.getEffDate().getMillis(), expectedEvent.getEffDate().getMillis());
+                assertEquals(actualEvent.getCatalogEffDt(), expectedEvent.getCatalogEffDt());
+                assertEquals(actualEvent.getFixedPrice(), expectedEvent.getFixedPrice());
+                assertEquals(actualEvent.getRecurringPrice(), expectedEvent.getRecurringPrice());
+                assertEquals(actualEvent.getTransitionType(), expectedEvent.getTransitionType());
+            }
+        }
+    }
+}
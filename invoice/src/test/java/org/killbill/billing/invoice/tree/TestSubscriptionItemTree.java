@@ -1048,6 +1048,43 @@ public class TestSubscriptionItemTree extends InvoiceTestSuiteNoDB {
         verifyResult(tree.getView(), expectedResult);
     }
 
+    @Test(groups = "fast")
+    public void testWithExistingFixedItemsAndItemAdjustment() {
+
+        final LocalDate startDate = new LocalDate(2014, 1, 1);
+        final LocalDate endDate = new LocalDate(2014, 2, 1);
+        final LocalDate newStartDate = new LocalDate(2014, 3, 1);
+
+        final BigDecimal monthlyRate = new BigDecimal("12.00");
+        final BigDecimal fixedAmount = new BigDecimal("5.00");
+
+        final SubscriptionItemTree tree = new SubscriptionItemTree(subscriptionId, invoiceId, invoiceConfig.getProrationFixedDays());
+        final InvoiceItem monthly = new RecurringInvoiceItem(invoiceId, accountId, bundleId, subscriptionId, productName, planName, phaseName, null, startDate, endDate, monthlyRate, monthlyRate, currency);
+        final InvoiceItem fixed1 = new FixedPriceInvoiceItem(invoiceId, accountId, bundleId, subscriptionId, productName, planName, phaseName, null, startDate, fixedAmount, currency);
+        final InvoiceItem fixed2 = new FixedPriceInvoiceItem(invoiceId, accountId, bundleId, subscriptionId, productName, planName, phaseName, null, endDate, fixedAmount, currency);
+        // Adjustment on an ignored (FIXED) item: it should not impact the recurring item
+        final InvoiceItem itemAdj = new ItemAdjInvoiceItem(fixed1, startDate, fixedAmount.negate(), currency);
+        tree.addItem(monthly);
+        tree.addItem(fixed1);
+        tree.addItem(fixed2);
+        tree.addItem(itemAdj);
+        tree.flatten(true);
+
+        final InvoiceItem proposed1 = new RecurringInvoiceItem(invoiceId, accountId, bundleId, subscriptionId, productName, planName, phaseName, null, startDate, endDate, monthlyRate, monthlyRate, currency);
+        final InvoiceItem proposedFixed1 = new FixedPriceInvoiceItem(invoiceId, accountId, bundleId, subscriptionId, productName, planName, phaseName, null, startDate, fixedAmount, currency);
+        final InvoiceItem proposedFixed2 = new FixedPriceInvoiceItem(invoiceId, accountId, bundleId, subscriptionId, productName, planName, phaseName, null, endDate, fixedAmount, currency);
+        final InvoiceItem proposedFixed3 = new FixedPriceInvoiceItem(invoiceId, accountId, bundleId, subscriptionId, productName, planName, phaseName, null, newStartDate, fixedAmount, currency);
+        tree.mergeProposedItem(proposed1);
+        tree.mergeProposedItem(proposedFixed1);
+        tree.mergeProposedItem(proposedFixed2);
+        tree.mergeProposedItem(proposedFixed3);
+        tree.buildForMerge();
+
+        final List<InvoiceItem> expectedResult = new LinkedList<>();
+        expectedResult.add(proposedFixed3);
+        verifyResult(tree.getView(), expectedResult);
+    }
+
     @Test(groups = "fast")
     public void testRepairWithSmallItemAdjustment() {
 
@@ -23,8 +23,10 @@ import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.UUID;
 import java.util.stream.Collectors;
 
 import org.joda.time.DateTime;
@@ -40,6 +42,7 @@ import org.killbill.billing.catalog.api.TierBlockPolicy;
 import org.killbill.billing.catalog.api.Usage;
 import org.killbill.billing.catalog.api.UsageType;
 import org.killbill.billing.invoice.api.InvoiceItem;
+import org.killbill.billing.invoice.generator.InvoiceWithMetadata.TrackingRecordId;
 import org.killbill.billing.invoice.model.FixedPriceInvoiceItem;
 import org.killbill.billing.invoice.model.UsageInvoiceItem;
 import org.killbill.billing.invoice.usage.ContiguousIntervalUsageInArrear.UsageInArrearItemsAndNextNotificationDate;
@@ -409,6 +412,45 @@ public class TestContiguousIntervalConsumableInArrear extends TestUsageInArrearB
 
     }
 
+    @Test(groups = "fast")
+    public void testComputeMissingItemsWithExistingTrackingIds() throws Exception {
+        final LocalDate startDate = new LocalDate(2014, 03, 20);
+        final LocalDate endDate = new LocalDate(2014, 05, 15);
+
+        final List<RawUsageRecord> rawUsageRecords = new ArrayList<RawUsageRecord>();
+        rawUsageRecords.add(new DefaultRawUsage(subscriptionId, new LocalDate(2014, 03, 20).toDateTimeAtStartOfDay(), "unit", BigDecimal.valueOf(130L), "tracking-1"));
+        rawUsageRecords.add(new DefaultRawUsage(subscriptionId, new LocalDate(2014, 03, 21).toDateTimeAtStartOfDay(), "unit", BigDecimal.valueOf(271L), "tracking-1"));
+        rawUsageRecords.add(new DefaultRawUsage(subscriptionId, new LocalDate(2014, 04, 15).toDateTimeAtStartOfDay(), "unit", BigDecimal.valueOf(199L), "tracking-2"));
+
+        final DefaultTieredBlock block = createDefaultTieredBlock("unit", 100, 10, BigDecimal.ONE);
+        final DefaultTier tier = createDefaultTierWithBlocks(block);
+        final DefaultUsage usage = createConsumableInArrearUsage(usageName, BillingPeriod.MONTHLY, TierBlockPolicy.ALL_TIERS, tier);
+
+        final BillingEvent event1 = createMockBillingEvent(startDate.toDateTimeAtStartOfDay(DateTimeZone.UTC), BillingPeriod.MONTHLY, Collections.<Usage>emptyList(), catalogEffectiveDate);
+        final BillingEvent event2 = createMockBillingEvent(endDate.toDateTimeAtStartOfDay(DateTimeZone.UTC), BillingPeriod.MONTHLY, Collections.<Usage>emptyList(), catalogEffectiveDate);
+
+        final Set<TrackingRecordId> allTrackingIds = createContiguousIntervalConsumableInArrear(usage, endDate, true, event1, event2).computeMissingItemsAndNextNotificationDate(rawUsageRecords, EMPTY_EXISTING_TRACKING_IDS, Collections.emptyList(), false)
+                                                                                                                                       .getTrackingIds();
+        assertEquals(allTrackingIds.size(), 3);
+
+        // tracking-1 records were already invoiced (by another invoice), tracking-2 was only recorded for another subscription
+        final Set<TrackingRecordId> existingTrackingIds = new HashSet<TrackingRecordId>();
+        for (final TrackingRecordId trackingRecordId : allTrackingIds) {
+            if ("tracking-1".equals(trackingRecordId.getTrackingId())) {
+                existingTrackingIds.add(new TrackingRecordId(trackingRecordId.getTrackingId(), UUID.randomUUID(), trackingRecordId.getSubscriptionId(), trackingRecordId.getUnitType(), trackingRecordId.getRecordDate()));
+            } else {
+                existingTrackingIds.add(new TrackingRecordId(trackingRecordId.getTrackingId(), UUID.randomUUID(), UUID.randomUUID(), trackingRecordId.getUnitType(), trackingRecordId.getRecordDate()));
+            }
+        }
+
+        final Set<TrackingRecordId> newTrackingIds = createContiguousIntervalConsumableInArrear(usage, endDate, true, event1, event2).computeMissingItemsAndNextNotificationDate(rawUsageRecords, existingTrackingIds, Collections.emptyList(), false)
+                                                                                                                                       .getTrackingIds();
+        assertEquals(newTrackingIds.size(), 1);
+        final TrackingRecordId newTrackingId = newTrackingIds.iterator().next();
+        assertEquals(newTrackingId.getTrackingId(), "tracking-2");
+        assertEquals(newTrackingId.getSubscriptionId(), subscriptionId);
+    }
+
     @Test(groups = "fast")
     public void testGetRolledUpUsage() throws Exception {
 
@@ -17,15 +17,18 @@
 
 package org.killbill.billing.jaxrs;
 
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.LinkedBlockingQueue;
-import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
 
 import jakarta.inject.Inject;
 
 import org.killbill.billing.util.config.definition.JaxrsConfig;
-import org.killbill.commons.concurrent.WithProfilingThreadPoolExecutor;
+import org.killbill.commons.profiling.Profiling;
 
 public class JaxrsExecutors {
 
@@ -33,12 +36,13 @@ public class JaxrsExecutors {
     private static final long TIMEOUT_EXECUTOR_SEC = 3L;
 
     private static final String JAXRS_THREAD_PREFIX = "jaxrs-th-";
-    private static final String JAXRS_TH_GROUP_NAME = "jaxrs-grp";
 
 
     private final JaxrsConfig JaxrsConfig;
 
     private volatile ExecutorService jaxrsExecutorService;
+    // Virtual threads are cheap, but the database isn't: bound the number of concurrent tasks
+    private volatile Semaphore jaxrsPermits;
 
     @Inject
     public JaxrsExecutors(JaxrsConfig JaxrsConfig) {
@@ -47,6 +51,7 @@ public class JaxrsExecutors {
     }
 
     public void initialize() {
+        this.jaxrsPermits = new Semaphore(JaxrsConfig.getJaxrsThreadNb());
         this.jaxrsExecutorService = createJaxrsExecutorService();
     }
 
@@ -58,25 +63,48 @@ public class JaxrsExecutors {
 
     }
 
-    public ExecutorService getJaxrsExecutorService() {
-        return jaxrsExecutorService;
+    /**
+     * Run the callable in its own virtual thread, once one of the org.killbill.jaxrs.threads.pool.nb permits is available.
+     * Cancelling the returned future interrupts the callable.
+     */
+    public <T> CompletableFuture<T> submit(final Callable<T> callable) {
+        final CompletableFuture<T> result = new CompletableFuture<T>();
+        final Semaphore permits = jaxrsPermits;
+        final Future<?> task = jaxrsExecutorService.submit(() -> {
+            if (result.isDone()) {
+                // Cancelled before it could start
+                return;
+            }
+
+            Profiling.setPerThreadProfilingData();
+            try {
+                permits.acquire();
+                try {
+                    result.complete(callable.call());
+                } finally {
+                    permits.release();
+                }
+            } catch (final InterruptedException e) {
+                result.completeExceptionally(e);
+                Thread.currentThread().interrupt();
+            } catch (final Throwable e) {
+                result.completeExceptionally(e);
+            } finally {
+                Profiling.resetPerThreadProfilingData();
+            }
+        });
+        // CompletableFuture#cancel doesn't interrupt the underlying task
+        result.whenComplete((ignored, throwable) -> {
+            if (result.isCancelled()) {
+                task.cancel(true);
+            }
+        });
+        return result;
     }
 
     private ExecutorService createJaxrsExecutorService() {
-        return new WithProfilingThreadPoolExecutor(JaxrsConfig.getJaxrsThreadNb(),
-                                                   JaxrsConfig.getJaxrsThreadNb(),
-                                                   0L,
-                                                   TimeUnit.MILLISECONDS,
-                                                   new LinkedBlockingQueue<Runnable>(),
-                                                   new ThreadFactory() {
-
-                                                       @Override
-                                                       public Thread newThread(final Runnable r) {
-                                                           final Thread th = new Thread(new ThreadGroup(JAXRS_TH_GROUP_NAME), r);
-                                                           th.setName(JAXRS_THREAD_PREFIX + th.getId());
-                                                           return th;
-                                                       }
-                                                   });
-
+        return Executors.newThreadPerTaskExecutor(Thread.ofVirtual()
+                                                        .name(JAXRS_THREAD_PREFIX, 0)
+                                                        .factory());
     }
 }
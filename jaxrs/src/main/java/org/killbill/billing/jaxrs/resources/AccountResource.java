@@ -18,6 +18,8 @@
 
 package org.killbill.billing.jaxrs.resources;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.math.BigDecimal;
 import java.net.URI;
 import java.util.ArrayList;
@@ -25,15 +27,18 @@ import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.Map.Entry;
 import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.Callable;
-import java.util.concurrent.ExecutionException;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Future;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 import java.util.stream.Collectors;
@@ -52,8 +57,10 @@ import jakarta.ws.rs.Path;
 import jakarta.ws.rs.PathParam;
 import jakarta.ws.rs.Produces;
 import jakarta.ws.rs.QueryParam;
+import jakarta.ws.rs.WebApplicationException;
 import jakarta.ws.rs.core.Response;
 import jakarta.ws.rs.core.Response.Status;
+import jakarta.ws.rs.core.StreamingOutput;
 import jakarta.ws.rs.core.UriInfo;
 
 import org.joda.time.DateTime;
@@ -141,6 +148,8 @@ import org.killbill.commons.metrics.api.annotation.TimedResource;
 import org.killbill.notificationq.api.NotificationQueue;
 import org.killbill.notificationq.api.NotificationQueueService;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -223,12 +232,13 @@ public class AccountResource extends JaxRsResourceBase {
     @ApiResponses(value = {@ApiResponse(responseCode = "200", description = "successful operation", content = @Content(mediaType = "application/json", array = @ArraySchema(schema = @Schema(implementation = AccountJson.class))))})
     public Response getAccounts(@QueryParam(QUERY_SEARCH_OFFSET) @DefaultValue("0") final Long offset,
                                 @QueryParam(QUERY_SEARCH_LIMIT) @DefaultValue("100") final Long limit,
+                                @Parameter(description = PAGINATION_CURSOR_DESCRIPTION) @QueryParam(QUERY_SEARCH_CURSOR) final String cursor,
                                 @QueryParam(QUERY_ACCOUNT_WITH_BALANCE) @DefaultValue("false") final Boolean accountWithBalance,
                                 @QueryParam(QUERY_ACCOUNT_WITH_BALANCE_AND_CBA) @DefaultValue("false") final Boolean accountWithBalanceAndCBA,
                                 @QueryParam(QUERY_AUDIT) @DefaultValue("NONE") final AuditMode auditMode,
                                 @jakarta.ws.rs.core.Context final HttpServletRequest request) throws AccountApiException {
         final TenantContext tenantContext = context.createTenantContextNoAccountId(request);
-        final Pagination<Account> accounts = accountUserApi.getAccounts(offset, limit, tenantContext);
+        final Pagination<Account> accounts = accountUserApi.getAccounts(fromPaginationCursor(cursor, offset), limit, tenantContext);
         final URI nextPageUri = uriBuilder.nextPage(AccountResource.class,
                                                     "getAccounts",
                                                     accounts.getNextOffset(),
@@ -561,72 +571,142 @@ public class AccountResource extends JaxRsResourceBase {
             }
         };
 
-        final AccountTimelineJson json;
-
-        List<Invoice> invoices = null;
-        List<SubscriptionBundle> bundles = null;
-        List<InvoicePayment> invoicePayments = null;
-        List<Payment> payments = null;
-        AccountAuditLogs accountAuditLogs = null;
-
+        final CompletableFuture<List<SubscriptionBundle>> bundlesFuture;
+        final CompletableFuture<List<Invoice>> invoicesFuture;
+        final CompletableFuture<List<InvoicePayment>> invoicePaymentsFuture;
+        final CompletableFuture<List<Payment>> paymentsFuture;
+        final CompletableFuture<AccountAuditLogs> auditsFuture;
         if (parallel) {
-            final ExecutorService executor = jaxrsExecutors.getJaxrsExecutorService();
-            final Future<List<SubscriptionBundle>> futureBundlesCallable = executor.submit(bundlesCallable);
-            final Future<List<Invoice>> futureInvoicesCallable = executor.submit(invoicesCallable);
-            final Future<List<InvoicePayment>> futureInvoicePaymentsCallable = executor.submit(invoicePaymentsCallable);
-            final Future<List<Payment>> futurePaymentsCallable = executor.submit(paymentsCallable);
-            final Future<AccountAuditLogs> futureAuditsCallable = executor.submit(auditsCallable);
-            final List<Future> toBeCancelled = List.of(futureBundlesCallable, futureInvoicesCallable, futureInvoicePaymentsCallable, futurePaymentsCallable, futureAuditsCallable);
-            final int timeoutMsec = 100;
-
-            final long ini = System.currentTimeMillis();
-            do {
-                bundles = (bundles == null) ? waitOnFutureAndHandleTimeout("bundles", futureBundlesCallable, timeoutMsec, toBeCancelled) : bundles;
-                invoices = (invoices == null) ? waitOnFutureAndHandleTimeout("invoices", futureInvoicesCallable, timeoutMsec, toBeCancelled) : invoices;
-                invoicePayments = (invoicePayments == null) ? waitOnFutureAndHandleTimeout("invoicePayments", futureInvoicePaymentsCallable, timeoutMsec, toBeCancelled) : invoicePayments;
-                payments = (payments == null) ? waitOnFutureAndHandleTimeout("payments", futurePaymentsCallable, timeoutMsec, toBeCancelled) : payments;
-                accountAuditLogs = (accountAuditLogs == null) ? waitOnFutureAndHandleTimeout("accountAuditLogs", futureAuditsCallable, timeoutMsec, toBeCancelled) : accountAuditLogs;
-            } while ((System.currentTimeMillis() - ini < jaxrsConfig.getJaxrsTimeout().getMillis()) &&
-                     (bundles == null || invoices == null || invoicePayments == null || payments == null || accountAuditLogs == null));
-
-            if (bundles == null || invoices == null || invoicePayments == null || payments == null || accountAuditLogs == null) {
-                Response.status(Status.SERVICE_UNAVAILABLE).build();
-            }
+            bundlesFuture = jaxrsExecutors.submit(bundlesCallable);
+            invoicesFuture = jaxrsExecutors.submit(invoicesCallable);
+            invoicePaymentsFuture = jaxrsExecutors.submit(invoicePaymentsCallable);
+            paymentsFuture = jaxrsExecutors.submit(paymentsCallable);
+            auditsFuture = jaxrsExecutors.submit(auditsCallable);
         } else {
-            invoices = runCallable("invoices", invoicesCallable);
-            payments = runCallable("payments", paymentsCallable);
-            bundles = runCallable("bundles", bundlesCallable);
-            accountAuditLogs = runCallable("accountAuditLogs", auditsCallable);
-            invoicePayments = runCallable("invoicePayments", invoicePaymentsCallable);
+            invoicesFuture = CompletableFuture.completedFuture(runCallable("invoices", invoicesCallable));
+            paymentsFuture = CompletableFuture.completedFuture(runCallable("payments", paymentsCallable));
+            bundlesFuture = CompletableFuture.completedFuture(runCallable("bundles", bundlesCallable));
+            auditsFuture = CompletableFuture.completedFuture(runCallable("accountAuditLogs", auditsCallable));
+            invoicePaymentsFuture = CompletableFuture.completedFuture(runCallable("invoicePayments", invoicePaymentsCallable));
+        }
+
+        // Single deadline for all callables, and fail fast: the first failure cancels the other ones
+        final List<CompletableFuture<?>> futures = List.of(bundlesFuture, invoicesFuture, invoicePaymentsFuture, paymentsFuture, auditsFuture);
+        final CompletableFuture<Void> allFutures = CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]));
+        for (final CompletableFuture<?> future : futures) {
+            future.whenComplete((ignored, throwable) -> {
+                if (throwable != null) {
+                    allFutures.completeExceptionally(throwable);
+                }
+            });
+        }
+        allFutures.orTimeout(jaxrsConfig.getJaxrsTimeout().getMillis(), TimeUnit.MILLISECONDS)
+                  .whenComplete((ignored, throwable) -> {
+                      if (throwable != null) {
+                          for (final CompletableFuture<?> future : futures) {
+                              future.cancel(true);
+                          }
+                      }
+                  });
+
+        // Each section of the timeline is serialized as soon as its dependencies are available
+        final Map<String, CompletableFuture<?>> sections = new LinkedHashMap<String, CompletableFuture<?>>();
+        sections.put("account", auditsFuture.thenApply(accountAuditLogs -> new AccountJson(account, null, null, accountAuditLogs)));
+        sections.put("bundles", bundlesFuture.thenCombine(auditsFuture, (bundles, accountAuditLogs) -> {
+            try {
+                return AccountTimelineJson.toBundlesJson(account, bundles, accountAuditLogs);
+            } catch (final CatalogApiException e) {
+                throw new CompletionException(e);
+            }
+        }));
+        sections.put("invoices", CompletableFuture.allOf(invoicesFuture, bundlesFuture, auditsFuture)
+                                                  .thenApply(ignored -> AccountTimelineJson.toInvoicesJson(invoicesFuture.join(), bundlesFuture.join(), auditsFuture.join())));
+        sections.put("payments", CompletableFuture.allOf(paymentsFuture, invoicePaymentsFuture, auditsFuture)
+                                                  .thenApply(ignored -> AccountTimelineJson.toPaymentsJson(paymentsFuture.join(), invoicePaymentsFuture.join(), auditsFuture.join())));
+
+        // Wait for the first section (or the first failure) before committing the response, so that API exceptions are mapped as usual
+        final List<CompletableFuture<?>> firstSectionOrFailure = new ArrayList<CompletableFuture<?>>(sections.values());
+        firstSectionOrFailure.add(allFutures);
+        CompletableFuture.anyOf(firstSectionOrFailure.toArray(new CompletableFuture[0])).handle((ignored, throwable) -> null).join();
+        final Throwable earlyFailure = getEarlyTimelineFailure(allFutures, sections.values());
+        if (earlyFailure instanceof TimeoutException) {
+            throw toWebApplicationException(earlyFailure);
+        } else if (earlyFailure != null) {
+            // Nothing has been sent yet
+            handleCallableException(earlyFailure);
         }
 
-        json = new AccountTimelineJson(account, invoices, payments, invoicePayments, bundles, accountAuditLogs);
+        final StreamingOutput json = new StreamingOutput() {
+            @Override
+            public void write(final OutputStream output) throws IOException, WebApplicationException {
+                final JsonGenerator generator = mapper.getFactory().createGenerator(output);
+                generator.configure(JsonGenerator.Feature.AUTO_CLOSE_TARGET, false);
+                generator.writeStartObject();
+
+                final Map<String, CompletableFuture<?>> remainingSections = new LinkedHashMap<String, CompletableFuture<?>>(sections);
+                while (!remainingSections.isEmpty()) {
+                    // Wait for the next section, the first failure or the deadline
+                    final List<CompletableFuture<?>> toWaitFor = new ArrayList<CompletableFuture<?>>(remainingSections.values());
+                    toWaitFor.add(allFutures);
+                    CompletableFuture.anyOf(toWaitFor.toArray(new CompletableFuture[0])).handle((ignored, throwable) -> null).join();
+
+                    final Iterator<Entry<String, CompletableFuture<?>>> iterator = remainingSections.entrySet().iterator();
+                    while (iterator.hasNext()) {
+                        final Entry<String, CompletableFuture<?>> section = iterator.next();
+                        if (allFutures.isCompletedExceptionally()) {
+                            throw toWebApplicationException(getTimelineFailure(allFutures));
+                        } else if (section.getValue().isCompletedExceptionally()) {
+                            throw toWebApplicationException(getTimelineFailure(section.getValue()));
+                        } else if (allFutures.isDone() || section.getValue().isDone()) {
+                            // Note: once all callables are done, the remaining sections only need to be converted
+                            generator.writeObjectField(section.getKey(), section.getValue().join());
+                            generator.flush();
+                            iterator.remove();
+                        }
+                    }
+                }
+
+                generator.writeEndObject();
+                generator.close();
+            }
+        };
         return Response.status(Status.OK).entity(json).build();
     }
 
-    private <T> T waitOnFutureAndHandleTimeout(final String logSuffix, final Future<T> future, final long timeoutMsec, final Iterable<Future> toBeCancelled) throws PaymentApiException, AccountApiException, InvoiceApiException, SubscriptionApiException {
-        try {
-            return waitOnFutureAndHandleTimeout(future, timeoutMsec);
-        } catch (final InterruptedException e) {
-            log.warn("InterruptedException while retrieving {}", logSuffix, e);
-            handleCallableException(e, toBeCancelled);
-        } catch (final ExecutionException e) {
-            log.warn("ExecutionException while retrieving {}", logSuffix, e);
-            handleCallableException(e.getCause(), toBeCancelled);
+    private Throwable getEarlyTimelineFailure(final CompletableFuture<Void> allFutures, final Iterable<CompletableFuture<?>> sections) {
+        if (allFutures.isCompletedExceptionally()) {
+            return getTimelineFailure(allFutures);
+        }
+        // Conversion failures, or callable failures not yet propagated to allFutures
+        for (final CompletableFuture<?> section : sections) {
+            if (section.isCompletedExceptionally()) {
+                return getTimelineFailure(section);
+            }
         }
-
-        // Never reached
         return null;
     }
 
-    private <T> T waitOnFutureAndHandleTimeout(final Future<T> future, final long timeoutMsec) throws ExecutionException, InterruptedException {
+    private Throwable getTimelineFailure(final CompletableFuture<?> future) {
         try {
-            return future.get(timeoutMsec, TimeUnit.MILLISECONDS);
-        } catch (final TimeoutException e) {
+            future.join();
             return null;
+        } catch (final CompletionException e) {
+            return e.getCause() != null ? e.getCause() : e;
+        } catch (final CancellationException e) {
+            return e;
         }
     }
 
+    private WebApplicationException toWebApplicationException(final Throwable cause) {
+        if (cause instanceof TimeoutException) {
+            log.warn("Timeout while retrieving the account timeline");
+            return new WebApplicationException(cause, Status.SERVICE_UNAVAILABLE);
+        }
+        // The response may already have been committed at this point
+        log.warn("Exception while retrieving the account timeline", cause);
+        return new WebApplicationException(cause, Status.INTERNAL_SERVER_ERROR);
+    }
+
     private <T> T runCallable(final String logSuffix, final Callable<T> callable) throws PaymentApiException, AccountApiException, InvoiceApiException, SubscriptionApiException {
         try {
             return callable.call();
@@ -639,13 +719,6 @@ public class AccountResource extends JaxRsResourceBase {
         return null;
     }
 
-    private void handleCallableException(final Throwable causeOrException, final Iterable<Future> toBeCancelled) throws AccountApiException, SubscriptionApiException, PaymentApiException, InvoiceApiException {
-        for (final Future f : toBeCancelled) {
-            f.cancel(true);
-        }
-        handleCallableException(causeOrException);
-    }
-
     private void handleCallableException(final Throwable causeOrException) throws AccountApiException, SubscriptionApiException, PaymentApiException, InvoiceApiException {
         if (causeOrException instanceof AccountApiException) {
             throw (AccountApiException) causeOrException;
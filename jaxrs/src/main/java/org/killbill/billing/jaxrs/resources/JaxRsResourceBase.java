@@ -22,8 +22,10 @@ import java.io.IOException;
 import java.io.OutputStream;
 import java.math.BigDecimal;
 import java.net.URI;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Base64;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
@@ -103,6 +105,7 @@ import org.killbill.billing.util.callcontext.CallContext;
 import org.killbill.billing.util.callcontext.TenantContext;
 import org.killbill.billing.util.customfield.CustomField;
 import org.killbill.billing.util.customfield.StringCustomField;
+import org.killbill.billing.util.entity.DefaultPagination;
 import org.killbill.billing.util.entity.Entity;
 import org.killbill.billing.util.entity.Pagination;
 import org.killbill.billing.util.jackson.ObjectMapper;
@@ -348,14 +351,53 @@ public abstract class JaxRsResourceBase implements JaxrsResource {
             }
         };
 
-        return Response.status(Status.OK)
-                       .entity(json)
-                       .header(HDR_PAGINATION_CURRENT_OFFSET, entities.getCurrentOffset())
-                       .header(HDR_PAGINATION_NEXT_OFFSET, entities.getNextOffset())
-                       .header(HDR_PAGINATION_TOTAL_NB_RECORDS, entities.getTotalNbRecords())
-                       .header(HDR_PAGINATION_MAX_NB_RECORDS, entities.getMaxNbRecords())
-                       .header(HDR_PAGINATION_NEXT_PAGE_URI, nextPageUri)
-                       .build();
+        final ResponseBuilder responseBuilder = Response.status(Status.OK)
+                                                        .entity(json)
+                                                        .header(HDR_PAGINATION_TOTAL_NB_RECORDS, entities.getTotalNbRecords())
+                                                        .header(HDR_PAGINATION_MAX_NB_RECORDS, entities.getMaxNbRecords())
+                                                        .header(HDR_PAGINATION_NEXT_PAGE_URI, nextPageUri);
+        if (DefaultPagination.isKeysetOffset(entities.getCurrentOffset())) {
+            // The offsets are internal encodings of the cursor in that case: only expose the cursor
+            responseBuilder.header(HDR_PAGINATION_NEXT_CURSOR, toPaginationCursor(entities.getNextOffset()));
+        } else {
+            responseBuilder.header(HDR_PAGINATION_CURRENT_OFFSET, entities.getCurrentOffset())
+                           .header(HDR_PAGINATION_NEXT_OFFSET, entities.getNextOffset());
+        }
+        return responseBuilder.build();
+    }
+
+    // API docs of the cursor parameter: only the plain listings of accounts, invoices and payments support keyset pagination
+    protected static final String PAGINATION_CURSOR_DESCRIPTION = "Keyset pagination cursor: empty for the first page, then the value of the " + HDR_PAGINATION_NEXT_CURSOR + " header (offset is ignored). " +
+                                                                  "Search endpoints don't support cursors and are offset based only.";
+
+    // Keyset pagination: an empty cursor means the first page
+    protected static Long fromPaginationCursor(final String cursor, final Long offset) {
+        if (cursor == null) {
+            // Only a cursor can enable keyset pagination (see DefaultPagination#isKeysetOffset)
+            Preconditions.checkArgument(offset >= 0, "Invalid negative offset %s", offset);
+            return offset;
+        } else if (cursor.isEmpty()) {
+            return DefaultPagination.toKeysetOffset(0);
+        }
+
+        final long afterRecordId;
+        try {
+            afterRecordId = Long.parseLong(new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8));
+        } catch (final IllegalArgumentException e) {
+            throw new IllegalArgumentException(String.format("Invalid pagination cursor %s", cursor), e);
+        }
+        if (afterRecordId < 0) {
+            throw new IllegalArgumentException(String.format("Invalid pagination cursor %s", cursor));
+        }
+        return DefaultPagination.toKeysetOffset(afterRecordId);
+    }
+
+    public static String toPaginationCursor(@Nullable final Long keysetOffset) {
+        if (keysetOffset == null) {
+            return null;
+        }
+        final String afterRecordId = String.valueOf(DefaultPagination.toAfterRecordId(keysetOffset));
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(afterRecordId.getBytes(StandardCharsets.UTF_8));
     }
 
     protected void validatePaymentMethodForAccount(final UUID accountId, final UUID paymentMethodId, final CallContext callContext) throws PaymentApiException {
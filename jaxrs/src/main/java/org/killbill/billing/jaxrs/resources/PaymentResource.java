@@ -80,6 +80,7 @@ import org.killbill.billing.util.entity.Pagination;
 import org.killbill.clock.Clock;
 import org.killbill.commons.metrics.api.annotation.MetricTag;
 import org.killbill.commons.metrics.api.annotation.TimedResource;
+import org.killbill.commons.utils.Preconditions;
 import org.killbill.commons.utils.Strings;
 import org.killbill.commons.utils.collect.Iterables;
 
@@ -165,6 +166,7 @@ public class PaymentResource extends ComboPaymentResource {
     @ApiResponses(value = {@ApiResponse(responseCode = "200", description = "successful operation", content = @Content(mediaType = "application/json", array = @ArraySchema(schema = @Schema(implementation = PaymentJson.class))))})
     public Response getPayments(@QueryParam(QUERY_SEARCH_OFFSET) @DefaultValue("0") final Long offset,
                                 @QueryParam(QUERY_SEARCH_LIMIT) @DefaultValue("100") final Long limit,
+                                @Parameter(description = PAGINATION_CURSOR_DESCRIPTION + " Not supported with " + QUERY_PAYMENT_PLUGIN_NAME + ".") @QueryParam(QUERY_SEARCH_CURSOR) final String cursor,
                                 @QueryParam(QUERY_PAYMENT_PLUGIN_NAME) final String pluginName,
                                 @QueryParam(QUERY_WITH_PLUGIN_INFO) @DefaultValue("false") final Boolean withPluginInfo,
                                 @QueryParam(QUERY_WITH_ATTEMPTS) @DefaultValue("false") final Boolean withAttempts,
@@ -176,8 +178,10 @@ public class PaymentResource extends ComboPaymentResource {
 
         final Pagination<Payment> payments;
         if (Strings.isNullOrEmpty(pluginName)) {
-            payments = paymentApi.getPayments(offset, limit, withPluginInfo, withAttempts, pluginProperties, tenantContext);
+            payments = paymentApi.getPayments(fromPaginationCursor(cursor, offset), limit, withPluginInfo, withAttempts, pluginProperties, tenantContext);
         } else {
+            // Plugins don't support keyset pagination
+            Preconditions.checkArgument(cursor == null, "%s isn't supported with %s", QUERY_SEARCH_CURSOR, QUERY_PAYMENT_PLUGIN_NAME);
             payments = paymentApi.getPayments(offset, limit, pluginName, withPluginInfo, withAttempts, pluginProperties, tenantContext);
         }
 
@@ -0,0 +1,112 @@
+/*
+ * Copyright 2020-2026 Equinix, Inc
+ * Copyright 2014-2026 The Billing Project, LLC
+ *
+ * The Billing Project licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.killbill.billing.jaxrs;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.killbill.billing.util.config.definition.JaxrsConfig;
+import org.mockito.Mockito;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+public class TestJaxrsExecutors extends JaxrsTestSuiteNoDB {
+
+    private JaxrsExecutors jaxrsExecutors;
+
+    @BeforeMethod(groups = "fast")
+    public void setUp() {
+        if (hasFailed()) {
+            return;
+        }
+
+        final JaxrsConfig jaxrsConfig = Mockito.mock(JaxrsConfig.class);
+        Mockito.when(jaxrsConfig.getJaxrsThreadNb()).thenReturn(2);
+        jaxrsExecutors = new JaxrsExecutors(jaxrsConfig);
+        jaxrsExecutors.initialize();
+    }
+
+    @AfterMethod(groups = "fast")
+    public void tearDown() throws InterruptedException {
+        if (hasFailed()) {
+            return;
+        }
+
+        jaxrsExecutors.stop();
+    }
+
+    @Test(groups = "fast")
+    public void testConcurrentTasksAreBounded() throws Exception {
+        final AtomicInteger running = new AtomicInteger();
+        final AtomicInteger maxRunning = new AtomicInteger();
+        final List<CompletableFuture<Boolean>> futures = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            futures.add(jaxrsExecutors.submit(() -> {
+                maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                Thread.sleep(20);
+                running.decrementAndGet();
+                return Thread.currentThread().isVirtual();
+            }));
+        }
+
+        for (final CompletableFuture<Boolean> future : futures) {
+            Assert.assertTrue(future.get(10, TimeUnit.SECONDS));
+        }
+        Assert.assertTrue(maxRunning.get() <= 2);
+    }
+
+    @Test(groups = "fast")
+    public void testCancellationInterruptsTask() throws Exception {
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch interrupted = new CountDownLatch(1);
+        final CompletableFuture<Void> future = jaxrsExecutors.submit(() -> {
+            started.countDown();
+            try {
+                Thread.sleep(60000);
+            } catch (final InterruptedException e) {
+                interrupted.countDown();
+                throw e;
+            }
+            return null;
+        });
+
+        Assert.assertTrue(started.await(10, TimeUnit.SECONDS));
+        future.cancel(true);
+        Assert.assertTrue(interrupted.await(10, TimeUnit.SECONDS));
+        Assert.assertTrue(future.isCancelled());
+    }
+
+    @Test(groups = "fast")
+    public void testFailure() {
+        final CompletableFuture<Void> future = jaxrsExecutors.submit(() -> {
+            throw new IllegalStateException("Boom");
+        });
+        try {
+            future.join();
+            Assert.fail();
+        } catch (final RuntimeException e) {
+            Assert.assertTrue(e.getCause() instanceof IllegalStateException);
+        }
+    }
+}
@@ -20,10 +20,14 @@ package org.killbill.billing.junction.glue;
 
 import org.killbill.billing.glue.JunctionModule;
 import org.killbill.billing.junction.BillingInternalApi;
+import org.killbill.billing.junction.plumbing.billing.BillingEventsExecutors;
 import org.killbill.billing.junction.plumbing.billing.BlockingCalculator;
 import org.killbill.billing.junction.plumbing.billing.DefaultInternalBillingApi;
+import org.killbill.billing.junction.service.DefaultJunctionService;
 import org.killbill.billing.platform.api.KillbillConfigSource;
+import org.killbill.billing.util.config.definition.JunctionConfig;
 import org.killbill.billing.util.glue.KillBillModule;
+import org.skife.config.AugmentedConfigurationObjectFactory;
 
 public class DefaultJunctionModule extends KillBillModule implements JunctionModule {
 
@@ -33,8 +37,14 @@ public class DefaultJunctionModule extends KillBillModule implements JunctionMod
 
     @Override
     protected void configure() {
+        installConfig();
         installBillingApi();
         installBlockingCalculator();
+        installJunctionService();
+    }
+
+    protected void installConfig() {
+        bind(JunctionConfig.class).toInstance(new AugmentedConfigurationObjectFactory(skifeConfigSource).build(JunctionConfig.class));
     }
 
     @Override
@@ -46,4 +56,9 @@ public class DefaultJunctionModule extends KillBillModule implements JunctionMod
         bind(BlockingCalculator.class).asEagerSingleton();
     }
 
+    protected void installJunctionService() {
+        bind(BillingEventsExecutors.class).asEagerSingleton();
+        bind(DefaultJunctionService.class).asEagerSingleton();
+    }
+
 }
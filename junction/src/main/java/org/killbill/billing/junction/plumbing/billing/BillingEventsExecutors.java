@@ -0,0 +1,65 @@
+/*
+ * Copyright 2020-2026 Equinix, Inc
+ * Copyright 2014-2026 The Billing Project, LLC
+ *
+ * The Billing Project licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.killbill.billing.junction.plumbing.billing;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import jakarta.inject.Inject;
+
+import org.killbill.billing.util.config.definition.JunctionConfig;
+import org.killbill.commons.concurrent.Executors;
+
+public class BillingEventsExecutors {
+
+    private static final long TIMEOUT_EXECUTOR_SEC = 3L;
+
+    private final JunctionConfig junctionConfig;
+
+    private volatile ExecutorService billingEventsExecutorService;
+
+    @Inject
+    public BillingEventsExecutors(final JunctionConfig junctionConfig) {
+        this.junctionConfig = junctionConfig;
+    }
+
+    public void initialize() {
+        if (junctionConfig.getBillingEventsThreadNb() > 1) {
+            this.billingEventsExecutorService = Executors.newFixedThreadPool(junctionConfig.getBillingEventsThreadNb(), DefaultInternalBillingApi.class.getName());
+        }
+    }
+
+    public void stop() throws InterruptedException {
+        final ExecutorService executorService = billingEventsExecutorService;
+        if (executorService == null) {
+            return;
+        }
+
+        // New computations fall back to the calling thread, in-flight ones are given a chance to complete
+        billingEventsExecutorService = null;
+        executorService.shutdown();
+        if (!executorService.awaitTermination(TIMEOUT_EXECUTOR_SEC, TimeUnit.SECONDS)) {
+            executorService.shutdownNow();
+        }
+    }
+
+    // Null when billing events are computed in the calling thread (default), or when not started
+    public ExecutorService getBillingEventsExecutorService() {
+        return billingEventsExecutorService;
+    }
+}
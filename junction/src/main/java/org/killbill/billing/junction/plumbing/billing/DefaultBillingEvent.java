@@ -99,6 +99,28 @@ public class DefaultBillingEvent implements BillingEvent {
         this.usages = computeUsages(isCancelledOrBlocked, planPhase);
     }
 
+    // Same event, with a different billCycleDayLocal (i.e. once the account BCD has been computed)
+    public DefaultBillingEvent(final DefaultBillingEvent source, final int billCycleDayLocal) {
+        this.subscriptionId = source.subscriptionId;
+        this.bundleId = source.bundleId;
+        this.billCycleDayLocal = billCycleDayLocal;
+        this.quantity = source.quantity;
+        this.billingAlignment = source.billingAlignment;
+        this.effectiveDate = source.effectiveDate;
+        this.planPhase = source.planPhase;
+        this.plan = source.plan;
+        this.billingPeriod = source.billingPeriod;
+        this.recurringPrice = source.recurringPrice;
+        this.fixedPrice = source.fixedPrice;
+        this.usages = source.usages;
+        this.currency = source.currency;
+        this.description = source.description;
+        this.type = source.type;
+        this.totalOrdering = source.totalOrdering;
+        this.isCancelledOrBlocked = source.isCancelledOrBlocked;
+        this.catalogEffectiveDate = source.catalogEffectiveDate;
+    }
+
     // Only used for START_BILLING_DISABLED / END_BILLING_DISABLED
     public DefaultBillingEvent(final UUID subscriptionId,
                                final UUID bundleId,
@@ -20,9 +20,12 @@ package org.killbill.billing.junction.plumbing.billing;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.NavigableSet;
 import java.util.SortedSet;
 import java.util.TreeSet;
 import java.util.UUID;
@@ -41,6 +44,9 @@ public class DefaultBillingEventSet extends TreeSet<BillingEvent> implements Sor
     private final boolean accountAutoInvoiceReuseDraft;
     private final List<UUID> subscriptionIdsWithAutoInvoiceOff;
 
+    // Lazily built on the first lookup, reset by any modification going through this class (i.e. not through the sub-set views)
+    private transient Map<UUID, NavigableSet<BillingEvent>> eventsPerSubscription;
+
     public DefaultBillingEventSet(final boolean accountAutoInvoiceOff, final boolean accountAutoInvoiceDraft, final boolean accountAutoInvoiceReuseDraft) {
         this.accountAutoInvoiceOff = accountAutoInvoiceOff;
         this.accountAutoInvoiceDraft = accountAutoInvoiceDraft;
@@ -83,10 +89,94 @@ public class DefaultBillingEventSet extends TreeSet<BillingEvent> implements Sor
         return result;
     }
 
+    @Override
+    public NavigableSet<BillingEvent> getBillingEventsForSubscription(final UUID subscriptionId) {
+        if (eventsPerSubscription == null) {
+            final Map<UUID, NavigableSet<BillingEvent>> index = new HashMap<>();
+            for (final BillingEvent event : this) {
+                index.computeIfAbsent(event.getSubscriptionId(), k -> new TreeSet<>()).add(event);
+            }
+            index.replaceAll((key, events) -> Collections.unmodifiableNavigableSet(events));
+            eventsPerSubscription = index;
+        }
+        return eventsPerSubscription.getOrDefault(subscriptionId, Collections.emptyNavigableSet());
+    }
+
+    @Override
+    public boolean add(final BillingEvent billingEvent) {
+        eventsPerSubscription = null;
+        return super.add(billingEvent);
+    }
+
+    @Override
+    public boolean addAll(final Collection<? extends BillingEvent> c) {
+        eventsPerSubscription = null;
+        return super.addAll(c);
+    }
+
+    @Override
+    public boolean remove(final Object o) {
+        eventsPerSubscription = null;
+        return super.remove(o);
+    }
+
+    @Override
+    public void clear() {
+        eventsPerSubscription = null;
+        super.clear();
+    }
+
+    @Override
+    public BillingEvent pollFirst() {
+        eventsPerSubscription = null;
+        return super.pollFirst();
+    }
+
+    @Override
+    public BillingEvent pollLast() {
+        eventsPerSubscription = null;
+        return super.pollLast();
+    }
+
+    @Override
+    public Iterator<BillingEvent> iterator() {
+        return new IndexResettingIterator(super.iterator());
+    }
+
+    @Override
+    public Iterator<BillingEvent> descendingIterator() {
+        return new IndexResettingIterator(super.descendingIterator());
+    }
+
     @Override
     public String toString() {
         return "DefaultBillingEventSet [accountAutoInvoiceOff=" + accountAutoInvoiceOff
                + ", subscriptionIdsWithAutoInvoiceOff=" + subscriptionIdsWithAutoInvoiceOff + ", Events="
                + super.toString() + "]";
     }
+
+    private final class IndexResettingIterator implements Iterator<BillingEvent> {
+
+        private final Iterator<BillingEvent> delegate;
+
+        private IndexResettingIterator(final Iterator<BillingEvent> delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return delegate.hasNext();
+        }
+
+        @Override
+        public BillingEvent next() {
+            return delegate.next();
+        }
+
+        @Override
+        public void remove() {
+            eventsPerSubscription = null;
+            delegate.remove();
+        }
+    }
 }
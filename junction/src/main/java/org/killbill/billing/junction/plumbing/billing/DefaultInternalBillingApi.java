@@ -19,14 +19,19 @@
 package org.killbill.billing.junction.plumbing.billing;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.SortedSet;
 import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import java.util.stream.Collectors;
 
 import javax.annotation.Nullable;
@@ -75,18 +80,21 @@ public class DefaultInternalBillingApi implements BillingInternalApi {
     private final CatalogInternalApi catalogInternalApi;
     private final BlockingCalculator blockCalculator;
     private final TagInternalApi tagApi;
+    private final BillingEventsExecutors billingEventsExecutors;
 
     @Inject
     public DefaultInternalBillingApi(final AccountInternalApi accountApi,
                                      final SubscriptionBaseInternalApi subscriptionApi,
                                      final BlockingCalculator blockCalculator,
                                      final CatalogInternalApi catalogInternalApi,
-                                     final TagInternalApi tagApi) {
+                                     final TagInternalApi tagApi,
+                                     final BillingEventsExecutors billingEventsExecutors) {
         this.accountApi = accountApi;
         this.subscriptionApi = subscriptionApi;
         this.catalogInternalApi = catalogInternalApi;
         this.blockCalculator = blockCalculator;
         this.tagApi = tagApi;
+        this.billingEventsExecutors = billingEventsExecutors;
     }
 
     @Override
@@ -182,6 +190,8 @@ public class DefaultInternalBillingApi implements BillingInternalApi {
                                             final VersionedCatalog catalog,
                                             final List<Tag> tagsForAccount,
                                             final int currentAccountBCD) throws AccountApiException, CatalogApiException, SubscriptionBaseApiException {
+        final List<BundleBillingEvents> bundlesBillingEvents = new ArrayList<>(subscriptionsForAccount.size() + 1);
+
         // In dryRun mode, when we care about invoice generated for new BASE subscription, no such bundle exists yet; we still
         // want to tap into subscriptionBase logic, so we make up a bundleId
         if (dryRunArguments != null &&
@@ -189,7 +199,7 @@ public class DefaultInternalBillingApi implements BillingInternalApi {
             dryRunArguments.getBundleId() == null) {
             final UUID fakeBundleId = UUIDs.randomUUID();
             final List<SubscriptionBase> subscriptions = subscriptionApi.getSubscriptionsForBundle(fakeBundleId, dryRunArguments, context);
-            addBillingEventsForSubscription(account, subscriptions, null, currentAccountBCD, context, result, skipSubscriptionsSet, catalog);
+            bundlesBillingEvents.add(new BundleBillingEvents(subscriptions, null));
         }
 
         for (final UUID bundleId : subscriptionsForAccount.keySet()) {
@@ -214,10 +224,19 @@ public class DefaultInternalBillingApi implements BillingInternalApi {
                 }
             } else { // billing is not off
                 final SubscriptionBase baseSubscription = subscriptions != null && !subscriptions.isEmpty() ? subscriptions.get(0) : null;
-                addBillingEventsForSubscription(account, subscriptions, baseSubscription, currentAccountBCD, context, result, skipSubscriptionsSet, catalog);
+                bundlesBillingEvents.add(new BundleBillingEvents(subscriptions, baseSubscription));
             }
         }
 
+        computeBillingEvents(account, bundlesBillingEvents, currentAccountBCD, catalog, context);
+
+        final List<DefaultBillingEvent> accountAlignedEvents = new LinkedList<>();
+        for (final BundleBillingEvents bundleBillingEvents : bundlesBillingEvents) {
+            result.addAll(bundleBillingEvents.events);
+            accountAlignedEvents.addAll(bundleBillingEvents.accountAlignedEvents);
+            skipSubscriptionsSet.addAll(bundleBillingEvents.skippedSubscriptions);
+        }
+
         // If dryRun is specified, we don't want to update the account BCD value, so we initialize the flag updatedAccountBCD to true
         if (currentAccountBCD == 0) {
             final Integer accountBCDCandidate = computeAccountBCD(result);
@@ -226,9 +245,12 @@ public class DefaultInternalBillingApi implements BillingInternalApi {
             }
 
             // Because we now have computed the real BCD, we need to re-compute the BillingEvents BCD for ACCOUNT alignments (see BillCycleDayCalculator#calculateBcdForAlignment).
-            // The code could maybe be optimized (no need to re-run the full function?), but since it's run once per account, it's probably not worth it.
-            result.clear();
-            addBillingEventsForBundles(account, dryRunArguments, context, result, skipSubscriptionsSet, subscriptionsForAccount, catalog, tagsForAccount, accountBCDCandidate);
+            // Only those were computed using the SUBSCRIPTION alignment fallback: all other events are left untouched.
+            for (final DefaultBillingEvent accountAlignedEvent : accountAlignedEvents) {
+                // The BCD isn't part of the ordering, so the new event replaces the old one
+                result.remove(accountAlignedEvent);
+                result.add(new DefaultBillingEvent(accountAlignedEvent, accountBCDCandidate));
+            }
 
             final boolean dryRunMode = dryRunArguments != null;
             if (!dryRunMode) {
@@ -238,6 +260,52 @@ public class DefaultInternalBillingApi implements BillingInternalApi {
         }
     }
 
+    private void computeBillingEvents(final ImmutableAccountData account,
+                                      final List<BundleBillingEvents> bundlesBillingEvents,
+                                      final int currentAccountBCD,
+                                      final VersionedCatalog catalog,
+                                      final InternalCallContext context) throws CatalogApiException, SubscriptionBaseApiException {
+        final ExecutorService executorService = billingEventsExecutors.getBillingEventsExecutorService();
+        if (executorService == null || bundlesBillingEvents.size() <= 1) {
+            for (final BundleBillingEvents bundleBillingEvents : bundlesBillingEvents) {
+                addBillingEventsForSubscription(account, currentAccountBCD, context, bundleBillingEvents, catalog);
+            }
+            return;
+        }
+
+        // Bundles are independent from each other: each task only fills its own BundleBillingEvents
+        final List<Future<Void>> futures = new ArrayList<>(bundlesBillingEvents.size());
+        for (final BundleBillingEvents bundleBillingEvents : bundlesBillingEvents) {
+            futures.add(executorService.submit(() -> {
+                addBillingEventsForSubscription(account, currentAccountBCD, context, bundleBillingEvents, catalog);
+                return null;
+            }));
+        }
+
+        try {
+            for (final Future<Void> future : futures) {
+                future.get();
+            }
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        } catch (final ExecutionException e) {
+            if (e.getCause() instanceof CatalogApiException) {
+                throw (CatalogApiException) e.getCause();
+            } else if (e.getCause() instanceof SubscriptionBaseApiException) {
+                throw (SubscriptionBaseApiException) e.getCause();
+            } else if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            } else {
+                throw new IllegalStateException(e.getCause());
+            }
+        } finally {
+            for (final Future<Void> future : futures) {
+                future.cancel(true);
+            }
+        }
+    }
+
     private Integer computeAccountBCD(final BillingEventSet result) throws CatalogApiException {
         BillingEvent oldestAccountAlignedBillingEvent = null;
 
@@ -274,13 +342,12 @@ public class DefaultInternalBillingApi implements BillingInternalApi {
     }
 
     private void addBillingEventsForSubscription(final ImmutableAccountData account,
-                                                 @Nullable final List<SubscriptionBase> subscriptions,
-                                                 final SubscriptionBase baseSubscription,
                                                  final int currentAccountBCD,
                                                  final InternalCallContext context,
-                                                 final DefaultBillingEventSet result,
-                                                 final Set<UUID> skipSubscriptionsSet,
+                                                 final BundleBillingEvents result,
                                                  final VersionedCatalog catalog) throws SubscriptionBaseApiException, CatalogApiException {
+        final List<SubscriptionBase> subscriptions = result.subscriptions;
+        final SubscriptionBase baseSubscription = result.baseSubscription;
         if (subscriptions == null) {
             return;
         }
@@ -294,7 +361,7 @@ public class DefaultInternalBillingApi implements BillingInternalApi {
                 (billingTransitions.get(0).getType() != SubscriptionBaseTransitionType.CREATE &&
                  billingTransitions.get(0).getType() != SubscriptionBaseTransitionType.TRANSFER)) {
                 log.warn("Skipping billing events for subscription " + subscription.getId() + ": Does not start with a valid CREATE transition");
-                skipSubscriptionsSet.add(subscription.getId());
+                result.skippedSubscriptions.add(subscription.getId());
                 return;
             }
 
@@ -319,8 +386,11 @@ public class DefaultInternalBillingApi implements BillingInternalApi {
 
                 }
 
-                final BillingEvent event = new DefaultBillingEvent(transition, subscription, bcdLocal, alignment, account.getCurrency());
-                result.add(event);
+                final DefaultBillingEvent event = new DefaultBillingEvent(transition, subscription, bcdLocal, alignment, account.getCurrency());
+                result.events.add(event);
+                if (overridenBCD == null && alignment == BillingAlignment.ACCOUNT) {
+                    result.accountAlignedEvents.add(event);
+                }
             }
         }
     }
@@ -363,4 +433,20 @@ public class DefaultInternalBillingApi implements BillingInternalApi {
         return subscriptionsForAccount.containsKey(bundleId) ? subscriptionsForAccount.get(bundleId) : Collections.emptyList();
     }
 
+    // Billing events for the subscriptions of one bundle, computed independently of the other bundles
+    private static final class BundleBillingEvents {
+
+        private final List<SubscriptionBase> subscriptions;
+        private final SubscriptionBase baseSubscription;
+
+        private final List<BillingEvent> events = new LinkedList<>();
+        // Events whose BCD follows the account BCD (i.e. ACCOUNT aligned and not overridden by a BCD_CHANGE)
+        private final List<DefaultBillingEvent> accountAlignedEvents = new LinkedList<>();
+        private final Set<UUID> skippedSubscriptions = new HashSet<>();
+
+        private BundleBillingEvents(@Nullable final List<SubscriptionBase> subscriptions, @Nullable final SubscriptionBase baseSubscription) {
+            this.subscriptions = subscriptions;
+            this.baseSubscription = baseSubscription;
+        }
+    }
 }
@@ -0,0 +1,67 @@
+/*
+ * Copyright 2020-2026 Equinix, Inc
+ * Copyright 2014-2026 The Billing Project, LLC
+ *
+ * The Billing Project licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.killbill.billing.junction.service;
+
+import jakarta.inject.Inject;
+
+import org.killbill.billing.junction.plumbing.billing.BillingEventsExecutors;
+import org.killbill.billing.platform.api.KillbillService;
+import org.killbill.billing.platform.api.LifecycleHandlerType;
+import org.killbill.billing.platform.api.LifecycleHandlerType.LifecycleLevel;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+public class DefaultJunctionService implements KillbillService {
+
+    private static final String JUNCTION_SERVICE_NAME = "junction-service";
+
+    private static final Logger log = LoggerFactory.getLogger(DefaultJunctionService.class);
+
+    private final BillingEventsExecutors billingEventsExecutors;
+
+    @Inject
+    public DefaultJunctionService(final BillingEventsExecutors billingEventsExecutors) {
+        this.billingEventsExecutors = billingEventsExecutors;
+    }
+
+    @Override
+    public String getName() {
+        return JUNCTION_SERVICE_NAME;
+    }
+
+    @Override
+    public int getRegistrationOrdering() {
+        // The billing events are computed on behalf of the invoice service
+        return KILLBILL_SERVICES.INVOICE_SERVICE.getRegistrationOrdering() + 3;
+    }
+
+    @LifecycleHandlerType(LifecycleLevel.INIT_SERVICE)
+    public void initialize() {
+        billingEventsExecutors.initialize();
+    }
+
+    @LifecycleHandlerType(LifecycleLevel.STOP_SERVICE)
+    public void stop() {
+        try {
+            billingEventsExecutors.stop();
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.error("JunctionService got interrupted", e);
+        }
+    }
+}
@@ -28,6 +28,7 @@ import org.killbill.billing.catalog.api.Usage;
 import org.killbill.billing.junction.BillingEvent;
 import org.killbill.billing.junction.BillingEventSet;
 import org.killbill.billing.junction.JunctionTestSuiteNoDB;
+import org.killbill.billing.subscription.api.SubscriptionBase;
 import org.killbill.billing.subscription.api.SubscriptionBaseTransitionType;
 import org.mockito.Mockito;
 import org.testng.Assert;
@@ -94,4 +95,35 @@ public class TestDefaultBillingEventSet extends JunctionTestSuiteNoDB {
             Assert.assertTrue(e.getMessage().contains("Failed to retrieve usage section for billing event"));
         }
     }
+
+    @Test(groups = "fast")
+    public void testGetBillingEventsForSubscription() throws CatalogApiException {
+        final SubscriptionBase subscription1 = subscription(UUID.randomUUID());
+        final SubscriptionBase subscription2 = subscription(UUID.randomUUID());
+        final DateTime now = clock.getUTCNow();
+        final BillingEvent e11 = createEvent(subscription1, now, SubscriptionBaseTransitionType.CREATE, 1L);
+        final BillingEvent e12 = createEvent(subscription1, now.plusDays(30), SubscriptionBaseTransitionType.PHASE, 2L);
+        final BillingEvent e21 = createEvent(subscription2, now.plusDays(1), SubscriptionBaseTransitionType.CREATE, 3L);
+
+        final BillingEventSet billingEventSet = new DefaultBillingEventSet(false, false, false);
+        billingEventSet.addAll(List.of(e12, e21, e11));
+
+        Assert.assertEquals(List.copyOf(billingEventSet.getBillingEventsForSubscription(subscription1.getId())), List.of(e11, e12));
+        Assert.assertEquals(List.copyOf(billingEventSet.getBillingEventsForSubscription(subscription2.getId())), List.of(e21));
+        Assert.assertTrue(billingEventSet.getBillingEventsForSubscription(UUID.randomUUID()).isEmpty());
+
+        // The index follows the modifications of the set
+        final BillingEvent e22 = createEvent(subscription2, now.plusDays(5), SubscriptionBaseTransitionType.CANCEL, 4L);
+        billingEventSet.add(e22);
+        Assert.assertEquals(List.copyOf(billingEventSet.getBillingEventsForSubscription(subscription2.getId())), List.of(e21, e22));
+
+        billingEventSet.remove(e11);
+        Assert.assertEquals(List.copyOf(billingEventSet.getBillingEventsForSubscription(subscription1.getId())), List.of(e12));
+
+        billingEventSet.removeIf(event -> event.getSubscriptionId().equals(subscription2.getId()));
+        Assert.assertTrue(billingEventSet.getBillingEventsForSubscription(subscription2.getId()).isEmpty());
+
+        billingEventSet.clear();
+        Assert.assertTrue(billingEventSet.getBillingEventsForSubscription(subscription1.getId()).isEmpty());
+    }
 }
@@ -20,16 +20,21 @@ package org.killbill.billing.junction.plumbing.billing;
 
 import java.util.Collections;
 import java.util.List;
+import java.util.Properties;
 import java.util.UUID;
 
+import jakarta.inject.Inject;
+
 import org.joda.time.DateTime;
 import org.joda.time.LocalDate;
 import org.joda.time.Period;
 import org.joda.time.ReadablePeriod;
 import org.joda.time.Seconds;
 import org.killbill.billing.account.api.Account;
+import org.killbill.billing.account.api.AccountInternalApi;
 import org.killbill.billing.api.TestApiListener.NextEvent;
 import org.killbill.billing.catalog.api.BillingPeriod;
+import org.killbill.billing.catalog.api.CatalogInternalApi;
 import org.killbill.billing.catalog.api.PlanPhaseSpecifier;
 import org.killbill.billing.catalog.api.PriceListSet;
 import org.killbill.billing.entitlement.api.BaseEntitlementWithAddOnsSpecifier;
@@ -40,16 +45,30 @@ import org.killbill.billing.entitlement.api.DefaultEntitlementSpecifier;
 import org.killbill.billing.entitlement.api.Entitlement;
 import org.killbill.billing.entitlement.api.EntitlementSpecifier;
 import org.killbill.billing.junction.BillingEvent;
+import org.killbill.billing.junction.BillingInternalApi;
 import org.killbill.billing.junction.DefaultBlockingState;
 import org.killbill.billing.junction.JunctionTestSuiteWithEmbeddedDB;
 import org.killbill.billing.platform.api.KillbillService.KILLBILL_SERVICES;
 import org.killbill.billing.subscription.api.SubscriptionBase;
 import org.killbill.billing.subscription.api.SubscriptionBaseTransitionType;
+import org.killbill.billing.tag.TagInternalApi;
+import org.killbill.billing.util.config.definition.JunctionConfig;
+import org.skife.config.AugmentedConfigurationObjectFactory;
+import org.skife.config.SimplePropertyConfigSource;
 import org.testng.Assert;
 import org.testng.annotations.Test;
 
 public class TestDefaultInternalBillingApi extends JunctionTestSuiteWithEmbeddedDB {
 
+    @Inject
+    protected AccountInternalApi accountInternalApi;
+    @Inject
+    protected CatalogInternalApi catalogInternalApi;
+    @Inject
+    protected TagInternalApi tagInternalApi;
+    @Inject
+    protected BlockingCalculator blockingCalculator;
+
     @Test(groups = "slow")
     public void testRecurringInArrear() throws Exception {
         final LocalDate initialDate = new LocalDate(2013, 8, 7);
@@ -407,6 +426,59 @@ public class TestDefaultInternalBillingApi extends JunctionTestSuiteWithEmbedded
         Assert.assertEquals(events.get(2).getEffectiveDate().compareTo(block5Date), 0);
     }
 
+    @Test(groups = "slow")
+    public void testBCDUpdateMultipleBundlesInParallel() throws Exception {
+        final LocalDate initialDate = new LocalDate(2013, 8, 7);
+        clock.setDay(initialDate);
+
+        // Account with no BCD
+        final Account account = createAccount(getAccountData(0));
+        Assert.assertEquals(account.getBillCycleDayLocal(), (Integer) 0);
+
+        // 3 bundles: SUBSCRIPTION aligned, ACCOUNT aligned, ACCOUNT aligned with an add-on
+        final EntitlementSpecifier entitlementSpecifierBase1 = new DefaultEntitlementSpecifier(new PlanPhaseSpecifier("Pistol", BillingPeriod.ANNUAL, "gunclubDiscountNoTrial", null));
+        final EntitlementSpecifier entitlementSpecifierBase2 = new DefaultEntitlementSpecifier(new PlanPhaseSpecifier("Pistol", BillingPeriod.MONTHLY, PriceListSet.DEFAULT_PRICELIST_NAME, null));
+        final EntitlementSpecifier entitlementSpecifierBase3 = new DefaultEntitlementSpecifier(new PlanPhaseSpecifier("Shotgun", BillingPeriod.MONTHLY, PriceListSet.DEFAULT_PRICELIST_NAME, null));
+        final EntitlementSpecifier entitlementSpecifierAO3 = new DefaultEntitlementSpecifier(new PlanPhaseSpecifier("Cabinet", BillingPeriod.TRIANNUAL, PriceListSet.DEFAULT_PRICELIST_NAME, null));
+        final BaseEntitlementWithAddOnsSpecifier specifier1 = new DefaultBaseEntitlementWithAddOnsSpecifier(null, UUID.randomUUID().toString(), List.of(entitlementSpecifierBase1), null, null, false);
+        final BaseEntitlementWithAddOnsSpecifier specifier2 = new DefaultBaseEntitlementWithAddOnsSpecifier(null, UUID.randomUUID().toString(), List.of(entitlementSpecifierBase2), null, null, false);
+        final BaseEntitlementWithAddOnsSpecifier specifier3 = new DefaultBaseEntitlementWithAddOnsSpecifier(null, UUID.randomUUID().toString(), List.of(entitlementSpecifierBase3, entitlementSpecifierAO3), null, null, false);
+        testListener.pushExpectedEvents(NextEvent.CREATE, NextEvent.BLOCK, NextEvent.CREATE, NextEvent.BLOCK, NextEvent.CREATE, NextEvent.BLOCK, NextEvent.CREATE, NextEvent.BLOCK);
+        entitlementApi.createBaseEntitlementsWithAddOns(account.getId(), List.of(specifier1, specifier2, specifier3), false, Collections.emptyList(), callContext);
+        assertListenerStatus();
+
+        final Properties properties = new Properties();
+        properties.setProperty("org.killbill.junction.billingEvents.threads.pool.nb", "4");
+        final JunctionConfig parallelConfig = new AugmentedConfigurationObjectFactory(new SimplePropertyConfigSource(properties)).build(JunctionConfig.class);
+        final BillingEventsExecutors billingEventsExecutors = new BillingEventsExecutors(parallelConfig);
+        billingEventsExecutors.initialize();
+        final List<BillingEvent> parallelEvents;
+        try {
+            Assert.assertNotNull(billingEventsExecutors.getBillingEventsExecutorService());
+            final BillingInternalApi parallelBillingInternalApi = new DefaultInternalBillingApi(accountInternalApi, subscriptionInternalApi, blockingCalculator, catalogInternalApi, tagInternalApi, billingEventsExecutors);
+
+            // Computes (and sets) the account BCD
+            parallelEvents = List.copyOf(parallelBillingInternalApi.getBillingEventsForAccountAndUpdateAccountBCD(account.getId(), null, null, internalCallContext));
+        } finally {
+            billingEventsExecutors.stop();
+        }
+        Assert.assertNull(billingEventsExecutors.getBillingEventsExecutorService());
+        Assert.assertEquals(parallelEvents.size(), 7);
+        final Account accountWithBCD = accountApi.getAccountById(account.getId(), callContext);
+        Assert.assertNotEquals(accountWithBCD.getBillCycleDayLocal(), (Integer) 0);
+
+        // Account BCD already set: same events, computed in the calling thread
+        final List<BillingEvent> events = List.copyOf(billingInternalApi.getBillingEventsForAccountAndUpdateAccountBCD(account.getId(), null, null, internalCallContext));
+        Assert.assertEquals(parallelEvents, events);
+        for (final BillingEvent billingEvent : events) {
+            if ("pistol-annual-gunclub-discount-notrial".equals(billingEvent.getPlan().getName())) {
+                Assert.assertEquals(billingEvent.getBillCycleDayLocal(), 7);
+            } else {
+                Assert.assertEquals(billingEvent.getBillCycleDayLocal(), (int) accountWithBCD.getBillCycleDayLocal());
+            }
+        }
+    }
+
     // See https://github.com/killbill/killbill/commit/92042843e38a67f75495b207385e4c1f9ca60990#commitcomment-4749967
     @Test(groups = "slow", description = "Check unblock then block states with same effective date are correctly handled", invocationCount = 10)
     public void testUnblockThenBlockBlockingStatesWithSameEffectiveDate() throws Exception {
@@ -35,6 +35,7 @@ import org.killbill.billing.account.api.ImmutableAccountData;
 import org.killbill.billing.callcontext.InternalCallContext;
 import org.killbill.billing.invoice.api.Invoice;
 import org.killbill.billing.invoice.api.InvoiceInternalApi;
+import org.killbill.billing.invoice.api.UnpaidInvoicesSummary;
 import org.killbill.billing.overdue.config.api.BillingState;
 import org.killbill.billing.overdue.config.api.OverdueException;
 import org.killbill.billing.payment.api.PaymentResponse;
@@ -65,16 +66,31 @@ public class BillingStateCalculator {
     }
 
     public BillingState calculateBillingState(final ImmutableAccountData account, final InternalCallContext context) throws OverdueException {
-        final SortedSet<Invoice> unpaidInvoices = unpaidInvoicesForAccount(account.getId(), context);
+        return calculateBillingState(account, false, context);
+    }
 
-        final int numberOfUnpaidInvoices = unpaidInvoices.size();
-        final BigDecimal unpaidInvoiceBalance = sumBalance(unpaidInvoices);
+    public BillingState calculateBillingState(final ImmutableAccountData account, final boolean fromUnpaidInvoicesSummary, final InternalCallContext context) throws OverdueException {
+        final int numberOfUnpaidInvoices;
+        final BigDecimal unpaidInvoiceBalance;
         LocalDate dateOfEarliestUnpaidInvoice = null;
         UUID idOfEarliestUnpaidInvoice = null;
-        final Invoice invoice = earliest(unpaidInvoices);
-        if (invoice != null) {
-            dateOfEarliestUnpaidInvoice = invoice.getInvoiceDate();
-            idOfEarliestUnpaidInvoice = invoice.getId();
+
+        if (fromUnpaidInvoicesSummary) {
+            // The summary is aggregated by the invoice DAO, without loading the unpaid invoices with their items and payments
+            final UnpaidInvoicesSummary summary = invoiceApi.getUnpaidInvoicesSummaryByAccountId(account.getId(), context.toLocalDate(context.getCreatedDate()), context);
+            numberOfUnpaidInvoices = summary.getNbUnpaidInvoices();
+            unpaidInvoiceBalance = summary.getUnpaidInvoicesBalance();
+            dateOfEarliestUnpaidInvoice = summary.getDateOfEarliestUnpaidInvoice();
+            idOfEarliestUnpaidInvoice = summary.getIdOfEarliestUnpaidInvoice();
+        } else {
+            final SortedSet<Invoice> unpaidInvoices = unpaidInvoicesForAccount(account.getId(), context);
+            numberOfUnpaidInvoices = unpaidInvoices.size();
+            unpaidInvoiceBalance = sumBalance(unpaidInvoices);
+            final Invoice invoice = earliest(unpaidInvoices);
+            if (invoice != null) {
+                dateOfEarliestUnpaidInvoice = invoice.getInvoiceDate();
+                idOfEarliestUnpaidInvoice = invoice.getId();
+            }
         }
         final PaymentResponse responseForLastFailedPayment = PaymentResponse.INSUFFICIENT_FUNDS; //TODO MDW
         final List<Tag> accountTags = tagApi.getTags(account.getId(), ObjectType.ACCOUNT, context);
@@ -41,6 +41,20 @@ public class MultiTenantOverdueConfig extends MultiTenantLockAwareConfigBase imp
         this.staticConfig = staticConfig;
     }
 
+    @Override
+    public boolean isBillingStateFromUnpaidInvoicesSummary() {
+        return staticConfig.isBillingStateFromUnpaidInvoicesSummary();
+    }
+
+    @Override
+    public boolean isBillingStateFromUnpaidInvoicesSummary(final InternalTenantContext tenantContext) {
+        final String result = getStringTenantConfig("isBillingStateFromUnpaidInvoicesSummary", tenantContext);
+        if (result != null) {
+            return Boolean.parseBoolean(result);
+        }
+        return isBillingStateFromUnpaidInvoicesSummary();
+    }
+
     @Override
     protected Class<? extends KillbillConfig> getConfigClass() {
         return OverdueConfig.class;
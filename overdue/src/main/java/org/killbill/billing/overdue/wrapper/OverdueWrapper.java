@@ -112,7 +112,7 @@ public class OverdueWrapper {
             return;
         }
 
-        final BillingState billingState = billingState(context);
+        final BillingState billingState = billingState(overdueConfig.isBillingStateFromUnpaidInvoicesSummary(context), context);
         final BlockingState blockingStateForService = api.getBlockingStateForService(overdueable.getId(), BlockingStateType.ACCOUNT, OverdueService.OVERDUE_SERVICE_NAME, context);
         final String previousOverdueStateName = blockingStateForService != null ? blockingStateForService.getStateName() : OverdueWrapper.CLEAR_STATE_NAME;
         final OverdueState currentOverdueState = overdueStateSet.findState(previousOverdueStateName);
@@ -149,12 +149,16 @@ public class OverdueWrapper {
     }
 
     public BillingState billingState(final InternalCallContext context) throws OverdueException {
+        return billingState(false, context);
+    }
+
+    private BillingState billingState(final boolean fromUnpaidInvoicesSummary, final InternalCallContext context) throws OverdueException {
         if ((overdueable.getParentAccountId() != null) && (overdueable.isPaymentDelegatedToParent())) {
             // calculate billing state from parent account
             final InternalTenantContext internalTenantContext = internalCallContextFactory.createInternalTenantContext(overdueable.getParentAccountId(), context);
             final InternalCallContext parentAccountContext = internalCallContextFactory.createInternalCallContext(internalTenantContext.getAccountRecordId(), context);
-            return billingStateCalcuator.calculateBillingState(overdueable, parentAccountContext);
+            return billingStateCalcuator.calculateBillingState(overdueable, fromUnpaidInvoicesSummary, parentAccountContext);
         }
-        return billingStateCalcuator.calculateBillingState(overdueable, context);
+        return billingStateCalcuator.calculateBillingState(overdueable, fromUnpaidInvoicesSummary, context);
     }
 }
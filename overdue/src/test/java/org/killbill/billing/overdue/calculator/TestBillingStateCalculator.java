@@ -34,7 +34,9 @@ import org.testng.annotations.Test;
 
 import org.killbill.billing.account.api.Account;
 import org.killbill.billing.invoice.api.Invoice;
+import org.killbill.billing.invoice.api.InvoiceInternalApi;
 import org.killbill.billing.invoice.api.InvoiceItem;
+import org.killbill.billing.invoice.api.UnpaidInvoicesSummary;
 import org.killbill.billing.overdue.OverdueTestSuiteNoDB;
 import org.killbill.billing.overdue.config.api.BillingState;
 import org.killbill.billing.callcontext.InternalTenantContext;
@@ -107,4 +109,35 @@ public class TestBillingStateCalculator extends OverdueTestSuiteNoDB {
         final SortedSet<Invoice> invoices = calc.unpaidInvoicesForAccount(new UUID(0L, 0L), internalCallContext);
         Assert.assertEquals(calc.earliest(invoices).getInvoiceDate(), now);
     }
+
+    @Test(groups = "fast")
+    public void testBillingStateFromUnpaidInvoicesSummary() throws Exception {
+        final InvoiceInternalApi invoiceApi = Mockito.mock(InvoiceInternalApi.class);
+        now = new LocalDate();
+        final Invoice earliestInvoice = createInvoice(now, BigDecimal.TEN, null);
+        final Collection<Invoice> invoices = new ArrayList<Invoice>();
+        invoices.add(earliestInvoice);
+        invoices.add(createInvoice(now.plusDays(2), new BigDecimal("100.0"), null));
+        Mockito.when(invoiceApi.getUnpaidInvoicesByAccountId(Mockito.<UUID>any(), Mockito.<LocalDate>any(), Mockito.<InternalTenantContext>any())).thenReturn(invoices);
+
+        final Account account = Mockito.mock(Account.class);
+        Mockito.when(account.getId()).thenReturn(UUID.randomUUID());
+        final BillingStateCalculator calc = new BillingStateCalculator(invoiceApi, clock, tagInternalApi);
+
+        final BillingState billingState = calc.calculateBillingState(account, false, internalCallContext);
+        Assert.assertEquals(billingState.getNumberOfUnpaidInvoices(), 2);
+        Assert.assertEquals(billingState.getBalanceOfUnpaidInvoices().compareTo(new BigDecimal("110.0")), 0);
+        Assert.assertEquals(billingState.getDateOfEarliestUnpaidInvoice(), now);
+        Assert.assertEquals(billingState.getIdOfEarliestUnpaidInvoice(), earliestInvoice.getId());
+
+        final UnpaidInvoicesSummary summary = new UnpaidInvoicesSummary(2, new BigDecimal("110.0"), now, earliestInvoice.getId());
+        Mockito.when(invoiceApi.getUnpaidInvoicesSummaryByAccountId(Mockito.<UUID>any(), Mockito.<LocalDate>any(), Mockito.<InternalTenantContext>any())).thenReturn(summary);
+        final BillingState billingStateFromSummary = calc.calculateBillingState(account, true, internalCallContext);
+        // Unpaid invoices were only loaded for the first computation
+        Mockito.verify(invoiceApi, Mockito.times(1)).getUnpaidInvoicesByAccountId(Mockito.<UUID>any(), Mockito.<LocalDate>any(), Mockito.<InternalTenantContext>any());
+        Assert.assertEquals(billingStateFromSummary.getNumberOfUnpaidInvoices(), billingState.getNumberOfUnpaidInvoices());
+        Assert.assertEquals(billingStateFromSummary.getBalanceOfUnpaidInvoices().compareTo(billingState.getBalanceOfUnpaidInvoices()), 0);
+        Assert.assertEquals(billingStateFromSummary.getDateOfEarliestUnpaidInvoice(), billingState.getDateOfEarliestUnpaidInvoice());
+        Assert.assertEquals(billingStateFromSummary.getIdOfEarliestUnpaidInvoice(), billingState.getIdOfEarliestUnpaidInvoice());
+    }
 }
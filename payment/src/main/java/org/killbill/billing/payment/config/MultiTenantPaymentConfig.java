@@ -151,6 +151,26 @@ public class MultiTenantPaymentConfig extends MultiTenantLockAwareConfigBase imp
         return staticConfig.getIncompleteAttemptsTimeSpanDelay();
     }
 
+    @Override
+    public int getJanitorThreadNb() {
+        return staticConfig.getJanitorThreadNb();
+    }
+
+    @Override
+    public int getJanitorPluginMaxConcurrency() {
+        return staticConfig.getJanitorPluginMaxConcurrency();
+    }
+
+    @Override
+    public int getJanitorNbShards() {
+        return staticConfig.getJanitorNbShards();
+    }
+
+    @Override
+    public int getJanitorShard() {
+        return staticConfig.getJanitorShard();
+    }
+
     @Override
     public String getDefaultPaymentProvider() {
         return staticConfig.getDefaultPaymentProvider();
@@ -166,6 +186,11 @@ public class MultiTenantPaymentConfig extends MultiTenantLockAwareConfigBase imp
         return staticConfig.getPaymentPluginThreadNb();
     }
 
+    @Override
+    public int getPaymentPluginGetPaymentInfoMaxConcurrency() {
+        return staticConfig.getPaymentPluginGetPaymentInfoMaxConcurrency();
+    }
+
     @Override
     public int getMaxGlobalLockRetries() {
         return staticConfig.getMaxGlobalLockRetries();
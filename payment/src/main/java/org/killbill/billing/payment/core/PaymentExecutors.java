@@ -46,6 +46,7 @@ public class PaymentExecutors {
 
     private volatile ThreadPoolExecutor pluginExecutorService;
     private volatile ScheduledExecutorService janitorExecutorService;
+    private volatile ExecutorService janitorWorkerExecutorService;
 
     @Inject
     public PaymentExecutors(PaymentConfig paymentConfig) {
@@ -57,18 +58,23 @@ public class PaymentExecutors {
         this.pluginExecutorService = createPluginExecutorService();
         this.pluginExecutorService.prestartAllCoreThreads();
         this.janitorExecutorService = createJanitorExecutorService();
+        this.janitorWorkerExecutorService = createJanitorWorkerExecutorService();
     }
 
 
     public void stop() throws InterruptedException {
         pluginExecutorService.shutdownNow();
         janitorExecutorService.shutdownNow();
+        janitorWorkerExecutorService.shutdownNow();
 
         pluginExecutorService.awaitTermination(TIMEOUT_EXECUTOR_SEC, TimeUnit.SECONDS);
         pluginExecutorService = null;
 
         janitorExecutorService.awaitTermination(TIMEOUT_EXECUTOR_SEC, TimeUnit.SECONDS);
         janitorExecutorService = null;
+
+        janitorWorkerExecutorService.awaitTermination(TIMEOUT_EXECUTOR_SEC, TimeUnit.SECONDS);
+        janitorWorkerExecutorService = null;
     }
 
     public ExecutorService getPluginExecutorService() {
@@ -79,6 +85,17 @@ public class PaymentExecutors {
         return janitorExecutorService;
     }
 
+    // Workers for the janitor runs (see IncompletePaymentAttemptTask)
+    public ExecutorService getJanitorWorkerExecutorService() {
+        return janitorWorkerExecutorService;
+    }
+
+    // Plugin threads shouldn't wait on other plugin tasks, as these could be queued behind them
+    public boolean isPluginExecutorThread() {
+        final ThreadGroup threadGroup = Thread.currentThread().getThreadGroup();
+        return threadGroup != null && PAYMENT_PLUGIN_TH_GROUP_NAME.equals(threadGroup.getName());
+    }
+
     private ThreadPoolExecutor createPluginExecutorService() {
         final int minThreadNb = DEFAULT_MIN_PLUGIN_THREADS < paymentConfig.getPaymentPluginThreadNb() ? DEFAULT_MIN_PLUGIN_THREADS : paymentConfig.getPaymentPluginThreadNb();
         return new WithProfilingThreadPoolExecutor(minThreadNb,
@@ -101,4 +118,8 @@ public class PaymentExecutors {
     private ScheduledExecutorService createJanitorExecutorService() {
         return Executors.newSingleThreadScheduledExecutor("PaymentJanitor");
     }
+
+    private ExecutorService createJanitorWorkerExecutorService() {
+        return Executors.newFixedThreadPool(Math.max(1, paymentConfig.getJanitorThreadNb()), "PaymentJanitor-worker");
+    }
 }
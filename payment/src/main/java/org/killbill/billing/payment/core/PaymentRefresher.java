@@ -23,12 +23,17 @@ import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
 import java.util.stream.Collectors;
 
 import javax.annotation.Nullable;
@@ -63,6 +68,7 @@ import org.killbill.billing.tag.TagInternalApi;
 import org.killbill.commons.utils.annotation.VisibleForTesting;
 import org.killbill.billing.util.callcontext.InternalCallContextFactory;
 import org.killbill.billing.util.callcontext.TenantContext;
+import org.killbill.billing.util.config.definition.PaymentConfig;
 import org.killbill.commons.utils.collect.Iterables;
 import org.killbill.commons.utils.collect.MultiValueHashMap;
 import org.killbill.commons.utils.collect.MultiValueMap;
@@ -93,6 +99,8 @@ public class PaymentRefresher extends ProcessorBase {
 
     private final NotificationQueueService notificationQueueService;
     private final IncompletePaymentTransactionTask incompletePaymentTransactionTask;
+    private final PaymentExecutors paymentExecutors;
+    private final PaymentConfig paymentConfig;
 
     @Inject
     public PaymentRefresher(final PaymentPluginServiceRegistration paymentPluginServiceRegistration,
@@ -104,10 +112,14 @@ public class PaymentRefresher extends ProcessorBase {
                             final InvoiceInternalApi invoiceApi,
                             final Clock clock,
                             final NotificationQueueService notificationQueueService,
-                            final IncompletePaymentTransactionTask incompletePaymentTransactionTask) {
+                            final IncompletePaymentTransactionTask incompletePaymentTransactionTask,
+                            final PaymentExecutors paymentExecutors,
+                            final PaymentConfig paymentConfig) {
         super(paymentPluginServiceRegistration, accountUserApi, paymentDao, tagUserApi, locker, internalCallContextFactory, invoiceApi, clock);
         this.notificationQueueService = notificationQueueService;
         this.incompletePaymentTransactionTask = incompletePaymentTransactionTask;
+        this.paymentExecutors = paymentExecutors;
+        this.paymentConfig = paymentConfig;
     }
 
     protected boolean invokeJanitor(final UUID accountId,
@@ -179,35 +191,93 @@ public class PaymentRefresher extends ProcessorBase {
                                             final TenantContext context,
                                             final InternalTenantContext tenantContext) throws PaymentApiException {
         final List<PaymentModelDao> paymentsModelDao = paymentDao.getPaymentsForAccount(accountId, tenantContext);
-        final List<PaymentTransactionModelDao> transactionsModelDao = paymentDao.getTransactionsForAccount(accountId, tenantContext);
 
+        // Fetch all transactions (and attempts) for the account at once, grouped by payment
+        final Map<UUID, List<PaymentTransactionModelDao>> transactionsByPaymentId = new HashMap<>();
+        for (final PaymentTransactionModelDao paymentTransactionModelDao : paymentDao.getTransactionsForAccount(accountId, tenantContext)) {
+            transactionsByPaymentId.computeIfAbsent(paymentTransactionModelDao.getPaymentId(), k -> new LinkedList<>()).add(paymentTransactionModelDao);
+        }
+        final PaymentAttempts accountPaymentAttempts = withAttempts ? new PaymentAttempts(paymentDao.getPaymentAttemptsForAccount(accountId, tenantContext), tenantContext) : null;
+
+        final Map<UUID, List<PaymentTransactionInfoPlugin>> pluginInfoByPaymentId = withPluginInfo ? getPaymentTransactionInfoPlugins(paymentsModelDao, context, tenantContext) : Collections.emptyMap();
+
+        final List<Payment> transformedPayments = new ArrayList<>(paymentsModelDao.size());
+        for (final PaymentModelDao paymentModelDao : paymentsModelDao) {
+            transformedPayments.add(toPayment(paymentModelDao,
+                                              transactionsByPaymentId.getOrDefault(paymentModelDao.getId(), Collections.emptyList()),
+                                              pluginInfoByPaymentId.get(paymentModelDao.getId()),
+                                              withAttempts,
+                                              accountPaymentAttempts,
+                                              isApiPayment,
+                                              tenantContext));
+        }
+
+        // The transformation function has been applied once (otherwise, the Janitor could be invoked multiple times)
+        return Collections.unmodifiableList(transformedPayments);
+    }
+
+    // The plugin calls are dispatched to the plugin executor, with a bounded concurrency
+    private Map<UUID, List<PaymentTransactionInfoPlugin>> getPaymentTransactionInfoPlugins(final Iterable<PaymentModelDao> paymentsModelDao,
+                                                                                        final TenantContext context,
+                                                                                        final InternalTenantContext tenantContext) {
         final Map<UUID, PaymentPluginApi> paymentPluginByPaymentMethodId = new HashMap<>();
         final Collection<UUID> absentPlugins = new HashSet<>();
-        final List<Payment> transformedPayments = paymentsModelDao
-                .stream()
-                .map(paymentModelDao -> {
-                    List<PaymentTransactionInfoPlugin> pluginInfo = null;
-
-                    if (withPluginInfo) {
-                        PaymentPluginApi pluginApi = paymentPluginByPaymentMethodId.get(paymentModelDao.getPaymentMethodId());
-                        if (pluginApi == null && !absentPlugins.contains(paymentModelDao.getPaymentMethodId())) {
-                            try {
-                                pluginApi = getPaymentProviderPlugin(paymentModelDao.getPaymentMethodId(), true, tenantContext);
-                                paymentPluginByPaymentMethodId.put(paymentModelDao.getPaymentMethodId(), pluginApi);
-                            } catch (final PaymentApiException e) {
-                                log.warn("Unable to retrieve pluginApi for payment method " + paymentModelDao.getPaymentMethodId());
-                                absentPlugins.add(paymentModelDao.getPaymentMethodId());
-                            }
-                        }
-
-                        pluginInfo = getPaymentTransactionInfoPluginsIfNeeded(pluginApi, paymentModelDao, context);
-                    }
-
-                    return toPayment(paymentModelDao, transactionsModelDao, pluginInfo, withAttempts, isApiPayment, tenantContext);
-                }).collect(Collectors.toUnmodifiableList());
-
-        // Copy the transformed list, so the transformation function is applied once (otherwise, the Janitor could be invoked multiple times)
-        return List.copyOf(transformedPayments);
+
+        final ExecutorService pluginExecutor = paymentExecutors.isPluginExecutorThread() ? null : paymentExecutors.getPluginExecutorService();
+        final Semaphore permits = new Semaphore(Math.max(1, paymentConfig.getPaymentPluginGetPaymentInfoMaxConcurrency()));
+
+        final Map<UUID, Future<List<PaymentTransactionInfoPlugin>>> pluginInfoFutures = new LinkedHashMap<>();
+        final Map<UUID, List<PaymentTransactionInfoPlugin>> pluginInfoByPaymentId = new HashMap<>();
+        for (final PaymentModelDao paymentModelDao : paymentsModelDao) {
+            PaymentPluginApi pluginApi = paymentPluginByPaymentMethodId.get(paymentModelDao.getPaymentMethodId());
+            if (pluginApi == null && !absentPlugins.contains(paymentModelDao.getPaymentMethodId())) {
+                try {
+                    pluginApi = getPaymentProviderPlugin(paymentModelDao.getPaymentMethodId(), true, tenantContext);
+                    paymentPluginByPaymentMethodId.put(paymentModelDao.getPaymentMethodId(), pluginApi);
+                } catch (final PaymentApiException e) {
+                    log.warn("Unable to retrieve pluginApi for payment method " + paymentModelDao.getPaymentMethodId());
+                    absentPlugins.add(paymentModelDao.getPaymentMethodId());
+                }
+            }
+            if (pluginApi == null) {
+                continue;
+            }
+
+            if (pluginExecutor == null) {
+                pluginInfoByPaymentId.put(paymentModelDao.getId(), getPaymentTransactionInfoPluginsIfNeeded(pluginApi, paymentModelDao, context));
+                continue;
+            }
+
+            final PaymentPluginApi paymentPluginApi = pluginApi;
+            try {
+                permits.acquire();
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            pluginInfoFutures.put(paymentModelDao.getId(), pluginExecutor.submit(() -> {
+                try {
+                    return getPaymentTransactionInfoPluginsIfNeeded(paymentPluginApi, paymentModelDao, context);
+                } finally {
+                    permits.release();
+                }
+            }));
+        }
+
+        for (final Entry<UUID, Future<List<PaymentTransactionInfoPlugin>>> entry : pluginInfoFutures.entrySet()) {
+            try {
+                pluginInfoByPaymentId.put(entry.getKey(), entry.getValue().get());
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+                log.warn("Interrupted while retrieving plugin info for payment " + entry.getKey());
+            } catch (final ExecutionException e) {
+                if (e.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) e.getCause();
+                }
+                log.warn("Unable to retrieve plugin info for payment " + entry.getKey(), e.getCause());
+            }
+        }
+        return pluginInfoByPaymentId;
     }
 
     public Payment getPayment(final UUID paymentId,
@@ -468,21 +538,19 @@ public class PaymentRefresher extends ProcessorBase {
         final InternalTenantContext tenantContextWithAccountRecordId = getInternalTenantContextWithAccountRecordId(paymentModelDao.getAccountId(), tenantContext);
         final List<PaymentTransactionModelDao> transactionsForPayment = paymentDao.getTransactionsForPayment(paymentModelDao.getId(), tenantContextWithAccountRecordId);
 
-        return toPayment(paymentModelDao, transactionsForPayment, pluginTransactions, withAttempts, isApiPayment, tenantContextWithAccountRecordId);
+        return toPayment(paymentModelDao, transactionsForPayment, pluginTransactions, withAttempts, null, isApiPayment, tenantContextWithAccountRecordId);
     }
 
     // Used in both single get APIs and bulk get APIs
     private Payment toPayment(final PaymentModelDao curPaymentModelDao,
-                              final Collection<PaymentTransactionModelDao> allTransactionsModelDao,
+                              final Collection<PaymentTransactionModelDao> transactionsForPayment,
                               @Nullable final Iterable<PaymentTransactionInfoPlugin> pluginTransactions,
                               final boolean withAttempts,
+                              @Nullable final PaymentAttempts accountPaymentAttempts,
                               final boolean isApiPayment,
                               final InternalTenantContext internalTenantContext) {
-        // Need to filter for optimized codepaths looking up by account_record_id
-        final Collection<PaymentTransactionModelDao> transactionsModelDao = allTransactionsModelDao.stream()
-                .filter(paymentTransactionModelDao -> paymentTransactionModelDao.getPaymentId().equals(curPaymentModelDao.getId()))
-                // use toList() because transactionsModelDao will be processed later (invokeJanitor())
-                .collect(Collectors.toList());
+        // Copy, as transactionsModelDao will be processed later (invokeJanitor())
+        final Collection<PaymentTransactionModelDao> transactionsModelDao = new ArrayList<>(transactionsForPayment);
 
         if (pluginTransactions != null) {
             invokeJanitor(curPaymentModelDao, transactionsModelDao, pluginTransactions, isApiPayment, internalTenantContext);
@@ -523,13 +591,22 @@ public class PaymentRefresher extends ProcessorBase {
                                   curPaymentModelDao.getExternalKey(),
                                   sortedTransactions,
                                   (withAttempts && !sortedTransactions.isEmpty()) ?
-                                  getPaymentAttempts(paymentDao.getPaymentAttempts(curPaymentModelDao.getExternalKey(), internalTenantContext),
-                                                     internalTenantContext) : null
+                                  getPaymentAttempts(curPaymentModelDao.getExternalKey(), accountPaymentAttempts, internalTenantContext) : null
         );
     }
 
-    private List<PaymentAttempt> getPaymentAttempts(final List<PaymentAttemptModelDao> pastPaymentAttempts,
+    private List<PaymentAttempt> getPaymentAttempts(final String paymentExternalKey,
+                                                    @Nullable final PaymentAttempts accountPaymentAttempts,
                                                     final InternalTenantContext internalTenantContext) {
+        if (accountPaymentAttempts != null) {
+            return getPaymentAttempts(accountPaymentAttempts.getPastPaymentAttempts(paymentExternalKey), accountPaymentAttempts.getFutureRetries());
+        } else {
+            return getPaymentAttempts(paymentDao.getPaymentAttempts(paymentExternalKey, internalTenantContext), getFutureRetries(internalTenantContext));
+        }
+    }
+
+    private List<PaymentAttempt> getPaymentAttempts(final List<PaymentAttemptModelDao> pastPaymentAttempts,
+                                                    final Iterable<NotificationEventWithMetadata<NotificationEvent>> futureRetries) {
 
         final List<PaymentAttempt> paymentAttempts = new ArrayList<PaymentAttempt>();
 
@@ -553,40 +630,43 @@ public class PaymentRefresher extends ProcessorBase {
             paymentAttempts.add(paymentAttempt);
         }
 
-        // Get Future Payment Attempts from Notification Queue and add them to the list
+        // Add the Future Payment Attempts from the Notification Queue to the list
+        for (final NotificationEventWithMetadata<NotificationEvent> notificationEvent : futureRetries) {
+            // Last Attempt
+            final PaymentAttemptModelDao lastPaymentAttempt = getLastPaymentAttempt(pastPaymentAttempts,
+                                                                                    ((PaymentRetryNotificationKey) notificationEvent.getEvent()).getAttemptId());
+
+            if (lastPaymentAttempt != null) {
+                final PaymentAttempt futurePaymentAttempt = new DefaultPaymentAttempt(lastPaymentAttempt.getAccountId(), // accountId
+                                                                                      lastPaymentAttempt.getPaymentMethodId(), // paymentMethodId
+                                                                                      ((PaymentRetryNotificationKey) notificationEvent.getEvent()).getAttemptId(), // id
+                                                                                      null, // createdDate
+                                                                                      null, // updatedDate
+                                                                                      notificationEvent.getEffectiveDate(), // effectiveDate
+                                                                                      lastPaymentAttempt.getPaymentExternalKey(), // paymentExternalKey
+                                                                                      null, // transactionId
+                                                                                      lastPaymentAttempt.getTransactionExternalKey(), // transactionExternalKey
+                                                                                      lastPaymentAttempt.getTransactionType(), // transactionType
+                                                                                      SCHEDULED, // stateName
+                                                                                      lastPaymentAttempt.getAmount(), // amount
+                                                                                      lastPaymentAttempt.getCurrency(), // currency
+                                                                                      ((PaymentRetryNotificationKey) notificationEvent.getEvent()).getPaymentControlPluginNames().get(0), // pluginName,
+                                                                                      buildPluginProperties(lastPaymentAttempt)); // pluginProperties
+                paymentAttempts.add(futurePaymentAttempt);
+            }
+        }
+        return paymentAttempts;
+    }
+
+    // Future Payment Attempts from the Notification Queue
+    private List<NotificationEventWithMetadata<NotificationEvent>> getFutureRetries(final InternalTenantContext internalTenantContext) {
         try {
             final NotificationQueue retryQueue = notificationQueueService.getNotificationQueue(KILLBILL_SERVICES.PAYMENT_SERVICE.getServiceName(), DefaultRetryService.QUEUE_NAME);
-            final Iterable<NotificationEventWithMetadata<NotificationEvent>> notificationEventWithMetadatas =
-                    retryQueue.getFutureNotificationForSearchKeys(internalTenantContext.getAccountRecordId(), internalTenantContext.getTenantRecordId());
-
-            for (final NotificationEventWithMetadata<NotificationEvent> notificationEvent : notificationEventWithMetadatas) {
-                // Last Attempt
-                final PaymentAttemptModelDao lastPaymentAttempt = getLastPaymentAttempt(pastPaymentAttempts,
-                                                                                        ((PaymentRetryNotificationKey) notificationEvent.getEvent()).getAttemptId());
-
-                if (lastPaymentAttempt != null) {
-                    final PaymentAttempt futurePaymentAttempt = new DefaultPaymentAttempt(lastPaymentAttempt.getAccountId(), // accountId
-                                                                                          lastPaymentAttempt.getPaymentMethodId(), // paymentMethodId
-                                                                                          ((PaymentRetryNotificationKey) notificationEvent.getEvent()).getAttemptId(), // id
-                                                                                          null, // createdDate
-                                                                                          null, // updatedDate
-                                                                                          notificationEvent.getEffectiveDate(), // effectiveDate
-                                                                                          lastPaymentAttempt.getPaymentExternalKey(), // paymentExternalKey
-                                                                                          null, // transactionId
-                                                                                          lastPaymentAttempt.getTransactionExternalKey(), // transactionExternalKey
-                                                                                          lastPaymentAttempt.getTransactionType(), // transactionType
-                                                                                          SCHEDULED, // stateName
-                                                                                          lastPaymentAttempt.getAmount(), // amount
-                                                                                          lastPaymentAttempt.getCurrency(), // currency
-                                                                                          ((PaymentRetryNotificationKey) notificationEvent.getEvent()).getPaymentControlPluginNames().get(0), // pluginName,
-                                                                                          buildPluginProperties(lastPaymentAttempt)); // pluginProperties
-                    paymentAttempts.add(futurePaymentAttempt);
-                }
-            }
+            return Iterables.toUnmodifiableList(retryQueue.getFutureNotificationForSearchKeys(internalTenantContext.getAccountRecordId(), internalTenantContext.getTenantRecordId()));
         } catch (final NoSuchNotificationQueue noSuchNotificationQueue) {
             log.error("ERROR Loading Notification Queue - " + noSuchNotificationQueue.getMessage());
+            return Collections.emptyList();
         }
-        return paymentAttempts;
     }
 
     private PaymentAttemptModelDao getLastPaymentAttempt(final List<PaymentAttemptModelDao> pastPaymentAttempts, final UUID attemptId) {
@@ -642,4 +722,26 @@ public class PaymentRefresher extends ProcessorBase {
             throw new PaymentApiException(e, ErrorCode.PAYMENT_PLUGIN_GET_PAYMENT_INFO, paymentModelDao.getId(), e.toString());
         }
     }
+
+    // Past and future payment attempts of an account, fetched once for bulk get APIs
+    private final class PaymentAttempts {
+
+        private final Map<String, List<PaymentAttemptModelDao>> pastPaymentAttemptsByExternalKey = new HashMap<>();
+        private final List<NotificationEventWithMetadata<NotificationEvent>> futureRetries;
+
+        private PaymentAttempts(final Iterable<PaymentAttemptModelDao> pastPaymentAttempts, final InternalTenantContext internalTenantContext) {
+            for (final PaymentAttemptModelDao pastPaymentAttempt : pastPaymentAttempts) {
+                pastPaymentAttemptsByExternalKey.computeIfAbsent(pastPaymentAttempt.getPaymentExternalKey(), k -> new ArrayList<>()).add(pastPaymentAttempt);
+            }
+            this.futureRetries = PaymentRefresher.this.getFutureRetries(internalTenantContext);
+        }
+
+        private List<PaymentAttemptModelDao> getPastPaymentAttempts(final String paymentExternalKey) {
+            return pastPaymentAttemptsByExternalKey.getOrDefault(paymentExternalKey, Collections.emptyList());
+        }
+
+        private List<NotificationEventWithMetadata<NotificationEvent>> getFutureRetries() {
+            return futureRetries;
+        }
+    }
 }
@@ -20,8 +20,18 @@ package org.killbill.billing.payment.core.janitor;
 import java.io.IOException;
 import java.util.Collections;
 import java.util.Iterator;
+import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
@@ -39,11 +49,13 @@ import org.killbill.billing.events.PaymentInternalEvent;
 import org.killbill.billing.payment.api.PaymentApiException;
 import org.killbill.billing.payment.api.PluginProperty;
 import org.killbill.billing.payment.api.TransactionStatus;
+import org.killbill.billing.payment.core.PaymentExecutors;
 import org.killbill.billing.payment.core.sm.PaymentControlStateMachineHelper;
 import org.killbill.billing.payment.core.sm.PluginControlPaymentAutomatonRunner;
 import org.killbill.billing.payment.core.sm.control.PaymentStateControlContext;
 import org.killbill.billing.payment.dao.PaymentAttemptModelDao;
 import org.killbill.billing.payment.dao.PaymentDao;
+import org.killbill.billing.payment.dao.PaymentMethodModelDao;
 import org.killbill.billing.payment.dao.PaymentTransactionModelDao;
 import org.killbill.billing.payment.dao.PluginPropertySerializer;
 import org.killbill.billing.payment.dao.PluginPropertySerializer.PluginPropertySerializerException;
@@ -56,6 +68,9 @@ import org.killbill.billing.util.config.definition.PaymentConfig;
 import org.killbill.billing.util.entity.Pagination;
 import org.killbill.clock.Clock;
 import org.killbill.commons.locker.LockFailedException;
+import org.killbill.commons.metrics.api.Counter;
+import org.killbill.commons.metrics.api.MetricRegistry;
+import org.killbill.commons.utils.Preconditions;
 import org.killbill.commons.utils.annotation.VisibleForTesting;
 import org.killbill.notificationq.api.NotificationEvent;
 import org.killbill.notificationq.api.NotificationQueue;
@@ -70,6 +85,8 @@ import static org.killbill.billing.payment.core.janitor.IncompletePaymentTransac
 // Also invoked by a scheduled executor service to complete 'partially' incomplete payment attempts: if the state of
 // the transaction associated with the attempt completed, but the attempt state machine did not, we rerun
 // the retry state machine to complete the call and transition the attempt into a terminal state.
+// When configured, the attempts are split across nodes (by account record id) and completed by a pool of workers,
+// with a limit on the number of attempts completed concurrently for a given payment plugin.
 public class IncompletePaymentAttemptTask implements Runnable {
 
     private static final Logger log = LoggerFactory.getLogger(IncompletePaymentAttemptTask.class);
@@ -80,6 +97,11 @@ public class IncompletePaymentAttemptTask implements Runnable {
     //
     private static final long MAX_ATTEMPTS_PER_ITERATIONS = 1000L;
 
+    private static final long DEFERRED_ATTEMPTS_WAIT_MSEC = 100L;
+
+    private static final String UNKNOWN_PLUGIN_NAME = "__unknown__";
+    private static final String METRICS_PREFIX = "killbill.payment.janitor.attempts.";
+
     private final PaymentConfig paymentConfig;
     private final Clock clock;
     private final PaymentDao paymentDao;
@@ -88,6 +110,15 @@ public class IncompletePaymentAttemptTask implements Runnable {
     private final AccountInternalApi accountInternalApi;
     private final PluginControlPaymentAutomatonRunner pluginControlledPaymentAutomatonRunner;
     private final IncompletePaymentTransactionTask incompletePaymentTransactionTask;
+    private final PaymentExecutors paymentExecutors;
+
+    // Per payment plugin limits
+    private final Map<String, Semaphore> pluginPermits = new ConcurrentHashMap<>();
+
+    private final AtomicLong pendingAttempts = new AtomicLong();
+    private final Counter completedAttempts;
+    private final Counter notCompletedAttempts;
+    private final Counter failedAttempts;
 
     @VisibleForTesting
     NotificationQueue janitorQueue;
@@ -102,7 +133,9 @@ public class IncompletePaymentAttemptTask implements Runnable {
                                         final PaymentControlStateMachineHelper retrySMHelper,
                                         final AccountInternalApi accountInternalApi,
                                         final PluginControlPaymentAutomatonRunner pluginControlledPaymentAutomatonRunner,
-                                        final IncompletePaymentTransactionTask incompletePaymentTransactionTask) {
+                                        final IncompletePaymentTransactionTask incompletePaymentTransactionTask,
+                                        final PaymentExecutors paymentExecutors,
+                                        final MetricRegistry metricRegistry) {
         this.internalCallContextFactory = internalCallContextFactory;
         this.paymentConfig = paymentConfig;
         this.paymentDao = paymentDao;
@@ -111,7 +144,13 @@ public class IncompletePaymentAttemptTask implements Runnable {
         this.accountInternalApi = accountInternalApi;
         this.pluginControlledPaymentAutomatonRunner = pluginControlledPaymentAutomatonRunner;
         this.incompletePaymentTransactionTask = incompletePaymentTransactionTask;
+        this.paymentExecutors = paymentExecutors;
         this.isStopped = false;
+
+        metricRegistry.gauge(METRICS_PREFIX + "pending", pendingAttempts::get);
+        this.completedAttempts = metricRegistry.counter(METRICS_PREFIX + "completed");
+        this.notCompletedAttempts = metricRegistry.counter(METRICS_PREFIX + "notCompleted");
+        this.failedAttempts = metricRegistry.counter(METRICS_PREFIX + "failed");
     }
 
     void attachJanitorQueue(final NotificationQueue janitorQueue) {
@@ -119,6 +158,11 @@ public class IncompletePaymentAttemptTask implements Runnable {
     }
 
     synchronized void start() {
+        final int nbShards = paymentConfig.getJanitorNbShards();
+        final int shard = paymentConfig.getJanitorShard();
+        Preconditions.checkState(nbShards >= 1, "Invalid org.killbill.payment.janitor.shards.nb=%s: expected at least 1 shard", nbShards);
+        Preconditions.checkState(shard >= 0 && shard < nbShards, "Invalid org.killbill.payment.janitor.shard=%s: expected a value between 0 and %s", shard, nbShards - 1);
+
         this.isStopped = false;
     }
 
@@ -168,6 +212,10 @@ public class IncompletePaymentAttemptTask implements Runnable {
             return;
         }
 
+        final ExecutorService workers = paymentConfig.getJanitorThreadNb() > 1 ? paymentExecutors.getJanitorWorkerExecutorService() : null;
+        final List<Future<?>> futures = new LinkedList<>();
+        // Attempts for payment plugins which were saturated when they were reached
+        final List<PendingAttempt> deferredAttempts = new LinkedList<>();
         final Iterator<PaymentAttemptModelDao> iterator = getItemsForIteration().iterator();
         try {
             while (iterator.hasNext()) {
@@ -176,28 +224,143 @@ public class IncompletePaymentAttemptTask implements Runnable {
                     log.info("Janitor was requested to stop");
                     return;
                 }
-                try {
-                    // isApiPayment=false might not always be correct here: a payment with control plugin
-                    // might have been triggered from the API and crashed in an INIT state, which the loop
-                    // would attempt to fix here. But this is really an edge case.
-                    doIteration(item, false, Collections.emptyList());
-                } catch (final Exception e) {
-                    log.warn("Exception during Janitor loop", e);
+
+                pendingAttempts.incrementAndGet();
+                if (workers == null) {
+                    completeAttempt(item, null);
+                    continue;
+                }
+
+                // The plugin permit is acquired before submitting the work: workers never wait on a saturated plugin,
+                // and the attempts for the other plugins go first
+                final PendingAttempt pendingAttempt = new PendingAttempt(item, getPluginPermits(item));
+                if (!pendingAttempt.permits.tryAcquire()) {
+                    deferredAttempts.add(pendingAttempt);
+                } else if (!submit(workers, futures, pendingAttempt)) {
+                    return;
                 }
             }
+
+            submitDeferredAttempts(workers, futures, deferredAttempts);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("Janitor loop got interrupted");
         } finally {
+            // Attempts which won't be submitted
+            pendingAttempts.addAndGet(-deferredAttempts.size());
+
             // In case the loop stops early, make sure to close the underlying DB connection
             while (iterator.hasNext()) {
                 iterator.next();
             }
+
+            // Wait for the workers, so that runs don't overlap
+            for (final Future<?> future : futures) {
+                try {
+                    future.get();
+                } catch (final InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    log.warn("Janitor loop got interrupted");
+                    break;
+                } catch (final ExecutionException e) {
+                    log.warn("Exception during Janitor loop", e.getCause());
+                }
+            }
+        }
+    }
+
+    private void submitDeferredAttempts(final ExecutorService workers, final List<Future<?>> futures, final List<PendingAttempt> deferredAttempts) throws InterruptedException {
+        while (!deferredAttempts.isEmpty()) {
+            if (isStopped) {
+                log.info("Janitor was requested to stop");
+                return;
+            }
+
+            boolean hasSubmitted = false;
+            final Iterator<PendingAttempt> deferredIterator = deferredAttempts.iterator();
+            while (deferredIterator.hasNext()) {
+                final PendingAttempt pendingAttempt = deferredIterator.next();
+                if (pendingAttempt.permits.tryAcquire()) {
+                    deferredIterator.remove();
+                    if (!submit(workers, futures, pendingAttempt)) {
+                        return;
+                    }
+                    hasSubmitted = true;
+                }
+            }
+
+            if (!hasSubmitted) {
+                // All remaining plugins are saturated: wait for the oldest one to free up
+                final PendingAttempt pendingAttempt = deferredAttempts.get(0);
+                if (pendingAttempt.permits.tryAcquire(DEFERRED_ATTEMPTS_WAIT_MSEC, TimeUnit.MILLISECONDS)) {
+                    deferredAttempts.remove(0);
+                    if (!submit(workers, futures, pendingAttempt)) {
+                        return;
+                    }
+                }
+            }
         }
     }
 
+    // The caller holds a plugin permit, released once the attempt is processed
+    private boolean submit(final ExecutorService workers, final List<Future<?>> futures, final PendingAttempt pendingAttempt) {
+        try {
+            futures.add(workers.submit(() -> completeAttempt(pendingAttempt.attempt, pendingAttempt.permits)));
+            return true;
+        } catch (final RejectedExecutionException e) {
+            pendingAttempt.permits.release();
+            pendingAttempts.decrementAndGet();
+            log.info("Janitor workers are shutting down");
+            return false;
+        }
+    }
+
+    private void completeAttempt(final PaymentAttemptModelDao item, @Nullable final Semaphore acquiredPermits) {
+        try {
+            if (isStopped) {
+                return;
+            }
+
+            // isApiPayment=false might not always be correct here: a payment with control plugin
+            // might have been triggered from the API and crashed in an INIT state, which the loop
+            // would attempt to fix here. But this is really an edge case.
+            if (doIteration(item, false, Collections.emptyList())) {
+                completedAttempts.inc(1);
+            } else {
+                notCompletedAttempts.inc(1);
+            }
+        } catch (final Exception e) {
+            failedAttempts.inc(1);
+            log.warn("Exception during Janitor loop", e);
+        } finally {
+            if (acquiredPermits != null) {
+                acquiredPermits.release();
+            }
+            pendingAttempts.decrementAndGet();
+        }
+    }
+
+    private Semaphore getPluginPermits(final PaymentAttemptModelDao attempt) {
+        return pluginPermits.computeIfAbsent(getPluginName(attempt), pluginName -> new Semaphore(Math.max(1, paymentConfig.getJanitorPluginMaxConcurrency())));
+    }
+
+    @VisibleForTesting
+    String getPluginName(final PaymentAttemptModelDao attempt) {
+        if (attempt.getPaymentMethodId() == null) {
+            return UNKNOWN_PLUGIN_NAME;
+        }
+        final InternalTenantContext tenantContext = internalCallContextFactory.createInternalTenantContext(attempt.getTenantRecordId(), attempt.getAccountRecordId());
+        final PaymentMethodModelDao paymentMethod = paymentDao.getPaymentMethodIncludedDeleted(attempt.getPaymentMethodId(), tenantContext);
+        return paymentMethod == null ? UNKNOWN_PLUGIN_NAME : paymentMethod.getPluginName();
+    }
+
     @VisibleForTesting
     Iterable<PaymentAttemptModelDao> getItemsForIteration() {
-        final Pagination<PaymentAttemptModelDao> incompleteAttempts = paymentDao.getPaymentAttemptsByStateAcrossTenants(retrySMHelper.getInitialState().getName(), getCreatedDateBefore(), 0L, MAX_ATTEMPTS_PER_ITERATIONS);
+        final int nbShards = paymentConfig.getJanitorNbShards();
+        final int shard = paymentConfig.getJanitorShard();
+        final Pagination<PaymentAttemptModelDao> incompleteAttempts = paymentDao.getPaymentAttemptsByStateAcrossTenants(retrySMHelper.getInitialState().getName(), getCreatedDateBefore(), nbShards, shard, 0L, MAX_ATTEMPTS_PER_ITERATIONS);
         if (incompleteAttempts.getTotalNbRecords() > 0) {
-            log.info("Janitor AttemptCompletionTask start run: found {} incomplete attempts", incompleteAttempts.getTotalNbRecords());
+            log.info("Janitor AttemptCompletionTask start run: found {} incomplete attempts (shard {}/{})", incompleteAttempts.getTotalNbRecords(), shard, nbShards);
         }
         return incompleteAttempts;
     }
@@ -431,4 +594,15 @@ public class IncompletePaymentAttemptTask implements Runnable {
         // For old data, assume it is not an API payment
         return event.isApiPayment() == null ? false : event.isApiPayment();
     }
+
+    private static final class PendingAttempt {
+
+        private final PaymentAttemptModelDao attempt;
+        private final Semaphore permits;
+
+        private PendingAttempt(final PaymentAttemptModelDao attempt, final Semaphore permits) {
+            this.attempt = attempt;
+            this.permits = permits;
+        }
+    }
 }
@@ -165,6 +165,30 @@ public class DefaultPaymentDao extends EntityDaoBase<PaymentModelDao, Payment, P
 
     }
 
+    @Override
+    public Pagination<PaymentAttemptModelDao> getPaymentAttemptsByStateAcrossTenants(final String stateName, final DateTime createdBeforeDate, final int nbShards, final int shard, final Long offset, final Long limit) {
+        if (nbShards <= 1) {
+            return getPaymentAttemptsByStateAcrossTenants(stateName, createdBeforeDate, offset, limit);
+        }
+
+        final Date createdBefore = createdBeforeDate.toDate();
+        return paginationHelper.getPagination(PaymentAttemptSqlDao.class, new PaginationIteratorBuilder<PaymentAttemptModelDao, Entity, PaymentAttemptSqlDao>() {
+                                                  @Override
+                                                  public Long getCount(final PaymentAttemptSqlDao sqlDao, final InternalTenantContext context) {
+                                                      return sqlDao.getCountByStateNameAcrossTenantsForShard(stateName, createdBefore, nbShards, shard);
+                                                  }
+
+                                                  @Override
+                                                  public Iterator<PaymentAttemptModelDao> build(final PaymentAttemptSqlDao sqlDao, final Long offset, final Long limit, final Ordering ordering, final InternalTenantContext context) {
+                                                      return sqlDao.getByStateNameAcrossTenantsForShard(stateName, createdBefore, nbShards, shard, offset, limit, ordering.toString());
+                                                  }
+                                              },
+                                              offset,
+                                              limit,
+                                              null
+                                             );
+    }
+
     @Override
     public List<PaymentAttemptModelDao> getPaymentAttempts(final String paymentExternalKey, final InternalTenantContext context) {
         return transactionalSqlDao.execute(true, new EntitySqlDaoTransactionWrapper<List<PaymentAttemptModelDao>>() {
@@ -177,6 +201,17 @@ public class DefaultPaymentDao extends EntityDaoBase<PaymentModelDao, Payment, P
         });
     }
 
+    @Override
+    public List<PaymentAttemptModelDao> getPaymentAttemptsForAccount(final UUID accountId, final InternalTenantContext context) {
+        Preconditions.checkArgument(context.getAccountRecordId() != null, "context.getAccountRecordId() is null");
+        return transactionalSqlDao.execute(true, new EntitySqlDaoTransactionWrapper<List<PaymentAttemptModelDao>>() {
+            @Override
+            public List<PaymentAttemptModelDao> inTransaction(final EntitySqlDaoWrapperFactory entitySqlDaoWrapperFactory) throws Exception {
+                return entitySqlDaoWrapperFactory.become(PaymentAttemptSqlDao.class).getByAccountRecordId(context);
+            }
+        });
+    }
+
     @Override
     public List<PaymentAttemptModelDao> getPaymentAttemptByTransactionExternalKey(final String externalKey, final InternalTenantContext context) {
         return transactionalSqlDao.execute(true, new EntitySqlDaoTransactionWrapper<List<PaymentAttemptModelDao>>() {
@@ -849,7 +884,7 @@ public class DefaultPaymentDao extends EntityDaoBase<PaymentModelDao, Payment, P
                 break;
         }
         try {
-            eventBus.postFromTransaction(event, entitySqlDaoWrapperFactory.getHandle().getConnection());
+            eventBus.postFromTransaction(event, entitySqlDaoWrapperFactory);
         } catch (EventBusException e) {
             log.error("Failed to post Payment event event for account {} ", accountId, e);
         }
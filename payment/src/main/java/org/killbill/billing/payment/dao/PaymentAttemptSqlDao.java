@@ -69,4 +69,19 @@ public interface PaymentAttemptSqlDao extends EntitySqlDao<PaymentAttemptModelDa
                                                                  @Bind("rowCount") final Long rowCount,
                                                                  @Define("ordering") final String ordering);
 
+    @SqlQuery
+    Long getCountByStateNameAcrossTenantsForShard(@Bind("stateName") final String stateName,
+                                                  @Bind("createdBeforeDate") final Date createdBeforeDate,
+                                                  @Bind("nbShards") final int nbShards,
+                                                  @Bind("shard") final int shard);
+
+    @SqlQuery
+    Iterator<PaymentAttemptModelDao> getByStateNameAcrossTenantsForShard(@Bind("stateName") final String stateName,
+                                                                         @Bind("createdBeforeDate") final Date createdBeforeDate,
+                                                                         @Bind("nbShards") final int nbShards,
+                                                                         @Bind("shard") final int shard,
+                                                                         @Bind("offset") final Long offset,
+                                                                         @Bind("rowCount") final Long rowCount,
+                                                                         @Define("ordering") final String ordering);
+
 }
@@ -17,12 +17,16 @@
 
 package org.killbill.billing.payment.core;
 
+import java.math.BigDecimal;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.joda.time.DateTime;
 import org.killbill.billing.callcontext.InternalTenantContext;
+import org.killbill.billing.catalog.api.Currency;
 import org.killbill.billing.payment.PaymentTestSuiteNoDB;
 import org.killbill.billing.payment.api.DefaultPayment;
 import org.killbill.billing.payment.api.Payment;
@@ -30,14 +34,26 @@ import org.killbill.billing.payment.api.PaymentApiException;
 import org.killbill.billing.payment.api.PaymentAttempt;
 import org.killbill.billing.payment.api.PaymentTransaction;
 import org.killbill.billing.payment.api.PluginProperty;
+import org.killbill.billing.payment.api.TransactionStatus;
 import org.killbill.billing.payment.api.TransactionType;
+import org.killbill.billing.payment.core.janitor.IncompletePaymentTransactionTask;
+import org.killbill.billing.payment.dao.PaymentAttemptModelDao;
+import org.killbill.billing.payment.dao.PaymentDao;
+import org.killbill.billing.payment.dao.PaymentModelDao;
+import org.killbill.billing.payment.dao.PaymentTransactionModelDao;
 import org.killbill.billing.payment.plugin.api.PaymentPluginApi;
 import org.killbill.billing.payment.plugin.api.PaymentPluginApiException;
 import org.killbill.billing.payment.plugin.api.PaymentTransactionInfoPlugin;
+import org.killbill.billing.tag.TagInternalApi;
 import org.killbill.billing.util.UUIDs;
+import org.killbill.billing.util.callcontext.TenantContext;
+import org.killbill.billing.util.config.definition.PaymentConfig;
 import org.killbill.commons.utils.collect.Iterables;
 import org.killbill.billing.util.entity.DefaultPagination;
 import org.killbill.billing.util.entity.Pagination;
+import org.killbill.commons.locker.GlobalLocker;
+import org.killbill.notificationq.api.NotificationQueue;
+import org.killbill.notificationq.api.NotificationQueueService;
 import org.mockito.Mockito;
 import org.testng.Assert;
 import org.testng.annotations.Test;
@@ -90,20 +106,28 @@ public class TestPaymentRefresher extends PaymentTestSuiteNoDB {
         return paymentPluginApi;
     }
 
+    private PaymentRefresher createPaymentRefresher(final PaymentDao paymentDao,
+                                                    final PaymentConfig paymentConfig,
+                                                    final NotificationQueueService notificationQueueService) {
+        return new PaymentRefresher(paymentPluginRegistrar,
+                                    accountInternalApi,
+                                    paymentDao,
+                                    Mockito.mock(TagInternalApi.class),
+                                    Mockito.mock(GlobalLocker.class),
+                                    internalCallContextFactory,
+                                    invoiceApi,
+                                    clock,
+                                    notificationQueueService,
+                                    Mockito.mock(IncompletePaymentTransactionTask.class),
+                                    paymentExecutors,
+                                    paymentConfig);
+    }
+
     private PaymentRefresher createPaymentRefresher(final Pagination<PaymentTransactionInfoPlugin> infoPlugins) throws PaymentApiException, PaymentPluginApiException {
         final PaymentPluginApi paymentPluginApi = createPaymentPluginApi(infoPlugins);
         Mockito.when(paymentPluginRegistrar.getPaymentPluginApi(PLUGIN_NAME)).thenReturn(paymentPluginApi);
 
-        final PaymentRefresher result = new PaymentRefresher(paymentPluginRegistrar,
-                                                             accountInternalApi,
-                                                             paymentDao,
-                                                             null, // tagInternalApi / tagUserApi
-                                                             null, // GlobalLocker / locker
-                                                             internalCallContextFactory,
-                                                             invoiceApi,
-                                                             clock,
-                                                             null, // notificationQueueService
-                                                             null /* incompletePaymentTransactionTask */);
+        final PaymentRefresher result = createPaymentRefresher(paymentDao, paymentConfig, Mockito.mock(NotificationQueueService.class));
         final PaymentRefresher toMock = Mockito.spy(result);
         Mockito.doReturn(anyPayment())
                .when(toMock).toPayment(Mockito.any(UUID.class),
@@ -142,4 +166,89 @@ public class TestPaymentRefresher extends PaymentTestSuiteNoDB {
                               Mockito.anyBoolean(),
                               Mockito.any(InternalTenantContext.class));
     }
+
+    @Test(groups = "fast")
+    public void testGetAccountPaymentsFetchesAttemptsOnce() throws Exception {
+        final UUID accountId = UUIDs.randomUUID();
+        final UUID paymentMethodId = UUIDs.randomUUID();
+        final DateTime now = clock.getUTCNow();
+
+        final List<PaymentModelDao> payments = new ArrayList<>();
+        final List<PaymentTransactionModelDao> transactions = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            final PaymentModelDao payment = new PaymentModelDao(now, now, accountId, paymentMethodId, "payment-" + i);
+            payments.add(payment);
+            transactions.add(new PaymentTransactionModelDao(now, now, null, "transaction-" + i, payment.getId(), TransactionType.PURCHASE, now,
+                                                            TransactionStatus.SUCCESS, BigDecimal.TEN, Currency.USD, null, null));
+        }
+        final List<PaymentAttemptModelDao> attempts = List.of(attempt(accountId, paymentMethodId, "payment-0", now),
+                                                              attempt(accountId, paymentMethodId, "payment-0", now),
+                                                              attempt(accountId, paymentMethodId, "payment-1", now));
+
+        final PaymentDao accountPaymentDao = Mockito.mock(PaymentDao.class);
+        Mockito.when(accountPaymentDao.getPaymentsForAccount(accountId, internalCallContext)).thenReturn(payments);
+        Mockito.when(accountPaymentDao.getTransactionsForAccount(accountId, internalCallContext)).thenReturn(transactions);
+        Mockito.when(accountPaymentDao.getPaymentAttemptsForAccount(accountId, internalCallContext)).thenReturn(attempts);
+
+        final NotificationQueue retryQueue = Mockito.mock(NotificationQueue.class);
+        Mockito.doReturn(Collections.emptyList()).when(retryQueue).getFutureNotificationForSearchKeys(Mockito.anyLong(), Mockito.anyLong());
+        final NotificationQueueService notificationQueueService = Mockito.mock(NotificationQueueService.class);
+        Mockito.when(notificationQueueService.getNotificationQueue(Mockito.anyString(), Mockito.anyString())).thenReturn(retryQueue);
+
+        final PaymentRefresher refresher = createPaymentRefresher(accountPaymentDao, paymentConfig, notificationQueueService);
+        final List<Payment> accountPayments = refresher.getAccountPayments(accountId, false, true, false, callContext, internalCallContext);
+
+        Assert.assertEquals(accountPayments.size(), 3);
+        Assert.assertEquals(accountPayments.get(0).getPaymentAttempts().size(), 2);
+        Assert.assertEquals(accountPayments.get(1).getPaymentAttempts().size(), 1);
+        Assert.assertEquals(accountPayments.get(2).getPaymentAttempts().size(), 0);
+
+        // A single query for the attempts and a single lookup of the retry queue, regardless of the number of payments
+        Mockito.verify(accountPaymentDao, Mockito.times(1)).getPaymentAttemptsForAccount(accountId, internalCallContext);
+        Mockito.verify(accountPaymentDao, Mockito.never()).getPaymentAttempts(Mockito.anyString(), Mockito.any(InternalTenantContext.class));
+        Mockito.verify(accountPaymentDao, Mockito.never()).getTransactionsForPayment(Mockito.any(UUID.class), Mockito.any(InternalTenantContext.class));
+        Mockito.verify(notificationQueueService, Mockito.times(1)).getNotificationQueue(Mockito.anyString(), Mockito.anyString());
+    }
+
+    @Test(groups = "fast")
+    public void testGetAccountPaymentsBoundsPluginCalls() throws Exception {
+        final UUID accountId = UUIDs.randomUUID();
+        final UUID paymentMethodId = UUIDs.randomUUID();
+        final DateTime now = clock.getUTCNow();
+
+        final List<PaymentModelDao> payments = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            payments.add(new PaymentModelDao(now, now, accountId, paymentMethodId, "payment-" + i));
+        }
+        final PaymentDao accountPaymentDao = Mockito.mock(PaymentDao.class);
+        Mockito.when(accountPaymentDao.getPaymentsForAccount(accountId, internalCallContext)).thenReturn(payments);
+        Mockito.when(accountPaymentDao.getTransactionsForAccount(accountId, internalCallContext)).thenReturn(Collections.emptyList());
+
+        final AtomicInteger inFlight = new AtomicInteger();
+        final AtomicInteger maxInFlight = new AtomicInteger();
+        final PaymentPluginApi paymentPluginApi = Mockito.mock(PaymentPluginApi.class);
+        Mockito.when(paymentPluginApi.getPaymentInfo(Mockito.eq(accountId), Mockito.any(UUID.class), Mockito.anyIterable(), Mockito.any(TenantContext.class)))
+               .thenAnswer(invocation -> {
+                   maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+                   Thread.sleep(20);
+                   inFlight.decrementAndGet();
+                   return Collections.emptyList();
+               });
+        Mockito.when(paymentPluginRegistrar.getPaymentPluginApi(Mockito.eq(paymentMethodId), Mockito.anyBoolean(), Mockito.any(InternalTenantContext.class))).thenReturn(paymentPluginApi);
+
+        final PaymentConfig boundedPaymentConfig = Mockito.mock(PaymentConfig.class);
+        Mockito.when(boundedPaymentConfig.getPaymentPluginGetPaymentInfoMaxConcurrency()).thenReturn(2);
+
+        final PaymentRefresher refresher = createPaymentRefresher(accountPaymentDao, boundedPaymentConfig, Mockito.mock(NotificationQueueService.class));
+        final List<Payment> accountPayments = refresher.getAccountPayments(accountId, true, false, false, callContext, internalCallContext);
+
+        Assert.assertEquals(accountPayments.size(), 8);
+        Mockito.verify(paymentPluginApi, Mockito.times(8)).getPaymentInfo(Mockito.eq(accountId), Mockito.any(UUID.class), Mockito.anyIterable(), Mockito.any(TenantContext.class));
+        Assert.assertTrue(maxInFlight.get() <= 2, "maxInFlight=" + maxInFlight.get());
+    }
+
+    private static PaymentAttemptModelDao attempt(final UUID accountId, final UUID paymentMethodId, final String paymentExternalKey, final DateTime now) {
+        return new PaymentAttemptModelDao(accountId, paymentMethodId, now, now, paymentExternalKey, UUIDs.randomUUID(), UUIDs.randomUUID().toString(),
+                                          TransactionType.PURCHASE, "SUCCESS", BigDecimal.TEN, Currency.USD, List.of(), null);
+    }
 }
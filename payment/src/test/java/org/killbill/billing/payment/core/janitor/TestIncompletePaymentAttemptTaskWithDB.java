@@ -17,13 +17,20 @@
 
 package org.killbill.billing.payment.core.janitor;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.killbill.billing.account.api.AccountInternalApi;
 import org.killbill.billing.payment.PaymentTestSuiteWithEmbeddedDB;
 import org.killbill.billing.payment.api.PaymentApiException;
 import org.killbill.billing.payment.api.PluginProperty;
+import org.killbill.billing.payment.core.PaymentExecutors;
 import org.killbill.billing.payment.core.sm.PaymentControlStateMachineHelper;
 import org.killbill.billing.payment.core.sm.PluginControlPaymentAutomatonRunner;
 import org.killbill.billing.payment.dao.PaymentAttemptModelDao;
@@ -31,6 +38,9 @@ import org.killbill.billing.payment.dao.PaymentDao;
 import org.killbill.billing.util.callcontext.InternalCallContextFactory;
 import org.killbill.billing.util.config.definition.PaymentConfig;
 import org.killbill.clock.Clock;
+import org.killbill.commons.metrics.api.MetricRegistry;
+import org.killbill.commons.metrics.impl.NoOpMetricRegistry;
+import org.mockito.Mockito;
 import org.testng.Assert;
 import org.testng.annotations.Test;
 
@@ -56,7 +66,9 @@ public class TestIncompletePaymentAttemptTaskWithDB extends PaymentTestSuiteWith
                                                                                                                  paymentControlStateMachineHelper,
                                                                                                                  accountApi,
                                                                                                                  pluginControlPaymentAutomatonRunner,
-                                                                                                                 incompletePaymentTransactionTask);
+                                                                                                                 incompletePaymentTransactionTask,
+                                                                                                                 paymentExecutors,
+                                                                                                                 new NoOpMetricRegistry());
 
         incompletePaymentAttemptTaskWithException.run();
 
@@ -64,6 +76,161 @@ public class TestIncompletePaymentAttemptTaskWithDB extends PaymentTestSuiteWith
         Assert.assertFalse(paymentAttemptModelDaoIterator.hasNext());
     }
 
+    @Test(groups = "slow")
+    public void testParallelRunWithPluginLimits() throws Exception {
+        final PaymentConfig parallelPaymentConfig = Mockito.mock(PaymentConfig.class);
+        Mockito.when(parallelPaymentConfig.getPaymentPluginThreadNb()).thenReturn(1);
+        Mockito.when(parallelPaymentConfig.getJanitorThreadNb()).thenReturn(4);
+        Mockito.when(parallelPaymentConfig.getJanitorPluginMaxConcurrency()).thenReturn(1);
+        final PaymentExecutors parallelPaymentExecutors = new PaymentExecutors(parallelPaymentConfig);
+        parallelPaymentExecutors.initialize();
+
+        // Two plugins, a single attempt at a time for each
+        final List<PaymentAttemptModelDao> paymentAttemptModelDaos = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            final PaymentAttemptModelDao paymentAttemptModelDao = new PaymentAttemptModelDao();
+            paymentAttemptModelDao.setPaymentMethodId(UUID.randomUUID());
+            paymentAttemptModelDao.setStateName(i % 2 == 0 ? "plugin1" : "plugin2");
+            paymentAttemptModelDaos.add(paymentAttemptModelDao);
+        }
+
+        final Map<String, AtomicInteger> inFlightPerPlugin = new ConcurrentHashMap<>();
+        final AtomicInteger maxInFlightPerPlugin = new AtomicInteger();
+        final AtomicInteger nbCompleted = new AtomicInteger();
+        final IncompletePaymentAttemptTask incompletePaymentAttemptTask = new IncompletePaymentAttemptTask(internalCallContextFactory,
+                                                                                                           parallelPaymentConfig,
+                                                                                                           paymentDao,
+                                                                                                           clock,
+                                                                                                           paymentControlStateMachineHelper,
+                                                                                                           accountApi,
+                                                                                                           pluginControlPaymentAutomatonRunner,
+                                                                                                           incompletePaymentTransactionTask,
+                                                                                                           parallelPaymentExecutors,
+                                                                                                           new NoOpMetricRegistry()) {
+            @Override
+            Iterable<PaymentAttemptModelDao> getItemsForIteration() {
+                return paymentAttemptModelDaos;
+            }
+
+            @Override
+            String getPluginName(final PaymentAttemptModelDao attempt) {
+                return attempt.getStateName();
+            }
+
+            @Override
+            public boolean doIteration(final PaymentAttemptModelDao attempt, final boolean isApiPayment, final Iterable<PluginProperty> pluginProperties) {
+                final AtomicInteger inFlight = inFlightPerPlugin.computeIfAbsent(attempt.getStateName(), pluginName -> new AtomicInteger());
+                maxInFlightPerPlugin.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+                try {
+                    Thread.sleep(20);
+                } catch (final InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                inFlight.decrementAndGet();
+                nbCompleted.incrementAndGet();
+                return true;
+            }
+        };
+
+        try {
+            incompletePaymentAttemptTask.run();
+
+            // The run waits for all the workers
+            Assert.assertEquals(nbCompleted.get(), 8);
+            Assert.assertEquals(maxInFlightPerPlugin.get(), 1);
+        } finally {
+            parallelPaymentExecutors.stop();
+        }
+    }
+
+    @Test(groups = "slow")
+    public void testSaturatedPluginDoesNotHoldBackOtherPlugins() throws Exception {
+        final PaymentConfig parallelPaymentConfig = Mockito.mock(PaymentConfig.class);
+        Mockito.when(parallelPaymentConfig.getPaymentPluginThreadNb()).thenReturn(1);
+        Mockito.when(parallelPaymentConfig.getJanitorThreadNb()).thenReturn(2);
+        Mockito.when(parallelPaymentConfig.getJanitorPluginMaxConcurrency()).thenReturn(1);
+        final PaymentExecutors parallelPaymentExecutors = new PaymentExecutors(parallelPaymentConfig);
+        parallelPaymentExecutors.initialize();
+
+        // The plugin2 attempts are found after all the plugin1 ones
+        final List<PaymentAttemptModelDao> paymentAttemptModelDaos = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            final PaymentAttemptModelDao paymentAttemptModelDao = new PaymentAttemptModelDao();
+            paymentAttemptModelDao.setPaymentMethodId(UUID.randomUUID());
+            paymentAttemptModelDao.setStateName(i < 6 ? "plugin1" : "plugin2");
+            paymentAttemptModelDaos.add(paymentAttemptModelDao);
+        }
+
+        final List<String> completedPlugins = Collections.synchronizedList(new ArrayList<>());
+        final IncompletePaymentAttemptTask incompletePaymentAttemptTask = new IncompletePaymentAttemptTask(internalCallContextFactory,
+                                                                                                           parallelPaymentConfig,
+                                                                                                           paymentDao,
+                                                                                                           clock,
+                                                                                                           paymentControlStateMachineHelper,
+                                                                                                           accountApi,
+                                                                                                           pluginControlPaymentAutomatonRunner,
+                                                                                                           incompletePaymentTransactionTask,
+                                                                                                           parallelPaymentExecutors,
+                                                                                                           new NoOpMetricRegistry()) {
+            @Override
+            Iterable<PaymentAttemptModelDao> getItemsForIteration() {
+                return paymentAttemptModelDaos;
+            }
+
+            @Override
+            String getPluginName(final PaymentAttemptModelDao attempt) {
+                return attempt.getStateName();
+            }
+
+            @Override
+            public boolean doIteration(final PaymentAttemptModelDao attempt, final boolean isApiPayment, final Iterable<PluginProperty> pluginProperties) {
+                try {
+                    Thread.sleep(20);
+                } catch (final InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                completedPlugins.add(attempt.getStateName());
+                return true;
+            }
+        };
+
+        try {
+            incompletePaymentAttemptTask.run();
+
+            Assert.assertEquals(completedPlugins.size(), 8);
+            // The second worker isn't stuck waiting on plugin1: plugin2 attempts don't wait for the plugin1 backlog
+            Assert.assertTrue(completedPlugins.lastIndexOf("plugin2") < completedPlugins.lastIndexOf("plugin1"), completedPlugins.toString());
+        } finally {
+            parallelPaymentExecutors.stop();
+        }
+    }
+
+    @Test(groups = "slow")
+    public void testInvalidShardConfiguration() {
+        final PaymentConfig shardedPaymentConfig = Mockito.mock(PaymentConfig.class);
+        Mockito.when(shardedPaymentConfig.getJanitorNbShards()).thenReturn(2);
+        Mockito.when(shardedPaymentConfig.getJanitorShard()).thenReturn(2);
+        final IncompletePaymentAttemptTask incompletePaymentAttemptTask = new IncompletePaymentAttemptTask(internalCallContextFactory,
+                                                                                                           shardedPaymentConfig,
+                                                                                                           paymentDao,
+                                                                                                           clock,
+                                                                                                           paymentControlStateMachineHelper,
+                                                                                                           accountApi,
+                                                                                                           pluginControlPaymentAutomatonRunner,
+                                                                                                           incompletePaymentTransactionTask,
+                                                                                                           paymentExecutors,
+                                                                                                           new NoOpMetricRegistry());
+        try {
+            incompletePaymentAttemptTask.start();
+            Assert.fail("shard should be lower than the number of shards");
+        } catch (final IllegalStateException e) {
+            Assert.assertTrue(e.getMessage().contains("org.killbill.payment.janitor.shard"));
+        }
+
+        Mockito.when(shardedPaymentConfig.getJanitorShard()).thenReturn(1);
+        incompletePaymentAttemptTask.start();
+    }
+
     private final class IncompletePaymentAttemptTaskWithException extends IncompletePaymentAttemptTask {
 
         private final Iterable<PaymentAttemptModelDao> itemsForIteration;
@@ -76,8 +243,10 @@ public class TestIncompletePaymentAttemptTaskWithDB extends PaymentTestSuiteWith
                                                          final PaymentControlStateMachineHelper retrySMHelper,
                                                          final AccountInternalApi accountInternalApi,
                                                          final PluginControlPaymentAutomatonRunner pluginControlledPaymentAutomatonRunner,
-                                                         final IncompletePaymentTransactionTask incompletePaymentTransactionTask) {
-            super(internalCallContextFactory, paymentConfig, paymentDao, clock, retrySMHelper, accountInternalApi, pluginControlledPaymentAutomatonRunner, incompletePaymentTransactionTask);
+                                                         final IncompletePaymentTransactionTask incompletePaymentTransactionTask,
+                                                         final PaymentExecutors paymentExecutors,
+                                                         final MetricRegistry metricRegistry) {
+            super(internalCallContextFactory, paymentConfig, paymentDao, clock, retrySMHelper, accountInternalApi, pluginControlledPaymentAutomatonRunner, incompletePaymentTransactionTask, paymentExecutors, metricRegistry);
             this.itemsForIteration = itemsForIteration;
         }
 
@@ -124,6 +124,11 @@ public class MockPaymentDao extends MockEntityDaoBase<PaymentModelDao, Payment,
         return null;
     }
 
+    @Override
+    public Pagination<PaymentAttemptModelDao> getPaymentAttemptsByStateAcrossTenants(final String stateName, final DateTime createdBeforeDate, final int nbShards, final int shard, final Long offset, final Long limit) {
+        return null;
+    }
+
     @Override
     public List<PaymentAttemptModelDao> getPaymentAttempts(final String paymentExternalKey, final InternalTenantContext context) {
         synchronized (this) {
@@ -137,6 +142,19 @@ public class MockPaymentDao extends MockEntityDaoBase<PaymentModelDao, Payment,
         }
     }
 
+    @Override
+    public List<PaymentAttemptModelDao> getPaymentAttemptsForAccount(final UUID accountId, final InternalTenantContext context) {
+        synchronized (this) {
+            final List<PaymentAttemptModelDao> result = new ArrayList<>();
+            for (PaymentAttemptModelDao cur : attempts.values()) {
+                if (cur.getAccountId().equals(accountId)) {
+                    result.add(cur);
+                }
+            }
+            return result;
+        }
+    }
+
     @Override
     public List<PaymentAttemptModelDao> getPaymentAttemptByTransactionExternalKey(final String transactionExternalKey, final InternalTenantContext context) {
         synchronized (this) {
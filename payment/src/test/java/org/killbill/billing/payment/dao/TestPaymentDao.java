@@ -540,6 +540,14 @@ public class TestPaymentDao extends PaymentTestSuiteWithEmbeddedDB {
 
         final Pagination<PaymentAttemptModelDao> result = paymentDao.getPaymentAttemptsByStateAcrossTenants(stateName, createdBeforeDate, 0L, 2L);
         Assert.assertEquals(result.getTotalNbRecords().longValue(), 2L);
+
+        // Both accounts are split across the shards
+        final Pagination<PaymentAttemptModelDao> resultShard0 = paymentDao.getPaymentAttemptsByStateAcrossTenants(stateName, createdBeforeDate, 2, 0, 0L, 2L);
+        final Pagination<PaymentAttemptModelDao> resultShard1 = paymentDao.getPaymentAttemptsByStateAcrossTenants(stateName, createdBeforeDate, 2, 1, 0L, 2L);
+        Assert.assertEquals(resultShard0.getTotalNbRecords() + resultShard1.getTotalNbRecords(), 2L);
+        for (final PaymentAttemptModelDao attempt : resultShard1) {
+            Assert.assertEquals(attempt.getAccountRecordId() % 2, 1L);
+        }
     }
 
     @Test(groups = "slow")
@@ -18,6 +18,8 @@
 
 package org.killbill.billing.server;
 
+import java.io.IOException;
+
 import jakarta.inject.Inject;
 import jakarta.inject.Named;
 
@@ -83,6 +85,12 @@ public class DefaultServerService implements ServerService {
         } catch (final EventBusException e) {
             log.warn("Failed to unregister PushNotificationListener", e);
         }
+        try {
+            // Notifications not sent yet are moved to the retry queue
+            pushNotificationListener.shutdown();
+        } catch (final IOException e) {
+            log.warn("Failed to shutdown PushNotificationListener", e);
+        }
         pushNotificationRetryService.stop();
     }
 }
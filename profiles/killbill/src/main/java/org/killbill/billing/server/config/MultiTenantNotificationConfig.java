@@ -59,6 +59,31 @@ public class MultiTenantNotificationConfig extends MultiTenantConfigBase impleme
         return getPushNotificationsRetries();
     }
 
+    @Override
+    public int getPushNotificationsMaxInFlightPerTenant() {
+        return staticConfig.getPushNotificationsMaxInFlightPerTenant();
+    }
+
+    @Override
+    public int getPushNotificationsMaxInFlightPerHost() {
+        return staticConfig.getPushNotificationsMaxInFlightPerHost();
+    }
+
+    @Override
+    public int getPushNotificationsMaxPendingPerCallback() {
+        return staticConfig.getPushNotificationsMaxPendingPerCallback();
+    }
+
+    @Override
+    public int getPushNotificationsCircuitBreakerFailureThreshold() {
+        return staticConfig.getPushNotificationsCircuitBreakerFailureThreshold();
+    }
+
+    @Override
+    public TimeSpan getPushNotificationsCircuitBreakerOpenDuration() {
+        return staticConfig.getPushNotificationsCircuitBreakerOpenDuration();
+    }
+
     @Override
     protected Class<? extends KillbillConfig> getConfigClass() {
         return NotificationConfig.class;
@@ -20,11 +20,7 @@
 package org.killbill.billing.server.notifications;
 
 import java.io.IOException;
-import java.io.InputStream;
-import java.net.URI;
 import java.net.http.HttpClient;
-import java.net.http.HttpRequest;
-import java.net.http.HttpResponse;
 import java.time.Duration;
 import java.time.temporal.ChronoUnit;
 import java.util.List;
@@ -39,6 +35,7 @@ import org.killbill.billing.callcontext.InternalTenantContext;
 import org.killbill.billing.jaxrs.json.NotificationJson;
 import org.killbill.billing.notification.plugin.api.ExtBusEvent;
 import org.killbill.billing.platform.api.KillbillService.KILLBILL_SERVICES;
+import org.killbill.billing.server.notifications.PushNotificationSender.Delivery;
 import org.killbill.billing.tenant.api.TenantApiException;
 import org.killbill.billing.tenant.api.TenantKV.TenantKey;
 import org.killbill.billing.tenant.api.TenantUserApi;
@@ -72,10 +69,12 @@ public class PushNotificationListener {
     public static final String CONTENT_TYPE_JSON = "application/json; charset=UTF-8";
 
     private static final int TIMEOUT_NOTIFICATION = 15; // 15 seconds
+    // Max time to wait for in-flight notifications on shutdown
+    private static final long SHUTDOWN_TIMEOUT_MILLIS = 5000;
 
     private final TenantUserApi tenantApi;
     private final CallContextFactory contextFactory;
-    private final HttpClient httpClient;
+    private final PushNotificationSender pushNotificationSender;
     private final ObjectMapper mapper;
     private final NotificationQueueService notificationQueueService;
     private final InternalCallContextFactory internalCallContextFactory;
@@ -86,8 +85,18 @@ public class PushNotificationListener {
     public PushNotificationListener(final ObjectMapper mapper, final TenantUserApi tenantApi, final CallContextFactory contextFactory,
                                     final NotificationQueueService notificationQueueService, final InternalCallContextFactory internalCallContextFactory,
                                     final Clock clock, final NotificationConfig notificationConfig) {
-        this.httpClient = HttpClient.newBuilder()
-                                    .connectTimeout(Duration.of(TIMEOUT_NOTIFICATION, ChronoUnit.SECONDS)).build();
+        final HttpClient httpClient = HttpClient.newBuilder()
+                                                .connectTimeout(Duration.of(TIMEOUT_NOTIFICATION, ChronoUnit.SECONDS)).build();
+        this.pushNotificationSender = new PushNotificationSender(httpClient,
+                                                                 clock,
+                                                                 notificationConfig,
+                                                                 Duration.of(TIMEOUT_NOTIFICATION, ChronoUnit.SECONDS),
+                                                                 USER_AGENT,
+                                                                 (delivery, reason) -> saveRetryPushNotificationInQueue(delivery.getTenantId(),
+                                                                                                                        delivery.getUrl(),
+                                                                                                                        delivery.getNotification(),
+                                                                                                                        delivery.getAttemptRetryNumber(),
+                                                                                                                        reason));
         this.tenantApi = tenantApi;
         this.contextFactory = contextFactory;
         this.mapper = mapper;
@@ -115,43 +124,28 @@ public class PushNotificationListener {
         }
     }
 
+    /**
+     * Re-schedule the notifications not sent yet and wait for the in-flight ones (must be called before the retry queue is stopped)
+     */
     public void shutdown() throws IOException {
+        try {
+            pushNotificationSender.stop(SHUTDOWN_TIMEOUT_MILLIS);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("Interrupted while waiting for in-flight push notifications");
+        }
     }
 
     private void dispatchCallback(final UUID tenantId, final ExtBusEvent event, final Iterable<String> callbacks) throws IOException {
         final NotificationJson notification = new NotificationJson(event);
         final String body = mapper.writeValueAsString(notification);
         for (final String cur : callbacks) {
-            doPost(tenantId, cur, body, notification, TIMEOUT_NOTIFICATION, 0);
+            doPost(tenantId, cur, body, notification, 0);
         }
     }
 
-    private boolean doPost(final UUID tenantId, final String url, final String body, final NotificationJson notification,
-                           final int timeoutSec, final int attemptRetryNumber) {
-        log.info("Sending push notification url='{}', body='{}', attemptRetryNumber='{}'", url, body, attemptRetryNumber);
-        final HttpRequest request = HttpRequest.newBuilder()
-                                               .uri(URI.create(url))
-                                               .header("User-Agent", USER_AGENT)
-                                               .header(HTTP_HEADER_CONTENT_TYPE, CONTENT_TYPE_JSON)
-                                               .timeout(Duration.of(TIMEOUT_NOTIFICATION, ChronoUnit.SECONDS))
-                                               .POST(HttpRequest.BodyPublishers.ofString(body == null ? "{}" : body))
-                                               .build();
-
-        final HttpResponse<InputStream> response;
-        try {
-            response = httpClient.send(request, HttpResponse.BodyHandlers.ofInputStream());
-        } catch (final Exception e) {
-            log.warn("Failed to push notification url='{}', tenantId='{}'", url, tenantId, e);
-            saveRetryPushNotificationInQueue(tenantId, url, notification, attemptRetryNumber, e.getMessage());
-            return false;
-        }
-
-        if (response.statusCode() >= 200 && response.statusCode() < 300) {
-            return true;
-        } else {
-            saveRetryPushNotificationInQueue(tenantId, url, notification, attemptRetryNumber, "statusCode=" + response.statusCode());
-            return false;
-        }
+    private void doPost(final UUID tenantId, final String url, final String body, final NotificationJson notification, final int attemptRetryNumber) {
+        pushNotificationSender.send(new Delivery(tenantId, url, body, notification, attemptRetryNumber));
     }
 
     public void resendPushNotification(final PushNotificationKey key) throws JsonProcessingException {
@@ -162,7 +156,7 @@ public class PushNotificationListener {
                                                                    key.getObjectId(),
                                                                    key.getMetaData());
         final String body = mapper.writeValueAsString(notification);
-        doPost(key.getTenantId(), key.getUrl(), body, notification, TIMEOUT_NOTIFICATION, key.getAttemptNumber());
+        doPost(key.getTenantId(), key.getUrl(), body, notification, key.getAttemptNumber());
     }
 
     private void saveRetryPushNotificationInQueue(final UUID tenantId, final String url, final NotificationJson notificationJson, final int attemptRetryNumber, final String reason) {
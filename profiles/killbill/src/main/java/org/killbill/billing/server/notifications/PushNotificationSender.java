@@ -0,0 +1,372 @@
+/*
+ * Copyright 2020-2026 Equinix, Inc
+ * Copyright 2014-2026 The Billing Project, LLC
+ *
+ * The Billing Project licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.killbill.billing.server.notifications;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+import org.joda.time.DateTime;
+import org.killbill.billing.jaxrs.json.NotificationJson;
+import org.killbill.billing.util.config.definition.NotificationConfig;
+import org.killbill.clock.Clock;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Non-blocking delivery of push notifications.
+ * <p>
+ * Notifications are queued per callback (tenant and url) and sent with {@link HttpClient#sendAsync}: the caller (bus dispatch thread,
+ * retry notification queue thread) never waits for the remote endpoint. The number of requests in flight is capped per tenant and per host,
+ * queued notifications being sent as soon as a slot is released.
+ * <p>
+ * Each callback has a circuit breaker: after too many consecutive failures, notifications for that callback are re-scheduled right away
+ * (without being sent) until the circuit is half-open again, at which point a single probe is sent.
+ * <p>
+ * Failed, rejected and short-circuited notifications are all handed to the {@link FailureHandler} (i.e. the retry queue).
+ */
+class PushNotificationSender {
+
+    private static final Logger log = LoggerFactory.getLogger(PushNotificationSender.class);
+
+    interface FailureHandler {
+
+        void onFailure(Delivery delivery, String reason);
+    }
+
+    static final class Delivery {
+
+        private final UUID tenantId;
+        private final String url;
+        private final String body;
+        private final NotificationJson notification;
+        private final int attemptRetryNumber;
+
+        Delivery(final UUID tenantId, final String url, final String body, final NotificationJson notification, final int attemptRetryNumber) {
+            this.tenantId = tenantId;
+            this.url = url;
+            this.body = body;
+            this.notification = notification;
+            this.attemptRetryNumber = attemptRetryNumber;
+        }
+
+        UUID getTenantId() {
+            return tenantId;
+        }
+
+        String getUrl() {
+            return url;
+        }
+
+        String getBody() {
+            return body;
+        }
+
+        NotificationJson getNotification() {
+            return notification;
+        }
+
+        int getAttemptRetryNumber() {
+            return attemptRetryNumber;
+        }
+    }
+
+    private final HttpClient httpClient;
+    private final Clock clock;
+    private final NotificationConfig notificationConfig;
+    private final Duration requestTimeout;
+    private final String userAgent;
+    private final FailureHandler failureHandler;
+
+    // All state below is guarded by this
+    private final Map<Callback, Callback> callbacks = new HashMap<>();
+    // Callbacks with queued notifications, in arrival order
+    private final Set<Callback> callbacksWithPendingDeliveries = new LinkedHashSet<>();
+    private final Map<UUID, Integer> inFlightPerTenant = new HashMap<>();
+    private final Map<String, Integer> inFlightPerHost = new HashMap<>();
+    private int nbInFlight = 0;
+    private boolean isStopped = false;
+
+    PushNotificationSender(final HttpClient httpClient,
+                           final Clock clock,
+                           final NotificationConfig notificationConfig,
+                           final Duration requestTimeout,
+                           final String userAgent,
+                           final FailureHandler failureHandler) {
+        this.httpClient = httpClient;
+        this.clock = clock;
+        this.notificationConfig = notificationConfig;
+        this.requestTimeout = requestTimeout;
+        this.userAgent = userAgent;
+        this.failureHandler = failureHandler;
+    }
+
+    void send(final Delivery delivery) {
+        final List<Delivery> rejected = new ArrayList<>();
+        final List<Delivery> shortCircuited = new ArrayList<>();
+        final List<Delivery> toSend = new ArrayList<>();
+        String rejectionReason = "too many pending notifications";
+        synchronized (this) {
+            if (isStopped) {
+                rejectionReason = "shutdown";
+                rejected.add(delivery);
+            } else {
+                final Callback callback = callbacks.computeIfAbsent(new Callback(delivery.getTenantId(), delivery.getUrl()), c -> c);
+                if (callback.pending.size() >= notificationConfig.getPushNotificationsMaxPendingPerCallback()) {
+                    log.warn("Too many pending push notifications for url='{}', tenantId='{}'", delivery.getUrl(), delivery.getTenantId());
+                    rejected.add(delivery);
+                } else {
+                    callback.pending.add(delivery);
+                    callbacksWithPendingDeliveries.add(callback);
+                }
+                drain(toSend, shortCircuited);
+            }
+        }
+
+        fail(rejected, rejectionReason);
+        fail(shortCircuited, "circuit open");
+        doSend(toSend);
+    }
+
+    /**
+     * Stop accepting notifications, re-schedule the queued ones and wait (up to timeoutMillis) for the in-flight ones to complete.
+     */
+    void stop(final long timeoutMillis) throws InterruptedException {
+        final List<Delivery> rejected = new ArrayList<>();
+        synchronized (this) {
+            if (isStopped) {
+                return;
+            }
+            isStopped = true;
+            for (final Callback callback : callbacksWithPendingDeliveries) {
+                rejected.addAll(callback.pending);
+                callback.pending.clear();
+            }
+            callbacksWithPendingDeliveries.clear();
+        }
+
+        fail(rejected, "shutdown");
+
+        final long deadline = System.currentTimeMillis() + timeoutMillis;
+        synchronized (this) {
+            long remaining = timeoutMillis;
+            while (nbInFlight > 0 && remaining > 0) {
+                wait(remaining);
+                remaining = deadline - System.currentTimeMillis();
+            }
+            if (nbInFlight > 0) {
+                log.warn("{} push notification(s) still in flight after shutdown", nbInFlight);
+            }
+        }
+    }
+
+    synchronized int getNbInFlight() {
+        return nbInFlight;
+    }
+
+    synchronized int getNbPending() {
+        int nbPending = 0;
+        for (final Callback callback : callbacksWithPendingDeliveries) {
+            nbPending += callback.pending.size();
+        }
+        return nbPending;
+    }
+
+    // Must be called with the lock held
+    private void drain(final List<Delivery> toSend, final List<Delivery> shortCircuited) {
+        final DateTime now = clock.getUTCNow();
+        final int maxInFlightPerTenant = notificationConfig.getPushNotificationsMaxInFlightPerTenant();
+        final int maxInFlightPerHost = notificationConfig.getPushNotificationsMaxInFlightPerHost();
+
+        final Iterator<Callback> iterator = callbacksWithPendingDeliveries.iterator();
+        while (iterator.hasNext()) {
+            final Callback callback = iterator.next();
+            if (callback.isOpen(now)) {
+                shortCircuited.addAll(callback.pending);
+                callback.pending.clear();
+            }
+            while (!callback.pending.isEmpty() &&
+                   // Half-open: a single probe at a time
+                   (!callback.isHalfOpen() || callback.nbInFlight == 0) &&
+                   inFlightPerTenant.getOrDefault(callback.tenantId, 0) < maxInFlightPerTenant &&
+                   inFlightPerHost.getOrDefault(callback.host, 0) < maxInFlightPerHost) {
+                toSend.add(callback.pending.poll());
+                callback.nbInFlight++;
+                inFlightPerTenant.merge(callback.tenantId, 1, Integer::sum);
+                inFlightPerHost.merge(callback.host, 1, Integer::sum);
+                nbInFlight++;
+            }
+            if (callback.pending.isEmpty()) {
+                iterator.remove();
+                maybeForget(callback);
+            }
+        }
+    }
+
+    private void doSend(final Iterable<Delivery> deliveries) {
+        for (final Delivery delivery : deliveries) {
+            log.info("Sending push notification url='{}', body='{}', attemptRetryNumber='{}'", delivery.getUrl(), delivery.getBody(), delivery.getAttemptRetryNumber());
+
+            CompletableFuture<HttpResponse<Void>> response;
+            try {
+                final HttpRequest request = HttpRequest.newBuilder()
+                                                       .uri(URI.create(delivery.getUrl()))
+                                                       .header("User-Agent", userAgent)
+                                                       .header(PushNotificationListener.HTTP_HEADER_CONTENT_TYPE, PushNotificationListener.CONTENT_TYPE_JSON)
+                                                       .timeout(requestTimeout)
+                                                       .POST(HttpRequest.BodyPublishers.ofString(delivery.getBody() == null ? "{}" : delivery.getBody()))
+                                                       .build();
+                response = httpClient.sendAsync(request, HttpResponse.BodyHandlers.discarding());
+            } catch (final RuntimeException e) {
+                response = CompletableFuture.failedFuture(e);
+            }
+
+            response.whenComplete((r, e) -> {
+                final String failureReason;
+                if (e != null) {
+                    log.warn("Failed to push notification url='{}', tenantId='{}'", delivery.getUrl(), delivery.getTenantId(), e);
+                    failureReason = Objects.requireNonNullElse(e.getMessage(), e.getClass().getName());
+                } else if (r.statusCode() < 200 || r.statusCode() >= 300) {
+                    failureReason = "statusCode=" + r.statusCode();
+                } else {
+                    failureReason = null;
+                }
+                onCompletion(delivery, failureReason);
+            });
+        }
+    }
+
+    private void onCompletion(final Delivery delivery, final String failureReason) {
+        final List<Delivery> toSend = new ArrayList<>();
+        final List<Delivery> shortCircuited = new ArrayList<>();
+        synchronized (this) {
+            final Callback callback = callbacks.get(new Callback(delivery.getTenantId(), delivery.getUrl()));
+            callback.nbInFlight--;
+            release(inFlightPerTenant, callback.tenantId);
+            release(inFlightPerHost, callback.host);
+            nbInFlight--;
+
+            if (failureReason == null) {
+                callback.nbConsecutiveFailures = 0;
+                callback.openUntil = null;
+            } else if (++callback.nbConsecutiveFailures >= notificationConfig.getPushNotificationsCircuitBreakerFailureThreshold()) {
+                callback.openUntil = clock.getUTCNow().plus(notificationConfig.getPushNotificationsCircuitBreakerOpenDuration().getMillis());
+                log.warn("Opening circuit for push notifications url='{}', tenantId='{}' until {}", callback.url, callback.tenantId, callback.openUntil);
+            }
+
+            if (!isStopped) {
+                drain(toSend, shortCircuited);
+            }
+            maybeForget(callback);
+            notifyAll();
+        }
+
+        if (failureReason != null) {
+            fail(List.of(delivery), failureReason);
+        }
+        fail(shortCircuited, "circuit open");
+        doSend(toSend);
+    }
+
+    private void fail(final Iterable<Delivery> deliveries, final String reason) {
+        for (final Delivery delivery : deliveries) {
+            try {
+                failureHandler.onFailure(delivery, reason);
+            } catch (final RuntimeException e) {
+                log.warn("Failed to re-schedule push notification url='{}', tenantId='{}'", delivery.getUrl(), delivery.getTenantId(), e);
+            }
+        }
+    }
+
+    // Only keep state for callbacks which have work in progress or a failure history
+    private void maybeForget(final Callback callback) {
+        if (callback.pending.isEmpty() && callback.nbInFlight == 0 && callback.nbConsecutiveFailures == 0) {
+            callbacks.remove(callback);
+        }
+    }
+
+    private static <K> void release(final Map<K, Integer> inFlight, final K key) {
+        inFlight.computeIfPresent(key, (k, v) -> v > 1 ? v - 1 : null);
+    }
+
+    private static final class Callback {
+
+        private final UUID tenantId;
+        private final String url;
+        private final String host;
+        private final Queue<Delivery> pending = new ArrayDeque<>();
+
+        private int nbInFlight = 0;
+        private int nbConsecutiveFailures = 0;
+        private DateTime openUntil = null;
+
+        private Callback(final UUID tenantId, final String url) {
+            this.tenantId = tenantId;
+            this.url = url;
+            this.host = getHost(url);
+        }
+
+        private boolean isOpen(final DateTime now) {
+            return openUntil != null && now.isBefore(openUntil);
+        }
+
+        private boolean isHalfOpen() {
+            return openUntil != null;
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            final Callback callback = (Callback) o;
+            return Objects.equals(tenantId, callback.tenantId) && Objects.equals(url, callback.url);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(tenantId, url);
+        }
+    }
+
+    private static String getHost(final String url) {
+        try {
+            final URI uri = URI.create(url);
+            return uri.getHost() == null ? url : uri.getHost() + ":" + uri.getPort();
+        } catch (final IllegalArgumentException e) {
+            return url;
+        }
+    }
+}
@@ -35,6 +35,8 @@ import org.apache.shiro.realm.jdbc.JdbcRealm;
 import org.apache.shiro.lang.util.ByteSource;
 import org.killbill.billing.util.config.definition.SecurityConfig;
 import org.killbill.billing.util.security.shiro.KillbillCredentialsMatcher;
+import org.killbill.billing.util.security.shiro.RealmInfoCache;
+import org.killbill.billing.util.security.shiro.RealmInfoCache.GenerationAuthenticationInfo;
 
 /**
  * @see {shiro.ini}
@@ -45,12 +47,15 @@ public class KillbillJdbcTenantRealm extends JdbcRealm {
 
     private final DataSource dataSource;
     private final SecurityConfig securityConfig;
+    // Keyed by credentials digest
+    private final RealmInfoCache<AuthenticationInfo> verifiedCredentials;
 
     public KillbillJdbcTenantRealm(final DataSource dataSource, final SecurityConfig securityConfig) {
         super();
 
         this.dataSource = dataSource;
         this.securityConfig = securityConfig;
+        this.verifiedCredentials = new RealmInfoCache<AuthenticationInfo>(securityConfig);
 
         // Note: we don't support updating tenants credentials via API
         // See JavaDoc warning: https://shiro.apache.org/static/1.2.3/apidocs/org/apache/shiro/realm/AuthenticatingRealm.html
@@ -66,6 +71,8 @@ public class KillbillJdbcTenantRealm extends JdbcRealm {
 
     @Override
     protected AuthenticationInfo doGetAuthenticationInfo(final AuthenticationToken token) throws AuthenticationException {
+        // Read before the tenants query, see assertCredentialsMatch
+        final long generation = verifiedCredentials.getGeneration(token.getPrincipal());
         final SimpleAuthenticationInfo authenticationInfo = (SimpleAuthenticationInfo) super.doGetAuthenticationInfo(token);
 
         // We store the salt bytes in Base64 (because the JdbcRealm retrieves it as a String)
@@ -74,7 +81,20 @@ public class KillbillJdbcTenantRealm extends JdbcRealm {
         // SimpleByteSource isn't Serializable
         authenticationInfo.setCredentialsSalt(new SerializableSimpleByteSource(bytes));
 
-        return authenticationInfo;
+        return new GenerationAuthenticationInfo(authenticationInfo, generation);
+    }
+
+    @Override
+    protected void assertCredentialsMatch(final AuthenticationToken token, final AuthenticationInfo info) throws AuthenticationException {
+        // The tenants query is already cached by Shiro (keyed by api key), but not the hashing of the api secret
+        final String digest = verifiedCredentials.digest(token.getPrincipal(), token.getCredentials());
+        if (verifiedCredentials.get(digest) != null) {
+            return;
+        }
+
+        super.assertCredentialsMatch(token, info);
+        // Not cached if the credentials were invalidated since the tenants query
+        verifiedCredentials.put(digest, token.getPrincipal(), info, ((GenerationAuthenticationInfo) info).getGeneration());
     }
 
     private void configureSecurity() {
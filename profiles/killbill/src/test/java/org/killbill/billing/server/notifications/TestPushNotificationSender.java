@@ -0,0 +1,234 @@
+/*
+ * Copyright 2020-2026 Equinix, Inc
+ * Copyright 2014-2026 The Billing Project, LLC
+ *
+ * The Billing Project licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.killbill.billing.server.notifications;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.killbill.billing.GuicyKillbillTestSuiteNoDB;
+import org.killbill.billing.server.notifications.PushNotificationSender.Delivery;
+import org.killbill.billing.util.config.definition.NotificationConfig;
+import org.mockito.Mockito;
+import org.skife.config.TimeSpan;
+import org.testng.Assert;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+public class TestPushNotificationSender extends GuicyKillbillTestSuiteNoDB {
+
+    private List<HttpRequest> requests;
+    private List<CompletableFuture<HttpResponse<Void>>> responses;
+    private List<String> failures;
+    private HttpClient httpClient;
+    private NotificationConfig notificationConfig;
+    private PushNotificationSender sender;
+
+    @BeforeMethod(groups = "fast")
+    public void beforeMethod() throws Exception {
+        if (hasFailed()) {
+            return;
+        }
+        requests = new ArrayList<>();
+        responses = new ArrayList<>();
+        failures = new ArrayList<>();
+
+        httpClient = Mockito.mock(HttpClient.class);
+        Mockito.when(httpClient.sendAsync(Mockito.any(), Mockito.<HttpResponse.BodyHandler<Void>>any()))
+               .thenAnswer(invocation -> {
+                   final CompletableFuture<HttpResponse<Void>> response = new CompletableFuture<>();
+                   synchronized (requests) {
+                       requests.add(invocation.getArgument(0));
+                       responses.add(response);
+                   }
+                   return response;
+               });
+
+        notificationConfig = Mockito.mock(NotificationConfig.class);
+        Mockito.when(notificationConfig.getPushNotificationsMaxInFlightPerTenant()).thenReturn(2);
+        Mockito.when(notificationConfig.getPushNotificationsMaxInFlightPerHost()).thenReturn(3);
+        Mockito.when(notificationConfig.getPushNotificationsMaxPendingPerCallback()).thenReturn(5);
+        Mockito.when(notificationConfig.getPushNotificationsCircuitBreakerFailureThreshold()).thenReturn(2);
+        Mockito.when(notificationConfig.getPushNotificationsCircuitBreakerOpenDuration()).thenReturn(new TimeSpan(30, TimeUnit.SECONDS));
+
+        sender = new PushNotificationSender(httpClient, clock, notificationConfig, Duration.ofSeconds(15), "KillBill/1.0",
+                                            (delivery, reason) -> {
+                                                synchronized (failures) {
+                                                    failures.add(delivery.getUrl() + ":" + reason);
+                                                }
+                                            });
+    }
+
+    @Test(groups = "fast")
+    public void testInFlightCaps() {
+        final UUID tenantId1 = UUID.randomUUID();
+        final UUID tenantId2 = UUID.randomUUID();
+
+        // Tenant cap: only 2 requests in flight for tenant 1
+        for (int i = 0; i < 4; i++) {
+            sender.send(delivery(tenantId1, "http://host1:8080/callback"));
+        }
+        Assert.assertEquals(requests.size(), 2);
+        Assert.assertEquals(sender.getNbPending(), 2);
+
+        // Host cap: only 1 more request to host1, another tenant on another host isn't impacted
+        sender.send(delivery(tenantId2, "http://host1:8080/callback"));
+        sender.send(delivery(tenantId2, "http://host1:8080/callback"));
+        sender.send(delivery(tenantId2, "http://host2:8080/callback"));
+        Assert.assertEquals(requests.size(), 4);
+        Assert.assertEquals(sender.getNbInFlight(), 4);
+        Assert.assertEquals(sender.getNbPending(), 3);
+
+        // Completion of the tenant 1 requests lets the queued ones go through
+        complete(0, 200);
+        complete(1, 200);
+        Assert.assertEquals(requests.size(), 6);
+        Assert.assertEquals(sender.getNbPending(), 1);
+        Assert.assertEquals(requests.get(4).uri().getHost(), "host1");
+
+        for (int i = 2; i < 6; i++) {
+            complete(i, 200);
+        }
+        complete(6, 200);
+        Assert.assertEquals(requests.size(), 7);
+        Assert.assertEquals(sender.getNbInFlight(), 0);
+        Assert.assertEquals(sender.getNbPending(), 0);
+        Assert.assertTrue(failures.isEmpty());
+    }
+
+    @Test(groups = "fast")
+    public void testMaxPendingPerCallback() {
+        final UUID tenantId = UUID.randomUUID();
+        for (int i = 0; i < 8; i++) {
+            sender.send(delivery(tenantId, "http://host1:8080/callback"));
+        }
+        // 2 in flight, 5 pending, 1 rejected
+        Assert.assertEquals(requests.size(), 2);
+        Assert.assertEquals(sender.getNbPending(), 5);
+        Assert.assertEquals(failures, List.of("http://host1:8080/callback:too many pending notifications"));
+    }
+
+    @Test(groups = "fast")
+    public void testCircuitBreaker() {
+        final UUID tenantId = UUID.randomUUID();
+        final String url = "http://host1:8080/callback";
+
+        sender.send(delivery(tenantId, url));
+        sender.send(delivery(tenantId, url));
+        sender.send(delivery(tenantId, url));
+        Assert.assertEquals(requests.size(), 2);
+
+        // Two consecutive failures: the circuit opens and the pending delivery is re-scheduled without being sent
+        complete(0, 500);
+        Assert.assertEquals(requests.size(), 3);
+        responses.get(1).completeExceptionally(new RuntimeException("Connection refused"));
+        Assert.assertEquals(failures, List.of(url + ":statusCode=500", url + ":Connection refused"));
+
+        complete(2, 500);
+        Assert.assertEquals(failures.size(), 3);
+        sender.send(delivery(tenantId, url));
+        Assert.assertEquals(requests.size(), 3);
+        Assert.assertEquals(failures.get(3), url + ":circuit open");
+
+        // Half-open: a single probe
+        clock.addDeltaFromReality(31000);
+        sender.send(delivery(tenantId, url));
+        sender.send(delivery(tenantId, url));
+        Assert.assertEquals(requests.size(), 4);
+        Assert.assertEquals(sender.getNbPending(), 1);
+
+        // Successful probe closes the circuit
+        complete(3, 204);
+        Assert.assertEquals(requests.size(), 5);
+        sender.send(delivery(tenantId, url));
+        Assert.assertEquals(requests.size(), 6);
+        Assert.assertEquals(failures.size(), 4);
+    }
+
+    @Test(groups = "fast")
+    public void testFailureHandlerException() {
+        final PushNotificationSender failingSender = new PushNotificationSender(httpClient, clock, notificationConfig, Duration.ofSeconds(15), "KillBill/1.0",
+                                                                                (delivery, reason) -> {
+                                                                                    throw new IllegalStateException("Unable to re-schedule");
+                                                                                });
+        final UUID tenantId = UUID.randomUUID();
+        final String url = "http://host1:8080/callback";
+        for (int i = 0; i < 3; i++) {
+            failingSender.send(delivery(tenantId, url));
+        }
+        Assert.assertEquals(requests.size(), 2);
+
+        // The handler failure doesn't prevent the queued delivery from going through
+        complete(0, 500);
+        Assert.assertEquals(requests.size(), 3);
+        Assert.assertEquals(failingSender.getNbInFlight(), 2);
+        Assert.assertEquals(failingSender.getNbPending(), 0);
+
+        complete(1, 200);
+        complete(2, 200);
+        Assert.assertEquals(failingSender.getNbInFlight(), 0);
+    }
+
+    @Test(groups = "fast")
+    public void testStop() throws Exception {
+        final UUID tenantId = UUID.randomUUID();
+        final String url = "http://host1:8080/callback";
+        for (int i = 0; i < 3; i++) {
+            sender.send(delivery(tenantId, url));
+        }
+
+        complete(0, 200);
+        complete(1, 200);
+        Assert.assertEquals(requests.size(), 3);
+        sender.send(delivery(tenantId, url));
+        sender.send(delivery(tenantId, url));
+        Assert.assertEquals(requests.size(), 4);
+        Assert.assertEquals(sender.getNbPending(), 1);
+
+        // Pending deliveries are re-scheduled, in-flight ones are waited for
+        sender.stop(10);
+        Assert.assertEquals(failures, List.of(url + ":shutdown"));
+        Assert.assertEquals(sender.getNbInFlight(), 2);
+
+        sender.send(delivery(tenantId, url));
+        Assert.assertEquals(requests.size(), 4);
+        Assert.assertEquals(failures.size(), 2);
+
+        complete(2, 200);
+        complete(3, 200);
+        Assert.assertEquals(sender.getNbInFlight(), 0);
+        Assert.assertEquals(sender.getNbPending(), 0);
+    }
+
+    private void complete(final int requestNumber, final int statusCode) {
+        @SuppressWarnings("unchecked")
+        final HttpResponse<Void> response = Mockito.mock(HttpResponse.class);
+        Mockito.when(response.statusCode()).thenReturn(statusCode);
+        responses.get(requestNumber).complete(response);
+    }
+
+    private static Delivery delivery(final UUID tenantId, final String url) {
+        return new Delivery(tenantId, url, "{}", null, 0);
+    }
+}
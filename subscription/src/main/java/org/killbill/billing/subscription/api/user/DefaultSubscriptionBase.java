@@ -164,9 +164,17 @@ public class DefaultSubscriptionBase extends EntityBase implements SubscriptionB
         this.includeDeletedEvents = internalSubscription.getIncludeDeletedEvents();
     }
 
+    // Used to refresh the fields read from the subscriptions table (e.g. chargedThroughDate) of an already rebuilt subscription, without replaying its events
+    public DefaultSubscriptionBase(final DefaultSubscriptionBase shellSubscription, final DefaultSubscriptionBase rebuiltSubscription, @Nullable final Clock clock) {
+        this(new SubscriptionBuilder(shellSubscription), null, clock);
+        this.transitions = rebuiltSubscription.transitions != null ? new LinkedList<SubscriptionBaseTransition>(rebuiltSubscription.transitions) : null;
+        this.transitionsWithDeletedEvents = rebuiltSubscription.transitionsWithDeletedEvents != null ? new LinkedList<SubscriptionBaseTransition>(rebuiltSubscription.transitionsWithDeletedEvents) : null;
+        this.events = rebuiltSubscription.events != null ? new ArrayList<SubscriptionBaseEvent>(rebuiltSubscription.events) : null;
+    }
+
     // Used for API to make sure we have a clock and an apiService set before we return the object
     public DefaultSubscriptionBase(final DefaultSubscriptionBase internalSubscription, final boolean includeDeletedEvents) {
-        this(internalSubscription, null, null);
+        this(internalSubscription, (SubscriptionBaseApiService) null, null);
         this.includeDeletedEvents = includeDeletedEvents;
     }
 
@@ -17,7 +17,7 @@
 
 package org.killbill.billing.subscription.catalog;
 
-import java.util.ArrayList;
+import java.util.Date;
 import java.util.List;
 
 import org.joda.time.DateTime;
@@ -80,22 +80,14 @@ public class SubscriptionCatalog {
     }
 
     public Plan getNextPlanVersion(final Plan curPlan) {
-
-        boolean foundCurVersion = false;
-        StaticCatalog nextCatalogVersion = null;
-        for (int i = 0; i < versions.size(); i++) {
-            final StaticCatalog curCatalogversion = versions.get(i);
-            if (foundCurVersion) {
-                nextCatalogVersion = curCatalogversion;
-                break;
-            }
-            if (curCatalogversion.getEffectiveDate().compareTo(curPlan.getCatalog().getEffectiveDate()) == 0) {
-                foundCurVersion = true;
-            }
-        }
-        if (nextCatalogVersion == null) {
+        // Versions are sorted by effective date
+        final int nextVersionIndex = upperBound(curPlan.getCatalog().getEffectiveDate());
+        if (nextVersionIndex == 0 ||
+            nextVersionIndex >= versions.size() ||
+            versions.get(nextVersionIndex - 1).getEffectiveDate().compareTo(curPlan.getCatalog().getEffectiveDate()) != 0) {
             return null;
         }
+        final StaticCatalog nextCatalogVersion = versions.get(nextVersionIndex);
 
         try {
             return nextCatalogVersion.findPlan(curPlan.getName());
@@ -222,18 +214,25 @@ public class SubscriptionCatalog {
     }
 
     private List<StaticCatalog> versionsBeforeDate(final DateTime date) {
-
-        final List<StaticCatalog> result = new ArrayList<StaticCatalog>();
-
         // Fetch latest version allowed -- to benefit from custom logic implemented in VersionedCatalog
         final StaticCatalog latestVersion = versionForDate(date);
-        for (StaticCatalog v : versions) {
-            // Add all versions prior or equal to the one returned.
-            if (v.getEffectiveDate().compareTo(latestVersion.getEffectiveDate()) <= 0) {
-                result.add(v);
+        // Add all versions prior or equal to the one returned (versions are sorted by effective date)
+        return versions.subList(0, upperBound(latestVersion.getEffectiveDate()));
+    }
+
+    // Number of versions effective on or before the specified date
+    private int upperBound(final Date effectiveDate) {
+        int low = 0;
+        int high = versions.size() - 1;
+        while (low <= high) {
+            final int mid = (low + high) >>> 1;
+            if (versions.get(mid).getEffectiveDate().compareTo(effectiveDate) <= 0) {
+                low = mid + 1;
+            } else {
+                high = mid - 1;
             }
         }
-        return result;
+        return low;
     }
 
     public StaticCatalog versionForDate(final DateTime date) {
@@ -51,6 +51,11 @@ public class MultiTenantSubscriptionConfig extends MultiTenantConfigBase impleme
         return isEffectiveDateForExistingSubscriptionsAlignedToBCD();
     }
 
+    @Override
+    public int getSubscriptionStateCacheMaxAccounts() {
+        return staticConfig.getSubscriptionStateCacheMaxAccounts();
+    }
+
     @Override
     protected Class<? extends KillbillConfig> getConfigClass() {
         return SubscriptionConfig.class;
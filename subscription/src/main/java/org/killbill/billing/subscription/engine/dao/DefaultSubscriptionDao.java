@@ -135,12 +135,14 @@ public class DefaultSubscriptionDao extends EntityDaoBase<SubscriptionBundleMode
     private final AddonUtils addonUtils;
     private final BusOptimizer eventBus;
     private final AuditDao auditDao;
+    private final SubscriptionStateCache subscriptionStateCache;
 
     @Inject
     public DefaultSubscriptionDao(final IDBI dbi, @Named(MAIN_RO_IDBI_NAMED) final IDBI roDbi, final Clock clock, final AddonUtils addonUtils,
                                   final NotificationQueueService notificationQueueService, final BusOptimizer eventBus,
                                   final CacheControllerDispatcher cacheControllerDispatcher, final NonEntityDao nonEntityDao,
                                   final AuditDao auditDao,
+                                  final SubscriptionStateCache subscriptionStateCache,
                                   final InternalCallContextFactory internalCallContextFactory) {
         super(nonEntityDao, cacheControllerDispatcher, new EntitySqlDaoTransactionalJdbiWrapper(dbi, roDbi, clock, cacheControllerDispatcher, nonEntityDao, internalCallContextFactory), BundleSqlDao.class);
         this.clock = clock;
@@ -148,6 +150,7 @@ public class DefaultSubscriptionDao extends EntityDaoBase<SubscriptionBundleMode
         this.addonUtils = addonUtils;
         this.eventBus = eventBus;
         this.auditDao = auditDao;
+        this.subscriptionStateCache = subscriptionStateCache;
     }
 
     @Override
@@ -416,20 +419,43 @@ public class DefaultSubscriptionDao extends EntityDaoBase<SubscriptionBundleMode
 
     @Override
     public Map<UUID, List<DefaultSubscriptionBase>> getSubscriptionsForAccount(final SubscriptionCatalog catalog, @Nullable final LocalDate cutoffDt, final InternalTenantContext context) throws CatalogApiException {
+        // The version is read first: if events are written concurrently, the entry cached below is built from newer events, never older ones
+        final SubscriptionEventsVersion eventsVersion = subscriptionStateCache.isEnabled() ? getEventsVersionForAccount(context) : null;
+
         final Map<UUID, List<DefaultSubscriptionBase>> subscriptionsFromAccountId = getSubscriptionsFromAccountId(cutoffDt, context);
-        final List<SubscriptionBaseEvent> eventsForAccount = getEventsForAccountId(cutoffDt, context);
+        Map<UUID, List<DefaultSubscriptionBase>> rebuiltSubscriptions = null;
+        if (eventsVersion != null) {
+            rebuiltSubscriptions = subscriptionStateCache.get(context.getAccountRecordId(), cutoffDt, eventsVersion, catalog.getCatalog(), subscriptionsFromAccountId);
+        }
 
-        final Map<UUID, List<DefaultSubscriptionBase>> result = new HashMap<>();
-        final MultiValueMap<UUID, SubscriptionBaseEvent> eventsForSubscriptions = new MultiValueHashMap<>();
-        for (final SubscriptionBaseEvent evt : eventsForAccount) {
-            eventsForSubscriptions.putElement(evt.getSubscriptionId(), evt);
+        if (rebuiltSubscriptions == null) {
+            final List<SubscriptionBaseEvent> eventsForAccount = getEventsForAccountId(cutoffDt, context);
+
+            rebuiltSubscriptions = new HashMap<>();
+            final MultiValueMap<UUID, SubscriptionBaseEvent> eventsForSubscriptions = new MultiValueHashMap<>();
+            for (final SubscriptionBaseEvent evt : eventsForAccount) {
+                eventsForSubscriptions.putElement(evt.getSubscriptionId(), evt);
+            }
+            for (final Entry<UUID, List<DefaultSubscriptionBase>> entry : subscriptionsFromAccountId.entrySet()) {
+                rebuiltSubscriptions.put(entry.getKey(), rebuildBundleSubscriptions(entry.getValue(), eventsForSubscriptions, null, catalog, context));
+            }
+
+            if (eventsVersion != null) {
+                subscriptionStateCache.put(context.getAccountRecordId(), cutoffDt, eventsVersion, catalog.getCatalog(), rebuiltSubscriptions);
+            }
         }
-        for (final Entry<UUID, List<DefaultSubscriptionBase>> entry : subscriptionsFromAccountId.entrySet()) {
-            result.put(entry.getKey(), buildBundleSubscriptions(entry.getValue(), eventsForSubscriptions, null, catalog, context));
+
+        final Map<UUID, List<DefaultSubscriptionBase>> result = new HashMap<>();
+        for (final Entry<UUID, List<DefaultSubscriptionBase>> entry : rebuiltSubscriptions.entrySet()) {
+            result.put(entry.getKey(), addAddOnCancellations(entry.getValue(), catalog, context));
         }
         return result;
     }
 
+    SubscriptionEventsVersion getEventsVersionForAccount(final InternalTenantContext context) {
+        return transactionalSqlDao.execute(true, entitySqlDaoWrapperFactory -> entitySqlDaoWrapperFactory.become(SubscriptionEventSqlDao.class).getEventsVersionByAccountRecordId(context));
+    }
+
     public Map<UUID, List<DefaultSubscriptionBase>> getSubscriptionsFromAccountId(@Nullable final LocalDate cutoffDt, final InternalTenantContext context) {
         final List<DefaultSubscriptionBase> allSubscriptions = transactionalSqlDao.execute(true, entitySqlDaoWrapperFactory -> {
             final SubscriptionSqlDao subscriptionSqlDao = entitySqlDaoWrapperFactory.become(SubscriptionSqlDao.class);
@@ -840,6 +866,14 @@ public class DefaultSubscriptionDao extends EntityDaoBase<SubscriptionBundleMode
                                                                    @Nullable final Collection<SubscriptionBaseEvent> dryRunEvents,
                                                                    final SubscriptionCatalog catalog,
                                                                    final InternalTenantContext context) throws CatalogApiException {
+        return addAddOnCancellations(rebuildBundleSubscriptions(input, eventsForSubscription, dryRunEvents, catalog, context), catalog, context);
+    }
+
+    private List<DefaultSubscriptionBase> rebuildBundleSubscriptions(final List<DefaultSubscriptionBase> input,
+                                                                     @Nullable final MultiValueMap<UUID, SubscriptionBaseEvent> eventsForSubscription,
+                                                                     @Nullable final Collection<SubscriptionBaseEvent> dryRunEvents,
+                                                                     final SubscriptionCatalog catalog,
+                                                                     final InternalTenantContext context) throws CatalogApiException {
         if (input == null || input.isEmpty()) {
             return Collections.emptyList();
         }
@@ -847,8 +881,6 @@ public class DefaultSubscriptionDao extends EntityDaoBase<SubscriptionBundleMode
         // Make sure BasePlan -- if exists-- is first
         Collections.sort(input, DefaultSubscriptionInternalApi.SUBSCRIPTIONS_COMPARATOR);
 
-        final Collection<ApiEventChange> baseChangeEvents = new LinkedList<ApiEventChange>();
-        ApiEventCancel baseCancellationEvent = null;
         final List<DefaultSubscriptionBase> result = new ArrayList<DefaultSubscriptionBase>(input.size());
         for (final DefaultSubscriptionBase cur : input) {
             final List<SubscriptionBaseEvent> events = eventsForSubscription != null ?
@@ -856,7 +888,28 @@ public class DefaultSubscriptionDao extends EntityDaoBase<SubscriptionBundleMode
                                                        getEventsForSubscription(cur.getId(), cur.getIncludeDeletedEvents(), context);
             mergeDryRunEvents(cur.getId(), events, dryRunEvents);
 
-            DefaultSubscriptionBase reloaded = createSubscriptionForInternalUse(cur, events, catalog, context);
+            result.add(createSubscriptionForInternalUse(cur, events, catalog, context));
+        }
+
+        return result;
+    }
+
+    // The ADD_ON cancellations depend on the current date (see getCurrentPlan and getFutureEndDate), so this step is
+    // never cached: the input is expected to be sorted with the BasePlan -- if exists -- first
+    private List<DefaultSubscriptionBase> addAddOnCancellations(final List<DefaultSubscriptionBase> input,
+                                                                final SubscriptionCatalog catalog,
+                                                                final InternalTenantContext context) throws CatalogApiException {
+        if (input.isEmpty()) {
+            return input;
+        }
+
+        final Collection<ApiEventChange> baseChangeEvents = new LinkedList<ApiEventChange>();
+        ApiEventCancel baseCancellationEvent = null;
+        final List<DefaultSubscriptionBase> result = new ArrayList<DefaultSubscriptionBase>(input.size());
+        for (final DefaultSubscriptionBase cur : input) {
+            final List<SubscriptionBaseEvent> events = cur.getEvents() != null ? cur.getEvents() : Collections.emptyList();
+
+            DefaultSubscriptionBase reloaded = cur;
 
             switch (cur.getCategory()) {
                 case BASE:
@@ -906,9 +959,11 @@ public class DefaultSubscriptionDao extends EntityDaoBase<SubscriptionBundleMode
                                                                                                   // on disk until the base plan cancellation becomes effective
                                                                                                   .setFromDisk(false));
 
-                        events.add(addOnCancelEvent);
+                        // The events of the input are left untouched (they may be cached)
+                        final List<SubscriptionBaseEvent> eventsWithAddOnCancellation = new ArrayList<SubscriptionBaseEvent>(events);
+                        eventsWithAddOnCancellation.add(addOnCancelEvent);
                         // Finally reload subscription with full set of events
-                        reloaded = createSubscriptionForInternalUse(cur, events, catalog, context);
+                        reloaded = createSubscriptionForInternalUse(cur, eventsWithAddOnCancellation, catalog, context);
                     }
                     break;
                 default:
@@ -1110,7 +1165,7 @@ public class DefaultSubscriptionDao extends EntityDaoBase<SubscriptionBundleMode
                                                                                 context.getAccountRecordId(),
                                                                                 context.getTenantRecordId());
 
-                eventBus.postFromTransaction(busEvent, entitySqlDaoWrapperFactory.getHandle().getConnection());
+                eventBus.postFromTransaction(busEvent, entitySqlDaoWrapperFactory);
             }
         } catch (final EventBusException e) {
             log.warn("Failed to post effective event for subscriptionId='{}'", subscription.getId(), e);
@@ -1120,7 +1175,7 @@ public class DefaultSubscriptionDao extends EntityDaoBase<SubscriptionBundleMode
     private void notifyBusOfRequestedChange(final EntitySqlDaoWrapperFactory entitySqlDaoWrapperFactory, final DefaultSubscriptionBase subscription,
                                             final SubscriptionBaseEvent nextEvent, final SubscriptionBaseTransitionType transitionType, final int seqId, final InternalCallContext context) {
         try {
-            eventBus.postFromTransaction(new DefaultRequestedSubscriptionEvent(subscription, nextEvent, transitionType, seqId, context.getAccountRecordId(), context.getTenantRecordId(), context.getUserToken()), entitySqlDaoWrapperFactory.getHandle().getConnection());
+            eventBus.postFromTransaction(new DefaultRequestedSubscriptionEvent(subscription, nextEvent, transitionType, seqId, context.getAccountRecordId(), context.getTenantRecordId(), context.getUserToken()), entitySqlDaoWrapperFactory);
         } catch (final EventBusException e) {
             log.warn("Failed to post requested change event for subscriptionId='{}'", subscription.getId(), e);
         }
@@ -33,6 +33,7 @@ import org.killbill.commons.jdbi.template.KillBillSqlDaoStringTemplate;
 import org.skife.jdbi.v2.sqlobject.Bind;
 import org.skife.jdbi.v2.sqlobject.SqlQuery;
 import org.skife.jdbi.v2.sqlobject.SqlUpdate;
+import org.skife.jdbi.v2.sqlobject.customizers.Mapper;
 
 @KillBillSqlDaoStringTemplate
 public interface SubscriptionEventSqlDao extends EntitySqlDao<SubscriptionEventModelDao, SubscriptionBaseEvent> {
@@ -46,6 +47,10 @@ public interface SubscriptionEventSqlDao extends EntitySqlDao<SubscriptionEventM
     public SortedSet<SubscriptionEventModelDao> getActiveByAccountRecordId(@Bind("cutoffDt") Date cutoffDt,
                                                                            @SmartBindBean final InternalTenantContext context);
 
+    @SqlQuery
+    @Mapper(SubscriptionEventsVersionMapper.class)
+    public SubscriptionEventsVersion getEventsVersionByAccountRecordId(@SmartBindBean final InternalTenantContext context);
+
     @SqlQuery
     public SortedSet<SubscriptionEventModelDao> getFutureActiveEventForSubscription(@Bind("subscriptionId") String subscriptionId,
                                                                                     @Bind("now") Date now,
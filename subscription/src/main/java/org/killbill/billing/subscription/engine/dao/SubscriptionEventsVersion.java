@@ -0,0 +1,78 @@
+/*
+ * Copyright 2020-2026 Equinix, Inc
+ * Copyright 2014-2026 The Billing Project, LLC
+ *
+ * The Billing Project licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.killbill.billing.subscription.engine.dao;
+
+import java.util.Objects;
+
+/**
+ * Version of the subscription events of an account.
+ * <p>
+ * Events are only ever inserted or unactivated: any write changes the max record id or the set of active events.
+ */
+public class SubscriptionEventsVersion {
+
+    private final long maxRecordId;
+    private final long nbActiveEvents;
+    private final long activeRecordIdSum;
+
+    public SubscriptionEventsVersion(final long maxRecordId, final long nbActiveEvents, final long activeRecordIdSum) {
+        this.maxRecordId = maxRecordId;
+        this.nbActiveEvents = nbActiveEvents;
+        this.activeRecordIdSum = activeRecordIdSum;
+    }
+
+    public long getMaxRecordId() {
+        return maxRecordId;
+    }
+
+    public long getNbActiveEvents() {
+        return nbActiveEvents;
+    }
+
+    public long getActiveRecordIdSum() {
+        return activeRecordIdSum;
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        final SubscriptionEventsVersion that = (SubscriptionEventsVersion) o;
+        return maxRecordId == that.maxRecordId &&
+               nbActiveEvents == that.nbActiveEvents &&
+               activeRecordIdSum == that.activeRecordIdSum;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(maxRecordId, nbActiveEvents, activeRecordIdSum);
+    }
+
+    @Override
+    public String toString() {
+        return "SubscriptionEventsVersion{" +
+               "maxRecordId=" + maxRecordId +
+               ", nbActiveEvents=" + nbActiveEvents +
+               ", activeRecordIdSum=" + activeRecordIdSum +
+               '}';
+    }
+}
@@ -0,0 +1,189 @@
+/*
+ * Copyright 2020-2026 Equinix, Inc
+ * Copyright 2014-2026 The Billing Project, LLC
+ *
+ * The Billing Project licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.killbill.billing.subscription.engine.dao;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Objects;
+import java.util.UUID;
+
+import jakarta.inject.Inject;
+
+import org.joda.time.LocalDate;
+import org.killbill.billing.catalog.api.VersionedCatalog;
+import org.killbill.billing.subscription.api.user.DefaultSubscriptionBase;
+import org.killbill.billing.util.config.definition.SubscriptionConfig;
+import org.killbill.clock.Clock;
+
+/**
+ * In-memory cache of the subscriptions of an account, as rebuilt from their events.
+ * <p>
+ * Only the per-subscription rebuild is cached: the ADD_ON cancellations implied by the base subscription depend on
+ * the current date, and are computed by the caller on each read.
+ * <p>
+ * Entries are keyed by account and cutoff date, and only valid for the version of the subscription events they were
+ * built from (see SubscriptionEventsVersion) and for the same catalog: a write from any node changes the version,
+ * so there is no explicit invalidation. Fields of the subscriptions table which aren't derived from the events (e.g.
+ * chargedThroughDate) are always taken from the shells passed by the caller. Entries are evicted in LRU order once
+ * the configured number of accounts is reached.
+ */
+public class SubscriptionStateCache {
+
+    private final int maxSize;
+    private final Clock clock;
+    private final Map<CacheKey, CacheEntry> cache;
+
+    @Inject
+    public SubscriptionStateCache(final SubscriptionConfig subscriptionConfig, final Clock clock) {
+        this.maxSize = subscriptionConfig.getSubscriptionStateCacheMaxAccounts();
+        this.clock = clock;
+        this.cache = new LinkedHashMap<CacheKey, CacheEntry>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(final Entry<CacheKey, CacheEntry> eldest) {
+                return size() > SubscriptionStateCache.this.maxSize;
+            }
+        };
+    }
+
+    public boolean isEnabled() {
+        return maxSize > 0;
+    }
+
+    /**
+     * @param shells subscriptions per bundle, as read from the subscriptions table (no transition)
+     * @return the rebuilt subscriptions per bundle, or null if there is no valid entry for these shells
+     */
+    public Map<UUID, List<DefaultSubscriptionBase>> get(final Long accountRecordId,
+                                                        final LocalDate cutoffDt,
+                                                        final SubscriptionEventsVersion version,
+                                                        final VersionedCatalog catalog,
+                                                        final Map<UUID, List<DefaultSubscriptionBase>> shells) {
+        final CacheEntry entry;
+        synchronized (cache) {
+            entry = cache.get(new CacheKey(accountRecordId, cutoffDt));
+        }
+        if (entry == null || !entry.version.equals(version) || entry.catalog != catalog || entry.subscriptions.size() != shells.size()) {
+            return null;
+        }
+
+        final Map<UUID, List<DefaultSubscriptionBase>> result = new HashMap<UUID, List<DefaultSubscriptionBase>>();
+        for (final Entry<UUID, List<DefaultSubscriptionBase>> bundleShells : shells.entrySet()) {
+            final List<DefaultSubscriptionBase> rebuiltSubscriptions = entry.subscriptions.get(bundleShells.getKey());
+            if (rebuiltSubscriptions == null || rebuiltSubscriptions.size() != bundleShells.getValue().size()) {
+                return null;
+            }
+
+            final Map<UUID, DefaultSubscriptionBase> shellsById = new HashMap<UUID, DefaultSubscriptionBase>();
+            for (final DefaultSubscriptionBase shell : bundleShells.getValue()) {
+                shellsById.put(shell.getId(), shell);
+            }
+
+            final List<DefaultSubscriptionBase> subscriptions = new ArrayList<DefaultSubscriptionBase>(rebuiltSubscriptions.size());
+            for (final DefaultSubscriptionBase rebuiltSubscription : rebuiltSubscriptions) {
+                final DefaultSubscriptionBase shell = shellsById.get(rebuiltSubscription.getId());
+                // The bundle external key is part of the transitions
+                if (shell == null || !Objects.equals(shell.getBundleExternalKey(), rebuiltSubscription.getBundleExternalKey())) {
+                    return null;
+                }
+                subscriptions.add(new DefaultSubscriptionBase(shell, rebuiltSubscription, clock));
+            }
+            result.put(bundleShells.getKey(), subscriptions);
+        }
+        return result;
+    }
+
+    public void put(final Long accountRecordId,
+                    final LocalDate cutoffDt,
+                    final SubscriptionEventsVersion version,
+                    final VersionedCatalog catalog,
+                    final Map<UUID, List<DefaultSubscriptionBase>> subscriptions) {
+        // Keep our own copies, as the caller owns the objects it was given
+        final Map<UUID, List<DefaultSubscriptionBase>> rebuiltSubscriptions = new HashMap<UUID, List<DefaultSubscriptionBase>>();
+        for (final Entry<UUID, List<DefaultSubscriptionBase>> bundleSubscriptions : subscriptions.entrySet()) {
+            final List<DefaultSubscriptionBase> copies = new ArrayList<DefaultSubscriptionBase>(bundleSubscriptions.getValue().size());
+            for (final DefaultSubscriptionBase subscription : bundleSubscriptions.getValue()) {
+                copies.add(new DefaultSubscriptionBase(subscription, subscription, clock));
+            }
+            rebuiltSubscriptions.put(bundleSubscriptions.getKey(), copies);
+        }
+
+        synchronized (cache) {
+            cache.put(new CacheKey(accountRecordId, cutoffDt), new CacheEntry(version, catalog, rebuiltSubscriptions));
+        }
+    }
+
+    public void clear() {
+        synchronized (cache) {
+            cache.clear();
+        }
+    }
+
+    int size() {
+        synchronized (cache) {
+            return cache.size();
+        }
+    }
+
+    private static final class CacheKey {
+
+        private final Long accountRecordId;
+        private final LocalDate cutoffDt;
+
+        private CacheKey(final Long accountRecordId, final LocalDate cutoffDt) {
+            this.accountRecordId = accountRecordId;
+            this.cutoffDt = cutoffDt;
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            final CacheKey cacheKey = (CacheKey) o;
+            return Objects.equals(accountRecordId, cacheKey.accountRecordId) &&
+                   Objects.equals(cutoffDt, cacheKey.cutoffDt);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(accountRecordId, cutoffDt);
+        }
+    }
+
+    private static final class CacheEntry {
+
+        private final SubscriptionEventsVersion version;
+        private final VersionedCatalog catalog;
+        private final Map<UUID, List<DefaultSubscriptionBase>> subscriptions;
+
+        private CacheEntry(final SubscriptionEventsVersion version,
+                           final VersionedCatalog catalog,
+                           final Map<UUID, List<DefaultSubscriptionBase>> subscriptions) {
+            this.version = version;
+            this.catalog = catalog;
+            this.subscriptions = subscriptions;
+        }
+    }
+}
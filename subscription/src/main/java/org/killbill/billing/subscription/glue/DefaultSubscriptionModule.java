@@ -37,6 +37,7 @@ import org.killbill.billing.subscription.engine.addon.AddonUtils;
 import org.killbill.billing.subscription.engine.core.DefaultSubscriptionBaseService;
 import org.killbill.billing.subscription.engine.dao.DefaultSubscriptionDao;
 import org.killbill.billing.subscription.engine.dao.SubscriptionDao;
+import org.killbill.billing.subscription.engine.dao.SubscriptionStateCache;
 import org.killbill.billing.util.config.definition.SubscriptionConfig;
 import org.killbill.billing.util.glue.KillBillModule;
 import org.skife.config.AugmentedConfigurationObjectFactory;
@@ -69,6 +70,7 @@ public class DefaultSubscriptionModule extends KillBillModule implements Subscri
         bind(DefaultSubscriptionBaseService.class).asEagerSingleton();
         bind(PlanAligner.class).asEagerSingleton();
         bind(AddonUtils.class).asEagerSingleton();
+        bind(SubscriptionStateCache.class).asEagerSingleton();
         installSubscriptionService();
         installSubscriptionTimelineApi();
         installSubscriptionInternalApi();
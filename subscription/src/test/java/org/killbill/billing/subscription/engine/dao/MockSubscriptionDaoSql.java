@@ -41,11 +41,13 @@ public class MockSubscriptionDaoSql extends DefaultSubscriptionDao {
                                   final Clock clock, final AddonUtils addonUtils,
                                   final NotificationQueueService notificationQueueService, final BusOptimizer eventBus,
                                   final CacheControllerDispatcher cacheControllerDispatcher, final NonEntityDao nonEntityDao,
-                                  final AuditDao auditDao, final InternalCallContextFactory internalCallContextFactory) {
+                                  final AuditDao auditDao, final SubscriptionStateCache subscriptionStateCache,
+                                  final InternalCallContextFactory internalCallContextFactory) {
         super(dbi, roDbi,
               clock, addonUtils,
               notificationQueueService, eventBus,
               cacheControllerDispatcher, nonEntityDao,
-              auditDao, internalCallContextFactory);
+              auditDao, subscriptionStateCache,
+              internalCallContextFactory);
     }
 }
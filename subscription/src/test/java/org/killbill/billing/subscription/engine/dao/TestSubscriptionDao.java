@@ -377,6 +377,7 @@ public class TestSubscriptionDao extends SubscriptionTestSuiteWithEmbeddedDB {
                                                                            controlCacheDispatcher,
                                                                            nonEntityDao,
                                                                            auditDao,
+                                                                           new SubscriptionStateCache(config, clock),
                                                                            internalCallContextFactory);
         Mockito.verify(dbiSpy, Mockito.times(0)).open();
         Mockito.verify(roDbiSpy, Mockito.times(0)).open();
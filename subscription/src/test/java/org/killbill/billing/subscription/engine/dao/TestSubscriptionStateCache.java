@@ -0,0 +1,139 @@
+/*
+ * Copyright 2020-2026 Equinix, Inc
+ * Copyright 2014-2026 The Billing Project, LLC
+ *
+ * The Billing Project licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.killbill.billing.subscription.engine.dao;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import jakarta.inject.Inject;
+
+import org.joda.time.DateTime;
+import org.killbill.billing.api.TestApiListener.NextEvent;
+import org.killbill.billing.catalog.api.BillingPeriod;
+import org.killbill.billing.catalog.api.PhaseType;
+import org.killbill.billing.catalog.api.PriceListSet;
+import org.killbill.billing.platform.api.KillbillConfigSource;
+import org.killbill.billing.subscription.SubscriptionTestSuiteWithEmbeddedDB;
+import org.killbill.billing.subscription.api.SubscriptionBase;
+import org.killbill.billing.subscription.api.user.DefaultSubscriptionBase;
+import org.testng.Assert;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+public class TestSubscriptionStateCache extends SubscriptionTestSuiteWithEmbeddedDB {
+
+    @Inject
+    private SubscriptionStateCache subscriptionStateCache;
+
+    @Override
+    protected KillbillConfigSource getConfigSource(final Map<String, String> extraProperties) {
+        final Map<String, String> allExtraProperties = new HashMap<String, String>(extraProperties);
+        allExtraProperties.put("org.killbill.subscription.stateCache.maxAccounts", "10");
+        return super.getConfigSource(allExtraProperties);
+    }
+
+    @Override
+    @BeforeMethod(groups = "slow")
+    public void beforeMethod() throws Exception {
+        if (hasFailed()) {
+            return;
+        }
+        super.beforeMethod();
+        subscriptionStateCache.clear();
+    }
+
+    @Test(groups = "slow")
+    public void testSubscriptionStateCache() throws Exception {
+        final DefaultSubscriptionDao subscriptionDao = (DefaultSubscriptionDao) dao;
+        // Skip the trial, which is cancelled immediately
+        final DefaultSubscriptionBase subscription = testUtil.createSubscription(bundle, "Shotgun", BillingPeriod.MONTHLY, PriceListSet.DEFAULT_PRICELIST_NAME, PhaseType.EVERGREEN, null);
+
+        final DefaultSubscriptionBase rebuiltSubscription = getSubscription(subscription.getId());
+        Assert.assertNull(rebuiltSubscription.getFutureEndDate());
+        final SubscriptionEventsVersion version = subscriptionDao.getEventsVersionForAccount(internalCallContext);
+        Assert.assertNotNull(subscriptionStateCache.get(internalCallContext.getAccountRecordId(),
+                                                        null,
+                                                        version,
+                                                        catalog.getCatalog(),
+                                                        subscriptionDao.getSubscriptionsFromAccountId(null, internalCallContext)));
+
+        // Not an event: the cached transitions are used, with the new CTD
+        final DateTime chargedThroughDate = clock.getUTCNow().plusDays(10);
+        setChargedThroughDate(subscription.getId(), chargedThroughDate, internalCallContext);
+        Assert.assertEquals(subscriptionDao.getEventsVersionForAccount(internalCallContext), version);
+        final DefaultSubscriptionBase subscriptionWithCTD = getSubscription(subscription.getId());
+        Assert.assertEquals(subscriptionWithCTD.getChargedThroughDate().compareTo(chargedThroughDate), 0);
+        Assert.assertEquals(subscriptionWithCTD.getAllTransitions(false), rebuiltSubscription.getAllTransitions(false));
+
+        // New event
+        subscriptionWithCTD.cancel(callContext);
+        assertListenerStatus();
+        Assert.assertNotEquals(subscriptionDao.getEventsVersionForAccount(internalCallContext), version);
+        final DefaultSubscriptionBase cancelledSubscription = getSubscription(subscription.getId());
+        Assert.assertEquals(cancelledSubscription.getFutureEndDate().compareTo(chargedThroughDate), 0);
+
+        // Unactivated event
+        testListener.pushExpectedEvent(NextEvent.UNCANCEL);
+        cancelledSubscription.uncancel(callContext);
+        assertListenerStatus();
+        Assert.assertNull(getSubscription(subscription.getId()).getFutureEndDate());
+
+        Assert.assertEquals(subscriptionStateCache.size(), 1);
+    }
+
+    @Test(groups = "slow")
+    public void testAddOnCancellationIsNotCached() throws Exception {
+        final DefaultSubscriptionDao subscriptionDao = (DefaultSubscriptionDao) dao;
+        // Skip the trial, which is cancelled immediately
+        final DefaultSubscriptionBase baseSubscription = testUtil.createSubscription(bundle, "Shotgun", BillingPeriod.MONTHLY, PriceListSet.DEFAULT_PRICELIST_NAME, PhaseType.EVERGREEN, null);
+        final DefaultSubscriptionBase aoSubscription = testUtil.createSubscription(bundle, "Telescopic-Scope", BillingPeriod.MONTHLY, PriceListSet.DEFAULT_PRICELIST_NAME, clock.getUTCToday().plusDays(3));
+
+        // Future base cancellation, after the start of the ADD_ON
+        final DateTime chargedThroughDate = clock.getUTCNow().plusMonths(1);
+        setChargedThroughDate(baseSubscription.getId(), chargedThroughDate, internalCallContext);
+        getSubscription(baseSubscription.getId()).cancel(callContext);
+        assertListenerStatus();
+
+        // The ADD_ON hasn't started yet: it isn't cancelled with the base
+        Assert.assertNull(getSubscription(aoSubscription.getId()).getFutureEndDate());
+        final SubscriptionEventsVersion version = subscriptionDao.getEventsVersionForAccount(internalCallContext);
+
+        // Move past the start of the ADD_ON: no event is written, so the cached entry is still valid
+        testListener.pushExpectedEvent(NextEvent.CREATE);
+        clock.addDays(5);
+        assertListenerStatus();
+        Assert.assertEquals(subscriptionDao.getEventsVersionForAccount(internalCallContext), version);
+
+        final DefaultSubscriptionBase startedAoSubscription = getSubscription(aoSubscription.getId());
+        Assert.assertNotNull(startedAoSubscription.getCurrentPlan());
+        Assert.assertEquals(startedAoSubscription.getFutureEndDate().compareTo(chargedThroughDate), 0);
+    }
+
+    private DefaultSubscriptionBase getSubscription(final UUID subscriptionId) throws Exception {
+        final Map<UUID, List<SubscriptionBase>> subscriptions = subscriptionInternalApi.getSubscriptionsForAccount(catalog.getCatalog(), null, internalCallContext);
+        for (final SubscriptionBase subscription : subscriptions.get(bundle.getId())) {
+            if (subscription.getId().equals(subscriptionId)) {
+                return (DefaultSubscriptionBase) subscription;
+            }
+        }
+        Assert.fail("Unable to find subscription " + subscriptionId);
+        return null;
+    }
+}
@@ -41,7 +41,7 @@ import org.killbill.billing.tenant.glue.DefaultTenantModule;
 import org.killbill.commons.utils.collect.MultiValueHashMap;
 import org.killbill.commons.utils.collect.MultiValueMap;
 import org.killbill.billing.util.config.definition.TenantConfig;
-import org.killbill.bus.api.PersistentBus;
+import org.killbill.billing.util.optimizer.BusOptimizer;
 import org.killbill.bus.api.PersistentBus.EventBusException;
 import org.killbill.commons.concurrent.Executors;
 import org.slf4j.Logger;
@@ -66,7 +66,7 @@ public class TenantCacheInvalidation {
     private final MultiValueMap<TenantKey, CacheInvalidationCallback> cache;
     private final TenantBroadcastDao broadcastDao;
     private final TenantConfig tenantConfig;
-    private final PersistentBus eventBus;
+    private final BusOptimizer eventBus;
     private final TenantDao tenantDao;
     private AtomicLong latestRecordIdProcessed;
     private volatile boolean isStopped;
@@ -76,7 +76,7 @@ public class TenantCacheInvalidation {
     @Inject
     public TenantCacheInvalidation(@Named(DefaultTenantModule.NO_CACHING_TENANT) final TenantBroadcastDao broadcastDao,
                                    @Named(DefaultTenantModule.NO_CACHING_TENANT) final TenantDao tenantDao,
-                                   final PersistentBus eventBus,
+                                   final BusOptimizer eventBus,
                                    final TenantConfig tenantConfig) {
         this.cache = new MultiValueHashMap<>();
         this.broadcastDao = broadcastDao;
@@ -139,7 +139,7 @@ public class TenantCacheInvalidation {
         this.latestRecordIdProcessed.set(newProcessedRecordId);
     }
 
-    public PersistentBus getEventBus() {
+    public BusOptimizer getEventBus() {
         return eventBus;
     }
 
@@ -102,7 +102,7 @@ public class DefaultUsageUserApi extends BaseUserApi implements UsageUserApi {
             return new DefaultRolledUpUsage(subscriptionId, startDate, endDate, rolledUpAmount);
         }
 
-        final List<RolledUpUsageModelDao> usageForSubscription = rolledUpUsageDao.getUsageForSubscription(subscriptionId, startDate, endDate, unitType, internalCallContextFactory.createInternalTenantContext(subscriptionId, ObjectType.SUBSCRIPTION, tenantContext));
+        final List<RolledUpUsageModelDao> usageForSubscription = rolledUpUsageDao.getAggregatedUsageForSubscription(subscriptionId, startDate, endDate, unitType, internalCallContextFactory.createInternalTenantContext(subscriptionId, ObjectType.SUBSCRIPTION, tenantContext));
         final List<RolledUpUnit> rolledUpAmount = getRolledUpUnits(usageForSubscription);
         return new DefaultRolledUpUsage(subscriptionId, startDate, endDate, rolledUpAmount);
     }
@@ -123,7 +123,7 @@ public class DefaultUsageUserApi extends BaseUserApi implements UsageUserApi {
                     final List<RolledUpUnit> rolledUpAmount = getRolledUpUnitsForRawPluginUsage(subscriptionId, null, rawUsage);
                     result.add(new DefaultRolledUpUsage(subscriptionId, prevDate, curDate, rolledUpAmount));
                 } else {
-                    final List<RolledUpUsageModelDao> usageForSubscription = rolledUpUsageDao.getAllUsageForSubscription(subscriptionId, prevDate, curDate, internalCallContext);
+                    final List<RolledUpUsageModelDao> usageForSubscription = rolledUpUsageDao.getAggregatedUsageForSubscription(subscriptionId, prevDate, curDate, null, internalCallContext);
                     final List<RolledUpUnit> rolledUpAmount = getRolledUpUnits(usageForSubscription);
                     result.add(new DefaultRolledUpUsage(subscriptionId, prevDate, curDate, rolledUpAmount));
                 }
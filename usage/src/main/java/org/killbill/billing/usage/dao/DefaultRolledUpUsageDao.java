@@ -18,18 +18,28 @@
 
 package org.killbill.billing.usage.dao;
 
+import java.math.BigDecimal;
+import java.sql.SQLException;
+import java.sql.SQLIntegrityConstraintViolationException;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.TreeMap;
 import java.util.UUID;
 
+import javax.annotation.Nullable;
+
 import jakarta.inject.Inject;
 import jakarta.inject.Named;
 
 import org.joda.time.DateTime;
-import org.joda.time.LocalDate;
+import org.joda.time.DateTimeZone;
 import org.killbill.billing.callcontext.InternalCallContext;
 import org.killbill.billing.callcontext.InternalTenantContext;
 import org.killbill.billing.util.entity.dao.DBRouter;
 import org.skife.jdbi.v2.IDBI;
+import org.skife.jdbi.v2.exceptions.CallbackFailedException;
 
 import static org.killbill.billing.util.glue.IDBISetup.MAIN_RO_IDBI_NAMED;
 
@@ -44,7 +54,67 @@ public class DefaultRolledUpUsageDao implements RolledUpUsageDao {
 
     @Override
     public void record(final Iterable<RolledUpUsageModelDao> usages, final InternalCallContext context) {
-        dbRouter.onDemand(false).create(usages, context);
+        final Map<DailyUsageKey, BigDecimal> dailyAmounts = aggregateByDay(usages);
+        try {
+            recordInTransaction(usages, dailyAmounts, context);
+        } catch (final RuntimeException e) {
+            if (!isUniqueConstraintViolation(e)) {
+                throw unwrap(e);
+            }
+            // Another transaction created one of the daily rows first: the update path will find it this time
+            try {
+                recordInTransaction(usages, dailyAmounts, context);
+            } catch (final RuntimeException retryException) {
+                throw unwrap(retryException);
+            }
+        }
+    }
+
+    private void recordInTransaction(final Iterable<RolledUpUsageModelDao> usages, final Map<DailyUsageKey, BigDecimal> dailyAmounts, final InternalCallContext context) {
+        dbRouter.inTransaction(false, (handle, status) -> {
+            final RolledUpUsageSqlDao sqlDao = handle.attach(RolledUpUsageSqlDao.class);
+            sqlDao.create(usages, context);
+
+            // Keys are sorted, so that concurrent transactions lock the daily rows in the same order
+            for (final Entry<DailyUsageKey, BigDecimal> entry : dailyAmounts.entrySet()) {
+                final DailyUsageKey key = entry.getKey();
+                if (sqlDao.updateDailyUsage(key.subscriptionId, key.unitType, key.day.toDate(), entry.getValue(), context) == 0) {
+                    sqlDao.createDailyUsage(key.subscriptionId, key.unitType, key.day.toDate(), entry.getValue(), context);
+                }
+            }
+            return null;
+        });
+    }
+
+    // Integrity constraint violation (SQLState class 23), i.e. the daily row was inserted concurrently
+    private static boolean isUniqueConstraintViolation(final Throwable throwable) {
+        Throwable cur = throwable;
+        while (cur != null) {
+            if (cur instanceof SQLIntegrityConstraintViolationException) {
+                return true;
+            }
+            if (cur instanceof SQLException && ((SQLException) cur).getSQLState() != null && ((SQLException) cur).getSQLState().startsWith("23")) {
+                return true;
+            }
+            cur = cur.getCause() == cur ? null : cur.getCause();
+        }
+        return false;
+    }
+
+    // IDBI#inTransaction wraps the exceptions thrown by the callback
+    private static RuntimeException unwrap(final RuntimeException e) {
+        if (e instanceof CallbackFailedException && e.getCause() instanceof RuntimeException) {
+            return (RuntimeException) e.getCause();
+        }
+        return e;
+    }
+
+    private static Map<DailyUsageKey, BigDecimal> aggregateByDay(final Iterable<RolledUpUsageModelDao> usages) {
+        final Map<DailyUsageKey, BigDecimal> result = new TreeMap<>();
+        for (final RolledUpUsageModelDao usage : usages) {
+            result.merge(new DailyUsageKey(usage.getSubscriptionId(), usage.getUnitType(), startOfUtcDay(usage.getRecordDate())), usage.getAmount(), BigDecimal::add);
+        }
+        return result;
     }
 
     @Override
@@ -62,9 +132,87 @@ public class DefaultRolledUpUsageDao implements RolledUpUsageDao {
         return dbRouter.onDemand(true).getAllUsageForSubscription(subscriptionId, startDate.toDate(), endDate.toDate(), context);
     }
 
+    @Override
+    public List<RolledUpUsageModelDao> getAggregatedUsageForSubscription(final UUID subscriptionId, final DateTime startDate, final DateTime endDate, @Nullable final String unitType, final InternalTenantContext context) {
+        final DateTime startOfStartDay = startOfUtcDay(startDate);
+        final DateTime firstFullDay = startOfStartDay.isBefore(startDate) ? startOfStartDay.plusDays(1) : startOfStartDay;
+        final DateTime endOfLastFullDay = startOfUtcDay(endDate);
+        if (!firstFullDay.isBefore(endOfLastFullDay)) {
+            return getRawUsageForSubscription(subscriptionId, startDate, endDate, unitType, context);
+        }
+
+        final RolledUpUsageSqlDao sqlDao = dbRouter.onDemand(true);
+        final List<RolledUpUsageModelDao> result = new ArrayList<>();
+        if (startDate.isBefore(firstFullDay)) {
+            result.addAll(getRawUsageForSubscription(subscriptionId, startDate, firstFullDay, unitType, context));
+        }
+        if (unitType != null) {
+            result.addAll(sqlDao.getDailyUsageForSubscription(subscriptionId, firstFullDay.toDate(), endOfLastFullDay.toDate(), unitType, context));
+        } else {
+            result.addAll(sqlDao.getAllDailyUsageForSubscription(subscriptionId, firstFullDay.toDate(), endOfLastFullDay.toDate(), context));
+        }
+        if (endOfLastFullDay.isBefore(endDate)) {
+            result.addAll(getRawUsageForSubscription(subscriptionId, endOfLastFullDay, endDate, unitType, context));
+        }
+        return result;
+    }
+
+    private List<RolledUpUsageModelDao> getRawUsageForSubscription(final UUID subscriptionId, final DateTime startDate, final DateTime endDate, @Nullable final String unitType, final InternalTenantContext context) {
+        return unitType != null ?
+               getUsageForSubscription(subscriptionId, startDate, endDate, unitType, context) :
+               getAllUsageForSubscription(subscriptionId, startDate, endDate, context);
+    }
 
     @Override
     public List<RolledUpUsageModelDao> getRawUsageForAccount(final DateTime startDate, final DateTime endDate, final InternalTenantContext context) {
         return dbRouter.onDemand(true).getRawUsageForAccount(startDate.toDate(), endDate.toDate(), context);
     }
+
+    private static DateTime startOfUtcDay(final DateTime dateTime) {
+        return dateTime.toDateTime(DateTimeZone.UTC).withTimeAtStartOfDay();
+    }
+
+    private static final class DailyUsageKey implements Comparable<DailyUsageKey> {
+
+        private final UUID subscriptionId;
+        private final String unitType;
+        private final DateTime day;
+
+        private DailyUsageKey(final UUID subscriptionId, final String unitType, final DateTime day) {
+            this.subscriptionId = subscriptionId;
+            this.unitType = unitType;
+            this.day = day;
+        }
+
+        @Override
+        public int compareTo(final DailyUsageKey o) {
+            int result = subscriptionId.compareTo(o.subscriptionId);
+            if (result == 0) {
+                result = unitType.compareTo(o.unitType);
+            }
+            if (result == 0) {
+                result = day.compareTo(o.day);
+            }
+            return result;
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            return compareTo((DailyUsageKey) o) == 0;
+        }
+
+        @Override
+        public int hashCode() {
+            int result = subscriptionId.hashCode();
+            result = 31 * result + unitType.hashCode();
+            result = 31 * result + day.hashCode();
+            return result;
+        }
+    }
 }
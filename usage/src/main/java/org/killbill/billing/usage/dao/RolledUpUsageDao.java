@@ -19,6 +19,8 @@ package org.killbill.billing.usage.dao;
 import java.util.List;
 import java.util.UUID;
 
+import javax.annotation.Nullable;
+
 import org.joda.time.DateTime;
 import org.killbill.billing.callcontext.InternalCallContext;
 import org.killbill.billing.callcontext.InternalTenantContext;
@@ -33,5 +35,13 @@ public interface RolledUpUsageDao {
 
     List<RolledUpUsageModelDao> getAllUsageForSubscription(UUID subscriptionId, DateTime startDate, DateTime endDate, InternalTenantContext context);
 
+    /**
+     * Usage for the subscription in [startDate, endDate), suitable for summing per unit type only: full UTC days are read
+     * from the daily aggregate (one row per day and unit type, without tracking id), partial days from the raw points.
+     *
+     * @param unitType unit type to filter on, or null for all unit types
+     */
+    List<RolledUpUsageModelDao> getAggregatedUsageForSubscription(UUID subscriptionId, DateTime startDate, DateTime endDate, @Nullable String unitType, InternalTenantContext context);
+
     List<RolledUpUsageModelDao> getRawUsageForAccount(DateTime startDate, DateTime endDate, InternalTenantContext context);
 }
@@ -18,10 +18,12 @@
 
 package org.killbill.billing.usage.dao;
 
+import java.math.BigDecimal;
 import java.util.Date;
 import java.util.List;
 import java.util.UUID;
 
+import org.killbill.billing.callcontext.InternalCallContext;
 import org.killbill.billing.callcontext.InternalTenantContext;
 import org.killbill.billing.util.entity.Entity;
 import org.killbill.billing.util.entity.dao.EntitySqlDao;
@@ -29,6 +31,7 @@ import org.killbill.commons.jdbi.binder.SmartBindBean;
 import org.killbill.commons.jdbi.template.KillBillSqlDaoStringTemplate;
 import org.skife.jdbi.v2.sqlobject.Bind;
 import org.skife.jdbi.v2.sqlobject.SqlQuery;
+import org.skife.jdbi.v2.sqlobject.SqlUpdate;
 
 @KillBillSqlDaoStringTemplate
 public interface RolledUpUsageSqlDao extends EntitySqlDao<RolledUpUsageModelDao, Entity> {
@@ -55,4 +58,31 @@ public interface RolledUpUsageSqlDao extends EntitySqlDao<RolledUpUsageModelDao,
     List<RolledUpUsageModelDao> getRawUsageForAccount(@Bind("startDate") final Date startDate,
                                                       @Bind("endDate") final Date endDate,
                                                       @SmartBindBean final InternalTenantContext context);
+
+    @SqlUpdate
+    int updateDailyUsage(@Bind("subscriptionId") final UUID subscriptionId,
+                         @Bind("unitType") final String unitType,
+                         @Bind("recordDate") final Date recordDate,
+                         @Bind("amount") final BigDecimal amount,
+                         @SmartBindBean final InternalCallContext context);
+
+    @SqlUpdate
+    void createDailyUsage(@Bind("subscriptionId") final UUID subscriptionId,
+                          @Bind("unitType") final String unitType,
+                          @Bind("recordDate") final Date recordDate,
+                          @Bind("amount") final BigDecimal amount,
+                          @SmartBindBean final InternalCallContext context);
+
+    @SqlQuery
+    List<RolledUpUsageModelDao> getDailyUsageForSubscription(@Bind("subscriptionId") final UUID subscriptionId,
+                                                             @Bind("startDate") final Date startDate,
+                                                             @Bind("endDate") final Date endDate,
+                                                             @Bind("unitType") final String unitType,
+                                                             @SmartBindBean final InternalTenantContext context);
+
+    @SqlQuery
+    List<RolledUpUsageModelDao> getAllDailyUsageForSubscription(@Bind("subscriptionId") final UUID subscriptionId,
+                                                                @Bind("startDate") final Date startDate,
+                                                                @Bind("endDate") final Date endDate,
+                                                                @SmartBindBean final InternalTenantContext context);
 }
@@ -19,7 +19,9 @@ package org.killbill.billing.usage.dao;
 
 import java.math.BigDecimal;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 import org.joda.time.DateTime;
@@ -194,4 +196,62 @@ public class TestDefaultRolledUpUsageDao extends UsageTestSuiteWithEmbeddedDB {
         assertEquals(rolledUpUsageDao.recordsWithTrackingIdExist(subscriptionId, trackingId, internalCallContext),
                      Boolean.TRUE);
     }
-}
\ No newline at end of file
+
+    @Test(groups = "slow")
+    public void testAggregatedUsage() {
+        final UUID subscriptionId = UUIDs.randomUUID();
+        final String unitType1 = "foo";
+        final String unitType2 = "bar";
+
+        final List<RolledUpUsageModelDao> usages = new ArrayList<RolledUpUsageModelDao>();
+        usages.add(new RolledUpUsageModelDao(subscriptionId, unitType1, new DateTime(2013, 1, 1, 3, 0, 0, DateTimeZone.UTC), BigDecimal.valueOf(1L), UUIDs.randomUUID().toString()));
+        usages.add(new RolledUpUsageModelDao(subscriptionId, unitType1, new DateTime(2013, 1, 1, 15, 0, 0, DateTimeZone.UTC), BigDecimal.valueOf(2L), UUIDs.randomUUID().toString()));
+        usages.add(new RolledUpUsageModelDao(subscriptionId, unitType1, new DateTime(2013, 1, 2, 0, 0, 0, DateTimeZone.UTC), BigDecimal.valueOf(4L), UUIDs.randomUUID().toString()));
+        usages.add(new RolledUpUsageModelDao(subscriptionId, unitType2, new DateTime(2013, 1, 2, 10, 0, 0, DateTimeZone.UTC), BigDecimal.valueOf(8L), UUIDs.randomUUID().toString()));
+        rolledUpUsageDao.record(usages, internalCallContext);
+
+        // Second call on the same days: the daily rows are updated, not duplicated
+        final List<RolledUpUsageModelDao> moreUsages = new ArrayList<RolledUpUsageModelDao>();
+        moreUsages.add(new RolledUpUsageModelDao(subscriptionId, unitType1, new DateTime(2013, 1, 1, 20, 0, 0, DateTimeZone.UTC), BigDecimal.valueOf(16L), UUIDs.randomUUID().toString()));
+        moreUsages.add(new RolledUpUsageModelDao(subscriptionId, unitType1, new DateTime(2013, 1, 3, 12, 0, 0, DateTimeZone.UTC), BigDecimal.valueOf(32L), UUIDs.randomUUID().toString()));
+        rolledUpUsageDao.record(moreUsages, internalCallContext);
+
+        // Duplicate: the whole call is rolled back, including the daily rows
+        try {
+            rolledUpUsageDao.record(moreUsages, internalCallContext);
+            fail("duplicate records accepted");
+        } catch (final UnableToExecuteStatementException ignored) {
+        }
+
+        // Full days only
+        checkAggregatedUsage(subscriptionId, new DateTime(2013, 1, 1, 0, 0, 0, DateTimeZone.UTC), new DateTime(2013, 2, 1, 0, 0, 0, DateTimeZone.UTC));
+        // Partial days on both ends
+        checkAggregatedUsage(subscriptionId, new DateTime(2013, 1, 1, 12, 0, 0, DateTimeZone.UTC), new DateTime(2013, 1, 3, 6, 0, 0, DateTimeZone.UTC));
+        // Within a single day
+        checkAggregatedUsage(subscriptionId, new DateTime(2013, 1, 1, 2, 0, 0, DateTimeZone.UTC), new DateTime(2013, 1, 1, 18, 0, 0, DateTimeZone.UTC));
+        // Two partial days, no full day in between
+        checkAggregatedUsage(subscriptionId, new DateTime(2013, 1, 1, 12, 0, 0, DateTimeZone.UTC), new DateTime(2013, 1, 2, 6, 0, 0, DateTimeZone.UTC));
+
+        final Map<String, BigDecimal> all = sumPerUnitType(rolledUpUsageDao.getAggregatedUsageForSubscription(subscriptionId, new DateTime(2013, 1, 1, 0, 0, 0, DateTimeZone.UTC), new DateTime(2013, 2, 1, 0, 0, 0, DateTimeZone.UTC), null, internalCallContext));
+        assertEquals(all.get(unitType1).compareTo(BigDecimal.valueOf(55L)), 0);
+        assertEquals(all.get(unitType2).compareTo(BigDecimal.valueOf(8L)), 0);
+    }
+
+    private void checkAggregatedUsage(final UUID subscriptionId, final DateTime startDate, final DateTime endDate) {
+        final Map<String, BigDecimal> expected = sumPerUnitType(rolledUpUsageDao.getAllUsageForSubscription(subscriptionId, startDate, endDate, internalCallContext));
+        assertEquals(sumPerUnitType(rolledUpUsageDao.getAggregatedUsageForSubscription(subscriptionId, startDate, endDate, null, internalCallContext)), expected);
+
+        final Map<String, BigDecimal> expectedFoo = sumPerUnitType(rolledUpUsageDao.getUsageForSubscription(subscriptionId, startDate, endDate, "foo", internalCallContext));
+        assertEquals(sumPerUnitType(rolledUpUsageDao.getAggregatedUsageForSubscription(subscriptionId, startDate, endDate, "foo", internalCallContext)), expectedFoo);
+    }
+
+    // Scale is normalized as the daily aggregate and the raw points may not come back with the same one
+    private static Map<String, BigDecimal> sumPerUnitType(final List<RolledUpUsageModelDao> usages) {
+        final Map<String, BigDecimal> result = new HashMap<String, BigDecimal>();
+        for (final RolledUpUsageModelDao usage : usages) {
+            result.merge(usage.getUnitType(), usage.getAmount(), BigDecimal::add);
+        }
+        result.replaceAll((unitType, amount) -> amount.stripTrailingZeros());
+        return result;
+    }
+}
@@ -25,7 +25,6 @@ import org.killbill.billing.events.BroadcastInternalEvent;
 import org.killbill.billing.util.broadcast.dao.BroadcastDao;
 import org.killbill.billing.util.broadcast.dao.BroadcastModelDao;
 import org.killbill.billing.util.optimizer.BusOptimizer;
-import org.killbill.bus.api.PersistentBus;
 import org.killbill.bus.api.PersistentBus.EventBusException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -35,10 +34,10 @@ public class DefaultBroadcastApi implements BroadcastApi {
     private final Logger logger = LoggerFactory.getLogger(DefaultBroadcastApi.class);
 
     private final BroadcastDao dao;
-    private final PersistentBus eventBus;
+    private final BusOptimizer eventBus;
 
     @Inject
-    public DefaultBroadcastApi(final BroadcastDao dao, final PersistentBus eventBus) {
+    public DefaultBroadcastApi(final BroadcastDao dao, final BusOptimizer eventBus) {
         this.dao = dao;
         this.eventBus = eventBus;
     }
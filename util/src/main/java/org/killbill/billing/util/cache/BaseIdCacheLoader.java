@@ -17,6 +17,14 @@
 
 package org.killbill.billing.util.cache;
 
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
 import org.killbill.billing.ObjectType;
 import org.skife.jdbi.v2.Handle;
 
@@ -28,18 +36,54 @@ public abstract class BaseIdCacheLoader<V> extends BaseCacheLoader<String, V> {
 
     protected abstract V doRetrieveOperation(final String rawKey, final ObjectType objectType, final Handle handle);
 
+    // Override to retrieve all values in one round trip
+    protected Map<String, V> doRetrieveOperations(final Collection<String> rawKeys, final ObjectType objectType, final Handle handle) {
+        final Map<String, V> values = new HashMap<String, V>();
+        for (final String rawKey : rawKeys) {
+            final V value = doRetrieveOperation(rawKey, objectType, handle);
+            if (value != null) {
+                values.put(rawKey, value);
+            }
+        }
+        return values;
+    }
+
     @Override
     public V compute(final String key, final CacheLoaderArgument cacheLoaderArgument) {
-        final String rawKey;
-        if (getCacheType().isKeyPrefixedWithTableName()) {
-            final String[] parts = key.split(CacheControllerDispatcher.CACHE_KEY_SEPARATOR);
-            rawKey = parts[1];
-        } else {
-            rawKey = key;
+        final String rawKey = getRawKey(key);
+        final ObjectType objectType = cacheLoaderArgument.getObjectType();
+        final Handle handle = cacheLoaderArgument.getHandle();
+        return doRetrieveOperation(rawKey, objectType, handle);
+    }
+
+    @Override
+    public Map<String, V> computeAll(final Collection<String> keys, final CacheLoaderArgument cacheLoaderArgument) {
+        final Map<String, String> keysByRawKey = new HashMap<String, String>();
+        for (final String key : keys) {
+            keysByRawKey.put(getRawKey(key), key);
         }
 
         final ObjectType objectType = cacheLoaderArgument.getObjectType();
         final Handle handle = cacheLoaderArgument.getHandle();
-        return doRetrieveOperation(rawKey, objectType, handle);
+        final Map<String, V> valuesByRawKey = doRetrieveOperations(keysByRawKey.keySet(), objectType, handle);
+
+        final Map<String, V> values = new HashMap<String, V>();
+        for (final Entry<String, V> entry : valuesByRawKey.entrySet()) {
+            values.put(keysByRawKey.get(entry.getKey()), entry.getValue());
+        }
+        return values;
+    }
+
+    protected static List<UUID> toUUIDs(final Collection<String> rawKeys) {
+        return rawKeys.stream().map(UUID::fromString).collect(Collectors.toUnmodifiableList());
+    }
+
+    private String getRawKey(final String key) {
+        if (getCacheType().isKeyPrefixedWithTableName()) {
+            final String[] parts = key.split(CacheControllerDispatcher.CACHE_KEY_SEPARATOR);
+            return parts[1];
+        } else {
+            return key;
+        }
     }
 }
@@ -31,6 +31,8 @@ import jakarta.inject.Provider;
 import org.killbill.commons.utils.Preconditions;
 import org.killbill.billing.util.cache.Cachable.CacheType;
 import org.killbill.billing.util.config.definition.CacheConfig;
+import org.killbill.billing.util.config.definition.RedisCacheConfig;
+import org.killbill.commons.metrics.api.MetricRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -42,14 +44,20 @@ public class CacheControllerDispatcherProvider implements Provider<CacheControll
     private final CacheManager cacheManager;
     private final Set<BaseCacheLoader> cacheLoaders;
     private final CacheConfig cacheConfig;
+    private final RedisCacheConfig redisCacheConfig;
+    private final MetricRegistry metricRegistry;
 
     @Inject
     public CacheControllerDispatcherProvider(final CacheManager cacheManager,
                                              final Set<BaseCacheLoader> cacheLoaders,
-                                             final CacheConfig cacheConfig) {
+                                             final CacheConfig cacheConfig,
+                                             final RedisCacheConfig redisCacheConfig,
+                                             final MetricRegistry metricRegistry) {
         this.cacheManager = cacheManager;
         this.cacheLoaders = cacheLoaders;
         this.cacheConfig = cacheConfig;
+        this.redisCacheConfig = redisCacheConfig;
+        this.metricRegistry = metricRegistry;
     }
 
     @SuppressWarnings({"rawtypes", "unchecked"})
@@ -71,7 +79,18 @@ public class CacheControllerDispatcherProvider implements Provider<CacheControll
                 }
                 Preconditions.checkState(!cache.isClosed(), "Cache '%s' should not be closed", cacheType.getCacheName());
 
-                cacheController = new KillBillCacheController<Object, Object>(cache, cacheLoader);
+                final CacheController<Object, Object> killBillCacheController = new KillBillCacheController<Object, Object>(cache, cacheLoader);
+                if (redisCacheConfig.isRedisCachingEnabled() &&
+                    redisCacheConfig.getNearCacheNames() != null &&
+                    redisCacheConfig.getNearCacheNames().contains(cacheType.getCacheName())) {
+                    logger.info("Enabling near cache for cacheName='{}'", cacheType.getCacheName());
+                    cacheController = new NearCacheController<Object, Object>(killBillCacheController,
+                                                                              redisCacheConfig.getNearCacheMaxSize(),
+                                                                              redisCacheConfig.getNearCacheTtl().getMillis(),
+                                                                              metricRegistry);
+                } else {
+                    cacheController = killBillCacheController;
+                }
             }
 
             cacheControllers.put(cacheType, cacheController);
@@ -18,8 +18,12 @@
 
 package org.killbill.billing.util.cache;
 
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
 import java.util.function.Function;
 import java.util.stream.Collectors;
@@ -88,6 +92,49 @@ public class KillBillCacheController<K, V> implements CacheController<K, V> {
         }
     }
 
+    @Override
+    public Map<K, V> getAll(final Collection<K> keys, final CacheLoaderArgument cacheLoaderArgument) {
+        final Map<K, V> values = new HashMap<K, V>();
+        final Set<K> missingKeys = new HashSet<K>(keys);
+        missingKeys.removeIf(Objects::isNull);
+        if (missingKeys.isEmpty()) {
+            return values;
+        }
+
+        try {
+            for (final Map.Entry<K, V> entry : cache.getAll(missingKeys).entrySet()) {
+                if (entry.getValue() != null) {
+                    values.put(entry.getKey(), entry.getValue());
+                    missingKeys.remove(entry.getKey());
+                }
+            }
+        } catch (final CacheException e) {
+            logger.warn("Unable to retrieve cached values for keys='{}' and cacheLoaderArgument='{}'", missingKeys, cacheLoaderArgument, e);
+        }
+
+        if (!missingKeys.isEmpty()) {
+            final Map<K, V> computedValues = computeValues(missingKeys, cacheLoaderArgument);
+            final Map<K, V> valuesToCache = new HashMap<K, V>(computedValues);
+            if (canCacheMisses()) {
+                // Cache the misses as well, so that unknown keys don't go back to the loader each time
+                for (final K missingKey : missingKeys) {
+                    if (!computedValues.containsKey(missingKey)) {
+                        valuesToCache.put(missingKey, (V) BaseCacheLoader.EMPTY_VALUE_PLACEHOLDER);
+                    }
+                }
+            }
+            try {
+                cache.putAll(valuesToCache);
+            } catch (final CacheException e) {
+                logger.warn("Unable to cache values for keys='{}' and cacheLoaderArgument='{}'", valuesToCache.keySet(), cacheLoaderArgument, e);
+            }
+            values.putAll(computedValues);
+        }
+
+        values.values().removeIf(BaseCacheLoader.EMPTY_VALUE_PLACEHOLDER::equals);
+        return values;
+    }
+
     @Override
     public void putIfAbsent(final K key, final V value) {
         cache.putIfAbsent(key, value);
@@ -129,6 +176,11 @@ public class KillBillCacheController<K, V> implements CacheController<K, V> {
         return baseCacheLoader.getCacheType();
     }
 
+    // The caches are typed (see CacheType): the placeholder can only be stored in the ones holding Strings (or Objects)
+    private boolean canCacheMisses() {
+        return getCacheType().getValueType().isInstance(BaseCacheLoader.EMPTY_VALUE_PLACEHOLDER);
+    }
+
     private V computeAndCacheValue(final K key, final CacheLoaderArgument cacheLoaderArgument) {
         final V value = computeValue(key, cacheLoaderArgument);
         if (value == null) {
@@ -151,4 +203,12 @@ public class KillBillCacheController<K, V> implements CacheController<K, V> {
         }
         return value;
     }
+
+    private Map<K, V> computeValues(final Collection<K> keys, final CacheLoaderArgument cacheLoaderArgument) {
+        try {
+            return baseCacheLoader.computeAll(keys, cacheLoaderArgument);
+        } catch (final Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
 }
@@ -0,0 +1,220 @@
+/*
+ * Copyright 2020-2026 Equinix, Inc
+ * Copyright 2014-2026 The Billing Project, LLC
+ *
+ * The Billing Project licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.killbill.billing.util.cache;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import org.killbill.billing.util.cache.Cachable.CacheType;
+import org.killbill.commons.metrics.api.Counter;
+import org.killbill.commons.metrics.api.MetricRegistry;
+
+/**
+ * Bounded, in-process tier in front of a (remote) cache, e.g. Redis.
+ * <p>
+ * Entries are evicted in LRU order once maxSize is reached, and expire after ttlMillis. Removals are applied to both
+ * tiers: for caches invalidated through the tenant broadcast mechanism (TenantCacheInvalidation), each node removes the
+ * entry from its own local tier when processing the broadcast entry.
+ */
+public class NearCacheController<K, V> implements CacheController<K, V> {
+
+    private static final String METRICS_PREFIX = "killbill.cache.";
+
+    private final CacheController<K, V> delegate;
+    private final int maxSize;
+    private final long ttlNanos;
+    private final Map<K, NearCacheEntry<V>> localCache;
+
+    private final Counter nearHits;
+    private final Counter nearMisses;
+
+    public NearCacheController(final CacheController<K, V> delegate,
+                               final int maxSize,
+                               final long ttlMillis,
+                               final MetricRegistry metricRegistry) {
+        this.delegate = delegate;
+        this.maxSize = maxSize;
+        this.ttlNanos = ttlMillis * 1000L * 1000L;
+        this.localCache = new LinkedHashMap<K, NearCacheEntry<V>>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<K, NearCacheEntry<V>> eldest) {
+                return size() > NearCacheController.this.maxSize;
+            }
+        };
+
+        final String cacheName = delegate.getCacheType().getCacheName();
+        this.nearHits = metricRegistry.counter(METRICS_PREFIX + cacheName + ".near.hits");
+        this.nearMisses = metricRegistry.counter(METRICS_PREFIX + cacheName + ".near.misses");
+    }
+
+    @Override
+    public List<K> getKeys() {
+        return delegate.getKeys();
+    }
+
+    @Override
+    public boolean isKeyInCache(final K key) {
+        return getLocal(key) != null || delegate.isKeyInCache(key);
+    }
+
+    @Override
+    public V get(final K key, final CacheLoaderArgument cacheLoaderArgument) {
+        if (key == null) {
+            return null;
+        }
+
+        final V localValue = getLocal(key);
+        if (localValue != null) {
+            nearHits.inc(1);
+            return localValue;
+        }
+
+        nearMisses.inc(1);
+        final V value = delegate.get(key, cacheLoaderArgument);
+        if (value != null) {
+            putLocal(key, value);
+        }
+        return value;
+    }
+
+    @Override
+    public Map<K, V> getAll(final Collection<K> keys, final CacheLoaderArgument cacheLoaderArgument) {
+        final Map<K, V> values = new HashMap<K, V>();
+        final List<K> missingKeys = new ArrayList<K>();
+        for (final K key : keys) {
+            final V localValue = key == null ? null : getLocal(key);
+            if (localValue != null) {
+                values.put(key, localValue);
+            } else if (key != null) {
+                missingKeys.add(key);
+            }
+        }
+        nearHits.inc(values.size());
+        nearMisses.inc(missingKeys.size());
+
+        if (!missingKeys.isEmpty()) {
+            final Map<K, V> remoteValues = delegate.getAll(missingKeys, cacheLoaderArgument);
+            remoteValues.forEach(this::putLocal);
+            values.putAll(remoteValues);
+        }
+        return values;
+    }
+
+    @Override
+    public void putIfAbsent(final K key, final V value) {
+        // Already known locally, hence in the remote tier as well: save the round trip
+        if (getLocal(key) != null) {
+            return;
+        }
+
+        delegate.putIfAbsent(key, value);
+        putLocal(key, value);
+    }
+
+    @Override
+    public boolean remove(final K key) {
+        final boolean removedLocally;
+        synchronized (localCache) {
+            removedLocally = localCache.remove(key) != null;
+        }
+        return delegate.remove(key) || removedLocally;
+    }
+
+    @Override
+    public void remove(final Function<K, Boolean> keyMatcher) {
+        synchronized (localCache) {
+            localCache.keySet().removeIf(key -> Boolean.TRUE.equals(keyMatcher.apply(key)));
+        }
+        delegate.remove(keyMatcher);
+    }
+
+    @Override
+    public int size() {
+        return delegate.size();
+    }
+
+    @Override
+    public void removeAll() {
+        synchronized (localCache) {
+            localCache.clear();
+        }
+        delegate.removeAll();
+    }
+
+    @Override
+    public CacheType getCacheType() {
+        return delegate.getCacheType();
+    }
+
+    int localSize() {
+        synchronized (localCache) {
+            return localCache.size();
+        }
+    }
+
+    private V getLocal(final K key) {
+        synchronized (localCache) {
+            final NearCacheEntry<V> entry = localCache.get(key);
+            if (entry == null) {
+                return null;
+            } else if (System.nanoTime() - entry.createdNanos >= ttlNanos) {
+                localCache.remove(key);
+                return null;
+            } else {
+                return entry.value;
+            }
+        }
+    }
+
+    private void putLocal(final K key, final V value) {
+        if (value == null || value.equals(BaseCacheLoader.EMPTY_VALUE_PLACEHOLDER)) {
+            return;
+        }
+
+        final long now = System.nanoTime();
+        synchronized (localCache) {
+            localCache.put(key, new NearCacheEntry<V>(value, now));
+
+            // Opportunistically drop expired entries at the head (least recently used)
+            final Iterator<NearCacheEntry<V>> iterator = localCache.values().iterator();
+            while (iterator.hasNext()) {
+                if (now - iterator.next().createdNanos < ttlNanos) {
+                    break;
+                }
+                iterator.remove();
+            }
+        }
+    }
+
+    private static final class NearCacheEntry<V> {
+
+        private final V value;
+        private final long createdNanos;
+
+        private NearCacheEntry(final V value, final long createdNanos) {
+            this.value = value;
+            this.createdNanos = createdNanos;
+        }
+    }
+}
@@ -17,8 +17,12 @@
 
 package org.killbill.billing.util.cache;
 
+import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Collectors;
 import java.util.function.Function;
 
 import org.killbill.billing.util.cache.Cachable.CacheType;
@@ -56,6 +60,19 @@ public class NoOpCacheController<K, V> implements CacheController<K, V> {
         }
     }
 
+    @Override
+    public Map<K, V> getAll(final Collection<K> keys, final CacheLoaderArgument cacheLoaderArgument) {
+        final Collection<K> nonNullKeys = keys.stream().filter(Objects::nonNull).collect(Collectors.toUnmodifiableSet());
+        final Map<K, V> values;
+        try {
+            values = baseCacheLoader.computeAll(nonNullKeys, cacheLoaderArgument);
+        } catch (final Exception e) {
+            throw new RuntimeException(e);
+        }
+        values.values().removeIf(BaseCacheLoader.EMPTY_VALUE_PLACEHOLDER::equals);
+        return values;
+    }
+
     @Override
     public boolean remove(final K key) {
         return false;
@@ -17,7 +17,12 @@
 
 package org.killbill.billing.util.cache;
 
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.stream.Collectors;
 
 import jakarta.inject.Inject;
 import jakarta.inject.Singleton;
@@ -48,4 +53,13 @@ public class ObjectIdCacheLoader extends BaseIdCacheLoader<UUID> {
         final Long recordId = Long.valueOf(rawKey);
         return nonEntityDao.retrieveIdFromObjectInTransaction(recordId, objectType, null, handle);
     }
+
+    @Override
+    protected Map<String, UUID> doRetrieveOperations(final Collection<String> rawKeys, final ObjectType objectType, final Handle handle) {
+        final List<Long> recordIds = rawKeys.stream().map(Long::valueOf).collect(Collectors.toUnmodifiableList());
+        final Map<Long, UUID> objectIds = nonEntityDao.retrieveIdsFromObjectsInTransaction(recordIds, objectType, null, handle);
+        final Map<String, UUID> values = new HashMap<String, UUID>();
+        objectIds.forEach((recordId, objectId) -> values.put(String.valueOf(recordId), objectId));
+        return values;
+    }
 }
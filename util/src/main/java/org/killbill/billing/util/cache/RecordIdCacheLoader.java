@@ -18,6 +18,9 @@
 
 package org.killbill.billing.util.cache;
 
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.UUID;
 
 import jakarta.inject.Inject;
@@ -48,4 +51,12 @@ public class RecordIdCacheLoader extends BaseIdCacheLoader<Long> {
     protected Long doRetrieveOperation(final String rawKey, final ObjectType objectType, final Handle handle) {
         return nonEntityDao.retrieveRecordIdFromObjectInTransaction(UUID.fromString(rawKey), objectType, null, handle);
     }
+
+    @Override
+    protected Map<String, Long> doRetrieveOperations(final Collection<String> rawKeys, final ObjectType objectType, final Handle handle) {
+        final Map<UUID, Long> recordIds = nonEntityDao.retrieveRecordIdsFromObjectsInTransaction(toUUIDs(rawKeys), objectType, null, handle);
+        final Map<String, Long> values = new HashMap<String, Long>();
+        recordIds.forEach((objectId, recordId) -> values.put(objectId.toString(), recordId));
+        return values;
+    }
 }
@@ -18,6 +18,11 @@
 
 package org.killbill.billing.util.callcontext;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
 import java.util.Objects;
 import java.util.UUID;
 
@@ -374,6 +379,28 @@ public class InternalCallContextFactory {
         }
     }
 
+    // Bulk version of getRecordIdFromObject: unknown objects, or objects from another tenant, are omitted from the result
+    public Map<UUID, Long> getRecordIdsFromObjects(final Collection<UUID> objectIds, final ObjectType objectType, final TenantContext context) {
+        final Long realTenantRecordId;
+        try {
+            realTenantRecordId = getTenantRecordIdSafe(context);
+        } catch (final ObjectDoesNotExist e) {
+            return Map.of();
+        }
+        if (realTenantRecordId == null) {
+            return Map.of();
+        }
+
+        final Map<UUID, Long> tenantRecordIds = nonEntityDao.retrieveTenantRecordIdsFromObjects(objectIds, objectType, tenantRecordIdCacheController);
+        final List<UUID> objectIdsForTenant = new ArrayList<UUID>(tenantRecordIds.size());
+        for (final Entry<UUID, Long> entry : tenantRecordIds.entrySet()) {
+            if (realTenantRecordId.equals(entry.getValue())) {
+                objectIdsForTenant.add(entry.getKey());
+            }
+        }
+        return nonEntityDao.retrieveRecordIdsFromObjects(objectIdsForTenant, objectType, recordIdCacheController);
+    }
+
     //
     // Safe NonEntityDao private wrappers
     //
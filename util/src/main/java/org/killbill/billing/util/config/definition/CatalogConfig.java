@@ -32,4 +32,14 @@ public interface CatalogConfig extends KillbillConfig {
     @Default("1")
     @Description("Number of threads for the XML loader")
     Integer getCatalogThreadNb();
+
+    @Config("org.killbill.catalog.loader.incremental.maxTenants")
+    @Default("0")
+    @Description("Number of tenants for which the parsed catalog versions are kept in memory, so that a reload only parses and validates the new versions (0 to disable)")
+    int getCatalogLoaderIncrementalMaxTenants();
+
+    @Config("org.killbill.catalog.snapshot.enabled")
+    @Default("false")
+    @Description("Whether to persist the parsed catalog versions of each tenant, so that nodes can load them without parsing the XML again")
+    boolean isCatalogSnapshotEnabled();
 }
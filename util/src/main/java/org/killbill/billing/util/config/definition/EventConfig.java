@@ -33,12 +33,17 @@ public interface EventConfig extends KillbillConfig {
     @Description("List of event types to be skipped (not posted)")
     List<BusInternalEventType> getSkipPostBusEventTypeList();
 
-    // Not fully implemented
+    // Only read outside of transactions: BusOptimizerOn keeps a per-tenant snapshot for postFromTransaction
     @Config("org.killbill.billing.server.event.post.type.skip")
     @Default("")
     @Description("List of event types to be skipped (not posted)")
     List<BusInternalEventType> getSkipPostBusEventTypeList(@Param("dummy") final InternalTenantContext tenantContext);
 
+    @Config("org.killbill.billing.server.event.post.type.coalesce")
+    @Default("")
+    @Description("List of event types for which redundant events (same account and object) posted from a transaction are coalesced into one (only INVOICE_ADJUSTMENT and BLOCKING_STATE are supported)")
+    List<BusInternalEventType> getCoalescePostBusEventTypeList();
+
     @Config("org.killbill.billing.server.event.dispatch.type.skip")
     @Default("")
     @Description("List of event types to be skipped (not dispatched internally)")
@@ -60,4 +65,10 @@ public interface EventConfig extends KillbillConfig {
     @Description("List of event types to be skipped (not dispatched internally)")
     boolean isAggregateBulkSubscriptionEvents(@Param("dummy") final InternalTenantContext tenantContext);
 
+    @Config("org.killbill.billing.server.event.external.postFromTransaction")
+    @Default("false")
+    @Description("Whether external events are posted along with their internal events (same transaction) instead of after the internal events have been dispatched. " +
+                 "Event types skipped via org.killbill.billing.server.event.post.type.skip are then only posted on the external bus. Requires the bus optimization feature")
+    boolean isPostExternalBusEventsFromTransaction();
+
 }
\ No newline at end of file
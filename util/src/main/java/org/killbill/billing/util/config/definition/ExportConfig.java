@@ -30,4 +30,19 @@ public interface ExportConfig extends KillbillConfig {
     @Description("Prefix of the extra tables that need to be imported")
     List<String> getExtraTablesPrefix();
 
+    @Config("org.killbill.export.threads.nb")
+    @Default("4")
+    @Description("Maximum number of tables read concurrently, per export")
+    int getThreadsNb();
+
+    @Config("org.killbill.export.fetchSize")
+    @Default("1000")
+    @Description("JDBC fetch size used to stream the rows of each table")
+    int getFetchSize();
+
+    @Config("org.killbill.export.accounts.batchSize")
+    @Default("500")
+    @Description("Maximum number of accounts queried at once, when exporting several accounts")
+    int getAccountsBatchSize();
+
 }
@@ -60,6 +60,15 @@ public interface InvoiceConfig extends LockAwareConfig {
         GREEDY
     }
 
+    enum BillingEventSerializationMode {
+        /* Snappy compressed JSON */
+        JSON,
+        /* Snappy compressed binary format */
+        BINARY,
+        /* Binary format, only containing the subscriptions which changed since the previous full snapshot of the account */
+        BINARY_DELTA
+    }
+
     @Config("org.killbill.invoice.maxNumberOfMonthsInFuture")
     @Default("36")
     @Description("Maximum target date to consider when generating an invoice")
@@ -156,6 +165,21 @@ public interface InvoiceConfig extends LockAwareConfig {
     @Description("Whether the invoicing system is enabled")
     boolean isInvoicingSystemEnabled();
 
+    @Config("org.killbill.invoice.cba.ledger.enabled")
+    @Default("false")
+    @Description("Whether to maintain a running CBA per account (invoice_account_cba) instead of summing all CBA items on each read")
+    boolean isAccountCBALedgerEnabled();
+
+    @Config("org.killbill.invoice.cba.ledger.reconciliation.interval")
+    @Default("1h")
+    @Description("How often the running CBA of recently updated accounts is verified against the invoice items")
+    TimeSpan getAccountCBALedgerReconciliationInterval();
+
+    @Config("org.killbill.invoice.billingEvents.serialization.mode")
+    @Default("JSON")
+    @Description("Format of the billing events snapshot stored for each new invoice")
+    BillingEventSerializationMode getBillingEventSerializationMode();
+
     @Config("org.killbill.invoice.parent.commit.local.utc.time")
     @Default("23:59:59.999")
     @Description("UTC Time when parent invoice gets committed")
@@ -27,7 +27,7 @@ public interface JaxrsConfig extends KillbillConfig {
 
     @Config("org.killbill.jaxrs.threads.pool.nb")
     @Default("10")
-    @Description("Number of threads for jaxrs executor")
+    @Description("Max number of concurrent tasks for the jaxrs (virtual threads) executor")
     int getJaxrsThreadNb();
 
     @Config("org.killbill.jaxrs.timeout")
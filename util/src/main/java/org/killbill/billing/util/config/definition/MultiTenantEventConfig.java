@@ -52,6 +52,11 @@ public class MultiTenantEventConfig extends MultiTenantConfigBase implements Eve
         return getSkipPostBusEventTypeList();
     }
 
+    @Override
+    public List<BusInternalEventType> getCoalescePostBusEventTypeList() {
+        return staticConfig.getCoalescePostBusEventTypeList();
+    }
+
     @Override
     public List<BusInternalEventType> getSkipDispatchBusEventTypeList() {
         return staticConfig.getSkipDispatchBusEventTypeList();
@@ -80,6 +85,11 @@ public class MultiTenantEventConfig extends MultiTenantConfigBase implements Eve
         return isAggregateBulkSubscriptionEvents();
     }
 
+    @Override
+    public boolean isPostExternalBusEventsFromTransaction() {
+        return staticConfig.isPostExternalBusEventsFromTransaction();
+    }
+
     @Override
     protected Class<? extends KillbillConfig> getConfigClass() {
         return EventConfig.class;
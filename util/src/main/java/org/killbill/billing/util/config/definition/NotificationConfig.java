@@ -38,4 +38,29 @@ public interface NotificationConfig extends KillbillConfig {
     @Description("Delay before which unresolved push notifications should be retried")
     List<TimeSpan> getPushNotificationsRetries(@Param("dummy") final InternalTenantContext tenantContext);
 
+    @Config("org.killbill.billing.server.notifications.maxInFlightPerTenant")
+    @Default("10")
+    @Description("Maximum number of push notifications being sent concurrently for a given tenant")
+    int getPushNotificationsMaxInFlightPerTenant();
+
+    @Config("org.killbill.billing.server.notifications.maxInFlightPerHost")
+    @Default("20")
+    @Description("Maximum number of push notifications being sent concurrently to a given callback host")
+    int getPushNotificationsMaxInFlightPerHost();
+
+    @Config("org.killbill.billing.server.notifications.maxPendingPerCallback")
+    @Default("1000")
+    @Description("Maximum number of push notifications waiting to be sent for a given callback, additional ones are re-scheduled")
+    int getPushNotificationsMaxPendingPerCallback();
+
+    @Config("org.killbill.billing.server.notifications.circuitBreaker.failureThreshold")
+    @Default("5")
+    @Description("Number of consecutive failures after which push notifications to a given callback are re-scheduled without being sent")
+    int getPushNotificationsCircuitBreakerFailureThreshold();
+
+    @Config("org.killbill.billing.server.notifications.circuitBreaker.openDuration")
+    @Default("30s")
+    @Description("Delay after which a callback whose circuit is open is probed again")
+    TimeSpan getPushNotificationsCircuitBreakerOpenDuration();
+
 }
\ No newline at end of file
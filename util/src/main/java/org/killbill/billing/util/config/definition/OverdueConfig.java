@@ -17,6 +17,21 @@
 
 package org.killbill.billing.util.config.definition;
 
+import org.killbill.billing.callcontext.InternalTenantContext;
+import org.skife.config.Config;
+import org.skife.config.Default;
+import org.skife.config.Description;
+import org.skife.config.Param;
+
 public interface OverdueConfig extends LockAwareConfig {
 
+    @Config("org.killbill.overdue.billingState.fromUnpaidInvoicesSummary")
+    @Default("false")
+    @Description("Whether overdue refreshes compute the billing state from the aggregated unpaid invoices summary instead of loading all unpaid invoices")
+    boolean isBillingStateFromUnpaidInvoicesSummary();
+
+    @Config("org.killbill.overdue.billingState.fromUnpaidInvoicesSummary")
+    @Default("false")
+    @Description("Whether overdue refreshes compute the billing state from the aggregated unpaid invoices summary instead of loading all unpaid invoices")
+    boolean isBillingStateFromUnpaidInvoicesSummary(@Param("dummy") final InternalTenantContext tenantContext);
 }
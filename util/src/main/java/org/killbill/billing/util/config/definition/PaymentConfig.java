@@ -109,6 +109,26 @@ public interface PaymentConfig extends LockAwareConfig {
     @Description("Delay before which unresolved attempt should be retried")
     TimeSpan getIncompleteAttemptsTimeSpanDelay();
 
+    @Config("org.killbill.payment.janitor.threads.nb")
+    @Default("1")
+    @Description("Number of threads used by the janitor to complete incomplete payment attempts")
+    int getJanitorThreadNb();
+
+    @Config("org.killbill.payment.janitor.plugin.maxConcurrency")
+    @Default("2")
+    @Description("Max number of incomplete payment attempts the janitor completes concurrently for a given payment plugin")
+    int getJanitorPluginMaxConcurrency();
+
+    @Config("org.killbill.payment.janitor.shards.nb")
+    @Default("1")
+    @Description("Number of janitor shards: incomplete payment attempts are split across the nodes by account record id")
+    int getJanitorNbShards();
+
+    @Config("org.killbill.payment.janitor.shard")
+    @Default("0")
+    @Description("Janitor shard handled by this node (between 0 and org.killbill.payment.janitor.shards.nb - 1)")
+    int getJanitorShard();
+
     @Config("org.killbill.payment.provider.default")
     // See ExternalPaymentProviderPlugin.PLUGIN_NAME
     @Default("__external_payment__")
@@ -125,6 +145,11 @@ public interface PaymentConfig extends LockAwareConfig {
     @Description("Number of threads for plugin executor dispatcher")
     int getPaymentPluginThreadNb();
 
+    @Config("org.killbill.payment.plugin.getPaymentInfo.maxConcurrency")
+    @Default("4")
+    @Description("Max number of concurrent plugin getPaymentInfo calls for a single bulk get API call (e.g. account payments)")
+    int getPaymentPluginGetPaymentInfoMaxConcurrency();
+
     @Config("org.killbill.payment.globalLock.retries")
     @Default("50")
     @Description("Maximum number of times the system will retry to grab global lock (with a 100ms wait each time)")
@@ -17,10 +17,13 @@
 
 package org.killbill.billing.util.config.definition;
 
+import java.util.List;
+
 import org.skife.config.Config;
 import org.skife.config.Default;
 import org.skife.config.DefaultNull;
 import org.skife.config.Description;
+import org.skife.config.TimeSpan;
 
 public interface RedisCacheConfig extends KillbillConfig {
 
@@ -43,4 +46,19 @@ public interface RedisCacheConfig extends KillbillConfig {
     @DefaultNull
     @Description("Redis Password")
     public String getPassword();
+
+    @Config("org.killbill.cache.config.redis.nearCache.caches")
+    @Default("record-id,account-record-id,object-id,tenant-record-id,account-immutable")
+    @Description("Caches with a local (in-process) tier in front of Redis. Mutable caches should only be listed if invalidated through the tenant broadcast mechanism")
+    public List<String> getNearCacheNames();
+
+    @Config("org.killbill.cache.config.redis.nearCache.maxSize")
+    @Default("10000")
+    @Description("Maximum number of entries in the local tier, per cache")
+    public int getNearCacheMaxSize();
+
+    @Config("org.killbill.cache.config.redis.nearCache.ttl")
+    @Default("1h")
+    @Description("Time to live of the entries in the local tier")
+    public TimeSpan getNearCacheTtl();
 }
@@ -35,6 +35,16 @@ public interface SecurityConfig extends KillbillConfig {
     @Description("Sets the number of times submitted credentials will be hashed before comparing to the credentials stored in the system")
     public Integer getShiroNbHashIterations();
 
+    @Config("org.killbill.security.realmCache.ttl")
+    @Default("5m")
+    @Description("Time to live of the authentication and authorization results cached by the Kill Bill JDBC realms (0s to disable)")
+    public TimeSpan getShiroRealmCacheTTL();
+
+    @Config("org.killbill.security.realmCache.maxSize")
+    @Default("10000")
+    @Description("Maximum number of authentication and authorization results cached by each Kill Bill JDBC realm")
+    public Integer getShiroRealmCacheMaxSize();
+
     // LDAP Realm
 
     @Config("org.killbill.security.ldap.userDnTemplate")
@@ -35,4 +35,8 @@ public interface SubscriptionConfig extends KillbillConfig {
     @Description("Whether to align the per-plan effectiveDateForExistingSubscriptions with the next per-subscription BCD")
     boolean isEffectiveDateForExistingSubscriptionsAlignedToBCD(@Param("dummy") final InternalTenantContext tenantContext);
 
+    @Config("org.killbill.subscription.stateCache.maxAccounts")
+    @Default("0")
+    @Description("Maximum number of accounts whose rebuilt subscriptions are kept in memory, keyed by the version of their subscription events (0 to disable)")
+    int getSubscriptionStateCacheMaxAccounts();
 }
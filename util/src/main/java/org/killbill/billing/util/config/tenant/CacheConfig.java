@@ -18,6 +18,9 @@
 package org.killbill.billing.util.config.tenant;
 
 import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
 
 import javax.annotation.Nullable;
 import jakarta.inject.Inject;
@@ -37,6 +40,7 @@ public class CacheConfig {
     private final CacheLoaderArgument cacheLoaderArgument;
 
     private final ObjectMapper objectMapper;
+    private final List<Consumer<InternalTenantContext>> invalidationListeners = new CopyOnWriteArrayList<>();
 
     @Inject
     public CacheConfig(final CacheControllerDispatcher cacheControllerDispatcher) {
@@ -51,8 +55,20 @@ public class CacheConfig {
         return perTenantConfig;
     }
 
+    public boolean isPerTenantConfigCached(final InternalTenantContext tenantContext) {
+        return cacheController.isKeyInCache(tenantContext.getTenantRecordId());
+    }
+
     public void clearPerTenantConfig(final InternalTenantContext tenantContext) {
         cacheController.remove(tenantContext.getTenantRecordId());
+        for (final Consumer<InternalTenantContext> invalidationListener : invalidationListeners) {
+            invalidationListener.accept(tenantContext);
+        }
+    }
+
+    // Invoked (outside of any transaction) each time the per-tenant config of a tenant changes
+    public void addInvalidationListener(final Consumer<InternalTenantContext> invalidationListener) {
+        invalidationListeners.add(invalidationListener);
     }
 
     private CacheLoaderArgument initializeCacheLoaderArgument() {
@@ -203,7 +203,7 @@ public class DefaultCustomFieldDao extends EntityDaoBase<CustomFieldModelDao, Cu
         }
 
         try {
-            bus.postFromTransaction(customFieldEvent, entitySqlDaoWrapperFactory.getHandle().getConnection());
+            bus.postFromTransaction(customFieldEvent, entitySqlDaoWrapperFactory);
         } catch (final PersistentBus.EventBusException e) {
             log.warn("Failed to post tag event for customFieldId='{}'", customField.getId().toString(), e);
         }
@@ -18,6 +18,12 @@
 
 package org.killbill.billing.util.dao;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 import javax.annotation.Nullable;
@@ -42,6 +48,9 @@ import static org.killbill.billing.util.glue.IDBISetup.MAIN_RO_IDBI_NAMED;
 
 public class DefaultNonEntityDao implements NonEntityDao {
 
+    // Maximum number of ids per 'in' clause
+    private static final int MAX_IDS_PER_QUERY = 1000;
+
     private final DBRouter<NonEntitySqlDao> dbRouter;
     private final WithCaching<String, Long> withCachingObjectId;
     private final WithCaching<String, UUID> withCachingRecordId;
@@ -75,6 +84,30 @@ public class DefaultNonEntityDao implements NonEntityDao {
         }, objectId.toString(), objectType, tableName, cache);
     }
 
+    @Override
+    public Map<UUID, Long> retrieveRecordIdsFromObjects(final Collection<UUID> objectIds, final ObjectType objectType, @Nullable final CacheController<String, Long> cache) {
+        return retrieveRecordIdsFromObjectsInTransaction(objectIds, objectType, cache, null);
+    }
+
+    @Override
+    public Map<UUID, Long> retrieveRecordIdsFromObjectsInTransaction(final Collection<UUID> objectIds, final ObjectType objectType, @Nullable final CacheController<String, Long> cache, @Nullable final Handle handle) {
+        final TableName tableName = TableName.fromObjectType(objectType);
+        Preconditions.checkNotNull(tableName, "%s is not a valid ObjectType", objectType);
+
+        final Map<String, Long> recordIds = withCachingObjectId.withBulkCaching(new BulkOperationRetrieval<String, Long>() {
+            @Override
+            public Map<String, Long> doRetrieve(final Collection<String> objectIdsAsStrings, final ObjectType objectType) {
+                final NonEntitySqlDao inTransactionNonEntitySqlDao = handle == null ? dbRouter.onDemand(true) : SqlObjectBuilder.attach(handle, NonEntitySqlDao.class);
+                final Map<String, Long> result = new HashMap<String, Long>();
+                for (final RecordIdIdMappings mapping : inTransactionNonEntitySqlDao.getRecordIdIdMappingsFromIds(objectIdsAsStrings, tableName.getTableName())) {
+                    result.put(mapping.getId().toString(), mapping.getRecordId());
+                }
+                return result;
+            }
+        }, toStrings(objectIds), objectType, tableName, cache);
+        return withUUIDKeys(recordIds);
+    }
+
     @Override
     public Long retrieveAccountRecordIdFromObject(@Nullable final UUID objectId, final ObjectType objectType, @Nullable final CacheController<String, Long> cache) {
         return retrieveAccountRecordIdFromObjectInTransaction(objectId, objectType, cache, null);
@@ -136,6 +169,41 @@ public class DefaultNonEntityDao implements NonEntityDao {
         }, objectIdOrNull, objectType, tableName, cache);
     }
 
+    @Override
+    public Map<UUID, Long> retrieveTenantRecordIdsFromObjects(final Collection<UUID> objectIds, final ObjectType objectType, @Nullable final CacheController<String, Long> cache) {
+        return retrieveTenantRecordIdsFromObjectsInTransaction(objectIds, objectType, cache, null);
+    }
+
+    @Override
+    public Map<UUID, Long> retrieveTenantRecordIdsFromObjectsInTransaction(final Collection<UUID> objectIds, final ObjectType objectType, @Nullable final CacheController<String, Long> cache, @Nullable final Handle handle) {
+        final TableName tableName = TableName.fromObjectType(objectType);
+        Preconditions.checkNotNull(tableName, "%s is not a valid ObjectType", objectType);
+
+        final Map<String, Long> tenantRecordIds = withCachingObjectId.withBulkCaching(new BulkOperationRetrieval<String, Long>() {
+            @Override
+            public Map<String, Long> doRetrieve(final Collection<String> objectIdsAsStrings, final ObjectType objectType) {
+                final NonEntitySqlDao inTransactionNonEntitySqlDao = handle == null ? dbRouter.onDemand(true) : SqlObjectBuilder.attach(handle, NonEntitySqlDao.class);
+
+                final Iterable<RecordIdIdMappings> mappings;
+                switch (tableName) {
+                    case TENANT:
+                        mappings = inTransactionNonEntitySqlDao.getRecordIdIdMappingsFromIds(objectIdsAsStrings, tableName.getTableName());
+                        break;
+
+                    default:
+                        mappings = inTransactionNonEntitySqlDao.getTenantRecordIdMappingsFromObjectsOtherThanTenant(objectIdsAsStrings, tableName.getTableName());
+                }
+
+                final Map<String, Long> result = new HashMap<String, Long>();
+                for (final RecordIdIdMappings mapping : mappings) {
+                    result.put(mapping.getId().toString(), mapping.getRecordId());
+                }
+                return result;
+            }
+        }, toStrings(objectIds), objectType, tableName, cache);
+        return withUUIDKeys(tenantRecordIds);
+    }
+
     @Override
     public UUID retrieveIdFromObject(final Long recordId, final ObjectType objectType, @Nullable final CacheController<String, UUID> cache) {
         return retrieveIdFromObjectInTransaction(recordId, objectType, cache, null);
@@ -159,6 +227,47 @@ public class DefaultNonEntityDao implements NonEntityDao {
         }, String.valueOf(recordId), objectType, tableName, cache);
     }
 
+    @Override
+    public Map<Long, UUID> retrieveIdsFromObjects(final Collection<Long> recordIds, final ObjectType objectType, @Nullable final CacheController<String, UUID> cache) {
+        return retrieveIdsFromObjectsInTransaction(recordIds, objectType, cache, null);
+    }
+
+    @Override
+    public Map<Long, UUID> retrieveIdsFromObjectsInTransaction(final Collection<Long> recordIds, final ObjectType objectType, @Nullable final CacheController<String, UUID> cache, @Nullable final Handle handle) {
+        final TableName tableName = TableName.fromObjectType(objectType);
+        Preconditions.checkNotNull(tableName, "%s is not a valid ObjectType", objectType);
+
+        final Collection<String> recordIdsAsStrings = new LinkedHashSet<String>();
+        for (final Long recordId : recordIds) {
+            if (recordId != null && !(objectType == ObjectType.TENANT && InternalCallContextFactory.INTERNAL_TENANT_RECORD_ID.equals(recordId))) {
+                recordIdsAsStrings.add(String.valueOf(recordId));
+            }
+        }
+
+        final Map<String, UUID> ids = withCachingRecordId.withBulkCaching(new BulkOperationRetrieval<String, UUID>() {
+            @Override
+            public Map<String, UUID> doRetrieve(final Collection<String> recordIdsAsStrings, final ObjectType objectType) {
+                final NonEntitySqlDao inTransactionNonEntitySqlDao = handle == null ? dbRouter.onDemand(true) : SqlObjectBuilder.attach(handle, NonEntitySqlDao.class);
+                final List<Long> recordIdsAsLongs = new ArrayList<Long>(recordIdsAsStrings.size());
+                for (final String recordId : recordIdsAsStrings) {
+                    recordIdsAsLongs.add(Long.valueOf(recordId));
+                }
+
+                final Map<String, UUID> result = new HashMap<String, UUID>();
+                for (final RecordIdIdMappings mapping : inTransactionNonEntitySqlDao.getRecordIdIdMappingsFromRecordIds(recordIdsAsLongs, tableName.getTableName())) {
+                    result.put(String.valueOf(mapping.getRecordId()), mapping.getId());
+                }
+                return result;
+            }
+        }, recordIdsAsStrings, objectType, tableName, cache);
+
+        final Map<Long, UUID> result = new HashMap<Long, UUID>();
+        for (final Map.Entry<String, UUID> entry : ids.entrySet()) {
+            result.put(Long.valueOf(entry.getKey()), entry.getValue());
+        }
+        return result;
+    }
+
     @Override
     public Long retrieveLastHistoryRecordIdFromTransaction(@Nullable final Long targetRecordId, final TableName tableName, final NonEntitySqlDao transactional) {
         // There is no caching here because the value returned changes as we add more history records, and so we would need some cache invalidation
@@ -170,11 +279,35 @@ public class DefaultNonEntityDao implements NonEntityDao {
         return dbRouter.onDemand(true).getHistoryTargetRecordId(recordId, tableName.getTableName());
     }
 
+    private static Collection<String> toStrings(final Collection<UUID> objectIds) {
+        final Collection<String> result = new LinkedHashSet<String>();
+        for (final UUID objectId : objectIds) {
+            if (objectId != null) {
+                result.add(objectId.toString());
+            }
+        }
+        return result;
+    }
+
+    private static Map<UUID, Long> withUUIDKeys(final Map<String, Long> values) {
+        final Map<UUID, Long> result = new HashMap<UUID, Long>();
+        for (final Map.Entry<String, Long> entry : values.entrySet()) {
+            result.put(UUID.fromString(entry.getKey()), entry.getValue());
+        }
+        return result;
+    }
+
     private interface OperationRetrieval<TypeOut> {
 
         public TypeOut doRetrieve(final ObjectType objectType);
     }
 
+    private interface BulkOperationRetrieval<TypeIn, TypeOut> {
+
+        // The returned map only contains the objects found
+        public Map<TypeIn, TypeOut> doRetrieve(final Collection<TypeIn> objectOrRecordIds, final ObjectType objectType);
+    }
+
     // 'cache' will be null for the CacheLoader classes -- or if cache is not configured.
     private static class WithCaching<TypeIn, TypeOut> {
 
@@ -199,5 +332,41 @@ public class DefaultNonEntityDao implements NonEntityDao {
             });
             return result;
         }
+
+        private Map<TypeIn, TypeOut> withBulkCaching(final BulkOperationRetrieval<TypeIn, TypeOut> op, final Collection<TypeIn> objectOrRecordIds, final ObjectType objectType, final TableName tableName, @Nullable final CacheController<TypeIn, TypeOut> cache) {
+            if (objectOrRecordIds.isEmpty()) {
+                return new HashMap<TypeIn, TypeOut>();
+            }
+
+            if (cache != null) {
+                if (!cache.getCacheType().isKeyPrefixedWithTableName()) {
+                    return cache.getAll(objectOrRecordIds, new CacheLoaderArgument(objectType));
+                }
+
+                final String keyPrefix = tableName + CacheControllerDispatcher.CACHE_KEY_SEPARATOR;
+                final List<TypeIn> keys = new ArrayList<TypeIn>(objectOrRecordIds.size());
+                for (final TypeIn objectOrRecordId : objectOrRecordIds) {
+                    keys.add((TypeIn) (keyPrefix + objectOrRecordId.toString()));
+                }
+                final Map<TypeIn, TypeOut> result = new HashMap<TypeIn, TypeOut>();
+                for (final Map.Entry<TypeIn, TypeOut> entry : cache.getAll(keys, new CacheLoaderArgument(objectType)).entrySet()) {
+                    result.put((TypeIn) entry.getKey().toString().substring(keyPrefix.length()), entry.getValue());
+                }
+                return result;
+            }
+
+            final Profiling<Map<TypeIn, TypeOut>, RuntimeException> prof = new Profiling<Map<TypeIn, TypeOut>, RuntimeException>();
+            return prof.executeWithProfiling(ProfilingFeatureType.DAO_DETAILS, "NonEntityDao (type = " + objectType + ") bulk cache miss", new WithProfilingCallback<Map<TypeIn, TypeOut>, RuntimeException>() {
+                @Override
+                public Map<TypeIn, TypeOut> execute() throws RuntimeException {
+                    final Map<TypeIn, TypeOut> result = new HashMap<TypeIn, TypeOut>();
+                    final List<TypeIn> allObjectOrRecordIds = new ArrayList<TypeIn>(objectOrRecordIds);
+                    for (int i = 0; i < allObjectOrRecordIds.size(); i += MAX_IDS_PER_QUERY) {
+                        result.putAll(op.doRetrieve(allObjectOrRecordIds.subList(i, Math.min(i + MAX_IDS_PER_QUERY, allObjectOrRecordIds.size())), objectType));
+                    }
+                    return result;
+                }
+            });
+        }
     }
 }
@@ -26,6 +26,9 @@ import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
 import java.lang.annotation.Target;
 import java.lang.reflect.InvocationTargetException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Map.Entry;
 
 import org.skife.jdbi.v2.SQLStatement;
 import org.skife.jdbi.v2.sqlobject.Binder;
@@ -54,11 +57,9 @@ public @interface EntityHistoryBinder {
                 public void bind(final SQLStatement<?> q, final EntityHistoryBinder bind, final EntityHistoryModelDao<M, E> history) {
                     try {
                         // Emulate @SmartBindBean
-                        final M arg = history.getEntity();
-                        final BeanInfo infos = Introspector.getBeanInfo(arg.getClass());
-                        final PropertyDescriptor[] props = infos.getPropertyDescriptors();
-                        for (final PropertyDescriptor prop : props) {
-                            q.bind(prop.getName(), prop.getReadMethod().invoke(arg));
+                        final Map<String, Object> entityProperties = history.getEntityProperties() != null ? history.getEntityProperties() : getEntityProperties(history.getEntity());
+                        for (final Entry<String, Object> entityProperty : entityProperties.entrySet()) {
+                            q.bind(entityProperty.getKey(), entityProperty.getValue());
                         }
                         q.bind("id", history.getId());
                         q.bind("targetRecordId", history.getTargetRecordId());
@@ -73,5 +74,15 @@ public @interface EntityHistoryBinder {
                 }
             };
         }
+
+        public static Map<String, Object> getEntityProperties(final Object entity) throws IntrospectionException, InvocationTargetException, IllegalAccessException {
+            final BeanInfo infos = Introspector.getBeanInfo(entity.getClass());
+            final PropertyDescriptor[] props = infos.getPropertyDescriptors();
+            final Map<String, Object> entityProperties = new LinkedHashMap<>(props.length);
+            for (final PropertyDescriptor prop : props) {
+                entityProperties.put(prop.getName(), prop.getReadMethod().invoke(entity));
+            }
+            return entityProperties;
+        }
     }
 }
@@ -29,14 +29,35 @@ import javax.annotation.Nullable;
 import org.killbill.commons.utils.collect.Iterators;
 
 // Assumes the original offset starts at zero.
+// Negative offsets are keyset (seek) pagination cursors instead, see DefaultPaginationSqlDaoHelper.
 public class DefaultPagination<T> implements Pagination<T>, Closeable {
 
     private final Long currentOffset;
     private final Long limit;
     private final Long totalNbRecords;
     private final Long maxNbRecords;
+    // Only used for keyset pagination
+    private final Long nextKeysetOffset;
     private final Iterator<T> delegateIterator;
 
+    public static boolean isKeysetOffset(@Nullable final Long offset) {
+        return offset != null && offset < 0;
+    }
+
+    // The first page is -1 (i.e. after record id 0)
+    public static Long toKeysetOffset(final long afterRecordId) {
+        return -afterRecordId - 1;
+    }
+
+    public static Long toAfterRecordId(final Long keysetOffset) {
+        return -keysetOffset - 1;
+    }
+
+    // Builder for keyset pagination: nextOffset is the cursor for the next page, if any
+    public static <T> DefaultPagination<T> withKeysetOffsets(final Long currentOffset, final Long limit, @Nullable final Long nextOffset, final Iterator<T> delegateIterator) {
+        return new DefaultPagination<T>(currentOffset, limit, null, null, nextOffset, delegateIterator);
+    }
+
     // Builders when the streaming API can't be used (should only be used for tests)
     // Notes: elements should be the entire records set (regardless of filtering) otherwise maxNbRecords won't be accurate
     public static <T> Pagination<T> build(final Long offset, final Long limit, final Collection<T> elements) {
@@ -59,7 +80,12 @@ public class DefaultPagination<T> implements Pagination<T>, Closeable {
 
     // Constructor for DAO -> API bridge
     public DefaultPagination(final Pagination original, final Long limit, final Iterator<T> delegate) {
-        this(original.getCurrentOffset(), limit, original.getTotalNbRecords(), original.getMaxNbRecords(), delegate);
+        this(original.getCurrentOffset(),
+             limit,
+             original.getTotalNbRecords(),
+             original.getMaxNbRecords(),
+             isKeysetOffset(original.getCurrentOffset()) ? original.getNextOffset() : null,
+             delegate);
     }
 
     // Constructor for DAO getAll calls
@@ -70,11 +96,19 @@ public class DefaultPagination<T> implements Pagination<T>, Closeable {
     public DefaultPagination(final Long currentOffset, final Long limit,
                              @Nullable final Long totalNbRecords, @Nullable final Long maxNbRecords,
                              final Iterator<T> delegateIterator) {
+        this(currentOffset, limit, totalNbRecords, maxNbRecords, null, delegateIterator);
+    }
+
+    private DefaultPagination(final Long currentOffset, final Long limit,
+                              @Nullable final Long totalNbRecords, @Nullable final Long maxNbRecords,
+                              @Nullable final Long nextKeysetOffset,
+                              final Iterator<T> delegateIterator) {
         this.currentOffset = currentOffset;
         // See DefaultPaginationSqlDaoHelper
         this.limit = Math.abs(limit);
         this.totalNbRecords = totalNbRecords;
         this.maxNbRecords = maxNbRecords;
+        this.nextKeysetOffset = nextKeysetOffset;
         this.delegateIterator = delegateIterator;
     }
 
@@ -102,6 +136,11 @@ public class DefaultPagination<T> implements Pagination<T>, Closeable {
 
     @Override
     public Long getNextOffset() {
+        if (isKeysetOffset(currentOffset)) {
+            // Null if there is no more results
+            return nextKeysetOffset;
+        }
+
         final long candidate = currentOffset + limit;
         if (totalNbRecords != null && candidate >= totalNbRecords) {
             // No more results
@@ -26,6 +26,7 @@ import org.killbill.billing.callcontext.InternalTenantContext;
 import org.killbill.billing.util.entity.DefaultPagination;
 import org.killbill.billing.util.entity.Entity;
 import org.killbill.billing.util.entity.Pagination;
+import org.killbill.commons.utils.Preconditions;
 import org.killbill.commons.utils.annotation.VisibleForTesting;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -78,6 +79,10 @@ public class DefaultPaginationSqlDaoHelper {
                                                                                                                               final Long limitMaybeNegative,
                                                                                                                               final boolean withAccountRecordId,
                                                                                                                               @Nullable final InternalTenantContext context) {
+        if (DefaultPagination.isKeysetOffset(offset)) {
+            return getKeysetPagination(sqlDaoClazz, paginationIteratorBuilder, offset, limitMaybeNegative, withAccountRecordId, context);
+        }
+
         // Use a negative limit as a hint to go backwards. It's a bit awkward -- using a negative offset instead would be more intuitive,
         // but it is non-deterministic for the first page unfortunately (limit 0 offset 50: ASC or DESC?)
         final Ordering ordering = limitMaybeNegative >= 0 ? Ordering.ASC : Ordering.DESC;
@@ -123,6 +128,30 @@ public class DefaultPaginationSqlDaoHelper {
         return new DefaultPagination<M>(offset, limit, totalNbRecords, maxNbRecords, results);
     }
 
+    // Keyset (seek) pagination: the (negative) offset encodes the record id to start after (see DefaultPagination#toKeysetOffset).
+    // Each page is an index range scan, and the count probes are skipped: walking a very large table is linear instead of quadratic.
+    private <E extends Entity, M extends EntityModelDao<E>, S extends EntitySqlDao<M, E>> Pagination<M> getKeysetPagination(final Class<? extends EntitySqlDao<M, E>> sqlDaoClazz,
+                                                                                                                            final PaginationIteratorBuilder<M, E, S> paginationIteratorBuilder,
+                                                                                                                            final Long offset,
+                                                                                                                            final Long limit,
+                                                                                                                            final boolean withAccountRecordId,
+                                                                                                                            @Nullable final InternalTenantContext context) {
+        Preconditions.checkArgument(limit > 0, "Keyset pagination requires a positive limit");
+        // Searches and account-scoped listings are offset-based only (see the cursor parameter of the JAX-RS listings)
+        Preconditions.checkArgument(paginationIteratorBuilder instanceof KeysetPaginationIteratorBuilder && !withAccountRecordId && context != null, "Keyset pagination isn't supported for this query");
+
+        final Long afterRecordId = DefaultPagination.toAfterRecordId(offset);
+        final EntitySqlDao<M, E> sqlDao = transactionalSqlDao.onDemandForStreamingResults(sqlDaoClazz);
+
+        // The next cursor is returned before the results are streamed (e.g. in the HTTP headers): look up the record id of the last row of the page
+        final Long lastRecordId = sqlDao.getRecordIdAtOffsetAfterRecordId(afterRecordId, limit - 1, context);
+        final Long nextOffset = lastRecordId == null ? null : DefaultPagination.toKeysetOffset(lastRecordId);
+
+        final Iterator<M> results = ((KeysetPaginationIteratorBuilder<M, E, S>) paginationIteratorBuilder).buildAfterRecordId((S) sqlDao, afterRecordId, limit, context);
+
+        return DefaultPagination.withKeysetOffsets(offset, limit, nextOffset, results);
+    }
+
     public abstract static class PaginationIteratorBuilder<M extends EntityModelDao<E>, E extends Entity, S extends EntitySqlDao<M, E>> {
 
         // Determine the totalNbRecords:
@@ -133,6 +162,13 @@ public class DefaultPaginationSqlDaoHelper {
         public abstract Iterator<M> build(final S sqlDao, final Long offset, final Long limit, final Ordering ordering, final InternalTenantContext context);
     }
 
+    // Builder for the queries supporting keyset pagination as well
+    public abstract static class KeysetPaginationIteratorBuilder<M extends EntityModelDao<E>, E extends Entity, S extends EntitySqlDao<M, E>> extends PaginationIteratorBuilder<M, E, S> {
+
+        // Records with a record_id greater than afterRecordId, ordered by record_id
+        public abstract Iterator<M> buildAfterRecordId(final S sqlDao, final Long afterRecordId, final Long limit, final InternalTenantContext context);
+    }
+
     public enum Ordering {
         ASC,
         DESC
@@ -38,6 +38,7 @@ import org.killbill.billing.util.dao.NonEntityDao;
 import org.killbill.billing.util.entity.DefaultPagination;
 import org.killbill.billing.util.entity.Entity;
 import org.killbill.billing.util.entity.Pagination;
+import org.killbill.billing.util.entity.dao.DefaultPaginationSqlDaoHelper.KeysetPaginationIteratorBuilder;
 import org.killbill.billing.util.entity.dao.DefaultPaginationSqlDaoHelper.Ordering;
 import org.killbill.billing.util.entity.dao.DefaultPaginationSqlDaoHelper.PaginationIteratorBuilder;
 import org.killbill.commons.utils.annotation.VisibleForTesting;
@@ -204,7 +205,7 @@ public abstract class EntityDaoBase<M extends EntityModelDao<E>, E extends Entit
     @Override
     public Pagination<M> get(final Long offset, final Long limit, final InternalTenantContext context) {
         return paginationHelper.getPagination(realSqlDao,
-                                              new PaginationIteratorBuilder<M, E, EntitySqlDao<M, E>>() {
+                                              new KeysetPaginationIteratorBuilder<M, E, EntitySqlDao<M, E>>() {
                                                   @Override
                                                   public Long getCount(final EntitySqlDao<M, E> sqlDao, final InternalTenantContext context) {
                                                       // Only need to compute it once, because no search filter has been applied (see DefaultPaginationSqlDaoHelper)
@@ -215,6 +216,11 @@ public abstract class EntityDaoBase<M extends EntityModelDao<E>, E extends Entit
                                                   public Iterator<M> build(final EntitySqlDao<M, E> sqlDao, final Long offset, final Long limit, final Ordering ordering, final InternalTenantContext context) {
                                                       return sqlDao.get(offset, limit, getNaturalOrderingColumns(), ordering.toString(), context);
                                                   }
+
+                                                  @Override
+                                                  public Iterator<M> buildAfterRecordId(final EntitySqlDao<M, E> sqlDao, final Long afterRecordId, final Long limit, final InternalTenantContext context) {
+                                                      return sqlDao.getAfterRecordId(afterRecordId, limit, context);
+                                                  }
                                               },
                                               offset,
                                               limit,
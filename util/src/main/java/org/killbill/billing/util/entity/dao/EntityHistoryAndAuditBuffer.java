@@ -0,0 +1,151 @@
+/*
+ * Copyright 2020-2026 Equinix, Inc
+ * Copyright 2014-2026 The Billing Project, LLC
+ *
+ * The Billing Project licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.killbill.billing.util.entity.dao;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import org.killbill.billing.callcontext.InternalCallContext;
+import org.killbill.billing.util.audit.ChangeType;
+import org.killbill.billing.util.dao.EntityAudit;
+import org.killbill.billing.util.dao.EntityHistoryBinder.EntityHistoryBinderFactory;
+import org.killbill.billing.util.dao.EntityHistoryModelDao;
+import org.killbill.billing.util.dao.TableName;
+import org.killbill.billing.util.entity.Entity;
+import org.killbill.commons.utils.Preconditions;
+
+/**
+ * Write-behind buffer for the history and audit rows generated by the @Audited calls of a transaction:
+ * rows are accumulated by EntitySqlDaoWrapperInvocationHandler and inserted with a few batches right before commit.
+ * <p>
+ * Histories are flushed table by table, in the order the changes were made (so that history record ids for a given entity
+ * keep being increasing), and their audit rows are generated once the history record ids are known.
+ * <p>
+ * Not thread safe: there is one instance per transaction (see EntitySqlDaoWrapperFactory).
+ */
+class EntityHistoryAndAuditBuffer {
+
+    // Pending histories, per table
+    private final Map<TableName, List<HistoryBatch>> histories = new LinkedHashMap<>();
+    // Pending audits for tables without history (audits for the other tables are added when their histories are flushed)
+    private final List<AuditBatch> audits = new ArrayList<>();
+
+    <M extends EntityModelDao<E>, E extends Entity> void addHistories(final EntitySqlDao<M, E> sqlDao,
+                                                                       final TableName tableName,
+                                                                       final Iterable<M> reHydratedEntityModelDaos,
+                                                                       final ChangeType changeType,
+                                                                       final InternalCallContext context) {
+        final List<HistoryBatch> historyBatches = histories.computeIfAbsent(tableName, t -> new ArrayList<>());
+        HistoryBatch historyBatch = historyBatches.isEmpty() ? null : historyBatches.get(historyBatches.size() - 1);
+        if (historyBatch == null || historyBatch.changeType != changeType || historyBatch.context != context) {
+            historyBatch = new HistoryBatch(sqlDao, tableName, changeType, context);
+            historyBatches.add(historyBatch);
+        }
+
+        for (final M reHydratedEntityModelDao : reHydratedEntityModelDaos) {
+            final EntityHistoryModelDao<M, E> history = new EntityHistoryModelDao<M, E>(reHydratedEntityModelDao, reHydratedEntityModelDao.getRecordId(), changeType, null, context.getCreatedDate());
+            // The entity could be modified by the caller before the flush
+            try {
+                history.setEntityProperties(EntityHistoryBinderFactory.getEntityProperties(reHydratedEntityModelDao));
+            } catch (final Exception e) {
+                throw new IllegalStateException(String.format("Unable to snapshot entity %s", reHydratedEntityModelDao), e);
+            }
+            historyBatch.histories.add(history);
+        }
+    }
+
+    void addAudits(final EntitySqlDao<?, ?> sqlDao,
+                   final Iterable<Long> auditTargetRecordIds,
+                   final TableName tableName,
+                   final ChangeType changeType,
+                   final InternalCallContext context) {
+        final TableName destinationTableName = Objects.requireNonNullElse(tableName.getHistoryTableName(), tableName);
+
+        AuditBatch auditBatch = audits.isEmpty() ? null : audits.get(audits.size() - 1);
+        if (auditBatch == null || auditBatch.context != context) {
+            auditBatch = new AuditBatch(sqlDao, context);
+            audits.add(auditBatch);
+        }
+
+        for (final Long auditTargetRecordId : auditTargetRecordIds) {
+            auditBatch.audits.add(new EntityAudit(destinationTableName, auditTargetRecordId, changeType, context.getCreatedDate()));
+        }
+    }
+
+    boolean isEmpty() {
+        return histories.isEmpty() && audits.isEmpty();
+    }
+
+    /**
+     * Insert all pending rows (the buffered sql daos are attached to the transaction handle)
+     */
+    void flush() {
+        for (final List<HistoryBatch> historyBatches : histories.values()) {
+            for (final HistoryBatch historyBatch : historyBatches) {
+                final List<Long> auditTargetRecordIds = historyBatch.insert();
+                // Note: audit entries point to the history record id
+                addAudits(historyBatch.sqlDao, auditTargetRecordIds, historyBatch.tableName, historyBatch.changeType, historyBatch.context);
+            }
+        }
+        histories.clear();
+
+        for (final AuditBatch auditBatch : audits) {
+            auditBatch.sqlDao.insertAuditsFromTransaction(auditBatch.audits, auditBatch.context);
+        }
+        audits.clear();
+    }
+
+    private static final class HistoryBatch {
+
+        private final EntitySqlDao sqlDao;
+        private final TableName tableName;
+        private final ChangeType changeType;
+        private final InternalCallContext context;
+        private final List<EntityHistoryModelDao> histories = new ArrayList<>();
+
+        private HistoryBatch(final EntitySqlDao sqlDao, final TableName tableName, final ChangeType changeType, final InternalCallContext context) {
+            this.sqlDao = sqlDao;
+            this.tableName = tableName;
+            this.changeType = changeType;
+            this.context = context;
+        }
+
+        @SuppressWarnings("unchecked")
+        private List<Long> insert() {
+            final List<Long> recordIds = sqlDao.addHistoriesFromTransaction(histories, context);
+            Preconditions.checkState(recordIds.size() == histories.size(), "Wrong number of history recordIds=%s (histories=%s)", recordIds, histories);
+            return recordIds;
+        }
+    }
+
+    private static final class AuditBatch {
+
+        // Any EntitySqlDao will do, audit_log is shared
+        private final EntitySqlDao<?, ?> sqlDao;
+        private final InternalCallContext context;
+        private final List<EntityAudit> audits = new ArrayList<>();
+
+        private AuditBatch(final EntitySqlDao<?, ?> sqlDao, final InternalCallContext context) {
+            this.sqlDao = sqlDao;
+            this.context = context;
+        }
+    }
+}
@@ -125,6 +125,17 @@ public interface EntitySqlDao<M extends EntityModelDao<E>, E extends Entity> ext
                            @Define("ordering") final String ordering,
                            @SmartBindBean final InternalTenantContext context);
 
+    @SqlQuery
+    @SmartFetchSize(shouldStream = true)
+    public Iterator<M> getAfterRecordId(@Bind("afterRecordId") final Long afterRecordId,
+                                        @Bind("rowCount") final Long rowCount,
+                                        @SmartBindBean final InternalTenantContext context);
+
+    @SqlQuery
+    public Long getRecordIdAtOffsetAfterRecordId(@Bind("afterRecordId") final Long afterRecordId,
+                                                 @Bind("offset") final Long offset,
+                                                 @SmartBindBean final InternalTenantContext context);
+
     @SqlQuery
     public Long getRecordIdAtOffset(@Bind("offset") final Long offset, @SmartBindBean final InternalTenantContext context);
     
@@ -71,7 +71,11 @@ public class EntitySqlDaoTransactionalJdbiWrapper {
         @Override
         public ReturnType inTransaction(final EntitySqlDao<M, E> transactionalSqlDao, final TransactionStatus status) throws Exception {
             final EntitySqlDaoWrapperFactory factoryEntitySqlDao = new EntitySqlDaoWrapperFactory(h, clock, cacheControllerDispatcher, internalCallContextFactory);
-            return entitySqlDaoTransactionWrapper.inTransaction(factoryEntitySqlDao);
+            final ReturnType result = entitySqlDaoTransactionWrapper.inTransaction(factoryEntitySqlDao);
+            factoryEntitySqlDao.runPreCommitCallbacks();
+            // Write-behind history and audit rows
+            factoryEntitySqlDao.flushHistoryAndAudits();
+            return result;
         }
     }
 
@@ -19,6 +19,11 @@
 package org.killbill.billing.util.entity.dao;
 
 import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
 
 import org.killbill.billing.util.cache.CacheControllerDispatcher;
 import org.killbill.billing.util.callcontext.InternalCallContextFactory;
@@ -40,6 +45,8 @@ public class EntitySqlDaoWrapperFactory {
     private final CacheControllerDispatcher cacheControllerDispatcher;
 
     private final InternalCallContextFactory internalCallContextFactory;
+    private final EntityHistoryAndAuditBuffer historyAndAuditBuffer = new EntityHistoryAndAuditBuffer();
+    private final Map<Object, Runnable> preCommitCallbacks = new LinkedHashMap<>();
 
     public EntitySqlDaoWrapperFactory(final Handle handle, final Clock clock, final CacheControllerDispatcher cacheControllerDispatcher, final InternalCallContextFactory internalCallContextFactory) {
         this.handle = handle;
@@ -67,13 +74,48 @@ public class EntitySqlDaoWrapperFactory {
         return handle;
     }
 
+    /**
+     * Get the callback registered for that key in this transaction, or register a new one. Callbacks are invoked
+     * right before the transaction commits, in registration order (they are discarded if the transaction rolls back).
+     *
+     * @param key              callback key
+     * @param callbackSupplier callback to register if there is none for that key yet
+     * @param <T>              callback type
+     * @return the callback for that key
+     */
+    @SuppressWarnings("unchecked")
+    public <T extends Runnable> T getOrRegisterPreCommitCallback(final Object key, final Supplier<T> callbackSupplier) {
+        return (T) preCommitCallbacks.computeIfAbsent(key, k -> callbackSupplier.get());
+    }
+
+    void runPreCommitCallbacks() {
+        // Callbacks could register other callbacks
+        while (!preCommitCallbacks.isEmpty()) {
+            final List<Runnable> callbacks = new ArrayList<>(preCommitCallbacks.values());
+            preCommitCallbacks.clear();
+            for (final Runnable callback : callbacks) {
+                callback.run();
+            }
+        }
+    }
+
+    /**
+     * Insert the history and audit rows of all the @Audited calls made so far through this factory.
+     * Must be invoked before the transaction commits.
+     */
+    void flushHistoryAndAudits() {
+        if (!historyAndAuditBuffer.isEmpty()) {
+            historyAndAuditBuffer.flush();
+        }
+    }
+
     private <NewSqlDao extends EntitySqlDao<NewEntityModelDao, NewEntity>,
             NewEntityModelDao extends EntityModelDao<NewEntity>,
             NewEntity extends Entity> NewSqlDao create(final Class<NewSqlDao> newSqlDaoClass, final NewSqlDao newSqlDao) {
         final ClassLoader classLoader = newSqlDao.getClass().getClassLoader();
         final Class[] interfacesToImplement = {newSqlDaoClass};
         final EntitySqlDaoWrapperInvocationHandler<NewSqlDao, NewEntityModelDao, NewEntity> wrapperInvocationHandler =
-                new EntitySqlDaoWrapperInvocationHandler<NewSqlDao, NewEntityModelDao, NewEntity>(newSqlDaoClass, newSqlDao, handle, cacheControllerDispatcher, internalCallContextFactory);
+                new EntitySqlDaoWrapperInvocationHandler<NewSqlDao, NewEntityModelDao, NewEntity>(newSqlDaoClass, newSqlDao, handle, cacheControllerDispatcher, internalCallContextFactory, historyAndAuditBuffer);
 
         final Object newSqlDaoObject = Proxy.newProxyInstance(classLoader, interfacesToImplement, wrapperInvocationHandler);
         return newSqlDaoClass.cast(newSqlDaoObject);
@@ -86,19 +86,23 @@ public class EntitySqlDaoWrapperInvocationHandler<S extends EntitySqlDao<M, E>,
 
     private final CacheControllerDispatcher cacheControllerDispatcher;
     private final InternalCallContextFactory internalCallContextFactory;
+    private final EntityHistoryAndAuditBuffer historyAndAuditBuffer;
     private final Profiling<Object, Throwable> prof;
 
-    public EntitySqlDaoWrapperInvocationHandler(final Class<S> sqlDaoClass,
-                                                final S sqlDao,
-                                                final Handle handle,
-                                                // Special DAO that don't require caching can invoke EntitySqlDaoWrapperInvocationHandler with no caching (e.g NoCachingTenantDao)
-                                                @Nullable final CacheControllerDispatcher cacheControllerDispatcher,
-                                                final InternalCallContextFactory internalCallContextFactory) {
+    EntitySqlDaoWrapperInvocationHandler(final Class<S> sqlDaoClass,
+                                         final S sqlDao,
+                                         final Handle handle,
+                                         // Special DAO that don't require caching can invoke EntitySqlDaoWrapperInvocationHandler with no caching (e.g NoCachingTenantDao)
+                                         @Nullable final CacheControllerDispatcher cacheControllerDispatcher,
+                                         final InternalCallContextFactory internalCallContextFactory,
+                                         // History and audit rows are inserted when the transaction completes
+                                         final EntityHistoryAndAuditBuffer historyAndAuditBuffer) {
         this.sqlDaoClass = sqlDaoClass;
         this.sqlDao = sqlDao;
         this.handle = handle;
         this.cacheControllerDispatcher = cacheControllerDispatcher;
         this.internalCallContextFactory = internalCallContextFactory;
+        this.historyAndAuditBuffer = historyAndAuditBuffer;
         this.prof = new Profiling<Object, Throwable>();
     }
 
@@ -350,7 +354,7 @@ public class EntitySqlDaoWrapperInvocationHandler<S extends EntitySqlDao<M, E>,
                rawKey;
     }
 
-    // Update history and audit tables.
+    // Update history and audit tables (the rows are buffered until the end of the transaction).
     // PERF: if the latest entities had to be fetched from the database, return them. Otherwise, return null.
     private Collection<M> updateHistoryAndAudit(final List<Long> entityRecordIds,
                                                 final Map<Long, M> deletedAndUpdatedEntities,
@@ -366,7 +370,7 @@ public class EntitySqlDaoWrapperInvocationHandler<S extends EntitySqlDao<M, E>,
             @Override
             public Collection<M> execute() {
                 if (tableName.getHistoryTableName() == null) {
-                    insertAudits(entityRecordIds, tableName, changeType, context);
+                    historyAndAuditBuffer.addAudits(sqlDao, entityRecordIds, tableName, changeType, context);
                     return deletedAndUpdatedEntities.values();
                 } else {
                     // Make sure to re-hydrate the objects first (especially needed for create calls)
@@ -388,10 +392,8 @@ public class EntitySqlDaoWrapperInvocationHandler<S extends EntitySqlDao<M, E>,
                     }
                     Preconditions.checkState(reHydratedEntities.size() == entityRecordIds.size(), "Wrong number of reHydratedEntities=%s (entityRecordIds=%s)", reHydratedEntities, entityRecordIds);
 
-                    final Collection<Long> auditTargetRecordIds = insertHistories(reHydratedEntities, changeType, context);
-                    // Note: audit entries point to the history record id
-                    Preconditions.checkState(auditTargetRecordIds.size() == entityRecordIds.size(), "Wrong number of auditTargetRecordIds=%s (entityRecordIds=%s)", auditTargetRecordIds, entityRecordIds);
-                    insertAudits(auditTargetRecordIds, tableName, changeType, context);
+                    // Audit entries (pointing to the history record ids) are generated when the histories are flushed
+                    historyAndAuditBuffer.addHistories(sqlDao, tableName, reHydratedEntities, changeType, context);
 
                     return reHydratedEntities;
                 }
@@ -501,35 +503,6 @@ public class EntitySqlDaoWrapperInvocationHandler<S extends EntitySqlDao<M, E>,
         throw new IllegalStateException("TimeZoneAwareEntity should have been found among " + args);
     }
 
-    private List<Long> insertHistories(final Iterable<M> reHydratedEntityModelDaos, final ChangeType changeType, final InternalCallContext context) {
-        final Collection<EntityHistoryModelDao<M, E>> histories = new LinkedList<EntityHistoryModelDao<M, E>>();
-        for (final M reHydratedEntityModelDao : reHydratedEntityModelDaos) {
-            final EntityHistoryModelDao<M, E> history = new EntityHistoryModelDao<M, E>(reHydratedEntityModelDao, reHydratedEntityModelDao.getRecordId(), changeType, null, context.getCreatedDate());
-            histories.add(history);
-        }
-
-        final List<Long> recordIds = sqlDao.addHistoriesFromTransaction(histories, context);
-        printSQLWarnings();
-        return recordIds;
-    }
-
-    // Bulk insert all audit logs for this operation
-    private void insertAudits(final Iterable<Long> auditTargetRecordIds,
-                              final TableName tableName,
-                              final ChangeType changeType,
-                              final InternalCallContext context) {
-        final TableName destinationTableName = Objects.requireNonNullElse(tableName.getHistoryTableName(), tableName);
-
-        final Collection<EntityAudit> audits = new LinkedList<>();
-        for (final Long auditTargetRecordId : auditTargetRecordIds) {
-            final EntityAudit audit = new EntityAudit(destinationTableName, auditTargetRecordId, changeType, context.getCreatedDate());
-            audits.add(audit);
-        }
-
-        sqlDao.insertAuditsFromTransaction(audits, context);
-        printSQLWarnings();
-    }
-
     private String getProfilingId(@Nullable final String prefix, @Nullable final Method method) {
         final StringBuilder stringBuilder = new StringBuilder().append(sqlDaoClass.getSimpleName());
 
@@ -17,16 +17,21 @@
 package org.killbill.billing.util.export.api;
 
 import java.io.OutputStream;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 import jakarta.inject.Inject;
 
+import org.killbill.billing.ObjectType;
 import org.killbill.billing.util.api.DatabaseExportOutputStream;
 import org.killbill.billing.util.api.ExportUserApi;
 import org.killbill.billing.util.callcontext.CallContext;
 import org.killbill.billing.callcontext.InternalCallContext;
 import org.killbill.billing.util.callcontext.InternalCallContextFactory;
 import org.killbill.billing.util.export.dao.CSVExportOutputStream;
+import org.killbill.billing.util.export.dao.ColumnarExportOutputStream;
 import org.killbill.billing.util.export.dao.DatabaseExportDao;
 
 public class DefaultExportUserApi implements ExportUserApi {
@@ -51,4 +56,23 @@ public class DefaultExportUserApi implements ExportUserApi {
     public void exportDataAsCSVForAccount(final UUID accountId, final OutputStream out, final CallContext context) {
         exportDataForAccount(accountId, new CSVExportOutputStream(out), context);
     }
+
+    public void exportDataAsColumnarForAccount(final UUID accountId, final OutputStream out, final CallContext context) {
+        exportDataForAccount(accountId, new ColumnarExportOutputStream(out), context);
+    }
+
+    // Tenant-wide export (e.g. at offboarding): each table is exported once for all accounts
+    public void exportDataForAccounts(final List<UUID> accountIds, final DatabaseExportOutputStream out, final CallContext context) {
+        final InternalCallContext internalContext = internalCallContextFactory.createInternalCallContextWithoutAccountRecordId(context);
+        // Unknown accounts, or accounts from another tenant, are ignored
+        final Map<UUID, Long> accountRecordIdsById = internalCallContextFactory.getRecordIdsFromObjects(accountIds, ObjectType.ACCOUNT, context);
+        final Map<Long, UUID> accountIdsByRecordId = new LinkedHashMap<>();
+        for (final UUID accountId : accountIds) {
+            final Long accountRecordId = accountRecordIdsById.get(accountId);
+            if (accountRecordId != null) {
+                accountIdsByRecordId.put(accountRecordId, accountId);
+            }
+        }
+        exportDao.exportDataForAccounts(out, accountIdsByRecordId, context.getTenantId(), internalContext);
+    }
 }
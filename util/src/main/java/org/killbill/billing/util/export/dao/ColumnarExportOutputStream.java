@@ -0,0 +1,152 @@
+/*
+ * Copyright 2020-2026 Equinix, Inc
+ * Copyright 2014-2026 The Billing Project, LLC
+ *
+ * The Billing Project licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.killbill.billing.util.export.dao;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.DeflaterOutputStream;
+
+import org.killbill.billing.util.api.ColumnInfo;
+import org.killbill.billing.util.api.DatabaseExportOutputStream;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+
+/**
+ * Compressed, columnar alternative to CSVExportOutputStream (see ColumnarExportReader).
+ * <p>
+ * For each table, a header ('T', table name, number of columns, then the name and data type of each column) is
+ * followed by blocks of up to BLOCK_SIZE rows ('B', number of rows, then for each column the length and bytes of the
+ * column values, encoded as a Smile array and deflated). Strings are written with DataOutput#writeUTF.
+ * <p>
+ * Rows are buffered per block: the last block is written on flush() or when the next table starts.
+ */
+public class ColumnarExportOutputStream extends OutputStream implements DatabaseExportOutputStream {
+
+    static final byte TABLE_MARKER = 'T';
+    static final byte BLOCK_MARKER = 'B';
+    static final int BLOCK_SIZE = 4096;
+
+    static final ObjectMapper mapper = new ObjectMapper(new SmileFactory());
+
+    static {
+        // Same representation as the CSV export
+        mapper.configure(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS, false);
+    }
+
+    private final DataOutputStream delegate;
+
+    private List<String> currentColumnNames;
+    private List<List<Object>> currentColumns;
+    private int nbRowsInBlock;
+
+    public ColumnarExportOutputStream(final OutputStream delegate) {
+        this.delegate = new DataOutputStream(delegate);
+    }
+
+    @Override
+    public void write(final int b) throws IOException {
+        delegate.write(b);
+    }
+
+    @Override
+    public void flush() throws IOException {
+        writeBlock();
+        delegate.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        flush();
+        delegate.close();
+    }
+
+    @Override
+    public void newTable(final String tableName, final List<ColumnInfo> columnsForTable) {
+        try {
+            writeBlock();
+
+            delegate.writeByte(TABLE_MARKER);
+            // Ignore casing (for H2)
+            delegate.writeUTF(tableName.toLowerCase());
+            delegate.writeInt(columnsForTable.size());
+            currentColumnNames = new ArrayList<>(columnsForTable.size());
+            currentColumns = new ArrayList<>(columnsForTable.size());
+            for (final ColumnInfo columnInfo : columnsForTable) {
+                final String columnName = columnInfo.getColumnName().toLowerCase();
+                delegate.writeUTF(columnName);
+                delegate.writeUTF(columnInfo.getDataType() == null ? "" : columnInfo.getDataType());
+                currentColumnNames.add(columnName);
+                currentColumns.add(new ArrayList<>());
+            }
+        } catch (final IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    @Override
+    public void write(final Map<String, Object> row) throws IOException {
+        for (int i = 0; i < currentColumnNames.size(); i++) {
+            currentColumns.get(i).add(getValue(row, currentColumnNames.get(i)));
+        }
+        nbRowsInBlock++;
+
+        if (nbRowsInBlock == BLOCK_SIZE) {
+            writeBlock();
+        }
+    }
+
+    private void writeBlock() throws IOException {
+        if (nbRowsInBlock == 0) {
+            return;
+        }
+
+        delegate.writeByte(BLOCK_MARKER);
+        delegate.writeInt(nbRowsInBlock);
+        for (final List<Object> column : currentColumns) {
+            final ByteArrayOutputStream compressedColumn = new ByteArrayOutputStream();
+            try (final DeflaterOutputStream deflaterOutputStream = new DeflaterOutputStream(compressedColumn)) {
+                mapper.writeValue(deflaterOutputStream, column);
+            }
+            delegate.writeInt(compressedColumn.size());
+            compressedColumn.writeTo(delegate);
+            column.clear();
+        }
+        nbRowsInBlock = 0;
+    }
+
+    private static Object getValue(final Map<String, Object> row, final String columnName) {
+        // Ignore casing (for H2)
+        final Object value = row.get(columnName);
+        if (value != null || row.containsKey(columnName)) {
+            return value;
+        }
+        for (final Map.Entry<String, Object> entry : row.entrySet()) {
+            if (entry.getKey().equalsIgnoreCase(columnName)) {
+                return entry.getValue();
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright 2020-2026 Equinix, Inc
+ * Copyright 2014-2026 The Billing Project, LLC
+ *
+ * The Billing Project licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.killbill.billing.util.export.dao;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.InflaterInputStream;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+
+/**
+ * Reads back the output of ColumnarExportOutputStream, as rows per table.
+ */
+public class ColumnarExportReader {
+
+    private static final TypeReference<List<Object>> COLUMN_TYPE = new TypeReference<List<Object>>() {};
+
+    public static Map<String, List<Map<String, Object>>> read(final InputStream inputStream) throws IOException {
+        final Map<String, List<Map<String, Object>>> rowsPerTable = new LinkedHashMap<>();
+
+        final DataInputStream in = new DataInputStream(inputStream);
+        List<String> columnNames = null;
+        List<Map<String, Object>> rows = null;
+        while (true) {
+            final int marker = in.read();
+            if (marker == -1) {
+                break;
+            } else if (marker == ColumnarExportOutputStream.TABLE_MARKER) {
+                final String tableName = in.readUTF();
+                final int nbColumns = in.readInt();
+                columnNames = new ArrayList<>(nbColumns);
+                for (int i = 0; i < nbColumns; i++) {
+                    columnNames.add(in.readUTF());
+                    // Data type
+                    in.readUTF();
+                }
+                rows = rowsPerTable.computeIfAbsent(tableName, t -> new ArrayList<>());
+            } else if (marker == ColumnarExportOutputStream.BLOCK_MARKER && rows != null) {
+                final int nbRows = in.readInt();
+                final List<Map<String, Object>> blockRows = new ArrayList<>(nbRows);
+                for (int i = 0; i < nbRows; i++) {
+                    blockRows.add(new LinkedHashMap<>());
+                }
+                for (final String columnName : columnNames) {
+                    final byte[] compressedColumn = new byte[in.readInt()];
+                    in.readFully(compressedColumn);
+                    final List<Object> column = ColumnarExportOutputStream.mapper.readValue(new InflaterInputStream(new ByteArrayInputStream(compressedColumn)), COLUMN_TYPE);
+                    for (int i = 0; i < nbRows; i++) {
+                        blockRows.get(i).put(columnName, column.get(i));
+                    }
+                }
+                rows.addAll(blockRows);
+            } else {
+                throw new EOFException("Unexpected marker " + marker);
+            }
+        }
+
+        return rowsPerTable;
+    }
+}
@@ -16,15 +16,22 @@
 
 package org.killbill.billing.util.export.dao;
 
+import java.io.Flushable;
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.sql.Blob;
 import java.sql.Clob;
 import java.util.ArrayList;
+import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.TreeMap;
 import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import jakarta.inject.Inject;
 import jakarta.inject.Singleton;
@@ -36,10 +43,9 @@ import org.killbill.billing.util.config.definition.ExportConfig;
 import org.killbill.billing.util.dao.TableName;
 import org.killbill.billing.util.validation.DefaultColumnInfo;
 import org.killbill.billing.util.validation.dao.DatabaseSchemaDao;
-import org.skife.jdbi.v2.Handle;
 import org.skife.jdbi.v2.IDBI;
+import org.skife.jdbi.v2.Query;
 import org.skife.jdbi.v2.ResultIterator;
-import org.skife.jdbi.v2.tweak.HandleCallback;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -48,6 +54,10 @@ public class DatabaseExportDao {
 
     private static final Logger logger = LoggerFactory.getLogger(DatabaseExportDao.class);
 
+    // Number of rows buffered per table between the reader and the output stream
+    private static final int QUEUE_CAPACITY = 1000;
+    private static final Object END_OF_TABLE = new Object();
+
     private final DatabaseSchemaDao databaseSchemaDao;
 
     private final ExportConfig exportConfig;
@@ -99,42 +109,235 @@ public class DatabaseExportDao {
             return;
         }
 
+        exportDataForAccounts(out, Map.of(context.getAccountRecordId(), accountId), tenantId, context);
+    }
+
+    /**
+     * Export the data of several accounts of the same tenant: for each table, all accounts are exported together (rows
+     * aren't grouped by account), by chunks of org.killbill.export.accounts.batchSize accounts.
+     *
+     * @param out                   the output stream
+     * @param accountIdsByRecordId  account ids, by account record id
+     * @param tenantId              the tenant id
+     * @param context               the tenant context (the account record id is ignored)
+     */
+    public void exportDataForAccounts(final DatabaseExportOutputStream out, final Map<Long, UUID> accountIdsByRecordId, final UUID tenantId, final InternalTenantContext context) {
+        if (accountIdsByRecordId.isEmpty() || context.getTenantRecordId() == null) {
+            return;
+        }
+
+        final List<ExportedTable> exportedTables = getExportedTables();
+        if (exportedTables.isEmpty()) {
+            return;
+        }
+
+        final List<List<Long>> accountRecordIdsChunks = new ArrayList<>();
+        final List<Long> accountRecordIds = new ArrayList<>(accountIdsByRecordId.keySet());
+        final int batchSize = Math.max(1, exportConfig.getAccountsBatchSize());
+        for (int i = 0; i < accountRecordIds.size(); i += batchSize) {
+            accountRecordIdsChunks.add(accountRecordIds.subList(i, Math.min(i + batchSize, accountRecordIds.size())));
+        }
+
+        // Tables are read concurrently (up to org.killbill.export.threads.nb at a time), but written one after the other,
+        // in the same order as the sequential export
+        final int nbThreads = Math.max(1, exportConfig.getThreadsNb());
+        final ExecutorService executor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("export-th-", 0).factory());
+        try {
+            final LinkedList<BlockingQueue<Object>> pendingTables = new LinkedList<>();
+            int nextTableToRead = 0;
+            for (final ExportedTable exportedTable : exportedTables) {
+                while (nextTableToRead < exportedTables.size() && pendingTables.size() < nbThreads) {
+                    pendingTables.add(readTable(executor, exportedTables.get(nextTableToRead), accountRecordIdsChunks, accountIdsByRecordId, tenantId, context.getTenantRecordId()));
+                    nextTableToRead++;
+                }
+
+                // Notify the stream that we're about to write data for a different table
+                out.newTable(exportedTable.tableName, exportedTable.columns);
+                writeTable(out, pendingTables.removeFirst());
+            }
+
+            if (out instanceof Flushable) {
+                ((Flushable) out).flush();
+            }
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } finally {
+            // Stop any reader still running (e.g. in case of a write failure)
+            executor.shutdownNow();
+        }
+    }
+
+    private void writeTable(final DatabaseExportOutputStream out, final BlockingQueue<Object> rows) throws InterruptedException, IOException {
+        while (true) {
+            final Object next = rows.take();
+            if (next == END_OF_TABLE) {
+                return;
+            } else if (next instanceof RuntimeException) {
+                throw (RuntimeException) next;
+            } else if (next instanceof Throwable) {
+                throw new RuntimeException((Throwable) next);
+            }
+
+            @SuppressWarnings("unchecked")
+            final Map<String, Object> row = (Map<String, Object>) next;
+            try {
+                out.write(row);
+            } catch (final IOException e) {
+                logger.warn("Unable to write row: {}", row, e);
+                throw e;
+            }
+        }
+    }
+
+    private BlockingQueue<Object> readTable(final ExecutorService executor,
+                                            final ExportedTable exportedTable,
+                                            final List<List<Long>> accountRecordIdsChunks,
+                                            final Map<Long, UUID> accountIdsByRecordId,
+                                            final UUID tenantId,
+                                            final Long tenantRecordId) {
+        final BlockingQueue<Object> rows = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+        executor.submit(() -> {
+            try {
+                for (int i = 0; i < accountRecordIdsChunks.size(); i++) {
+                    readTableForAccounts(exportedTable, accountRecordIdsChunks.get(i), i == 0, accountIdsByRecordId, tenantId, tenantRecordId, rows);
+                }
+                rows.put(END_OF_TABLE);
+            } catch (final InterruptedException e) {
+                // Export aborted
+                Thread.currentThread().interrupt();
+            } catch (final Throwable e) {
+                logger.warn("Unable to export table {}", exportedTable.tableName, e);
+                // Unblock the writer
+                rows.clear();
+                rows.offer(e);
+            }
+            return null;
+        });
+        return rows;
+    }
+
+    private void readTableForAccounts(final ExportedTable exportedTable,
+                                      final List<Long> accountRecordIds,
+                                      final boolean firstChunk,
+                                      final Map<Long, UUID> accountIdsByRecordId,
+                                      final UUID tenantId,
+                                      final Long tenantRecordId,
+                                      final BlockingQueue<Object> rows) {
+        final TableType tableType = exportedTable.tableType;
+
+        final StringBuilder accountsInClause = new StringBuilder("(");
+        for (int i = 0; i < accountRecordIds.size(); i++) {
+            accountsInClause.append(i == 0 ? ":accountRecordId" : ", :accountRecordId").append(i);
+        }
+        accountsInClause.append(")");
+
+        final StringBuilder queryBuilder = new StringBuilder(exportedTable.selectClause);
+        if (tableType == TableType.EXTRA) {
+            queryBuilder.append(" where ")
+                        .append(tableType.getTenantRecordIdColumnName())
+                        .append("  = :tenantRecordId and (")
+                        .append(tableType.getAccountRecordIdColumnName())
+                        .append(" in ")
+                        .append(accountsInClause);
+            if (firstChunk) {
+                queryBuilder.append(" OR ")
+                            .append(tableType.getAccountRecordIdColumnName()) //TODO_354 - Custom logic for aviate_catalog, to include tenant level entries when accountId is null
+                            .append(" is null");
+            }
+            queryBuilder.append(")");
+        } else {
+            // Build the query - make sure to filter by account and tenant!
+            queryBuilder.append(" where ")
+                        .append(tableType.getAccountRecordIdColumnName())
+                        .append(" in ")
+                        .append(accountsInClause)
+                        .append(" and ")
+                        .append(tableType.getTenantRecordIdColumnName())
+                        .append("  = :tenantRecordId");
+        }
+
+        // Run in a transaction, as some drivers (e.g. PostgreSQL) only use a cursor when auto-commit is disabled
+        dbi.inTransaction((handle, status) -> {
+            final Query<Map<String, Object>> query = handle.createQuery(queryBuilder.toString())
+                                                           .setFetchSize(exportConfig.getFetchSize())
+                                                           .bind("tenantRecordId", tableType == TableType.EXTRA ? tenantId : tenantRecordId);
+            for (int i = 0; i < accountRecordIds.size(); i++) {
+                final Long accountRecordId = accountRecordIds.get(i);
+                query.bind("accountRecordId" + i, tableType == TableType.EXTRA ? accountIdsByRecordId.get(accountRecordId) : accountRecordId);
+            }
+
+            final ResultIterator<Map<String, Object>> iterator = query.iterator();
+            try {
+                while (iterator.hasNext()) {
+                    final Map<String, Object> row = iterator.next();
+
+                    for (final Entry<String, Object> entry : row.entrySet()) {
+                        final String k = entry.getKey();
+                        final Object value = entry.getValue();
+                        // For h2, transform a JdbcBlob and a JdbcClob into a byte[]
+                        // See also LowerToCamelBeanMapper
+                        if (value instanceof Blob) {
+                            final Blob blob = (Blob) value;
+                            row.put(k, blob.getBytes(1, (int) blob.length()));
+                        } else if (value instanceof Clob) {
+                            // TODO Update LowerToCamelBeanMapper?
+                            final Clob clob = (Clob) value;
+                            row.put(k, clob.getSubString(1, (int) clob.length()));
+                        } else if (value != null &&
+                                   exportedTable.columnsLookup.get(k) != null &&
+                                   exportedTable.columns.get(exportedTable.columnsLookup.get(k)) != null &&
+                                   "boolean".equals(exportedTable.columns.get(exportedTable.columnsLookup.get(k)).getDataType())) {
+                            row.put(k, value instanceof Boolean ? value : "1".equals(value.toString())); // Most likely Byte
+                        }
+                    }
+
+                    rows.put(row);
+                }
+            } finally {
+                iterator.close();
+            }
+            return null;
+        });
+    }
+
+    private List<ExportedTable> getExportedTables() {
+        final List<ExportedTable> exportedTables = new ArrayList<>();
+
         final List<DefaultColumnInfo> columns = databaseSchemaDao.getColumnInfoList();
         if (columns.size() == 0) {
-            return;
+            return exportedTables;
         }
 
-        final List<ColumnInfo> columnsForTable = new ArrayList<ColumnInfo>();
+        List<ColumnInfo> columnsForTable = new ArrayList<ColumnInfo>();
         // Separate lookup table, to keep the ordering of the columns
-        final Map<String, Integer> columnsLookup = new TreeMap<>(String.CASE_INSENSITIVE_ORDER); // Ignore casing (for H2)
+        Map<String, Integer> columnsLookup = new TreeMap<>(String.CASE_INSENSITIVE_ORDER); // Ignore casing (for H2)
 
         // The list of columns is ordered by table name first
         String lastSeenTableName = columns.get(0).getTableName();
         int j = 0;
         for (final ColumnInfo column : columns) {
             if (!column.getTableName().equals(lastSeenTableName)) {
-                exportDataForAccountAndTable(out, columnsForTable, columnsLookup, accountId, tenantId, context);
+                addExportedTable(exportedTables, columnsForTable, columnsLookup);
                 lastSeenTableName = column.getTableName();
-                columnsForTable.clear();
-                columnsLookup.clear();
+                columnsForTable = new ArrayList<ColumnInfo>();
+                columnsLookup = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
                 j = 0;
             }
             columnsForTable.add(column);
             columnsLookup.put(column.getColumnName(), j);
             j++;
         }
-        exportDataForAccountAndTable(out, columnsForTable, columnsLookup, accountId, tenantId, context);
-    }
-
-
-    private void exportDataForAccountAndTable(final DatabaseExportOutputStream out,
-                                              final List<ColumnInfo> columnsForTable,
-                                              final Map<String, Integer> columnsLookup,
-                                              final UUID accountId,
-                                              final UUID tenantId,
-                                              final InternalTenantContext context) {
+        addExportedTable(exportedTables, columnsForTable, columnsLookup);
 
+        return exportedTables;
+    }
 
+    private void addExportedTable(final List<ExportedTable> exportedTables,
+                                  final List<ColumnInfo> columnsForTable,
+                                  final Map<String, Integer> columnsLookup) {
         TableType tableType = TableType.OTHER;
         final String tableName = columnsForTable.get(0).getTableName();
 
@@ -185,77 +388,29 @@ public class DatabaseExportDao {
             return;
         }
 
-        if (tableType == TableType.EXTRA) {
-
-            queryBuilder.append(" from ")
-                        .append(tableName)
-                        .append(" where ")
-                        .append(tableType.getTenantRecordIdColumnName())
-                        .append("  = :tenantRecordId and (")
-                        .append(tableType.getAccountRecordIdColumnName())
-                        .append(" = :accountRecordId OR ")
-                        .append(tableType.getAccountRecordIdColumnName()) //TODO_354 - Custom logic for aviate_catalog, to include tenant level entries when accountId is null
-                        .append(" is null)")
-            ;
-
-        } else {
+        queryBuilder.append(" from ")
+                    .append(tableName);
+        exportedTables.add(new ExportedTable(tableName, columnsForTable, columnsLookup, tableType, queryBuilder.toString()));
+    }
 
-            // Build the query - make sure to filter by account and tenant!
-            queryBuilder.append(" from ")
-                        .append(tableName)
-                        .append(" where ")
-                        .append(tableType.getAccountRecordIdColumnName())
-                        .append(" = :accountRecordId and ")
-                        .append(tableType.getTenantRecordIdColumnName())
-                        .append("  = :tenantRecordId");
+    private static final class ExportedTable {
+
+        private final String tableName;
+        private final List<ColumnInfo> columns;
+        private final Map<String, Integer> columnsLookup;
+        private final TableType tableType;
+        private final String selectClause;
+
+        private ExportedTable(final String tableName,
+                              final List<ColumnInfo> columns,
+                              final Map<String, Integer> columnsLookup,
+                              final TableType tableType,
+                              final String selectClause) {
+            this.tableName = tableName;
+            this.columns = columns;
+            this.columnsLookup = columnsLookup;
+            this.tableType = tableType;
+            this.selectClause = selectClause;
         }
-
-        // Notify the stream that we're about to write data for a different table
-        out.newTable(tableName, columnsForTable);
-        final TableType finalTableType = tableType;
-        dbi.withHandle(new HandleCallback<Void>() {
-            @Override
-            public Void withHandle(final Handle handle) throws Exception {
-                final ResultIterator<Map<String, Object>> iterator = handle.createQuery(queryBuilder.toString())
-                                                                           .bind("accountRecordId", finalTableType == TableType.EXTRA ? accountId : context.getAccountRecordId())
-                                                                           .bind("tenantRecordId", finalTableType == TableType.EXTRA ? tenantId : context.getTenantRecordId())
-                                                                           .iterator();
-                try {
-                    while (iterator.hasNext()) {
-                        final Map<String, Object> row = iterator.next();
-
-                        for (final Entry<String, Object> entry : row.entrySet()) {
-                            final String k = entry.getKey();
-                            final Object value = entry.getValue();
-                            // For h2, transform a JdbcBlob and a JdbcClob into a byte[]
-                            // See also LowerToCamelBeanMapper
-                            if (value instanceof Blob) {
-                                final Blob blob = (Blob) value;
-                                row.put(k, blob.getBytes(1, (int) blob.length()));
-                            } else if (value instanceof Clob) {
-                                // TODO Update LowerToCamelBeanMapper?
-                                final Clob clob = (Clob) value;
-                                row.put(k, clob.getSubString(1, (int) clob.length()));
-                            } else if (value != null &&
-                                       columnsLookup.get(k) != null &&
-                                       columnsForTable.get(columnsLookup.get(k)) != null &&
-                                       "boolean".equals(columnsForTable.get(columnsLookup.get(k)).getDataType())) {
-                                row.put(k, value instanceof Boolean ? value : "1".equals(value.toString())); // Most likely Byte
-                            }
-                        }
-
-                        try {
-                            out.write(row);
-                        } catch (final IOException e) {
-                            logger.warn("Unable to write row: {}", row, e);
-                            throw e;
-                        }
-                    }
-                } finally {
-                    iterator.close();
-                }
-                return null;
-            }
-        });
     }
 }
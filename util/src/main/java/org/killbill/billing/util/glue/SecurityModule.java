@@ -23,6 +23,7 @@ import org.killbill.billing.security.api.SecurityApi;
 import org.killbill.billing.util.config.definition.SecurityConfig;
 import org.killbill.billing.util.security.api.DefaultSecurityApi;
 import org.killbill.billing.util.security.api.DefaultSecurityService;
+import org.killbill.billing.util.security.api.SecurityCacheInvalidationListener;
 import org.killbill.billing.util.security.api.SecurityService;
 import org.killbill.billing.util.security.shiro.dao.DefaultUserDao;
 import org.killbill.billing.util.security.shiro.dao.UserDao;
@@ -51,6 +52,7 @@ public class SecurityModule extends KillBillModule {
     }
 
     private void installSecurityApi() {
+        bind(SecurityCacheInvalidationListener.class).asEagerSingleton();
         bind(SecurityApi.class).to(DefaultSecurityApi.class).asEagerSingleton();
     }
 
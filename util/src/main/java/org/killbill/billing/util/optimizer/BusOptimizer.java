@@ -18,10 +18,20 @@
 package org.killbill.billing.util.optimizer;
 
 import org.killbill.billing.callcontext.InternalCallContext;
+import org.killbill.billing.util.entity.dao.EntitySqlDaoWrapperFactory;
+import org.killbill.bus.api.BusEvent;
 import org.killbill.bus.api.PersistentBus;
 
 public interface BusOptimizer extends PersistentBus {
 
     boolean shouldAggregateSubscriptionEvents(final InternalCallContext context);
 
+    // Same as postFromTransaction(event, connection), but the event may be coalesced with the other events of the transaction
+    void postFromTransaction(final BusEvent event, final EntitySqlDaoWrapperFactory entitySqlDaoWrapperFactory) throws EventBusException;
+
+    // Returns true if the external events are from now on posted by the outbox, alongside their internal events
+    boolean registerExternalBusEventOutbox(final ExternalBusEventOutbox externalBusEventOutbox);
+
+    void unregisterExternalBusEventOutbox();
+
 }
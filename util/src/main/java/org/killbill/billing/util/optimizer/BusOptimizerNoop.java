@@ -23,6 +23,7 @@ import jakarta.inject.Inject;
 
 import org.joda.time.DateTime;
 import org.killbill.billing.callcontext.InternalCallContext;
+import org.killbill.billing.util.entity.dao.EntitySqlDaoWrapperFactory;
 import org.killbill.bus.api.BusEvent;
 import org.killbill.bus.api.BusEventWithMetadata;
 import org.killbill.bus.api.PersistentBus;
@@ -61,6 +62,11 @@ public class BusOptimizerNoop implements BusOptimizer {
         delegate.postFromTransaction(event, connection);
     }
 
+    @Override
+    public void postFromTransaction(final BusEvent event, final EntitySqlDaoWrapperFactory entitySqlDaoWrapperFactory) throws EventBusException {
+        delegate.postFromTransaction(event, entitySqlDaoWrapperFactory.getHandle().getConnection());
+    }
+
     @Override
     public <T extends BusEvent> Iterable<BusEventWithMetadata<T>> getAvailableBusEventsForSearchKeys(final Long searchKey1, final Long searchKey2) {
         return delegate.getAvailableBusEventsForSearchKeys(searchKey1, searchKey2);
@@ -145,4 +151,13 @@ public class BusOptimizerNoop implements BusOptimizer {
     public boolean shouldAggregateSubscriptionEvents(final InternalCallContext context) {
         return false;
     }
+
+    @Override
+    public boolean registerExternalBusEventOutbox(final ExternalBusEventOutbox externalBusEventOutbox) {
+        return false;
+    }
+
+    @Override
+    public void unregisterExternalBusEventOutbox() {
+    }
 }
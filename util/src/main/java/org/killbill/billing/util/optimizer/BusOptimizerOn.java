@@ -18,12 +18,26 @@
 package org.killbill.billing.util.optimizer;
 
 import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import jakarta.inject.Inject;
 
 import org.joda.time.DateTime;
 import org.killbill.billing.callcontext.InternalCallContext;
+import org.killbill.billing.callcontext.InternalTenantContext;
+import org.killbill.billing.events.BlockingTransitionInternalEvent;
 import org.killbill.billing.events.BusInternalEvent;
+import org.killbill.billing.events.BusInternalEvent.BusInternalEventType;
+import org.killbill.billing.events.InvoiceAdjustmentInternalEvent;
+import org.killbill.billing.util.config.tenant.CacheConfig;
+import org.killbill.billing.util.entity.dao.EntitySqlDaoWrapperFactory;
 import org.killbill.commons.utils.Preconditions;
 import org.killbill.billing.util.config.definition.EventConfig;
 import org.killbill.bus.api.BusEvent;
@@ -38,11 +52,21 @@ public class BusOptimizerOn implements BusOptimizer {
 
     private final PersistentBus delegate;
     private final EventConfig eventConfig;
+    private final CacheConfig cacheConfig;
+
+    // Snapshot of the per-tenant skip lists (keyed by tenantRecordId), refreshed when the per-tenant config changes
+    private final Map<Long, List<BusInternalEventType>> skipPostBusEventTypesPerTenant = new ConcurrentHashMap<>();
+
+    private volatile ExternalBusEventOutbox externalBusEventOutbox;
 
     @Inject
-    public BusOptimizerOn(final PersistentBus eventBus, final EventConfig eventConfig) {
+    public BusOptimizerOn(final PersistentBus eventBus, final EventConfig eventConfig, final CacheConfig cacheConfig) {
         this.delegate = eventBus;
         this.eventConfig = eventConfig;
+        this.cacheConfig = cacheConfig;
+        // Invoked by TenantCacheInvalidation, outside of any transaction
+        cacheConfig.addInvalidationListener(tenantContext -> skipPostBusEventTypesPerTenant.put(tenantContext.getTenantRecordId(),
+                                                                                                 eventConfig.getSkipPostBusEventTypeList(tenantContext)));
         logger.info("Feature BusOptimizer is ON");
     }
 
@@ -56,36 +80,74 @@ public class BusOptimizerOn implements BusOptimizer {
         delegate.unregister(handlerInstance);
     }
 
-    private boolean shouldSkip(final BusEvent event) {
+    private boolean shouldSkip(final BusEvent event, final boolean fromTransaction) {
         Preconditions.checkState(event instanceof BusInternalEvent, "Unexpected external bus event %s, skip...", event);
         final BusInternalEvent internalEvent = (BusInternalEvent) event;
-        //
-        // TODO haha... Unfortunately for 'postFromTransaction' this may break as we enter with an open transaction:
-        // If we need to read the per-context multi-tenant config, this requires another call to the DB which then breaks...
-        //
-
-        //final InternalCallContext context = internalCallContextFactory.createInternalCallContext(event.getSearchKey2(), null, "BusOptimizerOn", CallOrigin.INTERNAL, UserType.SYSTEM, event.getUserToken());
-        if (eventConfig.getSkipPostBusEventTypeList(/*context*/).contains(internalEvent.getBusEventType())) {
+        if (getSkipPostBusEventTypeList(internalEvent.getSearchKey2(), fromTransaction).contains(internalEvent.getBusEventType())) {
             logger.debug("BusOptimizerOn: Skip sending event {}", internalEvent.getBusEventType());
             return true;
         }
         return false;
     }
 
+    private List<BusInternalEventType> getSkipPostBusEventTypeList(final Long tenantRecordId, final boolean fromTransaction) {
+        if (tenantRecordId == null) {
+            return eventConfig.getSkipPostBusEventTypeList();
+        }
+
+        final List<BusInternalEventType> snapshot = skipPostBusEventTypesPerTenant.get(tenantRecordId);
+        if (snapshot != null) {
+            return snapshot;
+        }
+
+        // Reading the per-tenant config may require a call to the DB: we cannot do that with an open transaction,
+        // unless the config has already been loaded. Until then, default to the static config.
+        final InternalTenantContext tenantContext = new InternalTenantContext(tenantRecordId);
+        if (fromTransaction && !cacheConfig.isPerTenantConfigCached(tenantContext)) {
+            return eventConfig.getSkipPostBusEventTypeList();
+        }
+        final List<BusInternalEventType> skipPostBusEventTypeList = eventConfig.getSkipPostBusEventTypeList(tenantContext);
+        skipPostBusEventTypesPerTenant.put(tenantRecordId, skipPostBusEventTypeList);
+        return skipPostBusEventTypeList;
+    }
+
     @Override
     public void post(final BusEvent event) throws EventBusException {
-        if (shouldSkip(event)) {
-            return;
+        if (!shouldSkip(event, false)) {
+            delegate.post(event);
+        }
+
+        final ExternalBusEventOutbox outbox = externalBusEventOutbox;
+        if (outbox != null) {
+            outbox.post((BusInternalEvent) event);
         }
-        delegate.post(event);
     }
 
     @Override
     public void postFromTransaction(final BusEvent event, final Connection connection) throws EventBusException {
-        if (shouldSkip(event)) {
+        if (!shouldSkip(event, true)) {
+            delegate.postFromTransaction(event, connection);
+        }
+
+        // Skipped events still make it to the external bus
+        final ExternalBusEventOutbox outbox = externalBusEventOutbox;
+        if (outbox != null) {
+            outbox.postFromTransaction((BusInternalEvent) event, connection);
+        }
+    }
+
+    @Override
+    public void postFromTransaction(final BusEvent event, final EntitySqlDaoWrapperFactory entitySqlDaoWrapperFactory) throws EventBusException {
+        final List<BusInternalEventType> coalescePostBusEventTypeList = eventConfig.getCoalescePostBusEventTypeList();
+        if (coalescePostBusEventTypeList.isEmpty()) {
+            postFromTransaction(event, entitySqlDaoWrapperFactory.getHandle().getConnection());
             return;
         }
-        delegate.postFromTransaction(event, connection);
+
+        Preconditions.checkState(event instanceof BusInternalEvent, "Unexpected external bus event %s, skip...", event);
+        // All events of the transaction are buffered (to keep their ordering) and posted right before commit
+        entitySqlDaoWrapperFactory.getOrRegisterPreCommitCallback(this, () -> new CoalescedEvents(entitySqlDaoWrapperFactory.getHandle().getConnection(), coalescePostBusEventTypeList))
+                                  .add((BusInternalEvent) event);
     }
 
     @Override
@@ -172,4 +234,111 @@ public class BusOptimizerOn implements BusOptimizer {
     public boolean shouldAggregateSubscriptionEvents(final InternalCallContext context) {
         return eventConfig.isAggregateBulkSubscriptionEvents(context);
     }
+
+    @Override
+    public boolean registerExternalBusEventOutbox(final ExternalBusEventOutbox externalBusEventOutbox) {
+        if (!eventConfig.isPostExternalBusEventsFromTransaction()) {
+            return false;
+        }
+        logger.info("BusOptimizerOn: External events are posted along with internal events");
+        this.externalBusEventOutbox = externalBusEventOutbox;
+        return true;
+    }
+
+    @Override
+    public void unregisterExternalBusEventOutbox() {
+        this.externalBusEventOutbox = null;
+    }
+
+    private final class CoalescedEvents implements Runnable {
+
+        private final Connection connection;
+        private final List<BusInternalEventType> coalescePostBusEventTypeList;
+        private final List<BusInternalEvent> events = new ArrayList<>();
+        private final Set<CoalescingKey> coalescingKeys = new HashSet<>();
+
+        private CoalescedEvents(final Connection connection, final List<BusInternalEventType> coalescePostBusEventTypeList) {
+            this.connection = connection;
+            this.coalescePostBusEventTypeList = coalescePostBusEventTypeList;
+        }
+
+        private void add(final BusInternalEvent event) {
+            // Redundant events (same account, same object) are dropped, the first one is kept
+            if (coalescePostBusEventTypeList.contains(event.getBusEventType())) {
+                final CoalescingKey coalescingKey = CoalescingKey.of(event);
+                if (coalescingKey != null && !coalescingKeys.add(coalescingKey)) {
+                    logger.debug("BusOptimizerOn: Coalesce event {}", event);
+                    return;
+                }
+            }
+            events.add(event);
+        }
+
+        @Override
+        public void run() {
+            for (final BusInternalEvent event : events) {
+                try {
+                    postFromTransaction(event, connection);
+                } catch (final EventBusException e) {
+                    logger.warn("Failed to post event {}", event, e);
+                }
+            }
+        }
+    }
+
+    private static final class CoalescingKey {
+
+        private final BusInternalEventType busEventType;
+        private final Long searchKey1;
+        private final Long searchKey2;
+        private final List<Object> objectKey;
+
+        private CoalescingKey(final BusInternalEvent event, final List<Object> objectKey) {
+            this.busEventType = event.getBusEventType();
+            this.searchKey1 = event.getSearchKey1();
+            this.searchKey2 = event.getSearchKey2();
+            this.objectKey = objectKey;
+        }
+
+        // Only the event types for which we know what identifies the object can be coalesced
+        private static CoalescingKey of(final BusInternalEvent event) {
+            if (event instanceof InvoiceAdjustmentInternalEvent) {
+                final InvoiceAdjustmentInternalEvent invoiceAdjustmentEvent = (InvoiceAdjustmentInternalEvent) event;
+                return new CoalescingKey(event, Arrays.asList(invoiceAdjustmentEvent.getAccountId(), invoiceAdjustmentEvent.getInvoiceId()));
+            } else if (event instanceof BlockingTransitionInternalEvent) {
+                final BlockingTransitionInternalEvent blockingTransitionEvent = (BlockingTransitionInternalEvent) event;
+                return new CoalescingKey(event, Arrays.asList(blockingTransitionEvent.getBlockableId(),
+                                                              blockingTransitionEvent.getBlockingType(),
+                                                              blockingTransitionEvent.getService(),
+                                                              blockingTransitionEvent.getStateName(),
+                                                              blockingTransitionEvent.getEffectiveDate(),
+                                                              blockingTransitionEvent.isTransitionedToBlockedBilling(),
+                                                              blockingTransitionEvent.isTransitionedToUnblockedBilling(),
+                                                              blockingTransitionEvent.isTransitionedToBlockedEntitlement(),
+                                                              blockingTransitionEvent.isTransitionedToUnblockedEntitlement()));
+            } else {
+                return null;
+            }
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            final CoalescingKey that = (CoalescingKey) o;
+            return busEventType == that.busEventType &&
+                   Objects.equals(searchKey1, that.searchKey1) &&
+                   Objects.equals(searchKey2, that.searchKey2) &&
+                   Objects.equals(objectKey, that.objectKey);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(busEventType, searchKey1, searchKey2, objectKey);
+        }
+    }
 }
@@ -0,0 +1,37 @@
+/*
+ * Copyright 2020-2026 Equinix, Inc
+ * Copyright 2014-2026 The Billing Project, LLC
+ *
+ * The Billing Project licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.killbill.billing.util.optimizer;
+
+import java.sql.Connection;
+
+import org.killbill.billing.events.BusInternalEvent;
+import org.killbill.bus.api.PersistentBus.EventBusException;
+
+/**
+ * Posts the external counterpart of internal bus events, at the time the internal events are posted
+ * (instead of after they have been dispatched, see BusOptimizer#registerExternalBusEventOutbox).
+ * <p>
+ * Events posted from a transaction may reference uncommitted objects: implementations cannot look them up
+ * outside of that transaction.
+ */
+public interface ExternalBusEventOutbox {
+
+    void post(BusInternalEvent event) throws EventBusException;
+
+    void postFromTransaction(BusInternalEvent event, Connection connection) throws EventBusException;
+}
@@ -38,11 +38,9 @@ import org.apache.shiro.authc.AuthenticationToken;
 import org.apache.shiro.authc.UsernamePasswordToken;
 import org.apache.shiro.authz.AuthorizationException;
 import org.apache.shiro.authz.AuthorizationInfo;
-import org.apache.shiro.mgt.DefaultSecurityManager;
 import org.apache.shiro.realm.AuthorizingRealm;
 import org.apache.shiro.realm.Realm;
 import org.apache.shiro.session.UnknownSessionException;
-import org.apache.shiro.subject.SimplePrincipalCollection;
 import org.apache.shiro.subject.Subject;
 import org.killbill.billing.ErrorCode;
 import org.killbill.billing.security.Logical;
@@ -54,7 +52,6 @@ import org.killbill.commons.utils.Strings;
 import org.killbill.billing.util.callcontext.CallContext;
 import org.killbill.billing.util.callcontext.TenantContext;
 import org.killbill.billing.util.security.shiro.dao.UserDao;
-import org.killbill.billing.util.security.shiro.realm.KillBillJdbcRealm;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -65,12 +62,14 @@ public class DefaultSecurityApi implements SecurityApi {
 
     private final UserDao userDao;
     private final Set<Realm> realms;
+    private final SecurityCacheInvalidationListener securityCacheInvalidationListener;
     private final Map<Realm, Method> getAuthorizationInfoMethods = new HashMap<Realm, Method>();
 
     @Inject
-    public DefaultSecurityApi(final UserDao userDao, final Set<Realm> realms) {
+    public DefaultSecurityApi(final UserDao userDao, final Set<Realm> realms, final SecurityCacheInvalidationListener securityCacheInvalidationListener) {
         this.userDao = userDao;
         this.realms = realms;
+        this.securityCacheInvalidationListener = securityCacheInvalidationListener;
         buildGetAuthorizationInfoMethods();
     }
 
@@ -211,17 +210,20 @@ public class DefaultSecurityApi implements SecurityApi {
     @Override
     public void updateUserPassword(final String username, final String password, final CallContext callContext) throws SecurityApiException {
         userDao.updateUserPassword(username, password, callContext.getUserName());
+        // Other nodes are notified through the broadcast table
+        securityCacheInvalidationListener.invalidateUser(username);
     }
 
     @Override
     public void updateUserRoles(final String username, final List<String> roles, final CallContext callContext) throws SecurityApiException {
         userDao.updateUserRoles(username, roles, callContext.getUserName());
-        invalidateJDBCAuthorizationCache(username);
+        securityCacheInvalidationListener.invalidateUser(username);
     }
 
     @Override
     public void invalidateUser(final String username, final CallContext callContext) throws SecurityApiException {
         userDao.invalidateUser(username, callContext.getUserName());
+        securityCacheInvalidationListener.invalidateUser(username);
         // Invalidate the JSESSIONID
         logout();
     }
@@ -243,6 +245,7 @@ public class DefaultSecurityApi implements SecurityApi {
     public void updateRoleDefinition(final String role, final List<String> permissions, final CallContext callContext) throws SecurityApiException {
         final List<String> sanitizedPermissions = sanitizePermissions(permissions);
         userDao.updateRoleDefinition(role, sanitizedPermissions, callContext.getUserName());
+        securityCacheInvalidationListener.invalidateRole(role);
     }
 
     @Override
@@ -303,20 +306,6 @@ public class DefaultSecurityApi implements SecurityApi {
         return expandedPermissions;
     }
 
-    private void invalidateJDBCAuthorizationCache(final String username) {
-        final Collection<Realm> realms = ((DefaultSecurityManager) SecurityUtils.getSecurityManager()).getRealms();
-        final KillBillJdbcRealm killBillJdbcRealm = (KillBillJdbcRealm) realms.stream()
-                .filter(realm -> (realm instanceof KillBillJdbcRealm))
-                .findFirst()
-                .orElse(null);
-
-        if (killBillJdbcRealm != null) {
-            final SimplePrincipalCollection principals = new SimplePrincipalCollection();
-            principals.add(username, killBillJdbcRealm.getName());
-            killBillJdbcRealm.clearCachedAuthorizationInfo(principals);
-        }
-    }
-
     private void buildGetAuthorizationInfoMethods() {
         for (final Realm realm : realms) {
             if (!(realm instanceof AuthorizingRealm)) {
@@ -24,15 +24,26 @@ import org.apache.shiro.SecurityUtils;
 import org.apache.shiro.mgt.SecurityManager;
 import org.killbill.billing.platform.api.LifecycleHandlerType;
 import org.killbill.billing.platform.api.LifecycleHandlerType.LifecycleLevel;
+import org.killbill.billing.util.optimizer.BusOptimizer;
+import org.killbill.bus.api.PersistentBus.EventBusException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 public class DefaultSecurityService implements SecurityService {
 
+    private static final Logger log = LoggerFactory.getLogger(DefaultSecurityService.class);
 
     private final SecurityManager securityManager;
+    private final BusOptimizer eventBus;
+    private final SecurityCacheInvalidationListener securityCacheInvalidationListener;
 
     @Inject
-    public DefaultSecurityService(final SecurityManager securityManager) {
+    public DefaultSecurityService(final SecurityManager securityManager,
+                                  final BusOptimizer eventBus,
+                                  final SecurityCacheInvalidationListener securityCacheInvalidationListener) {
         this.securityManager = securityManager;
+        this.eventBus = eventBus;
+        this.securityCacheInvalidationListener = securityCacheInvalidationListener;
     }
 
     @Override
@@ -48,10 +59,20 @@ public class DefaultSecurityService implements SecurityService {
     @LifecycleHandlerType(LifecycleHandlerType.LifecycleLevel.INIT_SERVICE)
     public void initialize() {
         SecurityUtils.setSecurityManager(securityManager);
+        try {
+            eventBus.register(securityCacheInvalidationListener);
+        } catch (final EventBusException e) {
+            log.warn("Failed to register SecurityCacheInvalidationListener", e);
+        }
     }
 
     @LifecycleHandlerType(LifecycleLevel.STOP_SERVICE)
     public void stop() {
+        try {
+            eventBus.unregister(securityCacheInvalidationListener);
+        } catch (final EventBusException e) {
+            log.warn("Failed to unregister SecurityCacheInvalidationListener", e);
+        }
         SecurityUtils.setSecurityManager(null);
     }
 }
@@ -0,0 +1,100 @@
+/*
+ * Copyright 2020-2026 Equinix, Inc
+ * Copyright 2014-2026 The Billing Project, LLC
+ *
+ * The Billing Project licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.killbill.billing.util.security.api;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.apache.shiro.SecurityUtils;
+import org.apache.shiro.UnavailableSecurityManagerException;
+import org.apache.shiro.mgt.RealmSecurityManager;
+import org.apache.shiro.mgt.SecurityManager;
+import org.apache.shiro.realm.Realm;
+import org.apache.shiro.subject.SimplePrincipalCollection;
+import org.killbill.billing.events.BroadcastInternalEvent;
+import org.killbill.billing.platform.api.KillbillService.KILLBILL_SERVICES;
+import org.killbill.billing.util.security.shiro.realm.KillBillJdbcRealm;
+import org.killbill.commons.eventbus.AllowConcurrentEvents;
+import org.killbill.commons.eventbus.Subscribe;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Invalidates the realms caches when users or roles are updated. Updates are recorded in the broadcast table in the same
+ * transaction (see DefaultUserDao), so that each node of the cluster invalidates its own caches.
+ */
+public class SecurityCacheInvalidationListener {
+
+    public static final String USER_CACHE_INVALIDATION = "USER_CACHE_INVALIDATION";
+    public static final String ROLE_CACHE_INVALIDATION = "ROLE_CACHE_INVALIDATION";
+
+    private static final Logger logger = LoggerFactory.getLogger(SecurityCacheInvalidationListener.class);
+
+    @AllowConcurrentEvents
+    @Subscribe
+    public void handleBroadcastEvent(final BroadcastInternalEvent event) {
+        if (!KILLBILL_SERVICES.SECURITY_SERVICE.getServiceName().equals(event.getServiceName())) {
+            return;
+        }
+
+        if (USER_CACHE_INVALIDATION.equals(event.getType())) {
+            invalidateUser(event.getJsonEvent());
+        } else if (ROLE_CACHE_INVALIDATION.equals(event.getType())) {
+            invalidateRole(event.getJsonEvent());
+        } else {
+            logger.warn("Ignoring unknown security broadcast event type='{}'", event.getType());
+        }
+    }
+
+    public void invalidateUser(final String username) {
+        for (final KillBillJdbcRealm killBillJdbcRealm : getKillBillJdbcRealms()) {
+            final SimplePrincipalCollection principals = new SimplePrincipalCollection();
+            principals.add(username, killBillJdbcRealm.getName());
+            killBillJdbcRealm.clearCachedAuthenticationInfo(principals);
+            killBillJdbcRealm.clearCachedAuthorizationInfo(principals);
+        }
+    }
+
+    public void invalidateRole(final String role) {
+        logger.debug("Invalidating the cached authorizations following the update of role='{}'", role);
+        for (final KillBillJdbcRealm killBillJdbcRealm : getKillBillJdbcRealms()) {
+            killBillJdbcRealm.invalidateAllAuthorizationInfo();
+        }
+    }
+
+    // Realms of the SecurityManager installed by DefaultSecurityService
+    private List<KillBillJdbcRealm> getKillBillJdbcRealms() {
+        final Collection<Realm> realms;
+        try {
+            final SecurityManager securityManager = SecurityUtils.getSecurityManager();
+            realms = securityManager instanceof RealmSecurityManager ? ((RealmSecurityManager) securityManager).getRealms() : null;
+        } catch (final UnavailableSecurityManagerException e) {
+            return Collections.emptyList();
+        }
+
+        if (realms == null) {
+            return Collections.emptyList();
+        }
+        return realms.stream()
+                     .filter(realm -> realm instanceof KillBillJdbcRealm)
+                     .map(realm -> (KillBillJdbcRealm) realm)
+                     .collect(Collectors.toUnmodifiableList());
+    }
+}
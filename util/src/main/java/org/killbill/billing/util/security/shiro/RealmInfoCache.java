@@ -0,0 +1,235 @@
+/*
+ * Copyright 2020-2026 Equinix, Inc
+ * Copyright 2014-2026 The Billing Project, LLC
+ *
+ * The Billing Project licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.killbill.billing.util.security.shiro;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+import org.apache.shiro.authc.SimpleAuthenticationInfo;
+import org.apache.shiro.lang.codec.Hex;
+import org.killbill.billing.util.config.definition.SecurityConfig;
+
+/**
+ * Node-local cache for the authentication and authorization results of a realm.
+ * <p>
+ * Authentication results are keyed by a digest of the submitted credentials, so that a cache hit skips both the
+ * credentials lookup and the (expensive, see {@link KillbillCredentialsMatcher}) hashing of the submitted password.
+ * Entries are evicted in LRU order once maxSize is reached, and expire after the configured TTL. Entries can also be
+ * removed by principal, when the credentials or roles of a user are updated (see SecurityCacheInvalidationListener).
+ * <p>
+ * To make sure a lookup running concurrently with an invalidation doesn't cache stale results, callers read the
+ * generation of the principal before looking up the database, and only cache the results if it is unchanged.
+ */
+public class RealmInfoCache<V> {
+
+    private static final String DIGEST_ALGORITHM_NAME = "SHA-256";
+
+    private final int maxSize;
+    private final long ttlNanos;
+    private final Map<String, RealmInfoCacheEntry<V>> cache;
+    // Value of invalidations when each principal was last invalidated, bounded by maxSize (see minGeneration)
+    private final Map<Object, Long> generations;
+    // Random per-process salt: digests are never persisted nor shared across nodes
+    private final byte[] digestSalt;
+    // Guarded by cache
+    private long invalidations;
+    // Generation of the principals not in generations: bumped by invalidateAll, and when generations evicts a principal
+    private long minGeneration;
+
+    public RealmInfoCache(final SecurityConfig securityConfig) {
+        this(securityConfig.getShiroRealmCacheMaxSize(), securityConfig.getShiroRealmCacheTTL().getMillis());
+    }
+
+    public RealmInfoCache(final int maxSize, final long ttlMillis) {
+        this.maxSize = maxSize;
+        this.ttlNanos = ttlMillis * 1000L * 1000L;
+        this.cache = new LinkedHashMap<String, RealmInfoCacheEntry<V>>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<String, RealmInfoCacheEntry<V>> eldest) {
+                return size() > RealmInfoCache.this.maxSize;
+            }
+        };
+        this.generations = new LinkedHashMap<Object, Long>(16, 0.75f, false) {
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<Object, Long> eldest) {
+                if (size() > RealmInfoCache.this.maxSize) {
+                    // Conservative: the generation of all other principals changes as well
+                    RealmInfoCache.this.minGeneration = Math.max(RealmInfoCache.this.minGeneration, eldest.getValue());
+                    return true;
+                }
+                return false;
+            }
+        };
+        this.digestSalt = new byte[16];
+        new SecureRandom().nextBytes(digestSalt);
+    }
+
+    public boolean isEnabled() {
+        return maxSize > 0 && ttlNanos > 0;
+    }
+
+    public V get(final String key) {
+        if (!isEnabled() || key == null) {
+            return null;
+        }
+
+        synchronized (cache) {
+            final RealmInfoCacheEntry<V> entry = cache.get(key);
+            if (entry == null) {
+                return null;
+            }
+            if (entry.isExpired(System.nanoTime())) {
+                cache.remove(key);
+                return null;
+            }
+            return entry.getValue();
+        }
+    }
+
+    public void put(final String key, final Object principal, final V value) {
+        if (!isEnabled() || key == null || value == null) {
+            return;
+        }
+
+        synchronized (cache) {
+            cache.put(key, new RealmInfoCacheEntry<V>(principal, value, System.nanoTime() + ttlNanos));
+        }
+    }
+
+    /**
+     * @param generation generation of the principal, as returned by getGeneration before the value was looked up
+     */
+    public void put(final String key, final Object principal, final V value, final long generation) {
+        synchronized (cache) {
+            // The principal was invalidated during the lookup: the value may be stale
+            if (getGeneration(principal) != generation) {
+                return;
+            }
+            put(key, principal, value);
+        }
+    }
+
+    public long getGeneration(final Object principal) {
+        synchronized (cache) {
+            final Long generation = generations.get(principal);
+            return generation == null ? minGeneration : Math.max(generation, minGeneration);
+        }
+    }
+
+    public void invalidate(final Object principal) {
+        synchronized (cache) {
+            invalidations++;
+            generations.put(principal, invalidations);
+            cache.values().removeIf(entry -> Objects.equals(entry.getPrincipal(), principal));
+        }
+    }
+
+    public void invalidateAll() {
+        synchronized (cache) {
+            invalidations++;
+            minGeneration = invalidations;
+            generations.clear();
+            cache.clear();
+        }
+    }
+
+    public int size() {
+        synchronized (cache) {
+            return cache.size();
+        }
+    }
+
+    public String digest(final Object principal, final Object credentials) {
+        final byte[] credentialsBytes = toBytes(credentials);
+        if (principal == null || credentialsBytes == null) {
+            return null;
+        }
+
+        try {
+            final MessageDigest messageDigest = MessageDigest.getInstance(DIGEST_ALGORITHM_NAME);
+            messageDigest.update(digestSalt);
+            messageDigest.update(principal.toString().getBytes(StandardCharsets.UTF_8));
+            // Separator, to avoid collisions between (ab, c) and (a, bc)
+            messageDigest.update((byte) 0);
+            messageDigest.update(credentialsBytes);
+            return Hex.encodeToString(messageDigest.digest());
+        } catch (final NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static byte[] toBytes(final Object credentials) {
+        if (credentials instanceof char[]) {
+            return new String((char[]) credentials).getBytes(StandardCharsets.UTF_8);
+        } else if (credentials instanceof String) {
+            return ((String) credentials).getBytes(StandardCharsets.UTF_8);
+        } else if (credentials instanceof byte[]) {
+            return (byte[]) credentials;
+        } else {
+            // Unknown credentials type (e.g. bearer tokens): not cached
+            return null;
+        }
+    }
+
+    // Authentication info, along with the generation of its principal before it was looked up
+    public static final class GenerationAuthenticationInfo extends SimpleAuthenticationInfo {
+
+        private static final long serialVersionUID = -2417591874963815542L;
+
+        private final long generation;
+
+        public GenerationAuthenticationInfo(final SimpleAuthenticationInfo authenticationInfo, final long generation) {
+            super(authenticationInfo.getPrincipals(), authenticationInfo.getCredentials(), authenticationInfo.getCredentialsSalt());
+            this.generation = generation;
+        }
+
+        public long getGeneration() {
+            return generation;
+        }
+    }
+
+    private static final class RealmInfoCacheEntry<V> {
+
+        private final Object principal;
+        private final V value;
+        private final long expirationNanos;
+
+        private RealmInfoCacheEntry(final Object principal, final V value, final long expirationNanos) {
+            this.principal = principal;
+            this.value = value;
+            this.expirationNanos = expirationNanos;
+        }
+
+        public Object getPrincipal() {
+            return principal;
+        }
+
+        public V getValue() {
+            return value;
+        }
+
+        public boolean isExpired(final long nowNanos) {
+            return nowNanos - expirationNanos > 0;
+        }
+    }
+}
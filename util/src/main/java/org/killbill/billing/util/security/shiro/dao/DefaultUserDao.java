@@ -29,8 +29,12 @@ import org.apache.shiro.crypto.hash.SimpleHash;
 import org.apache.shiro.lang.util.ByteSource;
 import org.joda.time.DateTime;
 import org.killbill.billing.ErrorCode;
+import org.killbill.billing.platform.api.KillbillService.KILLBILL_SERVICES;
 import org.killbill.billing.security.SecurityApiException;
+import org.killbill.billing.util.broadcast.dao.BroadcastModelDao;
+import org.killbill.billing.util.broadcast.dao.BroadcastSqlDao;
 import org.killbill.billing.util.config.definition.SecurityConfig;
+import org.killbill.billing.util.security.api.SecurityCacheInvalidationListener;
 import org.killbill.billing.util.security.shiro.KillbillCredentialsMatcher;
 import org.killbill.clock.Clock;
 import org.skife.jdbi.v2.Handle;
@@ -141,6 +145,7 @@ public class DefaultUserDao implements UserDao {
             for (final String permission : toBeAdded) {
                 rolesPermissionsSqlDao.create(new RolesPermissionsModelDao(role, permission, createdDate, createdBy));
             }
+            broadcastCacheInvalidation(handle, SecurityCacheInvalidationListener.ROLE_CACHE_INVALIDATION, role, createdDate, createdBy);
             return null;
         });
     }
@@ -172,6 +177,7 @@ public class DefaultUserDao implements UserDao {
             final UsersSqlDao usersSqlDao = handle.attach(UsersSqlDao.class);
             validateUser(username, usersSqlDao);
             usersSqlDao.updatePassword(username, hashedPasswordBase64, salt.toBase64(), updatedDate.toDate(), updatedBy);
+            broadcastCacheInvalidation(handle, SecurityCacheInvalidationListener.USER_CACHE_INVALIDATION, username, updatedDate, updatedBy);
             return null;
         });
     }
@@ -199,6 +205,7 @@ public class DefaultUserDao implements UserDao {
                     userRolesSqlDao.create(new UserRolesModelDao(username, curNewRole, updatedDate, updatedBy));
                 }
             }
+            broadcastCacheInvalidation(handle, SecurityCacheInvalidationListener.USER_CACHE_INVALIDATION, username, updatedDate, updatedBy);
             return null;
         });
     }
@@ -210,10 +217,17 @@ public class DefaultUserDao implements UserDao {
             final UsersSqlDao usersSqlDao = handle.attach(UsersSqlDao.class);
             validateUser(username, usersSqlDao);
             usersSqlDao.invalidate(username, updatedDate.toDate(), updatedBy);
+            broadcastCacheInvalidation(handle, SecurityCacheInvalidationListener.USER_CACHE_INVALIDATION, username, updatedDate, updatedBy);
             return null;
         });
     }
 
+    // Recorded in the same transaction, for each node to invalidate its realms caches (see DefaultBroadcastService)
+    private void broadcastCacheInvalidation(final Handle handle, final String type, final String name, final DateTime createdDate, final String createdBy) {
+        final BroadcastSqlDao broadcastSqlDao = handle.attach(BroadcastSqlDao.class);
+        broadcastSqlDao.create(new BroadcastModelDao(KILLBILL_SERVICES.SECURITY_SERVICE.getServiceName(), type, name, createdDate, createdBy));
+    }
+
     private <T> T inTransactionWithExceptionHandling(final TransactionCallback<T> callback) throws SecurityApiException {
         // Similar to EntitySqlDaoTransactionalJdbiWrapper#execute
         try {
@@ -21,11 +21,20 @@ import jakarta.inject.Inject;
 import jakarta.inject.Named;
 import javax.sql.DataSource;
 
+import org.apache.shiro.authc.AuthenticationException;
+import org.apache.shiro.authc.AuthenticationInfo;
+import org.apache.shiro.authc.AuthenticationToken;
+import org.apache.shiro.authc.SimpleAuthenticationInfo;
+import org.apache.shiro.authz.AuthorizationInfo;
+import org.apache.shiro.cache.Cache;
 import org.apache.shiro.realm.jdbc.JdbcRealm;
 import org.apache.shiro.subject.PrincipalCollection;
 import org.killbill.billing.platform.glue.KillBillPlatformModuleBase;
 import org.killbill.billing.util.config.definition.SecurityConfig;
 import org.killbill.billing.util.security.shiro.KillbillCredentialsMatcher;
+import org.killbill.billing.util.security.shiro.RealmInfoCache;
+import org.killbill.billing.util.security.shiro.RealmInfoCache.GenerationAuthenticationInfo;
+import org.killbill.commons.utils.annotation.VisibleForTesting;
 
 public class KillBillJdbcRealm extends JdbcRealm {
 
@@ -35,16 +44,26 @@ public class KillBillJdbcRealm extends JdbcRealm {
 
     private final DataSource dataSource;
     private final SecurityConfig securityConfig;
+    // Keyed by credentials digest
+    private final RealmInfoCache<AuthenticationInfo> authenticationInfos;
+    // Keyed by username
+    private final RealmInfoCache<AuthorizationInfo> authorizationInfos;
 
     @Inject
     public KillBillJdbcRealm(@Named(KillBillPlatformModuleBase.SHIRO_DATA_SOURCE_ID) final DataSource dataSource, final SecurityConfig securityConfig) {
         super();
         this.dataSource = dataSource;
         this.securityConfig = securityConfig;
+        this.authenticationInfos = new RealmInfoCache<AuthenticationInfo>(securityConfig);
+        this.authorizationInfos = new RealmInfoCache<AuthorizationInfo>(securityConfig);
 
-        // TODO Enable when we add support for cache invalidation
+        // Shiro authentication caching is keyed by username only, and would still hash the submitted credentials on each request:
+        // we rely instead on our own caches, invalidated across the cluster through the broadcast table (see SecurityCacheInvalidationListener).
         // See JavaDoc warning: https://shiro.apache.org/static/1.2.3/apidocs/org/apache/shiro/realm/AuthenticatingRealm.html
-        //setAuthenticationCachingEnabled(true);
+        setAuthenticationCachingEnabled(false);
+        if (authorizationInfos.isEnabled()) {
+            setAuthorizationCachingEnabled(false);
+        }
 
         // See https://issues.apache.org/jira/browse/SHIRO-552 and https://github.com/apache/shiro/pull/138
         setSaltIsBase64Encoded(false);
@@ -60,8 +79,77 @@ public class KillBillJdbcRealm extends JdbcRealm {
     }
 
     @Override
-    public void clearCachedAuthorizationInfo(PrincipalCollection principals) {
+    protected AuthenticationInfo doGetAuthenticationInfo(final AuthenticationToken token) throws AuthenticationException {
+        // Credentials already verified: skip the users query (assertCredentialsMatch will skip the hashing)
+        final AuthenticationInfo cachedAuthenticationInfo = authenticationInfos.get(authenticationInfos.digest(token.getPrincipal(), token.getCredentials()));
+        if (cachedAuthenticationInfo != null) {
+            return cachedAuthenticationInfo;
+        }
+
+        // Read before the users query, see assertCredentialsMatch
+        final long generation = authenticationInfos.getGeneration(token.getPrincipal());
+        return new GenerationAuthenticationInfo((SimpleAuthenticationInfo) super.doGetAuthenticationInfo(token), generation);
+    }
+
+    @Override
+    protected void assertCredentialsMatch(final AuthenticationToken token, final AuthenticationInfo info) throws AuthenticationException {
+        final String digest = authenticationInfos.digest(token.getPrincipal(), token.getCredentials());
+        if (authenticationInfos.get(digest) != null) {
+            return;
+        }
+
+        super.assertCredentialsMatch(token, info);
+        // Not cached if the password was updated since the users query
+        authenticationInfos.put(digest, token.getPrincipal(), info, ((GenerationAuthenticationInfo) info).getGeneration());
+    }
+
+    @Override
+    protected AuthorizationInfo doGetAuthorizationInfo(final PrincipalCollection principals) {
+        final Object username = getAvailablePrincipal(principals);
+        final String key = username == null ? null : username.toString();
+        final AuthorizationInfo cachedAuthorizationInfo = authorizationInfos.get(key);
+        if (cachedAuthorizationInfo != null) {
+            return cachedAuthorizationInfo;
+        }
+
+        // Read before the roles queries: not cached if the roles were updated in the meantime
+        final long generation = authorizationInfos.getGeneration(key);
+        final AuthorizationInfo authorizationInfo = super.doGetAuthorizationInfo(principals);
+        authorizationInfos.put(key, key, authorizationInfo, generation);
+        return authorizationInfo;
+    }
+
+    @Override
+    public void clearCachedAuthenticationInfo(final PrincipalCollection principals) {
+        super.clearCachedAuthenticationInfo(principals);
+        final Object username = getAvailablePrincipal(principals);
+        if (username != null) {
+            authenticationInfos.invalidate(username.toString());
+        }
+    }
+
+    @Override
+    public void clearCachedAuthorizationInfo(final PrincipalCollection principals) {
         super.clearCachedAuthorizationInfo(principals);
+        final Object username = getAvailablePrincipal(principals);
+        if (username != null) {
+            authorizationInfos.invalidate(username.toString());
+        }
+    }
+
+    // A role definition may be shared by any number of users
+    public void invalidateAllAuthorizationInfo() {
+        authorizationInfos.invalidateAll();
+        final Cache<Object, AuthorizationInfo> authorizationCache = getAuthorizationCache();
+        if (authorizationCache != null) {
+            authorizationCache.clear();
+        }
+    }
+
+    @VisibleForTesting
+    void clearAllCachedInfo() {
+        authenticationInfos.invalidateAll();
+        invalidateAllAuthorizationInfo();
     }
 
     private void configureSecurity() {
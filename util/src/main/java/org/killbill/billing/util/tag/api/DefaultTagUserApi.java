@@ -117,19 +117,27 @@ public class DefaultTagUserApi implements TagUserApi {
 
     @Override
     public void addTags(final UUID objectId, final ObjectType objectType, final Collection<UUID> tagDefinitionIds, final CallContext context) throws TagApiException {
+        if (tagDefinitionIds.isEmpty()) {
+            return;
+        }
+
+        // Resolve the object account and tenant record ids once for all tags
+        final InternalCallContext internalContext = internalCallContextFactory.createInternalCallContext(objectId, objectType, context);
         for (final UUID tagDefinitionId : tagDefinitionIds) {
-            addTag(objectId, objectType, tagDefinitionId, context);
+            addTag(objectId, objectType, tagDefinitionId, context, internalContext);
         }
     }
 
     @Override
     public void addTag(final UUID objectId, final ObjectType objectType, final UUID tagDefinitionId, final CallContext context) throws TagApiException {
+        addTag(objectId, objectType, tagDefinitionId, context, internalCallContextFactory.createInternalCallContext(objectId, objectType, context));
+    }
 
+    private void addTag(final UUID objectId, final ObjectType objectType, final UUID tagDefinitionId, final CallContext context, final InternalCallContext internalContext) throws TagApiException {
         if (SystemTags.isSystemTag(tagDefinitionId)) {
             throw new TagApiException(ErrorCode.TAG_IS_SYSTEM, tagDefinitionId);
         }
 
-        final InternalCallContext internalContext = internalCallContextFactory.createInternalCallContext(objectId, objectType, context);
         final TagModelDao tag = new TagModelDao(context.getCreatedDate(), tagDefinitionId, objectId, objectType);
         try {
             tagDao.create(tag, internalContext);
@@ -172,9 +180,14 @@ public class DefaultTagUserApi implements TagUserApi {
 
     @Override
     public void removeTags(final UUID objectId, final ObjectType objectType, final Collection<UUID> tagDefinitionIds, final CallContext context) throws TagApiException {
+        if (tagDefinitionIds.isEmpty()) {
+            return;
+        }
+
         // TODO: consider making this batch
+        final InternalCallContext internalContext = internalCallContextFactory.createInternalCallContext(objectId, objectType, context);
         for (final UUID tagDefinitionId : tagDefinitionIds) {
-            tagDao.deleteTag(objectId, objectType, tagDefinitionId, internalCallContextFactory.createInternalCallContext(objectId, objectType, context));
+            tagDao.deleteTag(objectId, objectType, tagDefinitionId, internalContext);
         }
     }
 
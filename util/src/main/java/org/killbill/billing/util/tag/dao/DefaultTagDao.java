@@ -162,7 +162,7 @@ public class DefaultTagDao extends EntityDaoBase<TagModelDao, Tag, TagApiExcepti
         }
 
         try {
-            bus.postFromTransaction(tagEvent, entitySqlDaoWrapperFactory.getHandle().getConnection());
+            bus.postFromTransaction(tagEvent, entitySqlDaoWrapperFactory);
         } catch (final PersistentBus.EventBusException e) {
             log.warn("Failed to post tag event for tagId='{}'", tag.getId().toString(), e);
         }
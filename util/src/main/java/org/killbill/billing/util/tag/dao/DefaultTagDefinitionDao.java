@@ -168,7 +168,7 @@ public class DefaultTagDefinitionDao extends EntityDaoBase<TagDefinitionModelDao
                                                                                            context.getAccountRecordId(), context.getTenantRecordId(), context.getUserToken());
                 }
                 try {
-                    bus.postFromTransaction(tagDefinitionEvent, entitySqlDaoWrapperFactory.getHandle().getConnection());
+                    bus.postFromTransaction(tagDefinitionEvent, entitySqlDaoWrapperFactory);
                 } catch (final PersistentBus.EventBusException e) {
                     log.warn("Failed to post tag definition creation event for tagDefinitionId='{}'", tagDefinition.getId(), e);
                 }
@@ -252,7 +252,7 @@ public class DefaultTagDefinitionDao extends EntityDaoBase<TagDefinitionModelDao
         }
 
         try {
-            bus.postFromTransaction(tagDefinitionEvent, entitySqlDaoWrapperFactory.getHandle().getConnection());
+            bus.postFromTransaction(tagDefinitionEvent, entitySqlDaoWrapperFactory);
         } catch (final PersistentBus.EventBusException e) {
             log.warn("Failed to post tag definition event for tagDefinitionId='{}'", tagDefinition.getId().toString(), e);
         }
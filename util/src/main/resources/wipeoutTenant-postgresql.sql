@@ -29,6 +29,7 @@ BEGIN
     DELETE FROM catalog_override_tier_definition WHERE tenant_record_id = v_tenant_record_id;
     DELETE FROM catalog_override_usage_definition WHERE tenant_record_id = v_tenant_record_id;
     DELETE FROM catalog_override_usage_tier WHERE tenant_record_id = v_tenant_record_id;
+    DELETE FROM catalog_snapshots WHERE tenant_record_id = v_tenant_record_id;
 
     DELETE FROM tenant_kvs WHERE tenant_record_id = v_tenant_record_id;
 
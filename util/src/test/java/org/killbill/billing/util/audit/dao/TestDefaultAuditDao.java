@@ -17,6 +17,7 @@
 package org.killbill.billing.util.audit.dao;
 
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 import org.skife.jdbi.v2.Handle;
@@ -34,10 +35,14 @@ import org.killbill.billing.util.audit.AccountAuditLogsForObjectType;
 import org.killbill.billing.util.audit.AuditLog;
 import org.killbill.billing.util.audit.ChangeType;
 import org.killbill.billing.util.dao.TableName;
+import org.killbill.billing.util.entity.dao.EntitySqlDaoTransactionWrapper;
+import org.killbill.billing.util.entity.dao.EntitySqlDaoTransactionalJdbiWrapper;
+import org.killbill.billing.util.entity.dao.EntitySqlDaoWrapperFactory;
 import org.killbill.billing.util.tag.DescriptiveTag;
 import org.killbill.billing.util.tag.Tag;
 import org.killbill.billing.util.tag.dao.TagDefinitionModelDao;
 import org.killbill.billing.util.tag.dao.TagModelDao;
+import org.killbill.billing.util.tag.dao.TagSqlDao;
 
 public class TestDefaultAuditDao extends UtilTestSuiteWithEmbeddedDB {
 
@@ -91,6 +96,58 @@ public class TestDefaultAuditDao extends UtilTestSuiteWithEmbeddedDB {
         Assert.assertEquals(secondAuditLogs.get(1).getChangeType(), ChangeType.DELETE);
     }
 
+    @Test(groups = "slow")
+    public void testHistoryAndAuditsWrittenBeforeCommit() throws Exception {
+        final UUID objectId = UUID.randomUUID();
+        final TagModelDao firstTag = new TagModelDao(new DescriptiveTag(UUID.randomUUID(), ObjectType.ACCOUNT, objectId, clock.getUTCNow()));
+        final TagModelDao secondTag = new TagModelDao(new DescriptiveTag(UUID.randomUUID(), ObjectType.ACCOUNT, objectId, clock.getUTCNow()));
+
+        final EntitySqlDaoTransactionalJdbiWrapper transactionalSqlDao = new EntitySqlDaoTransactionalJdbiWrapper(dbi, roDbi, clock, cacheControllerDispatcher, nonEntityDao, internalCallContextFactory);
+        transactionalSqlDao.execute(false,
+                                    new EntitySqlDaoTransactionWrapper<Void>() {
+                                        @Override
+                                        public Void inTransaction(final EntitySqlDaoWrapperFactory entitySqlDaoWrapperFactory) throws Exception {
+                                            final TagSqlDao tagSqlDao = entitySqlDaoWrapperFactory.become(TagSqlDao.class);
+
+                                            final TagModelDao createdTag = (TagModelDao) tagSqlDao.create(firstTag, internalCallContext);
+                                            // Modifying the returned entity doesn't impact the (deferred) history entry
+                                            createdTag.setIsActive(false);
+                                            tagSqlDao.markTagAsDeleted(firstTag.getId().toString(), internalCallContext);
+                                            tagSqlDao.create(secondTag, internalCallContext);
+
+                                            // Rows are only inserted at the end of the transaction
+                                            Assert.assertEquals(countRows(entitySqlDaoWrapperFactory.getHandle(), "tag_history"), 0L);
+                                            Assert.assertEquals(countRows(entitySqlDaoWrapperFactory.getHandle(), "audit_log"), 0L);
+                                            return null;
+                                        }
+                                    });
+
+        final List<AuditLog> firstTagAuditLogs = auditDao.getAuditLogsForId(TableName.TAG, firstTag.getId(), AuditLevel.FULL, internalCallContext);
+        Assert.assertEquals(firstTagAuditLogs.size(), 2);
+        Assert.assertEquals(firstTagAuditLogs.get(0).getChangeType(), ChangeType.INSERT);
+        Assert.assertEquals(firstTagAuditLogs.get(1).getChangeType(), ChangeType.DELETE);
+        final List<AuditLog> secondTagAuditLogs = auditDao.getAuditLogsForId(TableName.TAG, secondTag.getId(), AuditLevel.FULL, internalCallContext);
+        Assert.assertEquals(secondTagAuditLogs.size(), 1);
+        Assert.assertEquals(secondTagAuditLogs.get(0).getChangeType(), ChangeType.INSERT);
+
+        final Handle handle = dbi.open();
+        try {
+            final List<Map<String, Object>> histories = handle.select("select change_type, is_active from tag_history where id is not null and tag_definition_id = ? order by record_id", firstTag.getTagDefinitionId().toString());
+            Assert.assertEquals(histories.size(), 2);
+            Assert.assertEquals(histories.get(0).get("change_type"), ChangeType.INSERT.toString());
+            Assert.assertEquals(histories.get(0).get("is_active"), Boolean.TRUE);
+            Assert.assertEquals(histories.get(1).get("change_type"), ChangeType.DELETE.toString());
+            Assert.assertEquals(countRows(handle, "tag_history"), 3L);
+            Assert.assertEquals(countRows(handle, "audit_log"), 3L);
+        } finally {
+            handle.close();
+        }
+    }
+
+    private static long countRows(final Handle handle, final String tableName) {
+        return ((Number) handle.select("select count(*) cnt from " + tableName).get(0).get("cnt")).longValue();
+    }
+
     private void addTag() throws TagDefinitionApiException, TagApiException {
         // Create a tag definition
         eventsListener.pushExpectedEvent(NextEvent.TAG_DEFINITION);
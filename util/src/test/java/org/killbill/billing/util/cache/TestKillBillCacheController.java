@@ -17,6 +17,9 @@
 
 package org.killbill.billing.util.cache;
 
+import java.util.List;
+import java.util.Map;
+
 import javax.cache.Cache;
 import javax.cache.CacheException;
 
@@ -63,5 +66,28 @@ public class TestKillBillCacheController extends UtilTestSuiteNoDB {
 
         // This will go back to the cache loader
         Assert.assertEquals(killBillCacheController.get("12", null), new Long(12));
+        Assert.assertEquals(killBillCacheController.getAll(List.of("12", "13"), null), Map.of("12", 12L, "13", 13L));
+    }
+
+    @Test(groups = "fast")
+    public void testGetAllCachesMisses() {
+        final Cache<String, String> cache = Mockito.mock(Cache.class);
+        Mockito.when(cache.getAll(Mockito.anySet())).thenReturn(Map.of());
+
+        final BaseCacheLoader<String, String> baseCacheLoader = new BaseCacheLoader<String, String>() {
+            @Override
+            public CacheType getCacheType() {
+                return CacheType.TENANT_KV;
+            }
+
+            @Override
+            public String compute(final String key, final CacheLoaderArgument cacheLoaderArgument) {
+                return "known".equals(key) ? "value" : null;
+            }
+        };
+
+        final KillBillCacheController<String, String> killBillCacheController = new KillBillCacheController<String, String>(cache, baseCacheLoader);
+        Assert.assertEquals(killBillCacheController.getAll(List.of("known", "unknown"), null), Map.of("known", "value"));
+        Mockito.verify(cache).putAll(Map.of("known", "value", "unknown", BaseCacheLoader.EMPTY_VALUE_PLACEHOLDER));
     }
 }
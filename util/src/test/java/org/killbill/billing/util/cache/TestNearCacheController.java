@@ -0,0 +1,85 @@
+/*
+ * Copyright 2020-2026 Equinix, Inc
+ * Copyright 2014-2026 The Billing Project, LLC
+ *
+ * The Billing Project licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.killbill.billing.util.cache;
+
+import org.killbill.billing.ObjectType;
+import org.killbill.billing.util.UtilTestSuiteNoDB;
+import org.killbill.billing.util.cache.Cachable.CacheType;
+import org.killbill.commons.metrics.api.MetricRegistry;
+import org.killbill.commons.metrics.impl.NoOpMetricRegistry;
+import org.mockito.Mockito;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class TestNearCacheController extends UtilTestSuiteNoDB {
+
+    private final MetricRegistry metricRegistry = new NoOpMetricRegistry();
+
+    @Test(groups = "fast")
+    public void testLocalTier() {
+        final CacheController<String, Long> remote = createRemoteCache();
+        final NearCacheController<String, Long> nearCache = new NearCacheController<String, Long>(remote, 2, 3600 * 1000L, metricRegistry);
+        final CacheLoaderArgument cacheLoaderArgument = new CacheLoaderArgument(ObjectType.TAG);
+
+        Mockito.when(remote.get("a", cacheLoaderArgument)).thenReturn(1L);
+        Assert.assertEquals(nearCache.get("a", cacheLoaderArgument), (Long) 1L);
+        Assert.assertEquals(nearCache.get("a", cacheLoaderArgument), (Long) 1L);
+        Mockito.verify(remote, Mockito.times(1)).get("a", cacheLoaderArgument);
+
+        // Already in the local tier: no round trip
+        nearCache.putIfAbsent("a", 1L);
+        Mockito.verify(remote, Mockito.never()).putIfAbsent("a", 1L);
+        nearCache.putIfAbsent("b", 2L);
+        Mockito.verify(remote, Mockito.times(1)).putIfAbsent("b", 2L);
+        Assert.assertEquals(nearCache.get("b", cacheLoaderArgument), (Long) 2L);
+        Mockito.verify(remote, Mockito.never()).get("b", cacheLoaderArgument);
+
+        // LRU eviction
+        nearCache.putIfAbsent("c", 3L);
+        Assert.assertEquals(nearCache.localSize(), 2);
+        Assert.assertEquals(nearCache.get("a", cacheLoaderArgument), (Long) 1L);
+        Mockito.verify(remote, Mockito.times(2)).get("a", cacheLoaderArgument);
+
+        // Removals (e.g. broadcast invalidation) are applied to both tiers
+        nearCache.putIfAbsent("b", 2L);
+        nearCache.remove("b");
+        Mockito.verify(remote, Mockito.times(1)).remove("b");
+        Assert.assertNull(nearCache.get("b", cacheLoaderArgument));
+        Mockito.verify(remote, Mockito.times(1)).get("b", cacheLoaderArgument);
+    }
+
+    @Test(groups = "fast")
+    public void testExpiration() {
+        final CacheController<String, Long> remote = createRemoteCache();
+        final NearCacheController<String, Long> nearCache = new NearCacheController<String, Long>(remote, 10, 0L, metricRegistry);
+        final CacheLoaderArgument cacheLoaderArgument = new CacheLoaderArgument(ObjectType.TAG);
+
+        Mockito.when(remote.get("a", cacheLoaderArgument)).thenReturn(1L);
+        Assert.assertEquals(nearCache.get("a", cacheLoaderArgument), (Long) 1L);
+        Assert.assertEquals(nearCache.get("a", cacheLoaderArgument), (Long) 1L);
+        Mockito.verify(remote, Mockito.times(2)).get("a", cacheLoaderArgument);
+        Assert.assertEquals(nearCache.localSize(), 0);
+    }
+
+    @SuppressWarnings("unchecked")
+    private CacheController<String, Long> createRemoteCache() {
+        final CacheController<String, Long> remote = Mockito.mock(CacheController.class);
+        Mockito.when(remote.getCacheType()).thenReturn(CacheType.RECORD_ID);
+        return remote;
+    }
+}
@@ -20,10 +20,14 @@ package org.killbill.billing.util.dao;
 
 import java.io.IOException;
 import java.util.Date;
+import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 import org.killbill.billing.ObjectType;
 import org.killbill.billing.util.UtilTestSuiteWithEmbeddedDB;
+import org.killbill.billing.util.cache.Cachable.CacheType;
+import org.killbill.billing.util.cache.CacheController;
 import org.skife.jdbi.v2.Handle;
 import org.skife.jdbi.v2.Update;
 import org.skife.jdbi.v2.tweak.HandleCallback;
@@ -102,6 +106,38 @@ public class TestNonEntityDao extends UtilTestSuiteWithEmbeddedDB {
         Assert.assertEquals(resultTenantRecordId, tenantRecordId);
     }
 
+    @Test(groups = "slow")
+    public void testBulkRetrievals() throws IOException {
+        accountRecordId = generateAccountRecordId(accountId);
+        final UUID accountId2 = UUID.randomUUID();
+        final Long accountRecordId2 = generateAccountRecordId(accountId2);
+        final List<UUID> accountIds = List.of(accountId, accountId2, UUID.randomUUID());
+
+        final CacheController<String, Long> recordIdCacheController = controlCacheDispatcher.getCacheController(CacheType.RECORD_ID);
+        final CacheController<String, Long> tenantRecordIdCacheController = controlCacheDispatcher.getCacheController(CacheType.TENANT_RECORD_ID);
+        final CacheController<String, UUID> objectIdCacheController = controlCacheDispatcher.getCacheController(CacheType.OBJECT_ID);
+        for (final CacheController<String, Long> cache : new CacheController[]{null, recordIdCacheController}) {
+            Assert.assertEquals(nonEntityDao.retrieveRecordIdsFromObjects(accountIds, ObjectType.ACCOUNT, cache),
+                                Map.of(accountId, accountRecordId, accountId2, accountRecordId2));
+        }
+        // Cached
+        Assert.assertEquals(recordIdCacheController.size(), 2);
+        Assert.assertEquals(nonEntityDao.retrieveRecordIdsFromObjects(accountIds, ObjectType.ACCOUNT, recordIdCacheController),
+                            Map.of(accountId, accountRecordId, accountId2, accountRecordId2));
+
+        for (final CacheController<String, Long> cache : new CacheController[]{null, tenantRecordIdCacheController}) {
+            Assert.assertEquals(nonEntityDao.retrieveTenantRecordIdsFromObjects(accountIds, ObjectType.ACCOUNT, cache),
+                                Map.of(accountId, tenantRecordId, accountId2, tenantRecordId));
+        }
+
+        final List<Long> recordIds = List.of(accountRecordId, accountRecordId2, accountRecordId2 + 1000);
+        for (final CacheController<String, UUID> cache : new CacheController[]{null, objectIdCacheController}) {
+            Assert.assertEquals(nonEntityDao.retrieveIdsFromObjects(recordIds, ObjectType.ACCOUNT, cache),
+                                Map.of(accountRecordId, accountId, accountRecordId2, accountId2));
+        }
+        Assert.assertEquals(objectIdCacheController.size(), 2);
+    }
+
     private void insertTagDefinition() throws IOException {
         dbi.withHandle(new HandleCallback<Long>() {
             @Override
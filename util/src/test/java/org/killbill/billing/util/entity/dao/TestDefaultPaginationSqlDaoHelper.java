@@ -19,6 +19,7 @@ package org.killbill.billing.util.entity.dao;
 
 import java.io.Closeable;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
 
@@ -28,7 +29,9 @@ import org.killbill.billing.util.dao.DefaultKombuchaModelDao;
 import org.killbill.billing.util.dao.Kombucha;
 import org.killbill.billing.util.dao.KombuchaModelDao;
 import org.killbill.billing.util.dao.KombuchaSqlDao;
+import org.killbill.billing.util.entity.DefaultPagination;
 import org.killbill.billing.util.entity.Pagination;
+import org.killbill.billing.util.entity.dao.DefaultPaginationSqlDaoHelper.KeysetPaginationIteratorBuilder;
 import org.killbill.billing.util.entity.dao.DefaultPaginationSqlDaoHelper.Ordering;
 import org.killbill.billing.util.entity.dao.DefaultPaginationSqlDaoHelper.PaginationIteratorBuilder;
 import org.testng.Assert;
@@ -145,6 +148,44 @@ public class TestDefaultPaginationSqlDaoHelper extends UtilTestSuiteWithEmbedded
         listAndValidateKombuchas(0L, 2L, 1L, 8L, null, 0L, 2L, false);
     }
 
+    @Test(groups = "slow")
+    public void testListKombuchasWithKeysetPagination() {
+        insertKombuchas(null);
+        insertKombuchas(2347L); //dummy accountRecordId
+
+        // 8 records, 3 per page: 2 cursors are returned
+        final List<Long> afterRecordIds = new ArrayList<Long>();
+        Long offset = DefaultPagination.toKeysetOffset(0);
+        while (offset != null) {
+            final Pagination<KombuchaModelDao> pagination = listKombuchas(offset, 3L, 100L);
+            // Count probes are skipped
+            Assert.assertNull(pagination.getTotalNbRecords());
+            Assert.assertNull(pagination.getMaxNbRecords());
+            Assert.assertEquals(pagination.getCurrentOffset(), offset);
+
+            offset = pagination.getNextOffset();
+            if (offset != null) {
+                Assert.assertTrue(DefaultPagination.isKeysetOffset(offset));
+                afterRecordIds.add(DefaultPagination.toAfterRecordId(offset));
+            }
+            closePagination(pagination);
+        }
+        Assert.assertEquals(afterRecordIds.size(), 2);
+        Assert.assertTrue(afterRecordIds.get(1) > afterRecordIds.get(0));
+
+        // The last page
+        final Pagination<KombuchaModelDao> lastPage = listKombuchas(DefaultPagination.toKeysetOffset(afterRecordIds.get(1)), 3L, 100L);
+        Assert.assertNull(lastPage.getNextOffset());
+        closePagination(lastPage);
+
+        // Not supported for searches
+        try {
+            searchKombuchas("ginger", DefaultPagination.toKeysetOffset(0), 3L, 100L);
+            Assert.fail("Keyset pagination isn't supported for searches");
+        } catch (final IllegalArgumentException ignored) {
+        }
+    }
+
     private void listAndValidateKombuchas(final Long offset,
     									  final Long limit,
     									  final Long simplePaginationThreshold, 
@@ -232,7 +273,7 @@ public class TestDefaultPaginationSqlDaoHelper extends UtilTestSuiteWithEmbedded
 
     //method that queries the tables without the accountRecordId
     private Pagination<KombuchaModelDao> listKombuchas(final Long offset, final Long limit, final Long simplePaginationThreshold) {
-        final PaginationIteratorBuilder<KombuchaModelDao, Kombucha, EntitySqlDao<KombuchaModelDao, Kombucha>> paginationIteratorBuilder = new PaginationIteratorBuilder<KombuchaModelDao, Kombucha, EntitySqlDao<KombuchaModelDao, Kombucha>>() {
+        final PaginationIteratorBuilder<KombuchaModelDao, Kombucha, EntitySqlDao<KombuchaModelDao, Kombucha>> paginationIteratorBuilder = new KeysetPaginationIteratorBuilder<KombuchaModelDao, Kombucha, EntitySqlDao<KombuchaModelDao, Kombucha>>() {
             @Override
             public Long getCount(final EntitySqlDao<KombuchaModelDao, Kombucha> sqlDao, final InternalTenantContext context) {
                 return sqlDao.getCount(context);
@@ -243,6 +284,11 @@ public class TestDefaultPaginationSqlDaoHelper extends UtilTestSuiteWithEmbedded
                 return sqlDao.get(offset, limit, "record_id", ordering.toString(), context);
             }
 
+            @Override
+            public Iterator<KombuchaModelDao> buildAfterRecordId(final EntitySqlDao<KombuchaModelDao, Kombucha> sqlDao, final Long afterRecordId, final Long limit, final InternalTenantContext context) {
+                return sqlDao.getAfterRecordId(afterRecordId, limit, context);
+            }
+
         };
 
         final DefaultPaginationSqlDaoHelper defaultPaginationSqlDaoHelper = new DefaultPaginationSqlDaoHelper(transactionalSqlDao, simplePaginationThreshold);
@@ -0,0 +1,77 @@
+/*
+ * Copyright 2020-2026 Equinix, Inc
+ * Copyright 2014-2026 The Billing Project, LLC
+ *
+ * The Billing Project licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.killbill.billing.util.export.dao;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.killbill.billing.util.UtilTestSuiteNoDB;
+import org.killbill.billing.util.validation.DefaultColumnInfo;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class TestColumnarExportOutputStream extends UtilTestSuiteNoDB {
+
+    @Test(groups = "fast")
+    public void testRoundTrip() throws Exception {
+        final ByteArrayOutputStream delegate = new ByteArrayOutputStream();
+        final ColumnarExportOutputStream out = new ColumnarExportOutputStream(delegate);
+
+        out.newTable("Table_A",
+                     List.of(new DefaultColumnInfo("Table_A", "first_name", 0L, 0L, true, 0L, "varchar"),
+                             new DefaultColumnInfo("Table_A", "age", 0L, 0L, true, 0L, "tinyint")));
+        // More than one block
+        final int nbRows = ColumnarExportOutputStream.BLOCK_SIZE + 10;
+        for (int i = 0; i < nbRows; i++) {
+            final Map<String, Object> row = new HashMap<>();
+            // Ignore casing
+            row.put("FIRST_NAME", i % 3 == 0 ? null : "name-" + i);
+            row.put("age", i);
+            out.write(row);
+        }
+
+        out.newTable("table_b",
+                     List.of(new DefaultColumnInfo("table_b", "blob_column", 0L, 0L, true, 0L, "blob"),
+                             new DefaultColumnInfo("table_b", "is_active", 0L, 0L, true, 0L, "boolean")));
+        out.write(Map.of("blob_column", new byte[]{'c', 'a', 'f', 'e'},
+                         "is_active", true));
+
+        out.newTable("table_c", List.of(new DefaultColumnInfo("table_c", "c_column", 0L, 0L, true, 0L, "varchar")));
+        out.flush();
+
+        final Map<String, List<Map<String, Object>>> tables = ColumnarExportReader.read(new ByteArrayInputStream(delegate.toByteArray()));
+        Assert.assertEquals(List.copyOf(tables.keySet()), List.of("table_a", "table_b", "table_c"));
+
+        final List<Map<String, Object>> rowsA = tables.get("table_a");
+        Assert.assertEquals(rowsA.size(), nbRows);
+        for (int i = 0; i < nbRows; i++) {
+            Assert.assertEquals(rowsA.get(i).get("first_name"), i % 3 == 0 ? null : "name-" + i);
+            Assert.assertEquals(rowsA.get(i).get("age"), i);
+        }
+
+        final List<Map<String, Object>> rowsB = tables.get("table_b");
+        Assert.assertEquals(rowsB.size(), 1);
+        Assert.assertEquals((byte[]) rowsB.get(0).get("blob_column"), new byte[]{'c', 'a', 'f', 'e'});
+        Assert.assertEquals(rowsB.get(0).get("is_active"), true);
+
+        Assert.assertTrue(tables.get("table_c").isEmpty());
+    }
+}
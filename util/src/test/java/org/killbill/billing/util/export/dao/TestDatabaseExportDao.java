@@ -18,7 +18,11 @@
 
 package org.killbill.billing.util.export.dao;
 
+import java.io.ByteArrayOutputStream;
 import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 import org.skife.jdbi.v2.Handle;
@@ -90,4 +94,51 @@ public class TestDatabaseExportDao extends TestDatabaseExportDaoBase {
 
     }
 
+    @Test(groups = "slow")
+    public void testExportMultipleAccounts() throws Exception {
+        final Long accountRecordId1 = internalCallContext.getAccountRecordId();
+        final Long accountRecordId2 = accountRecordId1 + 1;
+        final Long otherAccountRecordId = accountRecordId1 + 2;
+        dbi.withHandle(new HandleCallback<Void>() {
+            @Override
+            public Void withHandle(final Handle handle) throws Exception {
+                handle.execute("drop table if exists " + tableNameA);
+                handle.execute("create table " + tableNameA + "(record_id serial unique," +
+                               "a_column char default 'a'," +
+                               "account_record_id bigint /*! unsigned */ not null," +
+                               "tenant_record_id bigint /*! unsigned */ not null default 0," +
+                               "primary key(record_id));");
+                handle.execute("drop table if exists " + tableNameB);
+                handle.execute("create table " + tableNameB + "(record_id serial unique," +
+                               "b_column char default 'b'," +
+                               "account_record_id bigint /*! unsigned */ not null," +
+                               "tenant_record_id bigint /*! unsigned */ not null default 0," +
+                               "primary key(record_id));");
+                for (final Long accountRecordId : List.of(accountRecordId1, accountRecordId2, otherAccountRecordId)) {
+                    handle.execute("insert into " + tableNameA + " (account_record_id, tenant_record_id) values (?, ?)",
+                                   accountRecordId, internalCallContext.getTenantRecordId());
+                }
+                handle.execute("insert into " + tableNameB + " (account_record_id, tenant_record_id) values (?, ?)",
+                               accountRecordId2, internalCallContext.getTenantRecordId());
+                // Other tenant
+                handle.execute("insert into " + tableNameB + " (account_record_id, tenant_record_id) values (?, ?)",
+                               accountRecordId1, internalCallContext.getTenantRecordId() + 1);
+                return null;
+            }
+        });
+
+        final Map<Long, UUID> accountIdsByRecordId = new LinkedHashMap<>();
+        accountIdsByRecordId.put(accountRecordId1, UUID.randomUUID());
+        accountIdsByRecordId.put(accountRecordId2, UUID.randomUUID());
+        final ByteArrayOutputStream delegate = new ByteArrayOutputStream();
+        final CSVExportOutputStream out = new CSVExportOutputStream(delegate);
+        dao.exportDataForAccounts(out, accountIdsByRecordId, UUID.randomUUID(), internalCallContext);
+
+        // Tables are written in order, even though they are read concurrently
+        Assert.assertEquals(out.toString(), "-- " + tableNameA + " record_id|a_column|account_record_id|tenant_record_id\n" +
+                                            "1|a|" + accountRecordId1 + "|" + internalCallContext.getTenantRecordId() + "\n" +
+                                            "2|a|" + accountRecordId2 + "|" + internalCallContext.getTenantRecordId() + "\n" +
+                                            "-- " + tableNameB + " record_id|b_column|account_record_id|tenant_record_id\n" +
+                                            "1|b|" + accountRecordId2 + "|" + internalCallContext.getTenantRecordId() + "\n");
+    }
 }
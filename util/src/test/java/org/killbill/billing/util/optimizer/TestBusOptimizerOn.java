@@ -0,0 +1,162 @@
+/*
+ * Copyright 2020-2026 Equinix, Inc
+ * Copyright 2014-2026 The Billing Project, LLC
+ *
+ * The Billing Project licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.killbill.billing.util.optimizer;
+
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import org.killbill.billing.callcontext.InternalTenantContext;
+import org.killbill.billing.events.BusEventBase;
+import org.killbill.billing.events.BusInternalEvent;
+import org.killbill.billing.events.BusInternalEvent.BusInternalEventType;
+import org.killbill.billing.events.InvoiceAdjustmentInternalEvent;
+import org.killbill.billing.util.UtilTestSuiteNoDB;
+import org.killbill.billing.util.config.definition.EventConfig;
+import org.killbill.billing.util.config.tenant.CacheConfig;
+import org.killbill.billing.util.entity.dao.EntitySqlDaoWrapperFactory;
+import org.killbill.bus.api.BusEvent;
+import org.killbill.bus.api.PersistentBus;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import org.skife.jdbi.v2.Handle;
+import org.testng.Assert;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+public class TestBusOptimizerOn extends UtilTestSuiteNoDB {
+
+    private static final Long TENANT_RECORD_ID = 12L;
+
+    private PersistentBus delegate;
+    private EventConfig eventConfig;
+    private CacheConfig cacheConfig;
+    private Connection connection;
+    private List<Runnable> preCommitCallbacks;
+    private EntitySqlDaoWrapperFactory entitySqlDaoWrapperFactory;
+
+    @BeforeMethod(groups = "fast")
+    public void beforeMethod() throws Exception {
+        if (hasFailed()) {
+            return;
+        }
+
+        delegate = Mockito.mock(PersistentBus.class);
+        eventConfig = Mockito.mock(EventConfig.class);
+        Mockito.when(eventConfig.getSkipPostBusEventTypeList()).thenReturn(List.of());
+        Mockito.when(eventConfig.getCoalescePostBusEventTypeList()).thenReturn(List.of());
+        cacheConfig = Mockito.mock(CacheConfig.class);
+
+        connection = Mockito.mock(Connection.class);
+        final Handle handle = Mockito.mock(Handle.class);
+        Mockito.when(handle.getConnection()).thenReturn(connection);
+        preCommitCallbacks = new ArrayList<>();
+        entitySqlDaoWrapperFactory = Mockito.mock(EntitySqlDaoWrapperFactory.class);
+        Mockito.when(entitySqlDaoWrapperFactory.getHandle()).thenReturn(handle);
+        Mockito.when(entitySqlDaoWrapperFactory.getOrRegisterPreCommitCallback(Mockito.any(), Mockito.any()))
+               .thenAnswer(invocation -> {
+                   if (preCommitCallbacks.isEmpty()) {
+                       preCommitCallbacks.add(invocation.<Supplier<Runnable>>getArgument(1).get());
+                   }
+                   return preCommitCallbacks.get(0);
+               });
+    }
+
+    @Test(groups = "fast")
+    public void testPerTenantSkipList() throws Exception {
+        final BusOptimizerOn busOptimizer = new BusOptimizerOn(delegate, eventConfig, cacheConfig);
+        @SuppressWarnings("unchecked")
+        final ArgumentCaptor<Consumer<InternalTenantContext>> invalidationListener = ArgumentCaptor.forClass(Consumer.class);
+        Mockito.verify(cacheConfig).addInvalidationListener(invalidationListener.capture());
+        Mockito.when(eventConfig.getSkipPostBusEventTypeList(Mockito.any())).thenReturn(List.of(BusInternalEventType.INVOICE_ADJUSTMENT));
+
+        // Per-tenant config not loaded yet: no DB access from the transaction, the static config is used
+        final BusInternalEvent event = new TestInvoiceAdjustmentEvent(UUID.randomUUID());
+        busOptimizer.postFromTransaction(event, connection);
+        Mockito.verify(delegate).postFromTransaction(event, connection);
+        Mockito.verify(eventConfig, Mockito.never()).getSkipPostBusEventTypeList(Mockito.any());
+
+        // Per-tenant config loaded outside of the transaction
+        busOptimizer.post(event);
+        Mockito.verify(delegate, Mockito.never()).post(event);
+        busOptimizer.postFromTransaction(event, connection);
+        Mockito.verify(delegate, Mockito.times(1)).postFromTransaction(event, connection);
+        Mockito.verify(eventConfig, Mockito.times(1)).getSkipPostBusEventTypeList(Mockito.any());
+
+        // Per-tenant config updated
+        Mockito.when(eventConfig.getSkipPostBusEventTypeList(Mockito.any())).thenReturn(List.of());
+        invalidationListener.getValue().accept(new InternalTenantContext(TENANT_RECORD_ID));
+        busOptimizer.postFromTransaction(event, connection);
+        Mockito.verify(delegate, Mockito.times(2)).postFromTransaction(event, connection);
+    }
+
+    @Test(groups = "fast")
+    public void testCoalescing() throws Exception {
+        Mockito.when(eventConfig.getCoalescePostBusEventTypeList()).thenReturn(List.of(BusInternalEventType.INVOICE_ADJUSTMENT));
+        final BusOptimizerOn busOptimizer = new BusOptimizerOn(delegate, eventConfig, cacheConfig);
+
+        final UUID invoiceId1 = UUID.randomUUID();
+        final UUID invoiceId2 = UUID.randomUUID();
+        final BusInternalEvent event1 = new TestInvoiceAdjustmentEvent(invoiceId1);
+        final BusInternalEvent event2 = new TestInvoiceAdjustmentEvent(invoiceId2);
+        busOptimizer.postFromTransaction(event1, entitySqlDaoWrapperFactory);
+        busOptimizer.postFromTransaction(event2, entitySqlDaoWrapperFactory);
+        busOptimizer.postFromTransaction(new TestInvoiceAdjustmentEvent(invoiceId1), entitySqlDaoWrapperFactory);
+        busOptimizer.postFromTransaction(new TestInvoiceAdjustmentEvent(invoiceId2), entitySqlDaoWrapperFactory);
+
+        // Nothing is posted until the transaction is about to commit
+        Mockito.verify(delegate, Mockito.never()).postFromTransaction(Mockito.any(), Mockito.any());
+        Assert.assertEquals(preCommitCallbacks.size(), 1);
+        preCommitCallbacks.get(0).run();
+
+        final ArgumentCaptor<BusEvent> postedEvents = ArgumentCaptor.forClass(BusEvent.class);
+        Mockito.verify(delegate, Mockito.times(2)).postFromTransaction(postedEvents.capture(), Mockito.eq(connection));
+        Assert.assertSame(postedEvents.getAllValues().get(0), event1);
+        Assert.assertSame(postedEvents.getAllValues().get(1), event2);
+    }
+
+    private static final class TestInvoiceAdjustmentEvent extends BusEventBase implements InvoiceAdjustmentInternalEvent {
+
+        private static final UUID ACCOUNT_ID = UUID.randomUUID();
+
+        private final UUID invoiceId;
+
+        private TestInvoiceAdjustmentEvent(final UUID invoiceId) {
+            super(1L, TENANT_RECORD_ID, null);
+            this.invoiceId = invoiceId;
+        }
+
+        @Override
+        public UUID getInvoiceId() {
+            return invoiceId;
+        }
+
+        @Override
+        public UUID getAccountId() {
+            return ACCOUNT_ID;
+        }
+
+        @Override
+        public BusInternalEventType getBusEventType() {
+            return BusInternalEventType.INVOICE_ADJUSTMENT;
+        }
+    }
+}
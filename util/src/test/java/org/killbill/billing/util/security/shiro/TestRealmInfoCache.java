@@ -0,0 +1,117 @@
+/*
+ * Copyright 2020-2026 Equinix, Inc
+ * Copyright 2014-2026 The Billing Project, LLC
+ *
+ * The Billing Project licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.killbill.billing.util.security.shiro;
+
+import org.killbill.billing.util.UtilTestSuiteNoDB;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class TestRealmInfoCache extends UtilTestSuiteNoDB {
+
+    @Test(groups = "fast")
+    public void testDigest() {
+        final RealmInfoCache<String> cache = new RealmInfoCache<String>(10, 60000L);
+
+        final String digest = cache.digest("pierre", "password");
+        Assert.assertEquals(cache.digest("pierre", "password".toCharArray()), digest);
+        Assert.assertNotEquals(cache.digest("pierre", "password2"), digest);
+        Assert.assertNotEquals(cache.digest("pierr", "epassword"), digest);
+        // Digests are salted per cache
+        Assert.assertNotEquals(new RealmInfoCache<String>(10, 60000L).digest("pierre", "password"), digest);
+
+        Assert.assertNull(cache.digest(null, "password"));
+        Assert.assertNull(cache.digest("pierre", null));
+        Assert.assertNull(cache.digest("pierre", new Object()));
+    }
+
+    @Test(groups = "fast")
+    public void testInvalidation() {
+        final RealmInfoCache<String> cache = new RealmInfoCache<String>(10, 60000L);
+        Assert.assertTrue(cache.isEnabled());
+
+        cache.put(cache.digest("pierre", "password"), "pierre", "pierre-info");
+        cache.put(cache.digest("pierre", "password2"), "pierre", "pierre-info2");
+        cache.put(cache.digest("stephane", "password"), "stephane", "stephane-info");
+        Assert.assertEquals(cache.size(), 3);
+        Assert.assertEquals(cache.get(cache.digest("pierre", "password")), "pierre-info");
+
+        cache.invalidate("pierre");
+        Assert.assertEquals(cache.size(), 1);
+        Assert.assertNull(cache.get(cache.digest("pierre", "password")));
+        Assert.assertNull(cache.get(cache.digest("pierre", "password2")));
+        Assert.assertEquals(cache.get(cache.digest("stephane", "password")), "stephane-info");
+
+        cache.invalidateAll();
+        Assert.assertEquals(cache.size(), 0);
+    }
+
+    @Test(groups = "fast")
+    public void testInvalidationDuringLookup() {
+        final RealmInfoCache<String> cache = new RealmInfoCache<String>(2, 60000L);
+
+        // Lookup started before the invalidation
+        final long generation = cache.getGeneration("pierre");
+        final long otherGeneration = cache.getGeneration("stephane");
+        cache.invalidate("pierre");
+        cache.put(cache.digest("pierre", "password"), "pierre", "pierre-info", generation);
+        Assert.assertNull(cache.get(cache.digest("pierre", "password")));
+        cache.put(cache.digest("stephane", "password"), "stephane", "stephane-info", otherGeneration);
+        Assert.assertEquals(cache.get(cache.digest("stephane", "password")), "stephane-info");
+
+        // Lookup started after the invalidation
+        cache.put(cache.digest("pierre", "password2"), "pierre", "pierre-info2", cache.getGeneration("pierre"));
+        Assert.assertEquals(cache.get(cache.digest("pierre", "password2")), "pierre-info2");
+
+        // Evicted generations are still taken into account
+        final long evictedGeneration = cache.getGeneration("pierre");
+        cache.invalidate("pierre");
+        cache.invalidate("a");
+        cache.invalidate("b");
+        cache.put(cache.digest("pierre", "password3"), "pierre", "pierre-info3", evictedGeneration);
+        Assert.assertNull(cache.get(cache.digest("pierre", "password3")));
+
+        final long allGeneration = cache.getGeneration("stephane");
+        cache.invalidateAll();
+        cache.put(cache.digest("stephane", "password"), "stephane", "stephane-info", allGeneration);
+        Assert.assertEquals(cache.size(), 0);
+    }
+
+    @Test(groups = "fast")
+    public void testEvictionAndExpiration() throws InterruptedException {
+        final RealmInfoCache<String> cache = new RealmInfoCache<String>(2, 60000L);
+        cache.put("a", "a", "a-info");
+        cache.put("b", "b", "b-info");
+        // Access a, so b is the eldest
+        Assert.assertEquals(cache.get("a"), "a-info");
+        cache.put("c", "c", "c-info");
+        Assert.assertEquals(cache.size(), 2);
+        Assert.assertNull(cache.get("b"));
+        Assert.assertEquals(cache.get("a"), "a-info");
+        Assert.assertEquals(cache.get("c"), "c-info");
+
+        final RealmInfoCache<String> expiringCache = new RealmInfoCache<String>(2, 1L);
+        expiringCache.put("a", "a", "a-info");
+        Thread.sleep(10);
+        Assert.assertNull(expiringCache.get("a"));
+
+        final RealmInfoCache<String> disabledCache = new RealmInfoCache<String>(2, 0L);
+        Assert.assertFalse(disabledCache.isEnabled());
+        disabledCache.put("a", "a", "a-info");
+        Assert.assertNull(disabledCache.get("a"));
+    }
+}
@@ -25,11 +25,13 @@ import java.util.Set;
 
 import org.apache.shiro.SecurityUtils;
 import org.apache.shiro.authc.AuthenticationException;
+import org.apache.shiro.authc.AuthenticationInfo;
 import org.apache.shiro.authc.AuthenticationToken;
 import org.apache.shiro.authc.UsernamePasswordToken;
 import org.apache.shiro.authz.AuthorizationException;
 import org.apache.shiro.mgt.DefaultSecurityManager;
 import org.apache.shiro.mgt.SecurityManager;
+import org.apache.shiro.realm.Realm;
 import org.apache.shiro.subject.Subject;
 import org.apache.shiro.subject.support.DelegatingSubject;
 import org.apache.shiro.util.ThreadContext;
@@ -37,6 +39,8 @@ import org.killbill.billing.ErrorCode;
 import org.killbill.billing.security.Permission;
 import org.killbill.billing.security.SecurityApiException;
 import org.killbill.billing.util.UtilTestSuiteWithEmbeddedDB;
+import org.killbill.billing.util.broadcast.dao.BroadcastModelDao;
+import org.killbill.billing.util.security.api.SecurityCacheInvalidationListener;
 import org.testng.Assert;
 import org.testng.annotations.AfterMethod;
 import org.testng.annotations.BeforeMethod;
@@ -58,6 +62,13 @@ public class TestKillBillJdbcRealm extends UtilTestSuiteWithEmbeddedDB {
 
         super.beforeMethod();
 
+        // Users are re-created with the same names across tests: tables are cleaned-up, but not the realms caches
+        for (final Realm realm : realms) {
+            if (realm instanceof KillBillJdbcRealm) {
+                ((KillBillJdbcRealm) realm).clearAllCachedInfo();
+            }
+        }
+
         securityManager = new DefaultSecurityManager(realms);
         SecurityUtils.setSecurityManager(securityManager);
         emptySubject = new DelegatingSubject(securityManager);
@@ -347,6 +358,66 @@ public class TestKillBillJdbcRealm extends UtilTestSuiteWithEmbeddedDB {
         Assert.assertEquals(securityApi.getRoleDefinition("original", callContext).size(), 0);
     }
 
+    @Test(groups = "slow")
+    public void testCachedAuthorizationAfterRoleDefinitionUpdate() throws SecurityApiException {
+        final String username = "brisbane";
+        final String password = "brisbane42";
+        final String role = "updated";
+
+        securityApi.addRoleDefinition(role, List.of("account:*", "invoice:credit"), callContext);
+        securityApi.addUserRoles(username, password, List.of(role), callContext);
+
+        final AuthenticationToken goodToken = new UsernamePasswordToken(username, password);
+        final Subject subject = securityManager.login(emptySubject, goodToken);
+        subject.checkPermission(Permission.INVOICE_CAN_CREDIT.toString());
+
+        // Authentication and authorization are now served from the realm caches
+        final Subject cachedSubject = securityManager.login(emptySubject, goodToken);
+        cachedSubject.checkPermission(Permission.INVOICE_CAN_CREDIT.toString());
+
+        securityApi.updateRoleDefinition(role, List.of("account:*"), callContext);
+
+        // Other nodes are notified through the broadcast table
+        final BroadcastModelDao broadcastEntry = broadcastDao.getLatestEntry();
+        Assert.assertEquals(broadcastEntry.getType(), SecurityCacheInvalidationListener.ROLE_CACHE_INVALIDATION);
+        Assert.assertEquals(broadcastEntry.getEvent(), role);
+
+        try {
+            cachedSubject.checkPermission(Permission.INVOICE_CAN_CREDIT.toString());
+            Assert.fail("Subject should not have rights to credit invoices anymore");
+        } catch (final AuthorizationException e) {
+        }
+        cachedSubject.checkPermission(Permission.ACCOUNT_CAN_CHARGE.toString());
+    }
+
+    @Test(groups = "slow")
+    public void testPasswordUpdateDuringLogin() throws SecurityApiException {
+        final String username = "lyon";
+        final String password = "lyon69";
+
+        securityApi.addRoleDefinition("root", List.of("*"), callContext);
+        securityApi.addUserRoles(username, password, List.of("root"), callContext);
+
+        final KillBillJdbcRealm killBillJdbcRealm = (KillBillJdbcRealm) realms.stream()
+                                                                             .filter(realm -> realm instanceof KillBillJdbcRealm)
+                                                                             .findFirst()
+                                                                             .orElseThrow();
+        final AuthenticationToken oldToken = new UsernamePasswordToken(username, password);
+
+        // In-flight login: the users query runs before the password update...
+        final AuthenticationInfo oldInfo = killBillJdbcRealm.doGetAuthenticationInfo(oldToken);
+        securityApi.updateUserPassword(username, "lyon69003", callContext);
+        // ...and the credentials are verified after it
+        killBillJdbcRealm.assertCredentialsMatch(oldToken, oldInfo);
+
+        // The outcome of the in-flight login wasn't cached
+        try {
+            securityManager.login(emptySubject, oldToken);
+            Assert.fail("Should not succeed to login with an incorrect password");
+        } catch (final AuthenticationException e) {
+        }
+    }
+
     @Test(groups = "slow")
     public void testGetAvailableRoles() throws SecurityApiException {
         securityApi.addRoleDefinition("admin", List.of("tenant:add", "tenant:update"), callContext);